@@ -0,0 +1,459 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.aggregate.SlotCounter;
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.title.TextTitle;
+import org.jfree.chart.util.ExportUtils;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Active threads over time, per thread group, plotted on a secondary axis next to the hits per second.  A second
+ * chart plots hits per second as a function of the active threads, giving the throughput-vs-concurrency scaling
+ * curve of the run.
+ *
+ * Active thread counts come from the "ng" (group) and "na" (all groups) attributes of the samples.  When the samples
+ * are sampled, the hits are scaled up, while the thread counts are of the samples read: averages are unaffected, but
+ * the maximum of a slot may be missed, which the chart notes.
+ *
+ * Created by art on 10/19/26.
+ */
+public class ActiveThreadsReport implements FeedableReport, SampleFieldConsumer, CheckpointableReport {
+
+    public static final String PROPERTY_SCALING_OUTPUT_FILENAME = "scalingOutputFilename";
+
+    private String outputFile = "activeThreads.png";
+    private String scalingOutputFile;
+    private String detailOutputFile;
+
+    private int reportWidth = 1000;
+    private int reportHeight = 750;
+
+    private SlotCounter hits;
+    private ThreadCounters allThreads;
+    private Map<String, ThreadCounters> threadsByGroup;
+
+    private double secPerSample;
+    private String yAxisLabel = "Second";
+
+    private long timeSlotSize = 1000; // In milliseconds
+
+    private long startTimestampSlot = -1;
+    private long endTimestampSlot = -1;
+
+    private SampleScale sampleScale;
+    private long samplesRead;
+    private long points;
+
+    private PrintStream detailFileWriter;
+
+    private String feedUri;
+
+    public static void main(String[] args) {
+        ActiveThreadsReport mainObj = new ActiveThreadsReport();
+
+        try {
+            ReportLauncher launcher = new ReportLauncher();
+            launcher.launchReport(mainObj, args);
+        } catch (Exception exc) {
+            exc.printStackTrace();
+        }
+    }
+
+    @Override
+    public void onFeedStart(String uri, Properties reportProperties) throws Exception {
+        this.feedUri = uri;
+
+        this.extractReportProperties(reportProperties);
+
+        this.hits = new SlotCounter();
+        this.allThreads = new ThreadCounters();
+        this.threadsByGroup = new TreeMap<>();
+
+        if (this.detailOutputFile != null) {
+            this.detailFileWriter = new PrintStream(this.detailOutputFile);
+        }
+    }
+
+    @Override
+    public void onFeedComplete() throws Exception {
+        this.calculateTimeAdjustments();
+
+        XYSeriesCollection hitsDataset = new XYSeriesCollection();
+        XYSeriesCollection threadsDataset = new XYSeriesCollection();
+        XYSeriesCollection scalingDataset = new XYSeriesCollection();
+
+        this.populateSeries(hitsDataset, threadsDataset, scalingDataset);
+
+        JFreeChart timelineChart = this.createTimelineChart(hitsDataset, threadsDataset);
+        this.sampleScale.annotate(timelineChart, this.samplesRead, this.points);
+        if (this.sampleScale.isSampled()) {
+            timelineChart.addSubtitle(
+                    new TextTitle("Active threads are of the samples read; maxima may be understated"));
+        }
+        ExportUtils.writeAsPNG(timelineChart, this.reportWidth, this.reportHeight, new File(this.outputFile));
+
+        JFreeChart scalingChart = this.createScalingChart(scalingDataset);
+        this.sampleScale.annotate(scalingChart, this.samplesRead, this.points);
+        ExportUtils.writeAsPNG(scalingChart, this.reportWidth, this.reportHeight, new File(this.scalingOutputFile));
+
+        if (this.detailFileWriter != null) {
+            this.detailFileWriter.close();
+        }
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.THREAD_COUNTS, SampleField.THREAD_NAME);
+    }
+
+    @Override
+    public void onSample(Sample topLevelSample) throws Exception {
+        for (Sample oneLeaf : topLevelSample.getLeaves()) {
+            this.addConcreteSample(oneLeaf);
+        }
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.timeSlotSize);
+        out.writeLong(this.startTimestampSlot);
+        out.writeLong(this.endTimestampSlot);
+
+        this.hits.writeTo(out);
+        this.allThreads.writeTo(out);
+
+        out.writeInt(this.threadsByGroup.size());
+        for (Map.Entry<String, ThreadCounters> entry : this.threadsByGroup.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        if (in.readLong() != this.timeSlotSize) {
+            throw new IOException("checkpoint was taken with a different slot size");
+        }
+
+        this.startTimestampSlot = in.readLong();
+        this.endTimestampSlot = in.readLong();
+
+        this.hits.readFrom(in);
+        this.allThreads.readFrom(in);
+
+        int groupCount = in.readInt();
+        while (groupCount > 0) {
+            ThreadCounters groupCounters = new ThreadCounters();
+            this.threadsByGroup.put(in.readUTF(), groupCounters);
+
+            groupCounters.readFrom(in);
+            groupCount--;
+        }
+    }
+
+    protected void extractReportProperties (Properties prop) {
+        this.detailOutputFile = prop.getProperty(ReportLauncher.PROPERTY_DETAIL_FILE_NAME);
+
+        String out = prop.getProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME);
+        if ( out != null ) {
+            this.outputFile = out;
+        }
+
+        String scalingOut = prop.getProperty(PROPERTY_SCALING_OUTPUT_FILENAME);
+        if ( scalingOut != null ) {
+            this.scalingOutputFile = scalingOut;
+        } else {
+            this.scalingOutputFile = this.deriveScalingOutputFile(this.outputFile);
+        }
+
+        Integer size;
+        size = (Integer) prop.get(ReportLauncher.PROPERTY_CHART_HEIGHT);
+        if (size != null) {
+            this.reportHeight = size;
+        }
+        size = (Integer) prop.get(ReportLauncher.PROPERTY_CHART_WIDTH);
+        if (size != null) {
+            this.reportWidth = size;
+        }
+
+        Long slotSize = (Long) prop.get(ReportLauncher.PROPERTY_TIME_SLOT_SIZE);
+        if ( slotSize != null ) {
+            this.timeSlotSize = slotSize;
+        }
+
+        this.sampleScale = SampleScale.fromProperties(prop);
+    }
+
+    /**
+     * Derive the name of the scaling-curve chart from the main output file by inserting "-scaling" before the
+     * extension; for example, "activeThreads.png" becomes "activeThreads-scaling.png".
+     *
+     * @param mainOutputFile name of the main output file.
+     * @return name of the scaling-curve output file.
+     */
+    protected String deriveScalingOutputFile(String mainOutputFile) {
+        int dot = mainOutputFile.lastIndexOf('.');
+        int separator = mainOutputFile.lastIndexOf(File.separatorChar);
+
+        if (dot > separator + 1) {
+            return mainOutputFile.substring(0, dot) + "-scaling" + mainOutputFile.substring(dot);
+        }
+
+        return mainOutputFile + "-scaling";
+    }
+
+    protected void calculateTimeAdjustments() {
+        this.secPerSample = (double) this.timeSlotSize / 1000.0;
+
+        if (Math.abs(this.secPerSample - 1.0) < 0.1) {
+            this.yAxisLabel = "Second";
+        } else {
+            this.yAxisLabel = String.format("%01.1f Second", secPerSample);
+        }
+    }
+
+    protected void populateSeries(XYSeriesCollection hitsDataset, XYSeriesCollection threadsDataset,
+                                  XYSeriesCollection scalingDataset) {
+
+        XYSeries hitsSeries = new XYSeries("Hits per Second");
+        XYSeries allMaxSeries = new XYSeries("All Threads (max)");
+        XYSeries allAvgSeries = new XYSeries("All Threads (avg)");
+        XYSeries scalingSeries = new XYSeries("Hits per Second by Active Threads");
+
+        this.samplesRead = 0;
+        this.points = 0;
+
+        // Walk the slots with hits or thread samples, skipping any gaps between them
+        long slot = Math.min(this.hits.nextSlot(Long.MIN_VALUE), this.allThreads.samples.nextSlot(Long.MIN_VALUE));
+        while (slot != Long.MAX_VALUE) {
+            long hitCount = this.hits.get(slot);
+            long xPoint = this.calculateXAxisOffset(slot);
+            double hitsPerSecond = this.sampleScale.scale(hitCount) / this.secPerSample;
+
+            if (hitCount != 0) {
+                hitsSeries.add(xPoint, hitsPerSecond);
+
+                this.samplesRead += hitCount;
+                this.points++;
+            }
+
+            if (this.allThreads.samples.get(slot) != 0) {
+                double avgThreads = this.allThreads.average(slot);
+
+                allMaxSeries.add(xPoint, this.allThreads.max.get(slot));
+                allAvgSeries.add(xPoint, avgThreads);
+                scalingSeries.add(avgThreads, hitsPerSecond);
+
+                if (this.detailFileWriter != null) {
+                    this.detailFileWriter.println(
+                            String.format("%s|*|%d|%d|%d|%f|%d|%f", this.feedUri, slot, hitCount, xPoint,
+                                    hitsPerSecond, this.allThreads.max.get(slot), avgThreads));
+                }
+            }
+
+            slot = Math.min(this.hits.nextSlot(slot + 1), this.allThreads.samples.nextSlot(slot + 1));
+        }
+
+        hitsDataset.addSeries(hitsSeries);
+        threadsDataset.addSeries(allMaxSeries);
+        threadsDataset.addSeries(allAvgSeries);
+        scalingDataset.addSeries(scalingSeries);
+
+        for (Map.Entry<String, ThreadCounters> entry : this.threadsByGroup.entrySet()) {
+            String group = entry.getKey();
+            ThreadCounters counters = entry.getValue();
+
+            XYSeries groupMaxSeries = new XYSeries(group + " (max)");
+            XYSeries groupAvgSeries = new XYSeries(group + " (avg)");
+
+            slot = counters.samples.nextSlot(Long.MIN_VALUE);
+            while (slot != Long.MAX_VALUE) {
+                long xPoint = this.calculateXAxisOffset(slot);
+
+                groupMaxSeries.add(xPoint, counters.max.get(slot));
+                groupAvgSeries.add(xPoint, counters.average(slot));
+
+                if (this.detailFileWriter != null) {
+                    this.detailFileWriter.println(
+                            String.format("%s|%s|%d|||||%d|%f", this.feedUri, group, slot,
+                                    counters.max.get(slot), counters.average(slot)));
+                }
+
+                slot = counters.samples.nextSlot(slot + 1);
+            }
+
+            threadsDataset.addSeries(groupMaxSeries);
+            threadsDataset.addSeries(groupAvgSeries);
+        }
+    }
+
+    protected JFreeChart createTimelineChart(XYSeriesCollection hitsDataset, XYSeriesCollection threadsDataset) {
+        JFreeChart result = ChartFactory.createXYLineChart(
+                "Hits per Second and Active Threads",     // chart title
+                this.yAxisLabel,                          // x axis label
+                "Hits per Second",                        // y axis label
+                hitsDataset,                              // data
+                PlotOrientation.VERTICAL,
+                true,                                     // include legend
+                true,                                     // tooltips
+                false                                     // urls
+        );
+
+        //
+        // Add the active threads on a secondary axis.
+        //
+        XYPlot plot = result.getXYPlot();
+        plot.setDataset(1, threadsDataset);
+        plot.setRangeAxis(1, new NumberAxis("Active Threads"));
+        plot.mapDatasetToRangeAxis(1, 1);
+        plot.setRenderer(1, new XYLineAndShapeRenderer(true, false));
+
+        return result;
+    }
+
+    protected JFreeChart createScalingChart(XYSeriesCollection scalingDataset) {
+        return ChartFactory.createScatterPlot(
+                "Throughput vs Concurrency",              // chart title
+                "Active Threads (avg)",                   // x axis label
+                "Hits per Second",                        // y axis label
+                scalingDataset,                           // data
+                PlotOrientation.VERTICAL,
+                true,                                     // include legend
+                true,                                     // tooltips
+                false                                     // urls
+        );
+    }
+
+    protected void addConcreteSample(Sample oneSample) {
+        // Skip samples with missing or malformed timestamps; they cannot be placed in a slot.
+        if (oneSample.getTimestamp() < 0) {
+            return;
+        }
+
+        long timeStampSlot = this.normalizeTimestamp(oneSample.getTimestamp());
+
+        this.hits.increment(timeStampSlot);
+
+        if (oneSample.getAllThreads() >= 0) {
+            this.allThreads.add(timeStampSlot, oneSample.getAllThreads());
+        }
+
+        if (oneSample.getGroupThreads() >= 0) {
+            String group = this.extractThreadGroupName(oneSample.getThreadName());
+
+            ThreadCounters groupCounters = this.threadsByGroup.get(group);
+            if (groupCounters == null) {
+                groupCounters = new ThreadCounters();
+                this.threadsByGroup.put(group, groupCounters);
+            }
+
+            groupCounters.add(timeStampSlot, oneSample.getGroupThreads());
+        }
+
+        if ((this.startTimestampSlot == -1) || (timeStampSlot < this.startTimestampSlot)) {
+            this.startTimestampSlot = timeStampSlot;
+        }
+
+        if ((this.endTimestampSlot == -1) || (timeStampSlot > this.endTimestampSlot)) {
+            this.endTimestampSlot = timeStampSlot;
+        }
+    }
+
+    /**
+     * Extract the thread group name from the thread name.  JMeter names threads "&lt;group&gt; &lt;group number&gt;-&lt;thread
+     * number&gt;", such as "Thread Group 1-3", so the trailing numbers are removed.
+     *
+     * @param threadName name of the thread; may be null.
+     * @return name of the thread group.
+     */
+    protected String extractThreadGroupName(String threadName) {
+        if (threadName == null) {
+            return "(unknown)";
+        }
+
+        int space = threadName.lastIndexOf(' ');
+        int dash = threadName.lastIndexOf('-');
+
+        if ((space > 0) && (dash > space)) {
+            return threadName.substring(0, space);
+        }
+
+        return threadName;
+    }
+
+    protected long normalizeTimestamp(long timestamp) {
+        return timestamp / this.timeSlotSize;
+    }
+
+    protected long calculateXAxisOffset(long timestampSlot) {
+        long result = timestampSlot - this.startTimestampSlot;
+
+        return result;
+    }
+
+    protected class ThreadCounters {
+        public SlotCounter max = new SlotCounter();
+        public SlotCounter total = new SlotCounter();
+        public SlotCounter samples = new SlotCounter();
+
+        public void add(long slot, int activeThreads) {
+            this.max.max(slot, activeThreads);
+            this.total.add(slot, activeThreads);
+            this.samples.increment(slot);
+        }
+
+        public double average(long slot) {
+            long count = this.samples.get(slot);
+            if (count == 0) {
+                return 0.0;
+            }
+
+            return (double) this.total.get(slot) / (double) count;
+        }
+
+        public void writeTo(DataOutput out) throws IOException {
+            this.max.writeTo(out);
+            this.total.writeTo(out);
+            this.samples.writeTo(out);
+        }
+
+        public void readFrom(DataInput in) throws IOException {
+            this.max.readFrom(in);
+            this.total.readFrom(in);
+            this.samples.readFrom(in);
+        }
+    }
+}
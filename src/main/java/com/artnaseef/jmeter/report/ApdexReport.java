@@ -0,0 +1,698 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.aggregate.LatencyHistogram;
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Apdex and SLA report, by label.  Each top-level sample is classified as satisfied (elapsed &lt;= T), tolerating
+ * (elapsed &lt;= 4T) or frustrated (slower, or failed), and checked against the label's SLA, expressed as a latency
+ * percentile (e.g. p95 &lt; 800 ms).  The output is a summary table plus a timeline of the time slots in which a label
+ * breached its SLA.
+ *
+ * Thresholds are configured with report properties, either directly (-D) or from a properties file named by the
+ * "apdex.config" property; properties given directly take precedence:
+ *
+ *   apdex.threshold[.&lt;label&gt;]     - satisfied threshold T, in milliseconds (default 500)
+ *   sla.threshold[.&lt;label&gt;]       - SLA latency, in milliseconds (default 4T)
+ *   sla.percentile[.&lt;label&gt;]      - SLA percentile (default 95)
+ *   sla.minSamples                  - minimum samples in a slot for it to count as a breach (default 1)
+ *   apdex.windowSlots               - number of recent slots kept per label for the timeline (default 60)
+ *
+ * Memory use per label is constant: a fixed-size latency histogram and a fixed window of recent slots.  Samples
+ * older than the window are still counted in the summary, but not in the timeline.  Consecutive breached slots of a
+ * label are merged into one entry of the timeline, and the timeline keeps at most MAX_BREACHES entries, so a run
+ * which breaches its SLA throughout does not grow the report, or its checkpoints, without bound.
+ *
+ * The summary and the timeline decide a breach the same way: by the exact number of samples at or over the SLA
+ * latency, rather than the estimate of the percentile from the histogram, which is only shown for reference.
+ *
+ * When the samples are sampled, the counts are of the samples read, and sla.minSamples applies to them; the scores
+ * and percentages are estimates of those of all the samples, as the report notes.
+ *
+ * Created by art on 10/19/26.
+ */
+public class ApdexReport implements FeedableReport, SampleFieldConsumer, CheckpointableReport {
+
+    public static final String PROPERTY_CONFIG_FILE = "apdex.config";
+    public static final String PROPERTY_APDEX_THRESHOLD = "apdex.threshold";
+    public static final String PROPERTY_SLA_THRESHOLD = "sla.threshold";
+    public static final String PROPERTY_SLA_PERCENTILE = "sla.percentile";
+    public static final String PROPERTY_SLA_MIN_SAMPLES = "sla.minSamples";
+    public static final String PROPERTY_WINDOW_SLOTS = "apdex.windowSlots";
+
+    private static final long DEFAULT_APDEX_THRESHOLD = 500;
+    private static final double DEFAULT_SLA_PERCENTILE = 95.0;
+
+    public static final int MAX_BREACHES = 10000;
+
+    private String outputFile = "apdex.txt";
+    private String detailOutputFile;
+
+    private Properties thresholdProperties;
+    private long slaMinSamples = 1;
+    private int windowSlots = 60;
+
+    private long timeSlotSize = 60000; // In milliseconds
+
+    private Map<String, LabelStats> statsByLabel;
+    private List<SlaBreach> breaches;
+    private long numDroppedBreaches;
+
+    private ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
+
+    private SampleScale sampleScale;
+
+    private PrintStream detailFileWriter;
+
+    private String feedUri;
+
+    public static void main(String[] args) {
+        ApdexReport mainObj = new ApdexReport();
+
+        try {
+            ReportLauncher launcher = new ReportLauncher();
+            launcher.launchReport(mainObj, args);
+        } catch (Exception exc) {
+            exc.printStackTrace();
+        }
+    }
+
+    @Override
+    public void onFeedStart(String uri, Properties reportProperties) throws Exception {
+        this.feedUri = uri;
+
+        this.extractReportProperties(reportProperties);
+
+        this.statsByLabel = new TreeMap<>();
+        this.breaches = new ArrayList<>();
+
+        if (this.detailOutputFile != null) {
+            this.detailFileWriter = new PrintStream(this.detailOutputFile);
+        }
+    }
+
+    @Override
+    public void onFeedComplete() throws Exception {
+        for (LabelStats stats : this.statsByLabel.values()) {
+            stats.flushWindow();
+        }
+
+        this.generateReport();
+
+        if (this.detailFileWriter != null) {
+            this.detailFileWriter.close();
+        }
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.LABEL, SampleField.ELAPSED, SampleField.RESULT_CODE, SampleField.ASSERTION_RESULTS);
+    }
+
+    @Override
+    public void onSample(Sample topLevelSample) throws Exception {
+        boolean failed = topLevelSample.isExecError() || topLevelSample.isFailure() ||
+                this.hasFailureSample(topLevelSample);
+
+        // Samples without an elapsed time can only be classified if they failed
+        if ((topLevelSample.getElapsed() < 0) && (!failed)) {
+            return;
+        }
+
+        LabelStats stats = this.statsByLabel.get(topLevelSample.getLabel());
+        if (stats == null) {
+            stats = new LabelStats(topLevelSample.getLabel());
+            this.statsByLabel.put(topLevelSample.getLabel(), stats);
+        }
+
+        stats.add(topLevelSample.getTimestamp(), topLevelSample.getElapsed(), failed);
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.timeSlotSize);
+        out.writeInt(this.windowSlots);
+
+        out.writeInt(this.statsByLabel.size());
+        for (LabelStats stats : this.statsByLabel.values()) {
+            stats.writeTo(out);
+        }
+
+        out.writeInt(this.breaches.size());
+        for (SlaBreach breach : this.breaches) {
+            out.writeUTF(breach.label);
+            out.writeLong(breach.startSlot);
+            out.writeLong(breach.endSlot);
+            out.writeLong(breach.numSample);
+            out.writeLong(breach.numOverSla);
+            out.writeDouble(breach.apdexScore);
+        }
+        out.writeLong(this.numDroppedBreaches);
+
+        // Finished slots are written to the detail file as they go, and the file is recreated on resume
+        byte[] detail = new byte[0];
+        if (this.detailFileWriter != null) {
+            this.detailFileWriter.flush();
+            detail = Files.readAllBytes(new File(this.detailOutputFile).toPath());
+        }
+
+        out.writeInt(detail.length);
+        out.write(detail);
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        if ((in.readLong() != this.timeSlotSize) || (in.readInt() != this.windowSlots)) {
+            throw new IOException("checkpoint was taken with a different slot size or window");
+        }
+
+        int labelCount = in.readInt();
+        while (labelCount > 0) {
+            LabelStats stats = new LabelStats(in.readUTF());
+            stats.readFrom(in);
+
+            this.statsByLabel.put(stats.label, stats);
+            labelCount--;
+        }
+
+        int breachCount = in.readInt();
+        while (breachCount > 0) {
+            SlaBreach breach = new SlaBreach();
+            breach.label = in.readUTF();
+            breach.startSlot = in.readLong();
+            breach.endSlot = in.readLong();
+            breach.numSample = in.readLong();
+            breach.numOverSla = in.readLong();
+            breach.apdexScore = in.readDouble();
+
+            this.breaches.add(breach);
+            breachCount--;
+        }
+        this.numDroppedBreaches = in.readLong();
+
+        // Later breaches of a label may extend the last one restored
+        for (SlaBreach breach : this.breaches) {
+            LabelStats stats = this.statsByLabel.get(breach.label);
+            if ((stats != null) && ((stats.lastBreach == null) || (breach.endSlot > stats.lastBreach.endSlot))) {
+                stats.lastBreach = breach;
+            }
+        }
+
+        byte[] detail = new byte[in.readInt()];
+        in.readFully(detail);
+
+        if (this.detailFileWriter != null) {
+            this.detailFileWriter.write(detail);
+        }
+    }
+
+    protected void extractReportProperties (Properties prop) throws Exception {
+        this.detailOutputFile = prop.getProperty(ReportLauncher.PROPERTY_DETAIL_FILE_NAME);
+
+        String out = prop.getProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME);
+        if ( out != null ) {
+            this.outputFile = out;
+        }
+
+        Long slotSize = (Long) prop.get(ReportLauncher.PROPERTY_TIME_SLOT_SIZE);
+        if ( slotSize != null ) {
+            this.timeSlotSize = slotSize;
+        }
+
+        this.sampleScale = SampleScale.fromProperties(prop);
+
+        //
+        // Thresholds from the config file, if any, overridden by those given directly.
+        //
+        this.thresholdProperties = new Properties();
+
+        String configFile = prop.getProperty(PROPERTY_CONFIG_FILE);
+        if ( configFile != null ) {
+            try ( InputStream configStream = new FileInputStream(configFile) ) {
+                this.thresholdProperties.load(configStream);
+            }
+        }
+
+        for ( String name : prop.stringPropertyNames() ) {
+            this.thresholdProperties.setProperty(name, prop.getProperty(name));
+        }
+
+        String minSamples = this.thresholdProperties.getProperty(PROPERTY_SLA_MIN_SAMPLES);
+        if ( minSamples != null ) {
+            this.slaMinSamples = Long.parseLong(minSamples.trim());
+        }
+
+        String window = this.thresholdProperties.getProperty(PROPERTY_WINDOW_SLOTS);
+        if ( window != null ) {
+            this.windowSlots = Integer.parseInt(window.trim());
+        }
+    }
+
+    /**
+     * Lookup a threshold setting for the given label, falling back to the setting for all labels.
+     *
+     * @param baseName name of the setting.
+     * @param label label of the samples.
+     * @return the setting, or null if none is configured.
+     */
+    protected String lookupLabelSetting(String baseName, String label) {
+        String result = this.thresholdProperties.getProperty(baseName + "." + label);
+
+        if ( result == null ) {
+            result = this.thresholdProperties.getProperty(baseName);
+        }
+
+        return result;
+    }
+
+    protected void generateReport () throws Exception {
+        LabelStats totals = new LabelStats("TOTALS");
+
+        try ( PrintWriter out = new PrintWriter(this.outputFile) ) {
+            out.println(this.formatHeader());
+
+            for (LabelStats stats : this.statsByLabel.values()) {
+                totals.numSample += stats.numSample;
+                totals.numSatisfied += stats.numSatisfied;
+                totals.numTolerating += stats.numTolerating;
+                totals.numFrustrated += stats.numFrustrated;
+                totals.numOverSla += stats.numOverSla;
+                totals.numBreachSlots += stats.numBreachSlots;
+                totals.histogram.add(stats.histogram);
+
+                out.println(this.formatStats(stats, true));
+            }
+
+            out.println(this.formatStats(totals, false));
+
+            //
+            // Timeline of the SLA breaches, in time order.
+            //
+            Collections.sort(this.breaches, new Comparator<SlaBreach>() {
+                @Override
+                public int compare(SlaBreach breach1, SlaBreach breach2) {
+                    int result = Long.compare(breach1.startSlot, breach2.startSlot);
+                    if (result == 0) {
+                        result = breach1.label.compareTo(breach2.label);
+                    }
+                    return result;
+                }
+            });
+
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+            out.println();
+            out.println("SLA BREACHES (slot size " + this.timeSlotSize + " ms)");
+            out.println(String.format("%-19s %-40s %6s %10s %10s %10s %8s", "SLOT START", "LABEL", "SLOTS",
+                    "SAMPLES", "OVER SLA", "OVER %", "APDEX"));
+
+            for (SlaBreach breach : this.breaches) {
+                out.println(String.format("%-19s %-40s %6d %10d %10d %9.2f%% %8.3f",
+                        dateFormat.format(new Date(breach.startSlot * this.timeSlotSize)), breach.label,
+                        breach.numSlots(), breach.numSample, breach.numOverSla, breach.overPercentage(),
+                        breach.apdex()));
+            }
+
+            if (this.numDroppedBreaches > 0) {
+                out.println();
+                out.println(this.numDroppedBreaches + " more breaches were left out of the timeline after the first " +
+                        MAX_BREACHES);
+            }
+
+            long lateSamples = 0;
+            for (LabelStats stats : this.statsByLabel.values()) {
+                lateSamples += stats.numLateSample;
+            }
+
+            if (lateSamples > 0) {
+                out.println();
+                out.println(lateSamples + " samples arrived more than " + this.windowSlots +
+                        " slots out of order and were excluded from the timeline");
+            }
+
+            if (this.sampleScale.isSampled()) {
+                out.println();
+                out.println(this.sampleScale.describe() + "; counts are of the samples read, and scores and " +
+                        "percentages are estimates");
+            }
+        }
+    }
+
+    protected String formatHeader () {
+        return  String.format("%-40s %10s %10s %10s %10s %6s %8s %8s %10s %8s", "LABEL", "SAMPLES", "SATISFIED",
+                "TOLERATING", "FRUSTRATED", "APDEX", "T (ms)", "SLA", "ACTUAL", "BREACHES");
+    }
+
+    protected String formatStats (LabelStats stats, boolean includeThresholds) {
+        String sla = "";
+        String actual = "";
+        String threshold = "";
+
+        if ( includeThresholds ) {
+            threshold = Long.toString(stats.apdexThreshold);
+            sla = String.format("p%s<%d", this.formatPercentile(stats.slaPercentile), stats.slaThreshold);
+            actual = Long.toString(stats.histogram.getValueAtPercentile(stats.slaPercentile));
+
+            if ( stats.isSlaBreached() ) {
+                actual = actual + "*";
+            }
+        }
+
+        return  String.format("%-40s %10d %10d %10d %10d %6.3f %8s %8s %10s %8d", stats.label, stats.numSample,
+                stats.numSatisfied, stats.numTolerating, stats.numFrustrated, stats.apdex(), threshold, sla, actual,
+                stats.numBreachSlots);
+    }
+
+    protected String formatPercentile (double percentile) {
+        if ( percentile == Math.rint(percentile) ) {
+            return Long.toString((long) percentile);
+        }
+
+        return Double.toString(percentile);
+    }
+
+    protected boolean hasFailureSample (Sample sample) {
+        // Rolled up by the sample as its sub-samples are added
+        return sample.hasFailureResultCode();
+    }
+
+    protected long calculateTimestampSlot(long timestamp) {
+        return timestamp / this.timeSlotSize;
+    }
+
+    /**
+     * Running statistics for one label.
+     */
+    protected class LabelStats {
+        public final String label;
+        public final long apdexThreshold;
+        public final long slaThreshold;
+        public final double slaPercentile;
+
+        public long numSample;
+        public long numSatisfied;
+        public long numTolerating;
+        public long numFrustrated;
+        public long numOverSla;
+        public long numBreachSlots;
+        public long numLateSample;
+
+        public final LatencyHistogram histogram = new LatencyHistogram();
+
+        // Latest entry of the timeline for this label, which the next breached slot extends if it follows on
+        private SlaBreach lastBreach;
+
+        // Ring of the most recent slots; an entry is finished, and checked for an SLA breach, when its position
+        //  is reused by a later slot or the feed completes.
+        private final long[] windowSlotIds;
+        private final long[] windowSamples;
+        private final long[] windowOverSla;
+        private final long[] windowSatisfied;
+        private final long[] windowTolerating;
+
+        public LabelStats(String label) {
+            this.label = label;
+
+            String setting = lookupLabelSetting(PROPERTY_APDEX_THRESHOLD, label);
+            this.apdexThreshold = (setting != null) ? Long.parseLong(setting.trim()) : DEFAULT_APDEX_THRESHOLD;
+
+            setting = lookupLabelSetting(PROPERTY_SLA_THRESHOLD, label);
+            this.slaThreshold = (setting != null) ? Long.parseLong(setting.trim()) : (4 * this.apdexThreshold);
+
+            setting = lookupLabelSetting(PROPERTY_SLA_PERCENTILE, label);
+            this.slaPercentile = (setting != null) ? Double.parseDouble(setting.trim()) : DEFAULT_SLA_PERCENTILE;
+
+            this.windowSlotIds = new long[windowSlots];
+            this.windowSamples = new long[windowSlots];
+            this.windowOverSla = new long[windowSlots];
+            this.windowSatisfied = new long[windowSlots];
+            this.windowTolerating = new long[windowSlots];
+
+            Arrays.fill(this.windowSlotIds, Long.MIN_VALUE);
+        }
+
+        public void add(long timestamp, long elapsed, boolean failed) {
+            boolean satisfied = (!failed) && (elapsed <= this.apdexThreshold);
+            boolean tolerating = (!failed) && (!satisfied) && (elapsed <= 4 * this.apdexThreshold);
+            boolean overSla = failed || (elapsed >= this.slaThreshold);
+
+            this.numSample++;
+            if (satisfied) {
+                this.numSatisfied++;
+            } else if (tolerating) {
+                this.numTolerating++;
+            } else {
+                this.numFrustrated++;
+            }
+            if (overSla) {
+                this.numOverSla++;
+            }
+
+            this.histogram.record(elapsed);
+
+            if (timestamp < 0) {
+                return;
+            }
+
+            //
+            // Add the sample to its slot in the window.
+            //
+            long slot = calculateTimestampSlot(timestamp);
+            int index = (int) (((slot % windowSlots) + windowSlots) % windowSlots);
+
+            if (this.windowSlotIds[index] != slot) {
+                if (this.windowSlotIds[index] > slot) {
+                    // Too far out of order; the slot has already been finished
+                    this.numLateSample++;
+                    return;
+                }
+
+                this.finishSlot(index);
+                this.windowSlotIds[index] = slot;
+            }
+
+            this.windowSamples[index]++;
+            if (overSla) {
+                this.windowOverSla[index]++;
+            }
+            if (satisfied) {
+                this.windowSatisfied[index]++;
+            } else if (tolerating) {
+                this.windowTolerating[index]++;
+            }
+        }
+
+        /**
+         * Finish every slot in the window, in slot order, so consecutive breaches are merged as they would have been
+         *  had the slots finished during the feed.
+         */
+        public void flushWindow() {
+            int oldest = this.findOldestSlot();
+            while (oldest >= 0) {
+                this.finishSlot(oldest);
+                oldest = this.findOldestSlot();
+            }
+        }
+
+        /**
+         * @return index of the oldest slot in the window, or -1 if the window is empty.
+         */
+        protected int findOldestSlot() {
+            int result = -1;
+
+            int cur = 0;
+            while (cur < windowSlots) {
+                if ((this.windowSlotIds[cur] != Long.MIN_VALUE) &&
+                        ((result < 0) || (this.windowSlotIds[cur] < this.windowSlotIds[result]))) {
+                    result = cur;
+                }
+                cur++;
+            }
+
+            return result;
+        }
+
+        public double apdex() {
+            if (this.numSample == 0) {
+                return 0.0;
+            }
+
+            return (this.numSatisfied + (this.numTolerating / 2.0)) / this.numSample;
+        }
+
+        public void writeTo(DataOutput out) throws IOException {
+            out.writeUTF(this.label);
+            out.writeLong(this.numSample);
+            out.writeLong(this.numSatisfied);
+            out.writeLong(this.numTolerating);
+            out.writeLong(this.numFrustrated);
+            out.writeLong(this.numOverSla);
+            out.writeLong(this.numBreachSlots);
+            out.writeLong(this.numLateSample);
+
+            this.histogram.writeTo(out);
+
+            int cur = 0;
+            while (cur < windowSlots) {
+                out.writeLong(this.windowSlotIds[cur]);
+                out.writeLong(this.windowSamples[cur]);
+                out.writeLong(this.windowOverSla[cur]);
+                out.writeLong(this.windowSatisfied[cur]);
+                out.writeLong(this.windowTolerating[cur]);
+                cur++;
+            }
+        }
+
+        /**
+         * Restore the statistics written by writeTo(), after the label.
+         */
+        public void readFrom(DataInput in) throws IOException {
+            this.numSample = in.readLong();
+            this.numSatisfied = in.readLong();
+            this.numTolerating = in.readLong();
+            this.numFrustrated = in.readLong();
+            this.numOverSla = in.readLong();
+            this.numBreachSlots = in.readLong();
+            this.numLateSample = in.readLong();
+
+            this.histogram.readFrom(in);
+
+            int cur = 0;
+            while (cur < windowSlots) {
+                this.windowSlotIds[cur] = in.readLong();
+                this.windowSamples[cur] = in.readLong();
+                this.windowOverSla[cur] = in.readLong();
+                this.windowSatisfied[cur] = in.readLong();
+                this.windowTolerating[cur] = in.readLong();
+                cur++;
+            }
+        }
+
+        public boolean isSlaBreached() {
+            return this.isBreach(this.numSample, this.numOverSla);
+        }
+
+        /**
+         * A percentile SLA holds as long as no more than the remaining fraction of samples is at or over the
+         *  threshold, so this needs only a count of those samples rather than a histogram, and is exact.
+         */
+        protected boolean isBreach(long samples, long overSla) {
+            double allowedOver = samples * (1.0 - (this.slaPercentile / 100.0));
+
+            return (samples > 0) && (overSla > allowedOver);
+        }
+
+        protected void finishSlot(int index) {
+            long samples = this.windowSamples[index];
+
+            if ((this.windowSlotIds[index] != Long.MIN_VALUE) && (samples > 0)) {
+                double apdexScore = this.windowSatisfied[index] + (this.windowTolerating[index] / 2.0);
+                double apdex = apdexScore / samples;
+
+                boolean breach = (samples >= slaMinSamples) && (this.isBreach(samples, this.windowOverSla[index]));
+
+                if (breach) {
+                    this.addBreach(this.windowSlotIds[index], samples, this.windowOverSla[index], apdexScore);
+                    this.numBreachSlots++;
+                }
+
+                if (detailFileWriter != null) {
+                    detailFileWriter.println(String.format("%s|%s|%d|%d|%d|%d|%d|%f|%s", feedUri, this.label,
+                            this.windowSlotIds[index], samples, this.windowSatisfied[index],
+                            this.windowTolerating[index], this.windowOverSla[index], apdex, breach));
+                }
+            }
+
+            this.windowSlotIds[index] = Long.MIN_VALUE;
+            this.windowSamples[index] = 0;
+            this.windowOverSla[index] = 0;
+            this.windowSatisfied[index] = 0;
+            this.windowTolerating[index] = 0;
+        }
+
+        protected void addBreach(long slot, long samples, long overSla, double apdexScore) {
+            SlaBreach breach = this.lastBreach;
+
+            if ((breach == null) || (slot != breach.endSlot + 1)) {
+                if (breaches.size() >= MAX_BREACHES) {
+                    numDroppedBreaches++;
+                    return;
+                }
+
+                breach = new SlaBreach();
+                breach.label = this.label;
+                breach.startSlot = slot;
+
+                breaches.add(breach);
+                this.lastBreach = breach;
+            }
+
+            breach.endSlot = slot;
+            breach.numSample += samples;
+            breach.numOverSla += overSla;
+            breach.apdexScore += apdexScore;
+        }
+    }
+
+    /**
+     * Run of consecutive slots in which a label breached its SLA.
+     */
+    protected class SlaBreach {
+        public String label;
+        public long startSlot;
+        public long endSlot;
+        public long numSample;
+        public long numOverSla;
+        public double apdexScore; // Satisfied samples plus half the tolerating ones
+
+        public long numSlots() {
+            return (this.endSlot - this.startSlot) + 1;
+        }
+
+        public double overPercentage() {
+            return (this.numOverSla * 100.0) / this.numSample;
+        }
+
+        public double apdex() {
+            return this.apdexScore / this.numSample;
+        }
+    }
+}
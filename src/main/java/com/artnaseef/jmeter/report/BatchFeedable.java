@@ -0,0 +1,32 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report;
+
+/**
+ * Destination of feedable samples which can take them a batch at a time.  Sources hand a BatchFeedable whole batches
+ * instead of calling onSample for each sample; see SampleBatch.feed for feeding destinations which may or may not
+ * take batches.
+ *
+ * Created by art on 10/19/26.
+ */
+public interface BatchFeedable extends Feedable {
+    /**
+     * Process the given batch of top-level samples.  The batch is reused once this returns, so it must not be kept.
+     *
+     * @param batch samples to process, in the order they were read.
+     * @throws Exception
+     */
+    void onSamples(SampleBatch batch) throws Exception;
+}
@@ -0,0 +1,394 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.aggregate.AggregationEngine;
+import com.artnaseef.jmeter.report.aggregate.MetricDefinition;
+import com.artnaseef.jmeter.report.aggregate.SlotCountStore;
+import com.artnaseef.jmeter.report.aggregate.SlotCountVisitor;
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.util.ExportUtils;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Network bandwidth report: megabytes per second sent and received, in total and broken down by label.  The totals
+ * are charted to the output file, and the per-label breakdown to a second file alongside it.  When the samples are
+ * sampled, the bytes are scaled up like the counts of the other reports.
+ *
+ * The bytes are summed by the AggregationEngine, as received and sent bytes in total and grouped by label, along with
+ * the hits, which give the number of samples read for the estimate of the sampling error.
+ *
+ * Created by art on 10/19/26.
+ */
+public class BytesPerSecondReport
+        implements FeedableReport, BatchFeedable, SampleFieldConsumer, CheckpointableReport {
+
+    public static final String PROPERTY_LABEL_OUTPUT_FILENAME = "labelOutputFilename";
+
+    private static final double BYTES_PER_MEGABYTE = 1000.0 * 1000.0;
+
+    private String outputFile = "bytesPerSecond.png";
+    private String labelOutputFile;
+    private String detailOutputFile;
+
+    private int reportWidth = 1000;
+    private int reportHeight = 750;
+
+    private AggregationEngine aggregationEngine;
+    private SlotCountStore hits;
+    private SlotCountStore receivedBytes;
+    private SlotCountStore sentBytes;
+    private SlotCountStore receivedBytesByLabel;
+    private SlotCountStore sentBytesByLabel;
+
+    private double secPerSample;
+    private String yAxisLabel = "Second";
+
+    private long timeSlotSize = 1000; // In milliseconds
+
+    private long startTimestampSlot = -1;
+    private long endTimestampSlot = -1;
+
+    private SampleScale sampleScale;
+    private long samplesRead;
+    private long points;
+
+    private PrintStream detailFileWriter;
+
+    private String feedUri;
+
+    public static void main(String[] args) {
+        BytesPerSecondReport mainObj = new BytesPerSecondReport();
+
+        try {
+            ReportLauncher launcher = new ReportLauncher();
+            launcher.launchReport(mainObj, args);
+        } catch (Exception exc) {
+            exc.printStackTrace();
+        }
+    }
+
+    @Override
+    public void onFeedStart(String uri, Properties reportProperties) throws Exception {
+        this.feedUri = uri;
+
+        this.extractReportProperties(reportProperties);
+
+        this.aggregationEngine = AggregationEngine.fromProperties(reportProperties);
+        this.hits = this.register("hitsPerSecond", MetricDefinition.GroupBy.NONE, MetricDefinition.Metric.COUNT);
+        this.receivedBytes = this.register("receivedBytesPerSecond", MetricDefinition.GroupBy.NONE,
+                MetricDefinition.Metric.RECEIVED_BYTES);
+        this.sentBytes = this.register("sentBytesPerSecond", MetricDefinition.GroupBy.NONE,
+                MetricDefinition.Metric.SENT_BYTES);
+        this.receivedBytesByLabel = this.register("receivedBytesByLabel", MetricDefinition.GroupBy.LABEL,
+                MetricDefinition.Metric.RECEIVED_BYTES);
+        this.sentBytesByLabel = this.register("sentBytesByLabel", MetricDefinition.GroupBy.LABEL,
+                MetricDefinition.Metric.SENT_BYTES);
+
+        if (this.detailOutputFile != null) {
+            this.detailFileWriter = new PrintStream(this.detailOutputFile);
+        }
+    }
+
+    @Override
+    public void onFeedComplete() throws Exception {
+        this.calculateTimeAdjustments();
+
+        XYSeriesCollection totalsDataset = new XYSeriesCollection();
+        XYSeriesCollection labelDataset = new XYSeriesCollection();
+
+        try {
+            // Take the range from the store, which includes any counts restored from a persistent store.
+            this.startTimestampSlot = this.hits.getMinSlot();
+            this.endTimestampSlot = this.hits.getMaxSlot();
+            this.countSamples();
+
+            // The stores visit in key order; detail lines are kept by label and written in label order, received
+            //  before sent, as the series are charted.
+            Map<String, List<String>> receivedDetails = new TreeMap<>();
+            Map<String, List<String>> sentDetails = new TreeMap<>();
+
+            totalsDataset.addSeries(this.createTotalSeries(this.receivedBytes, MetricDefinition.Metric.RECEIVED_BYTES,
+                    "received", receivedDetails));
+            totalsDataset.addSeries(this.createTotalSeries(this.sentBytes, MetricDefinition.Metric.SENT_BYTES,
+                    "sent", sentDetails));
+            this.writeDetails(receivedDetails.remove("*"));
+            this.writeDetails(sentDetails.remove("*"));
+
+            Map<String, XYSeries> received =
+                    this.createSeries(this.receivedBytesByLabel, true, "received", receivedDetails);
+            Map<String, XYSeries> sent = this.createSeries(this.sentBytesByLabel, true, "sent", sentDetails);
+
+            Set<String> labels = new TreeSet<>(received.keySet());
+            labels.addAll(sent.keySet());
+            for (String oneLabel : labels) {
+                this.addSeries(labelDataset, received.get(oneLabel));
+                this.addSeries(labelDataset, sent.get(oneLabel));
+
+                this.writeDetails(receivedDetails.get(oneLabel));
+                this.writeDetails(sentDetails.get(oneLabel));
+            }
+        } finally {
+            if (!this.aggregationEngine.isShared()) {
+                this.aggregationEngine.close();
+            }
+        }
+
+        JFreeChart totalsChart = this.createChart("Network Bandwidth", totalsDataset);
+        this.sampleScale.annotate(totalsChart, this.samplesRead, this.points);
+        ExportUtils.writeAsPNG(totalsChart, this.reportWidth, this.reportHeight, new File(this.outputFile));
+
+        JFreeChart labelChart = this.createChart("Network Bandwidth by Label", labelDataset);
+        this.sampleScale.annotate(labelChart, this.samplesRead, this.points);
+        ExportUtils.writeAsPNG(labelChart, this.reportWidth, this.reportHeight, new File(this.labelOutputFile));
+
+        if (this.detailFileWriter != null) {
+            this.detailFileWriter.close();
+        }
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.LABEL, SampleField.RECEIVED_BYTES, SampleField.SENT_BYTES);
+    }
+
+    @Override
+    public void onSample(Sample topLevelSample) throws Exception {
+        // A shared engine is fed by its owner
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.onSample(topLevelSample);
+        }
+    }
+
+    @Override
+    public void onSamples(SampleBatch batch) throws Exception {
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.onSamples(batch);
+        }
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.timeSlotSize);
+
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.writeCheckpoint(out);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        if (in.readLong() != this.timeSlotSize) {
+            throw new IOException("checkpoint was taken with a different slot size");
+        }
+
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.readCheckpoint(in);
+        }
+    }
+
+    protected void extractReportProperties (Properties prop) {
+        this.detailOutputFile = prop.getProperty(ReportLauncher.PROPERTY_DETAIL_FILE_NAME);
+
+        String out = prop.getProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME);
+        if ( out != null ) {
+            this.outputFile = out;
+        }
+
+        String labelOut = prop.getProperty(PROPERTY_LABEL_OUTPUT_FILENAME);
+        if ( labelOut != null ) {
+            this.labelOutputFile = labelOut;
+        } else {
+            this.labelOutputFile = this.deriveLabelOutputFile(this.outputFile);
+        }
+
+        Integer size;
+        size = (Integer) prop.get(ReportLauncher.PROPERTY_CHART_HEIGHT);
+        if (size != null) {
+            this.reportHeight = size;
+        }
+        size = (Integer) prop.get(ReportLauncher.PROPERTY_CHART_WIDTH);
+        if (size != null) {
+            this.reportWidth = size;
+        }
+
+        Long slotSize = (Long) prop.get(ReportLauncher.PROPERTY_TIME_SLOT_SIZE);
+        if ( slotSize != null ) {
+            this.timeSlotSize = slotSize;
+        }
+
+        this.sampleScale = SampleScale.fromProperties(prop);
+    }
+
+    /**
+     * Derive the name of the per-label chart from the main output file by inserting "-by-label" before the
+     * extension; for example, "bytesPerSecond.png" becomes "bytesPerSecond-by-label.png".
+     *
+     * @param mainOutputFile name of the main output file.
+     * @return name of the per-label output file.
+     */
+    protected String deriveLabelOutputFile(String mainOutputFile) {
+        int dot = mainOutputFile.lastIndexOf('.');
+        int separator = mainOutputFile.lastIndexOf(File.separatorChar);
+
+        if (dot > separator + 1) {
+            return mainOutputFile.substring(0, dot) + "-by-label" + mainOutputFile.substring(dot);
+        }
+
+        return mainOutputFile + "-by-label";
+    }
+
+    protected void calculateTimeAdjustments() {
+        this.secPerSample = (double) this.timeSlotSize / 1000.0;
+
+        if (Math.abs(this.secPerSample - 1.0) < 0.1) {
+            this.yAxisLabel = "Second";
+        } else {
+            this.yAxisLabel = String.format("%01.1f Second", secPerSample);
+        }
+    }
+
+    protected SlotCountStore register(String name, MetricDefinition.GroupBy groupBy, MetricDefinition.Metric metric)
+            throws IOException {
+
+        return this.aggregationEngine.register(new MetricDefinition(name, groupBy, metric, this.timeSlotSize))
+                .getStore();
+    }
+
+    protected XYSeries createTotalSeries(SlotCountStore store, MetricDefinition.Metric metric, String direction,
+                                         Map<String, List<String>> details) throws IOException {
+
+        XYSeries result = this.createSeries(store, false, direction, details).get("*");
+        if (result == null) {
+            result = new XYSeries(metric.getSeriesName());
+        }
+
+        return result;
+    }
+
+    /**
+     * Chart the bytes of each series of the given store in megabytes per second.
+     *
+     * @param store store of the bytes.
+     * @param grouped true => the store holds a series for each label; false => a single series of the totals.
+     * @param direction "received" or "sent".
+     * @param details destination of the detail lines of each series, by label.
+     * @return the series, keyed and sorted by label; the label of the totals is "*".
+     */
+    protected Map<String, XYSeries> createSeries(SlotCountStore store, final boolean grouped, final String direction,
+                                                 final Map<String, List<String>> details) throws IOException {
+
+        final Map<String, XYSeries> result = new TreeMap<>();
+
+        store.visit(new SlotCountVisitor() {
+            @Override
+            public void onCount(int key, String seriesName, long slot, long bytes) {
+                String label = grouped ? seriesName : "*";
+
+                XYSeries series = result.get(label);
+                if (series == null) {
+                    series = new XYSeries(grouped ? (seriesName + " " + direction) : seriesName);
+                    result.put(label, series);
+                }
+
+                long xPoint = calculateXAxisOffset(slot);
+                double yPoint = sampleScale.scale(bytes) / BYTES_PER_MEGABYTE / secPerSample;
+
+                series.add(xPoint, yPoint);
+
+                if (detailFileWriter != null) {
+                    List<String> lines = details.get(label);
+                    if (lines == null) {
+                        lines = new ArrayList<>();
+                        details.put(label, lines);
+                    }
+
+                    lines.add(String.format("%s|%s|%s|%d|%d|%d|%f", feedUri, label, direction, slot, bytes,
+                            xPoint, yPoint));
+                }
+            }
+        });
+
+        return result;
+    }
+
+    protected void writeDetails(List<String> lines) {
+        if (lines != null) {
+            for (String oneLine : lines) {
+                this.detailFileWriter.println(oneLine);
+            }
+        }
+    }
+
+    /**
+     * Count the samples read, and the slots in which any were, for the estimate of the sampling error.
+     */
+    protected void countSamples() throws IOException {
+        this.samplesRead = 0;
+        this.points = 0;
+
+        this.hits.visit(new SlotCountVisitor() {
+            @Override
+            public void onCount(int key, String seriesName, long slot, long hitCount) {
+                samplesRead += hitCount;
+                points++;
+            }
+        });
+    }
+
+    protected void addSeries(XYSeriesCollection dataset, XYSeries series) {
+        if (series != null) {
+            dataset.addSeries(series);
+        }
+    }
+
+    protected JFreeChart createChart(String title, XYSeriesCollection dataset) {
+        return ChartFactory.createXYLineChart(
+                title,                    // chart title
+                this.yAxisLabel,          // x axis label
+                "MB/s",                   // y axis label
+                dataset,                  // data
+                PlotOrientation.VERTICAL,
+                true,                     // include legend
+                true,                     // tooltips
+                false                     // urls
+        );
+    }
+
+    protected long calculateXAxisOffset(long timestampSlot) {
+        long result = timestampSlot - this.startTimestampSlot;
+
+        return result;
+    }
+}
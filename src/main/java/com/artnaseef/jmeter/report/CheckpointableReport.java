@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Report whose aggregated state can be saved in a checkpoint part of the way through a feed, so that a run which dies
+ * can be resumed from the checkpoint instead of from the start, with identical results.
+ *
+ * Created by art on 10/19/26.
+ */
+public interface CheckpointableReport extends FeedableReport {
+    /**
+     * Write the state aggregated from the samples fed so far.
+     *
+     * @param out destination of the state.
+     * @throws IOException
+     */
+    void writeCheckpoint(DataOutput out) throws IOException;
+
+    /**
+     * Restore the state written by writeCheckpoint().  Called after onFeedStart(), before any samples are fed, with
+     * the same report properties as the run which wrote the checkpoint.
+     *
+     * @param in source of the state.
+     * @throws IOException
+     */
+    void readCheckpoint(DataInput in) throws IOException;
+}
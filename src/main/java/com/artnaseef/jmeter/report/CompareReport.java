@@ -0,0 +1,659 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.aggregate.LatencyHistogram;
+import com.artnaseef.jmeter.report.aggregate.SlotCounter;
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.cli.UsageException;
+import com.artnaseef.jmeter.report.jtl.impl.JTLFileSampleSource;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.util.ExportUtils;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run-to-run comparison of a candidate against a baseline.  Both sources are parsed concurrently, and the report
+ * contains per-label deltas in throughput, error rate and latency percentiles, plus charts of the hits per second and
+ * result codes of both runs overlaid on relative time.
+ *
+ * The comparison exits with EXIT_REGRESSION when any label with enough samples regresses beyond the configured
+ * thresholds, so CI jobs can gate on it:
+ *
+ *   compare.maxThroughputDrop      - maximum drop in throughput, in percent (default 10)
+ *   compare.maxErrorRateIncrease   - maximum increase in error rate, in percentage points (default 1)
+ *   compare.maxLatencyIncrease     - maximum increase in the gated latency percentile, in percent (default 20)
+ *   compare.percentile             - latency percentile to gate on (default 95)
+ *   compare.minSamples             - minimum samples in both runs for a label to be gated (default 30)
+ *
+ * Created by art on 10/19/26.
+ */
+public class CompareReport implements LaunchableReport {
+
+    public static final int EXIT_REGRESSION = 3;
+
+    public static final String PROPERTY_MAX_THROUGHPUT_DROP = "compare.maxThroughputDrop";
+    public static final String PROPERTY_MAX_ERROR_RATE_INCREASE = "compare.maxErrorRateIncrease";
+    public static final String PROPERTY_MAX_LATENCY_INCREASE = "compare.maxLatencyIncrease";
+    public static final String PROPERTY_PERCENTILE = "compare.percentile";
+    public static final String PROPERTY_MIN_SAMPLES = "compare.minSamples";
+
+    private static final double[] REPORTED_PERCENTILES = { 50.0, 90.0, 95.0, 99.0 };
+
+    private OptionParser optionParser;
+
+    private String outputFile = "compare.txt";
+    private String detailOutputFile;
+
+    private int reportWidth = 1000;
+    private int reportHeight = 750;
+
+    private long timeSlotSize = 1000; // In milliseconds
+
+    private double maxThroughputDrop = 10.0;
+    private double maxErrorRateIncrease = 1.0;
+    private double maxLatencyIncrease = 20.0;
+    private double gatedPercentile = 95.0;
+    private long minSamples = 30;
+
+    private ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
+
+    public static void main(String[] args) {
+        int status = ReportLauncher.launch(new CompareReport(), args);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * @return 0 if the candidate did not regress, or EXIT_REGRESSION if it did.
+     */
+    @Override
+    public int launchReport(String[] args) throws Exception {
+        Properties reportProperties = new Properties();
+        List<?> nonOptionArgs = this.parseCommandLine(args, reportProperties);
+
+        if (nonOptionArgs.size() != 2) {
+            this.printUsage(System.err);
+            throw new UsageException(UsageException.STATUS_USAGE_ERROR, null);
+        }
+
+        this.extractReportProperties(reportProperties);
+
+        boolean regression = this.compare(nonOptionArgs.get(0).toString(), nonOptionArgs.get(1).toString(),
+                reportProperties);
+
+        if (regression) {
+            System.err.println("regression detected; see " + this.outputFile);
+            return EXIT_REGRESSION;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Compare the candidate against the baseline, writing the report files.
+     *
+     * @param baselineUri location of the baseline samples.
+     * @param candidateUri location of the candidate samples.
+     * @param reportProperties configuration details for the report.
+     * @return true => the candidate regressed beyond the thresholds; false => otherwise.
+     * @throws Exception
+     */
+    public boolean compare(String baselineUri, String candidateUri, Properties reportProperties) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<RunStatistics> baselineFuture = executor.submit(this.createParseTask(baselineUri, reportProperties));
+            Future<RunStatistics> candidateFuture =
+                    executor.submit(this.createParseTask(candidateUri, reportProperties));
+
+            RunStatistics baseline = this.waitForRun(baselineFuture);
+            RunStatistics candidate = this.waitForRun(candidateFuture);
+
+            boolean regression = this.writeSummary(baseline, candidate);
+
+            this.writeHitsChart(baseline, candidate);
+            this.writeResultCodesChart(baseline, candidate);
+
+            return regression;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected Callable<RunStatistics> createParseTask(final String uri, final Properties reportProperties) {
+        return new Callable<RunStatistics>() {
+            @Override
+            public RunStatistics call() throws Exception {
+                RunStatistics result = new RunStatistics();
+
+                result.onFeedStart(uri, reportProperties);
+                new JTLFileSampleSource(uri).execute(result);
+                result.onFeedComplete();
+
+                return result;
+            }
+        };
+    }
+
+    protected RunStatistics waitForRun(Future<RunStatistics> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException execExc) {
+            if (execExc.getCause() instanceof Exception) {
+                throw (Exception) execExc.getCause();
+            }
+
+            throw execExc;
+        }
+    }
+
+    protected List<?> parseCommandLine(String[] args, Properties reportProperties) throws Exception {
+        this.optionParser = new OptionParser("hD:d:H:o:s:W:");
+
+        ReportLauncher.acceptCommonOptions(this.optionParser);
+
+        try {
+            OptionSet options = optionParser.parse(args);
+
+            if (options.has("h")) {
+                this.printUsage(System.out);
+                throw new UsageException(0, null);
+            }
+
+            ReportLauncher.extractCommonOptions(options, reportProperties);
+
+            return options.nonOptionArguments();
+        } catch (UsageException usageExc) {
+            throw usageExc;
+        } catch (Exception exc) {
+            this.printUsage(System.err);
+            System.err.println();
+
+            throw new UsageException(UsageException.STATUS_USAGE_ERROR, exc.getMessage());
+        }
+    }
+
+    protected void printUsage(PrintStream out) {
+        out.println("Usage: Compare [options] <baseline-url> <candidate-url>");
+
+        try {
+            optionParser.printHelpOn(out);
+        } catch (IOException e) {
+            // Ignore this one - if help can't be printed, what's left to do?
+        }
+    }
+
+    protected void extractReportProperties (Properties prop) {
+        this.detailOutputFile = prop.getProperty(ReportLauncher.PROPERTY_DETAIL_FILE_NAME);
+
+        String out = prop.getProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME);
+        if ( out != null ) {
+            this.outputFile = out;
+        }
+
+        Integer size;
+        size = (Integer) prop.get(ReportLauncher.PROPERTY_CHART_HEIGHT);
+        if (size != null) {
+            this.reportHeight = size;
+        }
+        size = (Integer) prop.get(ReportLauncher.PROPERTY_CHART_WIDTH);
+        if (size != null) {
+            this.reportWidth = size;
+        }
+
+        Long slotSize = (Long) prop.get(ReportLauncher.PROPERTY_TIME_SLOT_SIZE);
+        if ( slotSize != null ) {
+            this.timeSlotSize = slotSize;
+        }
+
+        String value;
+        value = prop.getProperty(PROPERTY_MAX_THROUGHPUT_DROP);
+        if ( value != null ) {
+            this.maxThroughputDrop = Double.parseDouble(value.trim());
+        }
+        value = prop.getProperty(PROPERTY_MAX_ERROR_RATE_INCREASE);
+        if ( value != null ) {
+            this.maxErrorRateIncrease = Double.parseDouble(value.trim());
+        }
+        value = prop.getProperty(PROPERTY_MAX_LATENCY_INCREASE);
+        if ( value != null ) {
+            this.maxLatencyIncrease = Double.parseDouble(value.trim());
+        }
+        value = prop.getProperty(PROPERTY_PERCENTILE);
+        if ( value != null ) {
+            this.gatedPercentile = Double.parseDouble(value.trim());
+        }
+        value = prop.getProperty(PROPERTY_MIN_SAMPLES);
+        if ( value != null ) {
+            this.minSamples = Long.parseLong(value.trim());
+        }
+    }
+
+    /**
+     * Derive the name of a chart from the output file by replacing the extension with the given suffix; for example,
+     * "compare.txt" becomes "compare-hits.png".
+     *
+     * @param suffix suffix for the chart.
+     * @return name of the chart file.
+     */
+    protected String deriveChartFile(String suffix) {
+        int dot = this.outputFile.lastIndexOf('.');
+        int separator = this.outputFile.lastIndexOf(File.separatorChar);
+
+        String base = this.outputFile;
+        if (dot > separator + 1) {
+            base = this.outputFile.substring(0, dot);
+        }
+
+        return base + suffix;
+    }
+
+    /**
+     * Write the per-label comparison and determine whether the candidate regressed.
+     *
+     * @return true => regression detected; false => otherwise.
+     */
+    protected boolean writeSummary(RunStatistics baseline, RunStatistics candidate) throws Exception {
+        boolean regression = false;
+
+        TreeSet<String> labels = new TreeSet<>(baseline.statsByLabel.keySet());
+        labels.addAll(candidate.statsByLabel.keySet());
+
+        PrintStream detailWriter = null;
+        if (this.detailOutputFile != null) {
+            detailWriter = new PrintStream(this.detailOutputFile);
+        }
+
+        try ( PrintWriter out = new PrintWriter(this.outputFile) ) {
+            out.println("BASELINE  " + baseline.uri + " (" + String.format("%.1f", baseline.durationSeconds()) + " s)");
+            out.println("CANDIDATE " + candidate.uri + " (" + String.format("%.1f", candidate.durationSeconds()) +
+                    " s)");
+            out.println(String.format("GATE      throughput -%.1f%%, error rate +%.2f pts, p%s latency +%.1f%%, " +
+                            "min %d samples", this.maxThroughputDrop, this.maxErrorRateIncrease,
+                    this.formatPercentile(this.gatedPercentile), this.maxLatencyIncrease, this.minSamples));
+            out.println();
+
+            StringBuilder header = new StringBuilder(String.format("%-40s %12s %12s %8s %9s %9s %8s", "LABEL",
+                    "BASE REQ/S", "CAND REQ/S", "DELTA", "BASE ERR", "CAND ERR", "DELTA"));
+            for (double percentile : REPORTED_PERCENTILES) {
+                String name = "p" + this.formatPercentile(percentile);
+                header.append(String.format(" %9s %9s %8s", "BASE " + name, "CAND " + name, "DELTA"));
+            }
+            header.append(" RESULT");
+            out.println(header);
+
+            LabelStats baselineTotals = baseline.totals();
+            LabelStats candidateTotals = candidate.totals();
+
+            for (String label : labels) {
+                LabelStats baseStats = baseline.statsByLabel.get(label);
+                LabelStats candStats = candidate.statsByLabel.get(label);
+
+                String result = this.evaluate(baseline, baseStats, candidate, candStats);
+                if (result.startsWith("REGRESSION")) {
+                    regression = true;
+                }
+
+                out.println(this.formatComparison(label, baseline, baseStats, candidate, candStats, result));
+
+                if (detailWriter != null) {
+                    detailWriter.println(String.format("%s|%d|%d|%d|%d|%s", label,
+                            (baseStats != null) ? baseStats.numSample : 0,
+                            (baseStats != null) ? baseStats.numFailure : 0,
+                            (candStats != null) ? candStats.numSample : 0,
+                            (candStats != null) ? candStats.numFailure : 0, result));
+                }
+            }
+
+            String totalsResult = this.evaluate(baseline, baselineTotals, candidate, candidateTotals);
+            if (totalsResult.startsWith("REGRESSION")) {
+                regression = true;
+            }
+
+            out.println(this.formatComparison("TOTALS", baseline, baselineTotals, candidate, candidateTotals,
+                    totalsResult));
+            out.println();
+            out.println(regression ? "RESULT: REGRESSION" : "RESULT: PASS");
+        } finally {
+            if (detailWriter != null) {
+                detailWriter.close();
+            }
+        }
+
+        return regression;
+    }
+
+    /**
+     * Evaluate one label against the regression thresholds.
+     *
+     * @return "ok", "skipped" if the label lacks samples in either run, or "REGRESSION" with the reasons.
+     */
+    protected String evaluate(RunStatistics baseline, LabelStats baseStats, RunStatistics candidate,
+                              LabelStats candStats) {
+
+        if ((baseStats == null) || (candStats == null) ||
+                (baseStats.numSample < this.minSamples) || (candStats.numSample < this.minSamples)) {
+            return "skipped";
+        }
+
+        StringBuilder reasons = new StringBuilder();
+
+        double throughputDelta = percentChange(baseline.throughput(baseStats), candidate.throughput(candStats));
+        if (throughputDelta < -this.maxThroughputDrop) {
+            reasons.append(" throughput");
+        }
+
+        double errorRateDelta = candStats.errorRate() - baseStats.errorRate();
+        if (errorRateDelta > this.maxErrorRateIncrease) {
+            reasons.append(" errors");
+        }
+
+        double latencyDelta = percentChange(baseStats.histogram.getValueAtPercentile(this.gatedPercentile),
+                candStats.histogram.getValueAtPercentile(this.gatedPercentile));
+        if (latencyDelta > this.maxLatencyIncrease) {
+            reasons.append(" latency");
+        }
+
+        if (reasons.length() == 0) {
+            return "ok";
+        }
+
+        return "REGRESSION:" + reasons.toString().trim().replace(' ', ',');
+    }
+
+    protected String formatComparison(String label, RunStatistics baseline, LabelStats baseStats,
+                                      RunStatistics candidate, LabelStats candStats, String result) {
+
+        StringBuilder line = new StringBuilder(String.format("%-40s", label));
+
+        double baseThroughput = (baseStats != null) ? baseline.throughput(baseStats) : 0.0;
+        double candThroughput = (candStats != null) ? candidate.throughput(candStats) : 0.0;
+        double baseErrorRate = (baseStats != null) ? baseStats.errorRate() : 0.0;
+        double candErrorRate = (candStats != null) ? candStats.errorRate() : 0.0;
+
+        line.append(String.format(" %12.2f %12.2f %8s %8.2f%% %8.2f%% %8s", baseThroughput, candThroughput,
+                this.formatPercentChange(baseThroughput, candThroughput), baseErrorRate, candErrorRate,
+                String.format("%+.2f", candErrorRate - baseErrorRate)));
+
+        for (double percentile : REPORTED_PERCENTILES) {
+            long baseLatency = (baseStats != null) ? baseStats.histogram.getValueAtPercentile(percentile) : -1;
+            long candLatency = (candStats != null) ? candStats.histogram.getValueAtPercentile(percentile) : -1;
+
+            line.append(String.format(" %9s %9s %8s", this.formatLatency(baseLatency), this.formatLatency(candLatency),
+                    this.formatPercentChange(baseLatency, candLatency)));
+        }
+
+        line.append(' ').append(result);
+
+        return line.toString();
+    }
+
+    protected String formatLatency(long latency) {
+        if (latency < 0) {
+            return "-";
+        }
+
+        return Long.toString(latency);
+    }
+
+    protected String formatPercentChange(double base, double candidate) {
+        if ((base <= 0) || (candidate < 0)) {
+            return "-";
+        }
+
+        return String.format("%+.1f%%", percentChange(base, candidate));
+    }
+
+    protected String formatPercentile(double percentile) {
+        if (percentile == Math.rint(percentile)) {
+            return Long.toString((long) percentile);
+        }
+
+        return Double.toString(percentile);
+    }
+
+    protected static double percentChange(double base, double candidate) {
+        if (base <= 0) {
+            return 0.0;
+        }
+
+        return ((candidate - base) * 100.0) / base;
+    }
+
+    protected void writeHitsChart(RunStatistics baseline, RunStatistics candidate) throws Exception {
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        dataset.addSeries(this.createRelativeSeries("Baseline", baseline, baseline.hits));
+        dataset.addSeries(this.createRelativeSeries("Candidate", candidate, candidate.hits));
+
+        JFreeChart chart = ChartFactory.createXYLineChart(
+                "Hits per Second: Baseline vs Candidate",    // chart title
+                this.formatSlotAxisLabel(),                  // x axis label
+                "Hits per Second",                           // y axis label
+                dataset,                                     // data
+                PlotOrientation.VERTICAL,
+                true,                                        // include legend
+                true,                                        // tooltips
+                false                                        // urls
+        );
+
+        ExportUtils.writeAsPNG(chart, this.reportWidth, this.reportHeight, new File(this.deriveChartFile("-hits.png")));
+    }
+
+    protected void writeResultCodesChart(RunStatistics baseline, RunStatistics candidate) throws Exception {
+        XYSeriesCollection dataset = new XYSeriesCollection();
+
+        for (Map.Entry<Integer, SlotCounter> entry : baseline.hitsByResultCode.entrySet()) {
+            dataset.addSeries(this.createRelativeSeries(
+                    "Baseline " + this.resultCodeDictionary.getDisplayName(entry.getKey()), baseline,
+                    entry.getValue()));
+        }
+
+        for (Map.Entry<Integer, SlotCounter> entry : candidate.hitsByResultCode.entrySet()) {
+            dataset.addSeries(this.createRelativeSeries(
+                    "Candidate " + this.resultCodeDictionary.getDisplayName(entry.getKey()), candidate,
+                    entry.getValue()));
+        }
+
+        JFreeChart chart = ChartFactory.createXYLineChart(
+                "Result Codes per Second: Baseline vs Candidate",    // chart title
+                this.formatSlotAxisLabel(),                          // x axis label
+                "Hits per Second",                                   // y axis label
+                dataset,                                             // data
+                PlotOrientation.VERTICAL,
+                true,                                                // include legend
+                true,                                                // tooltips
+                false                                                // urls
+        );
+
+        ExportUtils.writeAsPNG(chart, this.reportWidth, this.reportHeight,
+                new File(this.deriveChartFile("-result-codes.png")));
+    }
+
+    protected String formatSlotAxisLabel() {
+        double secPerSlot = (double) this.timeSlotSize / 1000.0;
+
+        if (Math.abs(secPerSlot - 1.0) < 0.1) {
+            return "Second (relative to start of run)";
+        }
+
+        return String.format("%01.1f Second (relative to start of run)", secPerSlot);
+    }
+
+    /**
+     * Create a series from the given counters with the x values relative to the start of the run, so that runs
+     * which started at different times line up.
+     */
+    protected XYSeries createRelativeSeries(String name, RunStatistics run, SlotCounter counter) {
+        XYSeries result = new XYSeries(name);
+        double secPerSlot = (double) this.timeSlotSize / 1000.0;
+
+        long slot = counter.nextSlot(Long.MIN_VALUE);
+        while (slot != Long.MAX_VALUE) {
+            result.add(slot - run.startSlot, (double) counter.get(slot) / secPerSlot);
+
+            slot = counter.nextSlot(slot + 1);
+        }
+
+        return result;
+    }
+
+    /**
+     * Statistics of one run, collected from its sample source.
+     */
+    protected class RunStatistics implements FeedableReport, SampleFieldConsumer {
+        public String uri;
+        public Map<String, LabelStats> statsByLabel = new TreeMap<>();
+        public SlotCounter hits = new SlotCounter();
+        public Map<Integer, SlotCounter> hitsByResultCode = new TreeMap<>(resultCodeDictionary.idComparator());
+
+        public long firstTimestamp = Long.MAX_VALUE;
+        public long lastTimestamp = Long.MIN_VALUE;
+        public long startSlot;
+
+        @Override
+        public void onFeedStart(String uri, Properties reportProperties) throws Exception {
+            this.uri = uri;
+        }
+
+        @Override
+        public void onFeedComplete() throws Exception {
+            if (this.firstTimestamp != Long.MAX_VALUE) {
+                this.startSlot = this.firstTimestamp / timeSlotSize;
+            }
+        }
+
+        @Override
+        public Set<SampleField> getRequiredFields() {
+            return EnumSet.of(SampleField.LABEL, SampleField.ELAPSED, SampleField.RESULT_CODE,
+                    SampleField.ASSERTION_RESULTS);
+        }
+
+        @Override
+        public void onSample(Sample topLevelSample) throws Exception {
+            LabelStats stats = this.statsByLabel.get(topLevelSample.getLabel());
+            if (stats == null) {
+                stats = new LabelStats();
+                this.statsByLabel.put(topLevelSample.getLabel(), stats);
+            }
+
+            stats.numSample++;
+            if (topLevelSample.isExecError() || topLevelSample.isFailure() || this.hasFailureSample(topLevelSample)) {
+                stats.numFailure++;
+            }
+            stats.histogram.record(topLevelSample.getElapsed());
+
+            for (Sample oneLeaf : topLevelSample.getLeaves()) {
+                this.addLeaf(oneLeaf);
+            }
+        }
+
+        protected void addLeaf(Sample sample) {
+            long timestamp = sample.getTimestamp();
+            if (timestamp < 0) {
+                return;
+            }
+
+            long endTimestamp = timestamp + Math.max(sample.getElapsed(), 0);
+            this.firstTimestamp = Math.min(this.firstTimestamp, timestamp);
+            this.lastTimestamp = Math.max(this.lastTimestamp, endTimestamp);
+
+            long slot = timestamp / timeSlotSize;
+            this.hits.increment(slot);
+
+            SlotCounter rcCounter = this.hitsByResultCode.get(sample.getResultCodeId());
+            if (rcCounter == null) {
+                rcCounter = new SlotCounter();
+                this.hitsByResultCode.put(sample.getResultCodeId(), rcCounter);
+            }
+            rcCounter.increment(slot);
+        }
+
+        protected boolean hasFailureSample(Sample sample) {
+            // Rolled up by the sample as its sub-samples are added
+            return sample.hasFailureResultCode();
+        }
+
+        public double durationSeconds() {
+            if (this.firstTimestamp >= this.lastTimestamp) {
+                return 0.0;
+            }
+
+            return (this.lastTimestamp - this.firstTimestamp) / 1000.0;
+        }
+
+        public double throughput(LabelStats stats) {
+            double duration = this.durationSeconds();
+            if (duration <= 0.0) {
+                return 0.0;
+            }
+
+            return stats.numSample / duration;
+        }
+
+        public LabelStats totals() {
+            LabelStats result = new LabelStats();
+
+            for (LabelStats stats : this.statsByLabel.values()) {
+                result.numSample += stats.numSample;
+                result.numFailure += stats.numFailure;
+                result.histogram.add(stats.histogram);
+            }
+
+            return result;
+        }
+    }
+
+    protected static class LabelStats {
+        public long numSample;
+        public long numFailure;
+        public LatencyHistogram histogram = new LatencyHistogram();
+
+        /**
+         * @return percentage of samples which failed.
+         */
+        public double errorRate() {
+            if (this.numSample == 0) {
+                return 0.0;
+            }
+
+            return (this.numFailure * 100.0) / this.numSample;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.aggregate.TopKCounter;
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.Assertion;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Report of the most frequent causes of assertion failures, by label and assertion name.
+ *
+ * Failure messages usually differ only in the ids, timestamps and addresses embedded in them, so each message is
+ * reduced to a template by masking numbers, UUIDs and hexadecimal values, and the templates are counted.  Only a
+ * fixed number of templates are tracked (see TopKCounter), so memory stays flat however many samples fail; when
+ * more distinct templates occur, the counts of the rarer ones may be over-estimated, by at most the amount shown.
+ *
+ * This is a text-based report.
+ *
+ * Created by art on 10/19/26.
+ */
+public class FailureMessagesReport implements FeedableReport, SampleFieldConsumer, CheckpointableReport {
+    public static final String PROPERTY_CAPACITY = "failureMessages.capacity";
+
+    public static final int DEFAULT_CAPACITY = 1000;
+    public static final int MAX_TEMPLATE_LENGTH = 200;
+
+    private static final int UUID_LENGTH = 36;
+    private static final int MIN_HEX_LENGTH = 8;
+
+    private String outputFile = "failureMessages.txt";
+    private int capacity = DEFAULT_CAPACITY;
+
+    private TopKCounter<FailureKey, FailureStats> failureCounter;
+    private long failingSampleCount;
+
+    private String feedUri;
+
+    public static void main(String[] args) {
+        FailureMessagesReport mainObj = new FailureMessagesReport();
+
+        try {
+            ReportLauncher launcher = new ReportLauncher();
+            launcher.launchReport(mainObj, args);
+        } catch (Exception exc) {
+            exc.printStackTrace();
+        }
+    }
+
+    @Override
+    public void onFeedStart(String uri, Properties reportProperties) throws Exception {
+        this.feedUri = uri;
+
+        this.extractReportProperties(reportProperties);
+
+        this.failureCounter = new TopKCounter<>(this.capacity);
+        this.failingSampleCount = 0;
+    }
+
+    @Override
+    public void onFeedComplete() throws Exception {
+        this.generateReport();
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.LABEL, SampleField.ASSERTION_RESULTS, SampleField.ASSERTION_DETAILS);
+    }
+
+    @Override
+    public void onSample(Sample topLevelSample) throws Exception {
+        // Failed assertions mark their samples, and the marks roll up, so passing trees need no walk
+        if ((!topLevelSample.isFailure()) && (!topLevelSample.isExecError())) {
+            return;
+        }
+
+        Deque<Sample> pending = new ArrayDeque<>();
+        pending.push(topLevelSample);
+
+        while (!pending.isEmpty()) {
+            Sample oneSample = pending.pop();
+
+            boolean failed = false;
+            for (Assertion oneAssertion : oneSample.getAssertions()) {
+                if ((oneAssertion.isAssertionFailure()) || (oneAssertion.isAssertionError())) {
+                    this.addFailure(oneSample, oneAssertion);
+                    failed = true;
+                }
+            }
+
+            if (failed) {
+                this.failingSampleCount++;
+            }
+
+            for (Sample oneSubSample : oneSample.getSubSamples()) {
+                pending.push(oneSubSample);
+            }
+        }
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeInt(this.capacity);
+        out.writeLong(this.failingSampleCount);
+        out.writeLong(this.failureCounter.getTotalCount());
+        out.writeLong(this.failureCounter.getReplacedCount());
+
+        List<TopKCounter.Entry<FailureKey, FailureStats>> entries = this.failureCounter.getEntries();
+
+        out.writeInt(entries.size());
+        for (TopKCounter.Entry<FailureKey, FailureStats> entry : entries) {
+            FailureKey key = entry.getKey();
+            out.writeUTF(key.label);
+            out.writeUTF(key.assertionName);
+            out.writeUTF(key.template);
+
+            out.writeLong(entry.getCount());
+            out.writeLong(entry.getError());
+            out.writeLong(entry.getValue().firstSeen);
+            out.writeLong(entry.getValue().lastSeen);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        if (in.readInt() != this.capacity) {
+            throw new IOException("checkpoint was taken with a different capacity");
+        }
+
+        this.failingSampleCount = in.readLong();
+
+        long totalCount = in.readLong();
+        long replacedCount = in.readLong();
+        this.failureCounter.restoreTotals(totalCount, replacedCount);
+
+        int entryCount = in.readInt();
+        while (entryCount > 0) {
+            FailureKey key = new FailureKey(in.readUTF(), in.readUTF(), in.readUTF());
+
+            long count = in.readLong();
+            long error = in.readLong();
+
+            FailureStats stats = new FailureStats();
+            stats.firstSeen = in.readLong();
+            stats.lastSeen = in.readLong();
+
+            this.failureCounter.restoreEntry(key, count, error).setValue(stats);
+            entryCount--;
+        }
+    }
+
+    protected void extractReportProperties (Properties prop) {
+        String out = prop.getProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME);
+        if ( out != null ) {
+            this.outputFile = out;
+        }
+
+        String capacityProperty = prop.getProperty(PROPERTY_CAPACITY);
+        if ( capacityProperty != null ) {
+            this.capacity = Integer.parseInt(capacityProperty);
+        }
+    }
+
+    protected void addFailure(Sample oneSample, Assertion oneAssertion) {
+        FailureKey key = new FailureKey(oneSample.getLabel(), oneAssertion.getName(),
+                normalizeMessage(oneAssertion.getFailureMessage()));
+
+        TopKCounter.Entry<FailureKey, FailureStats> entry = this.failureCounter.add(key);
+
+        FailureStats stats = entry.getValue();
+        if (stats == null) {
+            stats = new FailureStats();
+            stats.firstSeen = oneSample.getTimestamp();
+            stats.lastSeen = oneSample.getTimestamp();
+            entry.setValue(stats);
+        } else if (oneSample.getTimestamp() >= 0) {
+            if ((stats.firstSeen < 0) || (oneSample.getTimestamp() < stats.firstSeen)) {
+                stats.firstSeen = oneSample.getTimestamp();
+            }
+
+            if (oneSample.getTimestamp() > stats.lastSeen) {
+                stats.lastSeen = oneSample.getTimestamp();
+            }
+        }
+    }
+
+    protected void generateReport () throws Exception {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        try ( PrintWriter out = new PrintWriter(this.outputFile) ) {
+            out.println(String.format("%10s %10s %-19s %-19s %-30s %-30s %s", "COUNT", "MAX OVER", "FIRST SEEN",
+                    "LAST SEEN", "LABEL", "ASSERTION", "MESSAGE"));
+
+            for (TopKCounter.Entry<FailureKey, FailureStats> entry : this.failureCounter.getEntriesByCount()) {
+                FailureKey key = entry.getKey();
+                FailureStats stats = entry.getValue();
+
+                String message = key.template;
+                if (message.isEmpty()) {
+                    message = "(no message)";
+                }
+
+                out.println(String.format("%10d %10d %-19s %-19s %-30s %-30s %s", entry.getCount(), entry.getError(),
+                        this.formatTimestamp(dateFormat, stats.firstSeen),
+                        this.formatTimestamp(dateFormat, stats.lastSeen), key.label, key.assertionName, message));
+            }
+
+            out.println();
+            out.println(this.failureCounter.getTotalCount() + " failed assertions in " + this.failingSampleCount +
+                    " samples of " + this.feedUri);
+
+            if (this.failureCounter.getReplacedCount() > 0) {
+                out.println("more than " + this.capacity + " distinct failures; counts may be over by up to " +
+                        "MAX OVER, and failures occurring in fewer than 1 in " + this.capacity +
+                        " failed assertions may be missing");
+            }
+        }
+    }
+
+    protected String formatTimestamp(SimpleDateFormat dateFormat, long timestamp) {
+        if (timestamp < 0) {
+            return "-";
+        }
+
+        return dateFormat.format(new Date(timestamp));
+    }
+
+    /**
+     * Reduce a failure message to a template by masking the parts which vary between occurrences of the same failure:
+     * UUIDs, hexadecimal values, and numbers.  Whitespace is collapsed and long messages are truncated.
+     *
+     * @param message failure message, which may be null.
+     * @return the template.
+     */
+    protected static String normalizeMessage(String message) {
+        if (message == null) {
+            return "";
+        }
+
+        StringBuilder result = new StringBuilder(Math.min(message.length(), MAX_TEMPLATE_LENGTH));
+        int length = message.length();
+        boolean whitespace = false;
+
+        int cur = 0;
+        while ((cur < length) && (result.length() < MAX_TEMPLATE_LENGTH)) {
+            char oneChar = message.charAt(cur);
+
+            if (Character.isWhitespace(oneChar)) {
+                whitespace = true;
+                cur++;
+                continue;
+            }
+
+            if ((whitespace) && (result.length() > 0)) {
+                result.append(' ');
+            }
+            whitespace = false;
+
+            if (!isWordChar(oneChar)) {
+                result.append(oneChar);
+                cur++;
+            } else if (isUuid(message, cur)) {
+                result.append("<uuid>");
+                cur += UUID_LENGTH;
+            } else {
+                int end = cur;
+                while ((end < length) && (isWordChar(message.charAt(end)))) {
+                    end++;
+                }
+
+                appendWord(result, message, cur, end);
+                cur = end;
+            }
+        }
+
+        if (cur < length) {
+            result.append("...");
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Append one word of a message, masking it if it is a hexadecimal value, or masking any numbers in it otherwise.
+     */
+    protected static void appendWord(StringBuilder result, String message, int start, int end) {
+        boolean allHex = true;
+        boolean hasDigit = false;
+
+        int cur = start;
+        while (cur < end) {
+            char oneChar = message.charAt(cur);
+            if (isDigit(oneChar)) {
+                hasDigit = true;
+            } else if (!isHexDigit(oneChar)) {
+                allHex = false;
+            }
+            cur++;
+        }
+
+        if (!hasDigit) {
+            result.append(message, start, end);
+            return;
+        }
+
+        boolean prefixedHex = (end - start > 2) && (message.charAt(start) == '0') &&
+                ((message.charAt(start + 1) == 'x') || (message.charAt(start + 1) == 'X')) &&
+                (isHexRun(message, start + 2, end));
+
+        if ((prefixedHex) || ((allHex) && (end - start >= MIN_HEX_LENGTH))) {
+            result.append("<hex>");
+            return;
+        }
+
+        // Mask each run of digits, keeping the letters around them
+        cur = start;
+        while (cur < end) {
+            if (isDigit(message.charAt(cur))) {
+                result.append("<n>");
+                while ((cur < end) && (isDigit(message.charAt(cur)))) {
+                    cur++;
+                }
+            } else {
+                result.append(message.charAt(cur));
+                cur++;
+            }
+        }
+    }
+
+    /**
+     * @return true => a UUID, in its usual 8-4-4-4-12 form, starts at the given position and ends a word.
+     */
+    protected static boolean isUuid(String message, int start) {
+        if (start + UUID_LENGTH > message.length()) {
+            return false;
+        }
+
+        if ((start + UUID_LENGTH < message.length()) && (isWordChar(message.charAt(start + UUID_LENGTH)))) {
+            return false;
+        }
+
+        int cur = 0;
+        while (cur < UUID_LENGTH) {
+            char oneChar = message.charAt(start + cur);
+            if ((cur == 8) || (cur == 13) || (cur == 18) || (cur == 23)) {
+                if (oneChar != '-') {
+                    return false;
+                }
+            } else if (!isHexDigit(oneChar)) {
+                return false;
+            }
+            cur++;
+        }
+
+        return true;
+    }
+
+    protected static boolean isHexRun(String message, int start, int end) {
+        int cur = start;
+        while (cur < end) {
+            if (!isHexDigit(message.charAt(cur))) {
+                return false;
+            }
+            cur++;
+        }
+
+        return true;
+    }
+
+    protected static boolean isWordChar(char oneChar) {
+        return (Character.isLetterOrDigit(oneChar)) || (oneChar == '_');
+    }
+
+    protected static boolean isDigit(char oneChar) {
+        return (oneChar >= '0') && (oneChar <= '9');
+    }
+
+    protected static boolean isHexDigit(char oneChar) {
+        return (isDigit(oneChar)) || ((oneChar >= 'a') && (oneChar <= 'f')) || ((oneChar >= 'A') && (oneChar <= 'F'));
+    }
+
+    /**
+     * Failure template, by label and assertion name.
+     */
+    protected static class FailureKey {
+        private final String label;
+        private final String assertionName;
+        private final String template;
+        private final int hashCode;
+
+        public FailureKey(String label, String assertionName, String template) {
+            this.label = String.valueOf(label);
+            this.assertionName = String.valueOf(assertionName);
+            this.template = template;
+
+            this.hashCode = (((this.label.hashCode() * 31) + this.assertionName.hashCode()) * 31) +
+                    this.template.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FailureKey)) {
+                return false;
+            }
+
+            FailureKey otherKey = (FailureKey) other;
+
+            return (this.label.equals(otherKey.label)) && (this.assertionName.equals(otherKey.assertionName)) &&
+                    (this.template.equals(otherKey.template));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    protected static class FailureStats {
+        public long firstSeen;
+        public long lastSeen;
+    }
+}
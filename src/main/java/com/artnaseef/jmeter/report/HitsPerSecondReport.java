@@ -13,26 +13,33 @@
  */
 package com.artnaseef.jmeter.report;
 
+import com.artnaseef.jmeter.report.aggregate.Aggregation;
+import com.artnaseef.jmeter.report.aggregate.AggregationEngine;
+import com.artnaseef.jmeter.report.aggregate.MetricDefinition;
+import com.artnaseef.jmeter.report.aggregate.SlotCountStore;
+import com.artnaseef.jmeter.report.aggregate.SlotCountVisitor;
+import com.artnaseef.jmeter.report.chart.ArrayXYDataset;
 import com.artnaseef.jmeter.report.cli.ReportLauncher;
 import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.util.ExportUtils;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
-import java.util.List;
-import java.util.Map;
+import java.util.EnumSet;
 import java.util.Properties;
-import java.util.TreeMap;
+import java.util.Set;
 
 /**
  * Created by art on 4/7/15.
  */
-public class HitsPerSecondReport implements FeedableReport {
+public class HitsPerSecondReport implements FeedableReport, BatchFeedable, SampleFieldConsumer, CheckpointableReport {
 
     private String outputFile = "hitsPerSecond.png";
     private String detailOutputFile;
@@ -40,13 +47,18 @@ public class HitsPerSecondReport implements FeedableReport {
     private int reportWidth = 1000;
     private int reportHeight = 750;
 
-    private XYSeriesCollection dataset;
+    private ArrayXYDataset dataset;
     private JFreeChart chart;
-    private XYSeries chartSeries;
-    private Map<Long, Long> hitsPerSecond;
+    private ArrayXYDataset.Series chartSeries;
+    private AggregationEngine aggregationEngine;
+    private SlotCountStore hitsPerSecond;
 
     private long timeSlotSize = 1000; // In milliseconds
 
+    private SampleScale sampleScale;
+    private long samplesRead;
+    private long points;
+
     private long startTimestampSlot = -1;
     private long endTimestampSlot = -1;
 
@@ -71,9 +83,13 @@ public class HitsPerSecondReport implements FeedableReport {
 
         this.extractReportProperties(reportProperties);
 
-        this.chartSeries = new XYSeries("Hits");
-        this.dataset = new XYSeriesCollection();
-        this.hitsPerSecond = new TreeMap<Long, Long>();
+        this.chartSeries = new ArrayXYDataset.Series("Hits");
+        this.dataset = new ArrayXYDataset();
+
+        this.aggregationEngine = AggregationEngine.fromProperties(reportProperties);
+        Aggregation hits = this.aggregationEngine.register(new MetricDefinition("hitsPerSecond",
+                MetricDefinition.GroupBy.NONE, MetricDefinition.Metric.COUNT, this.timeSlotSize));
+        this.hitsPerSecond = hits.getStore();
 
         if (this.detailOutputFile != null) {
             this.detailFileWriter = new PrintStream(this.detailOutputFile);
@@ -86,8 +102,44 @@ public class HitsPerSecondReport implements FeedableReport {
     }
 
     @Override
-    public void onSample(Sample topLevelSample) {
-        this.addSample(topLevelSample);
+    public Set<SampleField> getRequiredFields() {
+        // Only the timestamp, which is always decoded
+        return EnumSet.noneOf(SampleField.class);
+    }
+
+    @Override
+    public void onSample(Sample topLevelSample) throws Exception {
+        // A shared engine is fed by its owner
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.onSample(topLevelSample);
+        }
+    }
+
+    @Override
+    public void onSamples(SampleBatch batch) throws Exception {
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.onSamples(batch);
+        }
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.timeSlotSize);
+
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.writeCheckpoint(out);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        if (in.readLong() != this.timeSlotSize) {
+            throw new IOException("checkpoint was taken with a different slot size");
+        }
+
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.readCheckpoint(in);
+        }
     }
 
     protected void extractReportProperties (Properties prop) {
@@ -107,30 +159,53 @@ public class HitsPerSecondReport implements FeedableReport {
         if (size != null) {
             this.reportWidth = size;
         }
+
+        this.sampleScale = SampleScale.fromProperties(prop);
     }
 
     protected void finishReport() throws Exception {
-        this.populateSeries(this.feedUri);
+        // Take the range from the store, which includes any counts restored from a persistent store.
+        this.startTimestampSlot = this.hitsPerSecond.getMinSlot();
+        this.endTimestampSlot = this.hitsPerSecond.getMaxSlot();
+
+        try {
+            this.populateSeries(this.feedUri);
+        } finally {
+            if (!this.aggregationEngine.isShared()) {
+                this.aggregationEngine.close();
+            }
+        }
+
         this.dataset.addSeries(this.chartSeries);
         this.createChart();
+        this.sampleScale.annotate(this.chart, this.samplesRead, this.points);
 
         ExportUtils.writeAsPNG(this.chart, this.reportWidth, this.reportHeight, new File(this.outputFile));
     }
 
-    protected void populateSeries(String sourceUri) {
-        for (Map.Entry<Long, Long> hitCountSeconds : this.hitsPerSecond.entrySet()) {
-            long xPoint = this.calculateXAxisOffset(hitCountSeconds.getKey());
-            long yPoint = hitCountSeconds.getValue();
+    protected void populateSeries(final String sourceUri) throws Exception {
+        this.samplesRead = 0;
+        this.points = 0;
+
+        this.hitsPerSecond.visit(new SlotCountVisitor() {
+            @Override
+            public void onCount(int key, String seriesName, long slot, long hitCount) {
+                long xPoint = calculateXAxisOffset(slot);
+                long yPoint = Math.round(sampleScale.scale(hitCount));
+
+                samplesRead += hitCount;
+                points++;
 
-            this.chartSeries.add(xPoint, yPoint);
+                chartSeries.add(xPoint, yPoint);
 
-            if (this.detailFileWriter != null) {
-                this.detailFileWriter.println(sourceUri + "|" + hitCountSeconds.getKey() +
-                        "|" + hitCountSeconds.getValue() +
-                        "|" + xPoint +
-                        "|" + yPoint);
+                if (detailFileWriter != null) {
+                    detailFileWriter.println(sourceUri + "|" + slot +
+                            "|" + hitCount +
+                            "|" + xPoint +
+                            "|" + yPoint);
+                }
             }
-        }
+        });
     }
 
     protected void createChart() {
@@ -147,41 +222,6 @@ public class HitsPerSecondReport implements FeedableReport {
         );
     }
 
-    protected void addSample(Sample sample) {
-        List<Sample> subSamples = sample.getSubSamples();
-        if ( ( subSamples != null ) && ( ! subSamples.isEmpty() ) ) {
-            for ( Sample oneSubSample : subSamples ) {
-                this.addSample(oneSubSample);
-            }
-        } else {
-            this.addHit(sample);
-        }
-    }
-
-    protected void addHit(Sample sample) {
-        long newCount = 1;
-        long timeStampSlot = normalizeTimestamp(sample.getTimestamp());
-        Long existingCount = this.hitsPerSecond.get(timeStampSlot);
-
-        if (existingCount != null) {
-            newCount += existingCount;
-        }
-
-        this.hitsPerSecond.put(timeStampSlot, newCount);
-
-        if ((this.startTimestampSlot == -1) || (timeStampSlot < this.startTimestampSlot)) {
-            this.startTimestampSlot = timeStampSlot;
-        }
-
-        if ((this.endTimestampSlot == -1) || (timeStampSlot > this.endTimestampSlot)) {
-            this.endTimestampSlot = timeStampSlot;
-        }
-    }
-
-    protected long normalizeTimestamp(long timestamp) {
-        return timestamp / this.timeSlotSize;
-    }
-
     protected long calculateXAxisOffset(long timestampSlot) {
         long result = timestampSlot - this.startTimestampSlot;
 
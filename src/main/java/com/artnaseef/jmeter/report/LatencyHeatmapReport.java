@@ -0,0 +1,610 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.NumberTickUnit;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.LookupPaintScale;
+import org.jfree.chart.renderer.xy.XYBlockRenderer;
+import org.jfree.chart.title.PaintScaleLegend;
+import org.jfree.chart.util.ExportUtils;
+import org.jfree.data.xy.DefaultXYZDataset;
+import org.jfree.ui.RectangleAnchor;
+import org.jfree.ui.RectangleEdge;
+
+import java.awt.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.EnumSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Generate a heatmap of the latencies of samples over time, which shows what averages and percentile lines hide, such
+ * as a split between cache hits and misses, or stalls.
+ *
+ * Counts are kept in a single grid of time slots by latency buckets.  The buckets are fixed: latencies below 8 ms each
+ * have their own, and each doubling above that is split into 4 buckets.  The time slots start at the configured slot
+ * size, and when the test runs longer than the grid holds, adjacent slots are merged and the slot size doubled, so
+ * memory stays bounded however long the test.  Finally, slots are merged down to the maximum slots to chart.
+ *
+ * Created by art on 10/19/26.
+ */
+public class LatencyHeatmapReport implements FeedableReport, BatchFeedable, SampleFieldConsumer, CheckpointableReport {
+    public static final int BUCKETS_PER_DOUBLING = 4;
+
+    /**
+     * Number of latency buckets, enough to cover latencies up to Integer.MAX_VALUE milliseconds.
+     */
+    public static final int NUM_BUCKETS = bucketIndex(Integer.MAX_VALUE) + 1;
+
+    private static final int MAX_GRID_SLOTS = 4096;
+    private static final int INITIAL_GRID_SLOTS = 64;
+    private static final int NUM_COLORS = 10;
+
+    private String outputFile = "latencyHeatmap.png";
+    private String detailOutputFile;
+
+    private int reportWidth = 1000;
+    private int reportHeight = 750;
+
+    private DefaultXYZDataset dataset;
+    private JFreeChart chart;
+    private double maxValue;
+
+    private long timeSlotSize = 1000; // In milliseconds
+    private int maxSlots = 100;
+    private String xAxisLabel = "Second";
+
+    // Counts by slot, then by bucket; column 0 is the slot gridStartSlot
+    private long[] grid;
+    private int gridSlots;
+    private long gridStartSlot;
+
+    private long startTimestampSlot = -1;
+    private long endTimestampSlot = -1;
+
+    private SampleScale sampleScale;
+    private long samplesRead;
+    private long points;
+
+    private PrintStream detailFileWriter;
+
+    private String feedUri;
+
+    public static void main(String[] args) {
+        LatencyHeatmapReport mainObj = new LatencyHeatmapReport();
+
+        try {
+            ReportLauncher launcher = new ReportLauncher();
+            launcher.launchReport(mainObj, args);
+        } catch (Exception exc) {
+            exc.printStackTrace();
+        }
+    }
+
+    /**
+     * @param latency latency, in milliseconds.
+     * @return index of the bucket counting the latency.
+     */
+    public static int bucketIndex(long latency) {
+        if (latency < 2 * BUCKETS_PER_DOUBLING) {
+            return (int) Math.max(latency, 0);
+        }
+
+        long value = Math.min(latency, Integer.MAX_VALUE);
+
+        // Position of the highest bit, and the next two bits, which pick one of the 4 buckets of the doubling
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >> (exponent - 2)) & (BUCKETS_PER_DOUBLING - 1);
+
+        return BUCKETS_PER_DOUBLING + ((exponent - 2) * BUCKETS_PER_DOUBLING) + subBucket;
+    }
+
+    /**
+     * @param bucket index of a bucket.
+     * @return lowest latency, in milliseconds, counted in the bucket.
+     */
+    public static long bucketLowerBound(int bucket) {
+        if (bucket < 2 * BUCKETS_PER_DOUBLING) {
+            return bucket;
+        }
+
+        int exponent = ((bucket - BUCKETS_PER_DOUBLING) / BUCKETS_PER_DOUBLING) + 2;
+        int subBucket = (bucket - BUCKETS_PER_DOUBLING) % BUCKETS_PER_DOUBLING;
+
+        return ((long) (BUCKETS_PER_DOUBLING + subBucket)) << (exponent - 2);
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.ELAPSED);
+    }
+
+    @Override
+    public void onFeedStart(String uri, Properties reportProperties) throws Exception {
+        this.feedUri = uri;
+
+        this.extractReportProperties(reportProperties);
+
+        this.grid = null;
+        this.gridSlots = 0;
+        this.startTimestampSlot = -1;
+        this.endTimestampSlot = -1;
+        this.dataset = new DefaultXYZDataset();
+
+        if (this.detailOutputFile != null) {
+            this.detailFileWriter = new PrintStream(this.detailOutputFile);
+        }
+    }
+
+    @Override
+    public void onFeedComplete() throws Exception {
+        this.adjustSlots();
+
+        this.calculateTimeCustomizations();
+
+        this.populateDataset(this.feedUri);
+
+        this.createChart();
+        this.sampleScale.annotate(this.chart, this.samplesRead, this.points);
+
+        ExportUtils.writeAsPNG(this.chart, this.reportWidth, this.reportHeight, new File(this.outputFile));
+
+        if (this.detailFileWriter != null) {
+            this.detailFileWriter.close();
+        }
+    }
+
+    @Override
+    public void onSample(Sample topLevelSample) throws Exception {
+        for (Sample oneLeaf : topLevelSample.getLeaves()) {
+            this.addLatency(oneLeaf.getTimestamp(), oneLeaf.getElapsed());
+        }
+    }
+
+    @Override
+    public void onSamples(SampleBatch batch) throws Exception {
+        long[] timestamps = batch.getLeafTimestamps();
+        long[] elapsed = batch.getLeafElapsed();
+        int leafCount = batch.getLeafCount();
+
+        int cur = 0;
+        while (cur < leafCount) {
+            this.addLatency(timestamps[cur], elapsed[cur]);
+            cur++;
+        }
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.timeSlotSize);
+        out.writeLong(this.startTimestampSlot);
+        out.writeLong(this.endTimestampSlot);
+
+        out.writeBoolean(this.grid != null);
+        if (this.grid == null) {
+            return;
+        }
+
+        out.writeInt(this.gridSlots);
+        out.writeLong(this.gridStartSlot);
+
+        // Most cells of the grid are empty
+        int cur = 0;
+        while (cur < this.grid.length) {
+            if (this.grid[cur] != 0) {
+                out.writeInt(cur);
+                out.writeLong(this.grid[cur]);
+            }
+            cur++;
+        }
+
+        out.writeInt(-1);
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        // The slot size may have doubled since the start, as the grid was rebinned
+        long checkpointSlotSize = in.readLong();
+        if ((checkpointSlotSize % this.timeSlotSize) != 0) {
+            throw new IOException("checkpoint was taken with a different slot size");
+        }
+
+        this.timeSlotSize = checkpointSlotSize;
+        this.startTimestampSlot = in.readLong();
+        this.endTimestampSlot = in.readLong();
+
+        if (!in.readBoolean()) {
+            return;
+        }
+
+        this.gridSlots = in.readInt();
+        this.gridStartSlot = in.readLong();
+        this.grid = new long[this.gridSlots * NUM_BUCKETS];
+
+        int cell = in.readInt();
+        while (cell != -1) {
+            this.grid[cell] = in.readLong();
+            cell = in.readInt();
+        }
+    }
+
+    /**
+     * Extract configuration from the given report properties.
+     *
+     * @param prop
+     */
+    protected void extractReportProperties (Properties prop) {
+        this.detailOutputFile = prop.getProperty(ReportLauncher.PROPERTY_DETAIL_FILE_NAME);
+
+        String out = prop.getProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME);
+        if ( out != null ) {
+            this.outputFile = out;
+        }
+
+        Integer size;
+        size = (Integer) prop.get(ReportLauncher.PROPERTY_CHART_HEIGHT);
+        if (size != null) {
+            this.reportHeight = size;
+        }
+        size = (Integer) prop.get(ReportLauncher.PROPERTY_CHART_WIDTH);
+        if (size != null) {
+            this.reportWidth = size;
+        }
+
+        Long slotSize = (Long) prop.get(ReportLauncher.PROPERTY_TIME_SLOT_SIZE);
+        if ( slotSize != null ) {
+            this.timeSlotSize = slotSize;
+        }
+
+        Integer maxSlotsProperty = (Integer) prop.get(ReportLauncher.PROPERTY_MAX_SLOTS);
+        if ( maxSlotsProperty != null ) {
+            this.maxSlots = maxSlotsProperty;
+        }
+
+        this.sampleScale = SampleScale.fromProperties(prop);
+    }
+
+    /**
+     * Count one latency in the grid.
+     *
+     * @param timestamp timestamp of the sample.
+     * @param latency elapsed time of the sample, in milliseconds.
+     */
+    protected void addLatency(long timestamp, long latency) {
+        // Skip samples with missing or malformed values; they cannot be placed in the grid.
+        if ((timestamp < 0) || (latency < 0)) {
+            return;
+        }
+
+        long slot = timestamp / this.timeSlotSize;
+        if ((this.grid == null) || (slot < this.gridStartSlot) || (slot >= this.gridStartSlot + this.gridSlots)) {
+            this.growGrid(slot);
+            slot = timestamp / this.timeSlotSize;
+        }
+
+        this.grid[(int) ((slot - this.gridStartSlot) * NUM_BUCKETS) + bucketIndex(latency)]++;
+
+        if ((this.startTimestampSlot == -1) || (slot < this.startTimestampSlot)) {
+            this.startTimestampSlot = slot;
+        }
+
+        if ((this.endTimestampSlot == -1) || (slot > this.endTimestampSlot)) {
+            this.endTimestampSlot = slot;
+        }
+    }
+
+    /**
+     * Make room in the grid for the given slot, doubling the slot size as often as needed to keep the grid within its
+     * maximum size.
+     *
+     * @param slot slot, at the current slot size, which the grid does not cover.
+     */
+    protected void growGrid(long slot) {
+        if (this.grid == null) {
+            this.gridStartSlot = slot;
+            this.gridSlots = INITIAL_GRID_SLOTS;
+            this.grid = new long[this.gridSlots * NUM_BUCKETS];
+            return;
+        }
+
+        long minSlot = Math.min(this.startTimestampSlot, slot);
+        long maxSlot = Math.max(this.endTimestampSlot, slot);
+        while ((maxSlot - minSlot) + 1 > MAX_GRID_SLOTS) {
+            this.rebin(2);
+
+            minSlot /= 2;
+            maxSlot /= 2;
+        }
+
+        if ((minSlot >= this.gridStartSlot) && (maxSlot < this.gridStartSlot + this.gridSlots)) {
+            return;
+        }
+
+        // Leave room on both sides, as samples complete out of order
+        int range = (int) ((maxSlot - minSlot) + 1);
+        int newGridSlots = Math.min(MAX_GRID_SLOTS, Math.max(this.gridSlots, range) * 2);
+        long newGridStartSlot = Math.max(0, minSlot - ((newGridSlots - range) / 2));
+
+        long[] newGrid = new long[newGridSlots * NUM_BUCKETS];
+        int offset = (int) (this.gridStartSlot - newGridStartSlot);
+
+        int cur = 0;
+        while (cur < this.gridSlots) {
+            int newColumn = cur + offset;
+            if ((newColumn >= 0) && (newColumn < newGridSlots)) {
+                System.arraycopy(this.grid, cur * NUM_BUCKETS, newGrid, newColumn * NUM_BUCKETS, NUM_BUCKETS);
+            }
+            cur++;
+        }
+
+        this.grid = newGrid;
+        this.gridSlots = newGridSlots;
+        this.gridStartSlot = newGridStartSlot;
+    }
+
+    /**
+     * Merge every given number of adjacent slots into one, multiplying the slot size by the same factor.  Slots are
+     * aligned to multiples of the slot size, so no count is ever split between slots.
+     *
+     * @param factor number of slots to merge into each.
+     */
+    protected void rebin(int factor) {
+        long[] newGrid = new long[this.gridSlots * NUM_BUCKETS];
+        long newGridStartSlot = this.gridStartSlot / factor;
+
+        int cur = 0;
+        while (cur < this.gridSlots) {
+            int newColumn = (int) (((this.gridStartSlot + cur) / factor) - newGridStartSlot);
+
+            int bucket = 0;
+            while (bucket < NUM_BUCKETS) {
+                newGrid[(newColumn * NUM_BUCKETS) + bucket] += this.grid[(cur * NUM_BUCKETS) + bucket];
+                bucket++;
+            }
+            cur++;
+        }
+
+        this.grid = newGrid;
+        this.gridStartSlot = newGridStartSlot;
+        this.timeSlotSize *= factor;
+
+        if (this.startTimestampSlot != -1) {
+            this.startTimestampSlot /= factor;
+            this.endTimestampSlot /= factor;
+        }
+    }
+
+    /**
+     * Adjust the slot size, if needed, to keep the number of slots at or below the maximum.
+     */
+    protected void adjustSlots () {
+        if (this.grid == null) {
+            return;
+        }
+
+        long range = ( this.endTimestampSlot - this.startTimestampSlot ) + 1;
+
+        if ( range > this.maxSlots ) {
+            // Aligned slots may straddle one more merged slot than the range alone needs
+            int factor = (int) ((range + this.maxSlots - 2) / Math.max(1, this.maxSlots - 1));
+            this.rebin(Math.max(factor, 2));
+        }
+    }
+
+    /**
+     * Calculate adjustments to the report based on time settings.
+     */
+    protected void calculateTimeCustomizations() {
+        double secPerSlot = (double) this.timeSlotSize / 1000.0;
+
+        if (Math.abs(secPerSlot - 1.0) < 0.1) {
+            this.xAxisLabel = "Second";
+        } else {
+            this.xAxisLabel = String.format("%01.1f Second", secPerSlot);
+        }
+    }
+
+    /**
+     * Populate the chart dataset with one cell for each slot and bucket with any samples.
+     *
+     * @param sourceUri URI from which the sample data was collected for reporting purposes.
+     */
+    protected void populateDataset(String sourceUri) {
+        this.samplesRead = 0;
+        this.points = 0;
+        this.maxValue = 0;
+
+        if (this.grid == null) {
+            this.dataset.addSeries("Samples", new double[3][0]);
+            return;
+        }
+
+        int cellCount = 0;
+        for (long oneCount : this.grid) {
+            if (oneCount > 0) {
+                cellCount++;
+            }
+        }
+
+        double[] xValues = new double[cellCount];
+        double[] yValues = new double[cellCount];
+        double[] zValues = new double[cellCount];
+
+        int cell = 0;
+        long slot = this.startTimestampSlot;
+        while (slot <= this.endTimestampSlot) {
+            int column = (int) (slot - this.gridStartSlot);
+
+            int bucket = 0;
+            while (bucket < NUM_BUCKETS) {
+                long count = this.grid[(column * NUM_BUCKETS) + bucket];
+                if (count > 0) {
+                    long xPoint = this.calculateXAxisOffset(slot);
+                    double zPoint = this.sampleScale.scale(count);
+
+                    xValues[cell] = xPoint;
+                    yValues[cell] = bucket;
+                    zValues[cell] = zPoint;
+                    cell++;
+
+                    this.samplesRead += count;
+                    this.points++;
+                    this.maxValue = Math.max(this.maxValue, zPoint);
+
+                    if (this.detailFileWriter != null) {
+                        this.detailFileWriter.println(sourceUri + "|" + (slot * this.timeSlotSize) +
+                                "|" + bucketLowerBound(bucket) +
+                                "|" + count +
+                                "|" + xPoint +
+                                "|" + zPoint);
+                    }
+                }
+                bucket++;
+            }
+            slot++;
+        }
+
+        this.dataset.addSeries("Samples", new double[][] { xValues, yValues, zValues });
+    }
+
+    //
+    // Generate the chart from the data feed.
+    //
+    protected void createChart() {
+        int maxBucket = 0;
+        if (this.grid != null) {
+            int cur = 0;
+            while (cur < this.grid.length) {
+                if (this.grid[cur] > 0) {
+                    maxBucket = Math.max(maxBucket, cur % NUM_BUCKETS);
+                }
+                cur++;
+            }
+        }
+
+        NumberAxis xAxis = new NumberAxis(this.xAxisLabel);
+        xAxis.setRange(0, Math.max(1, (this.endTimestampSlot - this.startTimestampSlot) + 1));
+        xAxis.setStandardTickUnits(NumberAxis.createIntegerTickUnits());
+
+        // Ticks fall on the buckets starting each doubling, labeled by the latency they start at
+        NumberAxis yAxis = new NumberAxis("Latency");
+        yAxis.setRange(0, maxBucket + 1);
+        yAxis.setTickUnit(new NumberTickUnit(BUCKETS_PER_DOUBLING));
+        yAxis.setNumberFormatOverride(new BucketFormat());
+
+        LookupPaintScale paintScale = this.createPaintScale();
+
+        XYBlockRenderer renderer = new XYBlockRenderer();
+        renderer.setBlockWidth(1.0);
+        renderer.setBlockHeight(1.0);
+        renderer.setBlockAnchor(RectangleAnchor.BOTTOM_LEFT);
+        renderer.setPaintScale(paintScale);
+
+        XYPlot plot = new XYPlot(this.dataset, xAxis, yAxis, renderer);
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setDomainGridlinesVisible(false);
+        plot.setRangeGridlinePaint(Color.LIGHT_GRAY);
+
+        this.chart = new JFreeChart("Latency Heatmap", plot);
+        this.chart.removeLegend();
+
+        NumberAxis scaleAxis = new NumberAxis("Samples");
+        scaleAxis.setRange(1, Math.max(2, this.maxValue));
+
+        PaintScaleLegend legend = new PaintScaleLegend(paintScale, scaleAxis);
+        legend.setPosition(RectangleEdge.RIGHT);
+        legend.setMargin(4, 4, 4, 4);
+        this.chart.addSubtitle(legend);
+    }
+
+    /**
+     * Create the scale of colors for the counts, from pale yellow for the fewest samples to dark red for the most.
+     * Counts often differ by orders of magnitude, so the colors step evenly through the logarithm of the counts.
+     */
+    protected LookupPaintScale createPaintScale() {
+        double upperBound = Math.max(2, this.maxValue) * 1.0001;
+        LookupPaintScale paintScale = new LookupPaintScale(0, upperBound, Color.WHITE);
+
+        Color low = new Color(255, 255, 178);
+        Color high = new Color(128, 0, 38);
+
+        int cur = 0;
+        while (cur < NUM_COLORS) {
+            double fraction = (double) cur / (NUM_COLORS - 1);
+            double lowerBound = Math.pow(upperBound, (double) cur / NUM_COLORS);
+            if (cur == 0) {
+                lowerBound = 0;
+            }
+
+            Color color = new Color(
+                    (int) (low.getRed() + (high.getRed() - low.getRed()) * fraction),
+                    (int) (low.getGreen() + (high.getGreen() - low.getGreen()) * fraction),
+                    (int) (low.getBlue() + (high.getBlue() - low.getBlue()) * fraction));
+
+            paintScale.add(lowerBound, color);
+            cur++;
+        }
+
+        return paintScale;
+    }
+
+    protected long calculateXAxisOffset(long timestampSlot) {
+        long result = timestampSlot - this.startTimestampSlot;
+
+        return result;
+    }
+
+    /**
+     * Format the positions on the latency axis, which are bucket indexes, as the latencies at which they start.
+     */
+    protected static class BucketFormat extends NumberFormat {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public StringBuffer format(double number, StringBuffer toAppendTo, FieldPosition pos) {
+            return this.format((long) number, toAppendTo, pos);
+        }
+
+        @Override
+        public StringBuffer format(long number, StringBuffer toAppendTo, FieldPosition pos) {
+            long latency = bucketLowerBound((int) Math.max(0, Math.min(number, NUM_BUCKETS - 1)));
+
+            if (latency < 1000) {
+                return toAppendTo.append(latency).append(" ms");
+            }
+
+            return toAppendTo.append(String.format("%01.1f s", latency / 1000.0));
+        }
+
+        @Override
+        public Number parse(String source, ParsePosition parsePosition) {
+            return null;
+        }
+    }
+}
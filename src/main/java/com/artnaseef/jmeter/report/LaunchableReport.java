@@ -18,5 +18,13 @@ package com.artnaseef.jmeter.report;
  * Created by art on 4/8/15.
  */
 public interface LaunchableReport {
-    void launchReport(String[] args) throws Exception;
+    /**
+     * Run the report, given the arguments of its command line, without exiting the process.
+     *
+     * @param args options and arguments of the report.
+     * @return exit status for the process; 0 for success.
+     * @throws com.artnaseef.jmeter.report.cli.UsageException if the command line asks for the usage, or is not
+     * valid.
+     */
+    int launchReport(String[] args) throws Exception;
 }
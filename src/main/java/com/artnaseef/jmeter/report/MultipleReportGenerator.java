@@ -14,20 +14,30 @@
 
 package com.artnaseef.jmeter.report;
 
+import com.artnaseef.jmeter.report.aggregate.AggregationEngine;
 import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
 import com.artnaseef.jmeter.report.registry.GlobalReportTypeRegistry;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 /**
- * Simultaneously generate multiple reports from the same source of samples.
+ * Simultaneously generate multiple reports from the same source of samples.  The reports share one AggregationEngine,
+ * so time series declared by more than one of them are computed once, and every series in a single pass.
  *
  * Created by art on 4/10/15.
  */
-public class MultipleReportGenerator implements FeedableReport {
+public class MultipleReportGenerator implements FeedableReport, BatchFeedable, SampleFieldConsumer,
+        CheckpointableReport {
     private List<FeedableReport> reports;
+    private AggregationEngine aggregationEngine;
 
     public static final String PROPERTY_MULTI_REPORT_NAMES = "reports";
 
@@ -39,32 +49,105 @@ public class MultipleReportGenerator implements FeedableReport {
     public void onFeedStart(String uri, Properties reportProperties) throws Exception {
         this.extractReportProperties(reportProperties);
 
+        this.aggregationEngine = new AggregationEngine(reportProperties);
+        Properties sharedProperties = this.aggregationEngine.share(reportProperties);
+
         for ( FeedableReport oneReport : this.reports ) {
-            oneReport.onFeedStart(uri, reportProperties);
+            oneReport.onFeedStart(uri, sharedProperties);
         }
     }
 
     @Override
     public void onFeedComplete() throws Exception {
+        try {
+            for ( FeedableReport oneReport : this.reports ) {
+                oneReport.onFeedComplete();
+            }
+        } finally {
+            this.aggregationEngine.close();
+        }
+    }
+
+    /**
+     * Union of the fields used by the reports; every field if any report does not declare its fields.
+     */
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        Set<SampleField> result = EnumSet.noneOf(SampleField.class);
+
         for ( FeedableReport oneReport : this.reports ) {
-            oneReport.onFeedComplete();
+            if ( ! ( oneReport instanceof SampleFieldConsumer ) ) {
+                return SampleField.all();
+            }
+
+            result.addAll(((SampleFieldConsumer) oneReport).getRequiredFields());
         }
+
+        return result;
     }
 
     @Override
     public void onSample(Sample topLevelSample) throws Exception {
+        this.aggregationEngine.onSample(topLevelSample);
+
         for ( FeedableReport oneReport : this.reports ) {
             oneReport.onSample(topLevelSample);
         }
     }
 
+    @Override
+    public void onSamples(SampleBatch batch) throws Exception {
+        this.aggregationEngine.onSamples(batch);
+
+        for ( FeedableReport oneReport : this.reports ) {
+            SampleBatch.feed(oneReport, batch);
+        }
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        this.aggregationEngine.writeCheckpoint(out);
+
+        out.writeInt(this.reports.size());
+
+        for ( FeedableReport oneReport : this.reports ) {
+            if ( ! ( oneReport instanceof CheckpointableReport ) ) {
+                throw new IOException("report " + oneReport.getClass().getSimpleName() +
+                        " does not support checkpoints");
+            }
+
+            out.writeUTF(oneReport.getClass().getName());
+            ((CheckpointableReport) oneReport).writeCheckpoint(out);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        this.aggregationEngine.readCheckpoint(in);
+
+        if ( in.readInt() != this.reports.size() ) {
+            throw new IOException("checkpoint was taken with a different list of reports");
+        }
+
+        for ( FeedableReport oneReport : this.reports ) {
+            if ( ! oneReport.getClass().getName().equals(in.readUTF()) ) {
+                throw new IOException("checkpoint was taken with a different list of reports");
+            }
+
+            ((CheckpointableReport) oneReport).readCheckpoint(in);
+        }
+    }
+
     protected void  extractReportProperties (Properties props) {
         String reportNameListString = props.getProperty(PROPERTY_MULTI_REPORT_NAMES);
 
         String[] reportNames = reportNameListString.split(",");
 
+        // Start from scratch on each feed, with reports of our own rather than the registered instances
+        this.reports.clear();
+
         for ( String oneReportName : reportNames ) {
-            FeedableReport report = GlobalReportTypeRegistry.get().getReportType(oneReportName);
+            FeedableReport report = GlobalReportTypeRegistry.get().createReport(oneReportName);
 
             if ( report == null ) {
                 throw new RuntimeException("invalid report name \"" + oneReportName + "\"");
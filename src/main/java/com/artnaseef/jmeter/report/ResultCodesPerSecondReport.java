@@ -13,16 +13,25 @@
  */
 package com.artnaseef.jmeter.report;
 
+import com.artnaseef.jmeter.report.aggregate.Aggregation;
+import com.artnaseef.jmeter.report.aggregate.AggregationEngine;
+import com.artnaseef.jmeter.report.aggregate.MetricDefinition;
+import com.artnaseef.jmeter.report.aggregate.SlotCountStore;
+import com.artnaseef.jmeter.report.aggregate.SlotCountVisitor;
+import com.artnaseef.jmeter.report.chart.ArrayXYDataset;
 import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
 import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.util.ExportUtils;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
 
@@ -31,7 +40,8 @@ import joptsimple.OptionParser;
 /**
  * Created by art on 4/7/15.
  */
-public class ResultCodesPerSecondReport implements FeedableReport {
+public class ResultCodesPerSecondReport implements FeedableReport, BatchFeedable, SampleFieldConsumer,
+        CheckpointableReport {
 
     private OptionParser optionParser;
 
@@ -41,16 +51,22 @@ public class ResultCodesPerSecondReport implements FeedableReport {
     private int reportWidth = 1000;
     private int reportHeight = 750;
 
-    private XYSeriesCollection dataset;
+    private ArrayXYDataset dataset;
     private JFreeChart chart;
-    private List<XYSeries> chartSeries;
-    private Map<Integer, Map<Long, Long>> samplesByReportCode;
+    private List<ArrayXYDataset.Series> chartSeries;
+    private AggregationEngine aggregationEngine;
+    private SlotCountStore samplesByReportCode;
+    private ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
 
     private double secPerSample;
     private String yAxisLabel = "Seconds";
 
     private long timeSlotSize = 1000; // In milliseconds
 
+    private SampleScale sampleScale;
+    private long samplesRead;
+    private long points;
+
     private long startTimestampSlot = -1;
     private long endTimestampSlot = -1;
 
@@ -69,15 +85,23 @@ public class ResultCodesPerSecondReport implements FeedableReport {
         }
     }
 
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.RESULT_CODE);
+    }
+
     @Override
     public void onSample(Sample topLevelSample) throws Exception {
-        List<Sample> subSamples = topLevelSample.getSubSamples();
-        if ((subSamples != null) && (!subSamples.isEmpty())) {
-            for (Sample oneSub : subSamples) {
-                this.onSample(oneSub);
-            }
-        } else {
-            this.addConcreteSample(topLevelSample);
+        // A shared engine is fed by its owner
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.onSample(topLevelSample);
+        }
+    }
+
+    @Override
+    public void onSamples(SampleBatch batch) throws Exception {
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.onSamples(batch);
         }
     }
 
@@ -88,8 +112,11 @@ public class ResultCodesPerSecondReport implements FeedableReport {
         this.extractReportProperties(reportProperties);
 
         this.chartSeries = new LinkedList<>();
-        this.samplesByReportCode = new TreeMap<>();
-        this.dataset = new XYSeriesCollection();
+        this.aggregationEngine = AggregationEngine.fromProperties(reportProperties);
+        Aggregation resultCodes = this.aggregationEngine.register(new MetricDefinition("resultCodesPerSecond",
+                MetricDefinition.GroupBy.RESULT_CODE, MetricDefinition.Metric.COUNT, this.timeSlotSize));
+        this.samplesByReportCode = resultCodes.getStore();
+        this.dataset = new ArrayXYDataset();
 
         if (this.detailOutputFile != null) {
             this.detailFileWriter = new PrintStream(this.detailOutputFile);
@@ -100,19 +127,50 @@ public class ResultCodesPerSecondReport implements FeedableReport {
     public void onFeedComplete() throws Exception {
         this.calculateTimeAdjustments();
 
-        this.populateSeries(this.feedUri);
+        // Take the range from the store, which includes any counts restored from a persistent store.
+        this.startTimestampSlot = this.samplesByReportCode.getMinSlot();
+        this.endTimestampSlot = this.samplesByReportCode.getMaxSlot();
 
-        for (XYSeries oneSeries : this.chartSeries) {
+        try {
+            this.populateSeries(this.feedUri);
+        } finally {
+            if (!this.aggregationEngine.isShared()) {
+                this.aggregationEngine.close();
+            }
+        }
+
+        for (ArrayXYDataset.Series oneSeries : this.chartSeries) {
             this.dataset.addSeries(oneSeries);
         }
 
         this.createChart();
+        this.sampleScale.annotate(this.chart, this.samplesRead, this.points);
 
         ExportUtils.writeAsPNG(this.chart, this.reportWidth, this.reportHeight,
                 new File(this.outputFile));
     }
 
 
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.timeSlotSize);
+
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.writeCheckpoint(out);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        if (in.readLong() != this.timeSlotSize) {
+            throw new IOException("checkpoint was taken with a different slot size");
+        }
+
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.readCheckpoint(in);
+        }
+    }
+
     protected void extractReportProperties (Properties prop) {
         this.detailOutputFile = prop.getProperty(ReportLauncher.PROPERTY_DETAIL_FILE_NAME);
 
@@ -135,6 +193,8 @@ public class ResultCodesPerSecondReport implements FeedableReport {
         if ( slotSize != null ) {
             this.timeSlotSize = slotSize;
         }
+
+        this.sampleScale = SampleScale.fromProperties(prop);
     }
 
     protected void calculateTimeAdjustments() {
@@ -147,24 +207,55 @@ public class ResultCodesPerSecondReport implements FeedableReport {
         }
     }
 
-    protected void populateSeries(String sourceUri) {
-        for (Map.Entry<Integer, Map<Long, Long>> entry : this.samplesByReportCode.entrySet()) {
-            XYSeries rcSeries = new XYSeries(Integer.toString(entry.getKey()));
-            this.chartSeries.add(rcSeries);
+    protected void populateSeries(final String sourceUri) throws Exception {
+        // The store visits in key order; keep the series, and their detail lines, in result code order.
+        final Map<Integer, ArrayXYDataset.Series> seriesByResultCode =
+                new TreeMap<>(this.resultCodeDictionary.idComparator());
+        final Map<Integer, List<String>> detailLinesByResultCode =
+                new TreeMap<>(this.resultCodeDictionary.idComparator());
+        this.samplesRead = 0;
+        this.points = 0;
+
+        this.samplesByReportCode.visit(new SlotCountVisitor() {
+            private int currentKey = -1;
+            private ArrayXYDataset.Series rcSeries;
+            private List<String> detailLines;
+
+            @Override
+            public void onCount(int key, String seriesName, long slot, long count) {
+                if (key != this.currentKey) {
+                    int resultCodeId = resultCodeDictionary.intern(seriesName);
+
+                    this.rcSeries = new ArrayXYDataset.Series(resultCodeDictionary.getDisplayName(resultCodeId));
+                    this.currentKey = key;
+                    seriesByResultCode.put(resultCodeId, this.rcSeries);
+
+                    if (detailFileWriter != null) {
+                        this.detailLines = new ArrayList<>();
+                        detailLinesByResultCode.put(resultCodeId, this.detailLines);
+                    }
+                }
+
+                long xPoint = calculateXAxisOffset(slot);
+                double yPoint = sampleScale.scale(count) / secPerSample;
 
-            for (Map.Entry<Long, Long> hitCountSeconds : entry.getValue().entrySet()) {
-                long xPoint = this.calculateXAxisOffset(hitCountSeconds.getKey());
-                double yPoint = (double) hitCountSeconds.getValue() / this.secPerSample;
+                samplesRead += count;
+                points++;
 
-                rcSeries.add(xPoint, yPoint);
+                this.rcSeries.add(xPoint, yPoint);
 
-                if (this.detailFileWriter != null) {
-                    this.detailFileWriter.println(
-                            String.format("%s|%d|%d|%d|%f", sourceUri,
-                                    hitCountSeconds.getKey(), hitCountSeconds.getValue(),
-                                    xPoint, yPoint));
+                if (detailFileWriter != null) {
+                    this.detailLines.add(String.format("%s|%d|%d|%d|%f", sourceUri, slot, count, xPoint, yPoint));
                 }
             }
+        });
+
+        this.chartSeries.addAll(seriesByResultCode.values());
+
+        for (List<String> detailLines : detailLinesByResultCode.values()) {
+            for (String oneLine : detailLines) {
+                this.detailFileWriter.println(oneLine);
+            }
         }
     }
 
@@ -182,37 +273,6 @@ public class ResultCodesPerSecondReport implements FeedableReport {
         );
     }
 
-    protected void addConcreteSample(Sample oneSample) {
-        Map<Long, Long> slotSamples = this.samplesByReportCode.get(oneSample.getResultCode());
-
-        if (slotSamples == null) {
-            slotSamples = new TreeMap<>();
-            this.samplesByReportCode.put(oneSample.getResultCode(), slotSamples);
-        }
-
-        long newCount = 1;
-        long timeStampSlot = normalizeTimestamp(oneSample.getTimestamp());
-        Long existingCount = slotSamples.get(timeStampSlot);
-
-        if (existingCount != null) {
-            newCount += existingCount;
-        }
-
-        slotSamples.put(timeStampSlot, newCount);
-
-        if ((this.startTimestampSlot == -1) || (timeStampSlot < this.startTimestampSlot)) {
-            this.startTimestampSlot = timeStampSlot;
-        }
-
-        if ((this.endTimestampSlot == -1) || (timeStampSlot > this.endTimestampSlot)) {
-            this.endTimestampSlot = timeStampSlot;
-        }
-    }
-
-    protected long normalizeTimestamp(long timestamp) {
-        return timestamp / this.timeSlotSize;
-    }
-
     protected long calculateXAxisOffset(long timestampSlot) {
         long result = timestampSlot - this.startTimestampSlot;
 
@@ -13,18 +13,28 @@
  */
 package com.artnaseef.jmeter.report;
 
+import com.artnaseef.jmeter.report.aggregate.Aggregation;
+import com.artnaseef.jmeter.report.aggregate.AggregationEngine;
+import com.artnaseef.jmeter.report.aggregate.MetricDefinition;
+import com.artnaseef.jmeter.report.aggregate.SlotCountStore;
+import com.artnaseef.jmeter.report.aggregate.SlotCountVisitor;
+import com.artnaseef.jmeter.report.chart.ArrayCategoryDataset;
 import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
 import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.CategoryPlot;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.renderer.category.CategoryItemRenderer;
 import org.jfree.chart.util.ExportUtils;
-import org.jfree.data.category.DefaultCategoryDataset;
 
 import java.awt.*;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
 import java.util.List;
@@ -34,7 +44,8 @@ import java.util.List;
  *
  * Created by art on 4/7/15.
  */
-public class ResultCodesStackedReport implements FeedableReport {
+public class ResultCodesStackedReport implements FeedableReport, BatchFeedable, SampleFieldConsumer,
+        CheckpointableReport {
 
     private String outputFile = "resultCodesStacked.png";
     private String detailOutputFile;
@@ -42,9 +53,13 @@ public class ResultCodesStackedReport implements FeedableReport {
     private int reportWidth = 1000;
     private int reportHeight = 750;
 
-    private DefaultCategoryDataset dataset;
+    private ArrayCategoryDataset dataset;
     private JFreeChart chart;
-    private Map<Integer, Map<Long, Long>> samplesByReportCode;
+    private AggregationEngine aggregationEngine;
+    private SlotCountStore slotCountStore;
+    private Map<Integer, long[]> countsByResultCode;
+    private Map<String, Integer> resultCodeIdsByRowKey;
+    private ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
 
     private double secPerSample;
     private String yAxisLabel = "Average Samples Per Second";
@@ -52,9 +67,17 @@ public class ResultCodesStackedReport implements FeedableReport {
     private long timeSlotSize = 1000; // In milliseconds
     private int maxSlots = 25;
 
+    private SampleScale sampleScale;
+    private long samplesRead;
+    private long points;
+
     private long startTimestampSlot = -1;
     private long endTimestampSlot = -1;
 
+    // Slots of the store per slot of the chart, less than 1 once resampled, and the last column with counts
+    private double slotRatio = 1.0;
+    private int lastColumn;
+
     private PrintStream detailFileWriter;
 
     private String feedUri;
@@ -70,15 +93,23 @@ public class ResultCodesStackedReport implements FeedableReport {
         }
     }
 
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.RESULT_CODE);
+    }
+
     @Override
     public void onSample(Sample topLevelSample) throws Exception {
-        List<Sample> subSamples = topLevelSample.getSubSamples();
-        if ((subSamples != null) && (!subSamples.isEmpty())) {
-            for (Sample oneSub : subSamples) {
-                this.onSample(oneSub);
-            }
-        } else {
-            this.addConcreteSample(topLevelSample);
+        // A shared engine is fed by its owner
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.onSample(topLevelSample);
+        }
+    }
+
+    @Override
+    public void onSamples(SampleBatch batch) throws Exception {
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.onSamples(batch);
         }
     }
 
@@ -88,8 +119,12 @@ public class ResultCodesStackedReport implements FeedableReport {
 
         this.extractReportProperties(reportProperties);
 
-        this.samplesByReportCode = new TreeMap<>();
-        this.dataset = new DefaultCategoryDataset();
+        this.aggregationEngine = AggregationEngine.fromProperties(reportProperties);
+        Aggregation resultCodes = this.aggregationEngine.register(new MetricDefinition("resultCodesStacked",
+                MetricDefinition.GroupBy.RESULT_CODE, MetricDefinition.Metric.COUNT, this.timeSlotSize));
+        this.slotCountStore = resultCodes.getStore();
+        this.countsByResultCode = new TreeMap<>(this.resultCodeDictionary.idComparator());
+        this.resultCodeIdsByRowKey = new HashMap<>();
 
         if (this.detailOutputFile != null) {
             this.detailFileWriter = new PrintStream(this.detailOutputFile);
@@ -98,18 +133,45 @@ public class ResultCodesStackedReport implements FeedableReport {
 
     @Override
     public void onFeedComplete() throws Exception {
-        this.adjustSlots();
+        try {
+            this.loadSlotCounts();
+        } finally {
+            if (!this.aggregationEngine.isShared()) {
+                this.aggregationEngine.close();
+            }
+        }
 
         this.calculateTimeCustomizations();
 
         this.populateSeries(this.feedUri);
 
         this.createChart();
+        this.sampleScale.annotate(this.chart, this.samplesRead, this.points);
 
         ExportUtils.writeAsPNG(this.chart, this.reportWidth, this.reportHeight,
                 new File(this.outputFile));
     }
 
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(this.timeSlotSize);
+
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.writeCheckpoint(out);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        if (in.readLong() != this.timeSlotSize) {
+            throw new IOException("checkpoint was taken with a different slot size");
+        }
+
+        if (!this.aggregationEngine.isShared()) {
+            this.aggregationEngine.readCheckpoint(in);
+        }
+    }
+
     /**
      * Extract configuration from the given report properties.
      *
@@ -142,6 +204,8 @@ public class ResultCodesStackedReport implements FeedableReport {
         if ( maxSlotsProperty != null ) {
             this.maxSlots = maxSlotsProperty;
         }
+
+        this.sampleScale = SampleScale.fromProperties(prop);
     }
 
     /**
@@ -163,36 +227,53 @@ public class ResultCodesStackedReport implements FeedableReport {
      * @param sourceUri URI from which the sample data was collected for reporting purposes.
      */
     protected void populateSeries(String sourceUri) {
-        // Initialize the dataset to force the order; the chart is drawn in order the data is added to the dataset.
-        int cur = 0;
-        while ( cur < ( this.endTimestampSlot - this.startTimestampSlot ) + 1 ) {
-            this.dataset.addValue(0.0, Integer.valueOf(-1), Long.valueOf(cur));
-            cur++;
-        }
+        // The dataset has one column per slot, in slot order, which is the order in which the chart draws them.
+        this.dataset = new ArrayCategoryDataset(this.lastColumn + 1);
+
+        this.samplesRead = 0;
+        this.points = 0;
 
         // Iterate over all the result codes from the input.
-        for (Map.Entry<Integer, Map<Long, Long>> entry : this.samplesByReportCode.entrySet()) {
-            Integer resultCode = entry.getKey();
+        for (Map.Entry<Integer, long[]> entry : this.countsByResultCode.entrySet()) {
+            Integer resultCodeId = entry.getKey();
+            String rowKey = this.resultCodeDictionary.getDisplayName(resultCodeId);
+            this.resultCodeIdsByRowKey.put(rowKey, resultCodeId);
+
+            double[] rowValues;
+            int row = this.dataset.getRowIndex(rowKey);
+            if ( row == -1 ) {
+                rowValues = this.dataset.createRowValues();
+                this.dataset.addRow(rowKey, rowValues);
+            } else {
+                // Distinct codes may share a display name; they share the row as well.
+                rowValues = this.dataset.getRowValues(row);
+            }
 
             // Iterate over every time slot sampled for this result code and add the total samples for this result
             //  code to the chart data feed.
-            for (Map.Entry<Long, Long> hitCountSeconds : entry.getValue().entrySet()) {
-                long timestamp = hitCountSeconds.getKey();
-                long hits = hitCountSeconds.getValue();
-
-                Long xPoint = this.calculateXAxisOffset(timestamp);     // Timestamp offset
-                double yPoint = (double) hits / this.secPerSample;      // Average per second
-
-                // Add the data point to the chart data feed.
-                this.dataset.addValue(yPoint, Integer.valueOf(resultCode), xPoint);
-
-                if (this.detailFileWriter != null) {
-                    this.detailFileWriter.println(
-                            String.format("%s|%d|%d|%d|%d|%f", sourceUri,
-                                    resultCode,
-                                    hitCountSeconds.getKey(), hitCountSeconds.getValue(),
-                                    xPoint, yPoint));
+            long[] counts = entry.getValue();
+            int xPoint = 0;
+            while (xPoint <= this.lastColumn) {
+                long hits = counts[xPoint];
+
+                if (hits != 0) {
+                    double yPoint = this.sampleScale.scale(hits) / this.secPerSample;      // Average per second
+
+                    this.samplesRead += hits;
+                    this.points++;
+
+                    // Add the data point to the chart data feed.
+                    rowValues[xPoint] = yPoint;
+
+                    if (this.detailFileWriter != null) {
+                        this.detailFileWriter.println(
+                                String.format("%s|%s|%d|%d|%d|%f", sourceUri,
+                                        this.resultCodeDictionary.getCode(resultCodeId),
+                                        this.startTimestampSlot + xPoint, hits, xPoint, yPoint));
+                    }
                 }
+
+                xPoint++;
             }
         }
     }
@@ -231,27 +312,38 @@ public class ResultCodesStackedReport implements FeedableReport {
         int cur = 0;
         Map<Integer, Integer> colorAdjustMap = new HashMap<>();
         while ( cur < rowKeys.size() ) {
-            Integer resultCode = (Integer) rowKeys.get(cur);
+            Integer resultCodeId = this.resultCodeIdsByRowKey.get(rowKeys.get(cur));
+
+            // The category lookup replaces the numeric division, so non-HTTP codes get their own color group.
+            int group;
+            if (resultCodeId != null) {
+                group = this.resultCodeDictionary.getCategory(resultCodeId);
+            } else {
+                group = ResultCodeDictionary.CATEGORY_OTHER;
+            }
 
             Color color;
-            int group = resultCode / 100;
             switch ( group ) {
-                case 2:
+                case ResultCodeDictionary.CATEGORY_SUCCESS:
                     color = Color.GREEN;
                     break;
 
-                case 3:
+                case ResultCodeDictionary.CATEGORY_REDIRECT:
                     color = Color.BLUE;
                     break;
 
-                case 4:
+                case ResultCodeDictionary.CATEGORY_CLIENT_ERROR:
                     color = Color.ORANGE;
                     break;
 
-                case 5:
+                case ResultCodeDictionary.CATEGORY_SERVER_ERROR:
                     color = Color.RED;
                     break;
 
+                case ResultCodeDictionary.CATEGORY_NON_HTTP:
+                    color = Color.MAGENTA;
+                    break;
+
                 default:
                     color = Color.GRAY;
                     break;
@@ -295,36 +387,39 @@ public class ResultCodesStackedReport implements FeedableReport {
     }
 
     /**
-     * Add a single, concrete sample to the accumulated data.  Samples are aggregated into totals by slot using the
-     * configured slot size.
-     *
-     * @param oneSample
+     * Load the counts from the store, resampled to the chart's slots as they are visited, into one small array of
+     * counts per result code, indexed by the column of the chart.  Only the counts as aggregated need the store.
      */
-    protected void addConcreteSample(Sample oneSample) {
-        Map<Long, Long> slotSamples = this.samplesByReportCode.get(oneSample.getResultCode());
+    protected void loadSlotCounts() throws Exception {
+        this.lastColumn = 0;
 
-        if (slotSamples == null) {
-            slotSamples = new TreeMap<>();
-            this.samplesByReportCode.put(oneSample.getResultCode(), slotSamples);
+        if (this.slotCountStore.getMinSlot() == Long.MAX_VALUE) {
+            return;
         }
 
-        long newCount = 1;
-        long timeStampSlot = calculateTimestampSlot(oneSample.getTimestamp());
-        Long existingCount = slotSamples.get(timeStampSlot);
+        this.startTimestampSlot = this.slotCountStore.getMinSlot();
+        this.endTimestampSlot = this.slotCountStore.getMaxSlot();
 
-        if (existingCount != null) {
-            newCount += existingCount;
-        }
+        this.adjustSlots();
 
-        slotSamples.put(timeStampSlot, newCount);
+        // Resampling may carry counts into the slot past the end
+        final int columnCount = (int) (this.endTimestampSlot - this.startTimestampSlot) + 2;
 
-        if ((this.startTimestampSlot == -1) || (timeStampSlot < this.startTimestampSlot)) {
-            this.startTimestampSlot = timeStampSlot;
-        }
+        this.slotCountStore.visit(new SlotCountVisitor() {
+            private int currentKey = -1;
+            private long[] counts;
 
-        if ((this.endTimestampSlot == -1) || (timeStampSlot > this.endTimestampSlot)) {
-            this.endTimestampSlot = timeStampSlot;
-        }
+            @Override
+            public void onCount(int key, String seriesName, long slot, long count) {
+                if (key != this.currentKey) {
+                    this.counts = new long[columnCount];
+                    this.currentKey = key;
+                    countsByResultCode.put(resultCodeDictionary.intern(seriesName), this.counts);
+                }
+
+                resample(this.counts, slot, count);
+            }
+        });
     }
 
     /**
@@ -336,90 +431,47 @@ public class ResultCodesStackedReport implements FeedableReport {
         if ( range > maxSlots) {
             long newSlotSize = ( range * this.timeSlotSize ) / maxSlots;
 
-            this.resample(this.timeSlotSize, newSlotSize);
+            this.slotRatio = (double) this.timeSlotSize / (double) newSlotSize;
             this.timeSlotSize = newSlotSize;
+
+            this.startTimestampSlot = (long) (this.startTimestampSlot * this.slotRatio);
+            this.endTimestampSlot = (long) (this.endTimestampSlot * this.slotRatio);
         }
     }
 
     /**
-     * Re-sample the averages from the original slot size given to the new slot size given.  Since the source data
-     * has already been aggregated into slots, the results will not be as accurate as it would be to re-run the
-     * report with the ideal slot size.  However, an effort is made to apply anti-aliasing so the resulting graph
-     * should have a nearly identical overall shape to the original.
+     * Re-sample the count of one slot of the store into the columns of the chart, whose slots are larger.  Since the
+     * source data has already been aggregated into slots, the results will not be as accurate as it would be to
+     * re-run the report with the ideal slot size.  However, an effort is made to apply anti-aliasing so the resulting
+     * graph should have a nearly identical overall shape to the original.
      *
-     * @param origSlotSize
-     * @param newSlotSize
+     * @param counts counts of the result code, by column.
+     * @param origSlot slot of the store.
+     * @param count count of the slot.
      */
-    protected void resample (long origSlotSize, long newSlotSize) {
-        Map<Integer, Map<Long, Long>> updatedSamplesByReportCode = new TreeMap<>();
-        long updatedStartTimeSlot = Integer.MAX_VALUE;
-        long updatedEndTimeSlot = 0;
-
-        double slotRatio = (double) origSlotSize / (double) newSlotSize;
-
-        for ( Integer oneRc : this.samplesByReportCode.keySet() ) {
-            Map<Long, Long> origSamplesOneRc = this.samplesByReportCode.get(oneRc);
-            Map<Long, Long> newSamplesOneRc;
-
-            newSamplesOneRc = new TreeMap<>();
-            updatedSamplesByReportCode.put(oneRc, newSamplesOneRc);
-
-            for ( Long origSlot : origSamplesOneRc.keySet() ) {
-                // Calculate the left-side position for the re-sample, and the percentage that the old samples "cover"
-                //  the left-side.  The right-side will get any remainder after populating the left side.  Remember
-                //  that there is integer arithmetic here and automatic truncation of decimals.
-                double newSlotTgtPt = origSlot * slotRatio;
-                long newLeftSlot = (long) newSlotTgtPt;
-                double leftPct = 1 - ( newSlotTgtPt - newLeftSlot );
-
-                // Update the count on the left size, if any.
-                long leftCount = (long) ( origSamplesOneRc.get(origSlot) * leftPct );
-                if ( leftCount > 0 ) {
-                    Long orig = newSamplesOneRc.get(newLeftSlot);
-                    if ( orig == null ) {
-                        newSamplesOneRc.put(newLeftSlot, leftCount);
-                    } else {
-                        newSamplesOneRc.put(newLeftSlot, leftCount + orig);
-                    }
-
-                    // Adjust the updated start and end slots
-                    if ( newLeftSlot < updatedStartTimeSlot ) {
-                        updatedStartTimeSlot = newLeftSlot;
-                    }
-                    if ( newLeftSlot > updatedEndTimeSlot ) {
-                        updatedEndTimeSlot = newLeftSlot;
-                    }
-                }
-
-                // Update the count on the right side, if anything remains.
-                long rightCount = origSamplesOneRc.get(origSlot) - leftCount;
-                if ( rightCount > 0 ) {
-                    Long orig = newSamplesOneRc.get(newLeftSlot + 1);
-                    if ( orig == null ) {
-                        newSamplesOneRc.put(newLeftSlot + 1, leftCount);
-                    } else {
-                        newSamplesOneRc.put(newLeftSlot + 1, leftCount + orig);
-                    }
-
-                    // Adjust the updated start and end slots
-                    if ( newLeftSlot < updatedStartTimeSlot ) {
-                        updatedStartTimeSlot = newLeftSlot;
-                    }
-                    if ( newLeftSlot > updatedEndTimeSlot ) {
-                        updatedEndTimeSlot = newLeftSlot;
-                    }
-                }
-            }
+    protected void resample (long[] counts, long origSlot, long count) {
+        // Calculate the left-side position for the re-sample, and the percentage that the old samples "cover" the
+        //  left-side.  The right-side will get any remainder after populating the left side.  Remember that there is
+        //  integer arithmetic here and automatic truncation of decimals.
+        double newSlotTgtPt = origSlot * this.slotRatio;
+        long newLeftSlot = (long) newSlotTgtPt;
+        double leftPct = 1 - ( newSlotTgtPt - newLeftSlot );
+
+        int column = (int) this.calculateXAxisOffset(newLeftSlot);
+
+        // Update the count on the left side, if any.
+        long leftCount = (long) ( count * leftPct );
+        if ( leftCount > 0 ) {
+            counts[column] += leftCount;
+            this.lastColumn = Math.max(this.lastColumn, column);
         }
 
-        // Replace the originals with the updates.
-        this.samplesByReportCode = updatedSamplesByReportCode;
-        this.startTimestampSlot = updatedStartTimeSlot;
-        this.endTimestampSlot = updatedEndTimeSlot;
-    }
-
-    protected long calculateTimestampSlot(long timestamp) {
-        return timestamp / this.timeSlotSize;
+        // Update the count on the right side, if anything remains.
+        long rightCount = count - leftCount;
+        if ( rightCount > 0 ) {
+            counts[column + 1] += rightCount;
+            this.lastColumn = Math.max(this.lastColumn, column + 1);
+        }
     }
 
     protected long calculateXAxisOffset(long timestampSlot) {
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Batch of top-level samples, along with the leaf samples of the batch laid out in columns.  The leaves are the
+ * samples without sub-samples, which are the samples most reports count; reports which take batches loop over the
+ * leaf columns directly instead of walking each sample tree.
+ *
+ * Batches are filled by the source and reused once fed, so the arrays returned by the getters are only valid until
+ * the feed returns, and only the first size() or getLeafCount() entries are meaningful.
+ *
+ * Created by art on 10/19/26.
+ */
+public class SampleBatch {
+    public static final int DEFAULT_CAPACITY = 2048;
+
+    private final Sample[] samples;
+    private int size;
+
+    private int leafCount;
+    private long[] leafTimestamps;
+    private long[] leafElapsed;
+    private int[] leafResultCodeIds;
+    private boolean[] leafFailures;
+
+    public SampleBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of top-level samples the batch holds.
+     */
+    public SampleBatch(int capacity) {
+        this.samples = new Sample[capacity];
+
+        // Most samples have at least one leaf; the leaf columns grow as needed
+        int leafCapacity = Math.max(16, capacity);
+        this.leafTimestamps = new long[leafCapacity];
+        this.leafElapsed = new long[leafCapacity];
+        this.leafResultCodeIds = new int[leafCapacity];
+        this.leafFailures = new boolean[leafCapacity];
+    }
+
+    /**
+     * Feed the batch to the given destination, one sample at a time unless the destination takes whole batches.
+     *
+     * @param feedable destination of the samples.
+     * @param batch samples to feed.
+     * @throws Exception
+     */
+    public static void feed(Feedable feedable, SampleBatch batch) throws Exception {
+        if (feedable instanceof BatchFeedable) {
+            ((BatchFeedable) feedable).onSamples(batch);
+        } else {
+            int cur = 0;
+            while (cur < batch.size) {
+                feedable.onSample(batch.samples[cur]);
+                cur++;
+            }
+        }
+    }
+
+    /**
+     * Add a top-level sample to the batch.
+     *
+     * @param topLevelSample sample to add.
+     */
+    public void add(Sample topLevelSample) {
+        if (this.size >= this.samples.length) {
+            throw new IllegalStateException("batch is full");
+        }
+
+        this.samples[this.size] = topLevelSample;
+        this.size++;
+
+        this.addLeaves(topLevelSample);
+    }
+
+    public boolean isFull() {
+        return this.size >= this.samples.length;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        // Drop the references so the samples of a fed batch can be collected
+        Arrays.fill(this.samples, 0, this.size, null);
+
+        this.size = 0;
+        this.leafCount = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Sample getSample(int index) {
+        return this.samples[index];
+    }
+
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    public long[] getLeafTimestamps() {
+        return leafTimestamps;
+    }
+
+    public long[] getLeafElapsed() {
+        return leafElapsed;
+    }
+
+    public int[] getLeafResultCodeIds() {
+        return leafResultCodeIds;
+    }
+
+    public boolean[] getLeafFailures() {
+        return leafFailures;
+    }
+
+    protected void addLeaves(Sample topLevelSample) {
+        Sample[] leaves = topLevelSample.getLeaves();
+
+        int required = this.leafCount + leaves.length;
+        if (required > this.leafTimestamps.length) {
+            int newLength = Math.max(required, this.leafTimestamps.length * 2);
+
+            this.leafTimestamps = Arrays.copyOf(this.leafTimestamps, newLength);
+            this.leafElapsed = Arrays.copyOf(this.leafElapsed, newLength);
+            this.leafResultCodeIds = Arrays.copyOf(this.leafResultCodeIds, newLength);
+            this.leafFailures = Arrays.copyOf(this.leafFailures, newLength);
+        }
+
+        for (Sample oneLeaf : leaves) {
+            this.leafTimestamps[this.leafCount] = oneLeaf.getTimestamp();
+            this.leafElapsed[this.leafCount] = oneLeaf.getElapsed();
+            this.leafResultCodeIds[this.leafCount] = oneLeaf.getResultCodeId();
+            this.leafFailures[this.leafCount] = oneLeaf.isFailure();
+            this.leafCount++;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+
+import java.util.Set;
+
+/**
+ * Destination of samples which only uses some of the fields of each sample, so the parser can skip decoding the
+ * others.  Destinations which do not implement this interface are given every field.
+ *
+ * Created by art on 10/19/26.
+ */
+public interface SampleFieldConsumer {
+    /**
+     * Fields of the samples used by this destination; called after onFeedStart, before any samples are fed.
+     *
+     * @return the fields used.
+     */
+    Set<SampleField> getRequiredFields();
+}
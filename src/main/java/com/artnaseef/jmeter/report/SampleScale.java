@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.title.TextTitle;
+
+import java.util.Properties;
+
+/**
+ * Scale applied to counts when the sample source only reads a fraction of the samples.  Counts are scaled by the
+ * inverse of the fraction, and the estimated error of a scaled count of k samples read is sqrt((1 - p) / k) relative
+ * to the count, for sampling fraction p.
+ *
+ * Created by art on 10/19/26.
+ */
+public class SampleScale {
+    private static final double CONFIDENCE_95_Z = 1.96;
+
+    private final double sampleRate;
+
+    public SampleScale(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Determine the scale from the sampling properties given to the report.
+     *
+     * @param prop report properties.
+     * @return the scale; 1 if the samples are not sampled.
+     */
+    public static SampleScale fromProperties(Properties prop) {
+        Object sampleEvery = prop.get(ReportLauncher.PROPERTY_SAMPLE_EVERY);
+        if (sampleEvery != null) {
+            int every = Integer.parseInt(sampleEvery.toString());
+            if (every > 1) {
+                return new SampleScale(1.0 / every);
+            }
+
+            return new SampleScale(1.0);
+        }
+
+        Object sampleRate = prop.get(ReportLauncher.PROPERTY_SAMPLE_RATE);
+        if (sampleRate != null) {
+            double rate = Double.parseDouble(sampleRate.toString());
+            if ((rate > 0) && (rate < 1.0)) {
+                return new SampleScale(rate);
+            }
+        }
+
+        return new SampleScale(1.0);
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public boolean isSampled() {
+        return this.sampleRate < 1.0;
+    }
+
+    public double scale(long count) {
+        return count / this.sampleRate;
+    }
+
+    /**
+     * @param samplesRead number of samples read for one scaled count.
+     * @return relative standard error of the scaled count.
+     */
+    public double getRelativeError(double samplesRead) {
+        if (samplesRead <= 0) {
+            return 0;
+        }
+
+        return Math.sqrt((1.0 - this.sampleRate) / samplesRead);
+    }
+
+    /**
+     * @return one-line description of the sampling, for the output of text reports and the subtitles of charts.
+     */
+    public String describe() {
+        return String.format("Sampled %.3g%% of samples", this.sampleRate * 100.0);
+    }
+
+    /**
+     * Add a subtitle to the chart noting the sampling and the estimated error of a typical point, when sampled.
+     *
+     * @param chart chart to annotate.
+     * @param samplesRead total number of samples read across the points of the chart.
+     * @param points number of points in the chart.
+     */
+    public void annotate(JFreeChart chart, long samplesRead, long points) {
+        if ((!this.isSampled()) || (points == 0)) {
+            return;
+        }
+
+        double error = this.getRelativeError((double) samplesRead / points) * CONFIDENCE_95_Z;
+
+        chart.addSubtitle(new TextTitle(this.describe() +
+                String.format(", scaled by %.1f; estimated error of a typical point +/- %.1f%% (95%%)",
+                        1.0 / this.sampleRate, error * 100.0)));
+    }
+}
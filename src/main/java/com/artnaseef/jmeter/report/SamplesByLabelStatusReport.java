@@ -16,7 +16,9 @@ package com.artnaseef.jmeter.report;
 import com.artnaseef.jmeter.report.cli.ReportLauncher;
 import com.artnaseef.jmeter.report.jtl.JTLFileParseListener;
 import com.artnaseef.jmeter.report.jtl.JTLFileParser;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
 import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
 import org.jfree.data.xy.XYSeries;
@@ -24,26 +26,34 @@ import org.jfree.data.xy.XYSeriesCollection;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
-import java.util.List;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.TreeMap;
 
 /**
  * Report of the result for samples, aggregated by label, including success and error counts.
  *
- * This is a text-based report.
+ * This is a text-based report.  When the samples are sampled, the counts are scaled up to estimates of the full
+ * counts, and the report says so; the failure percentages need no scaling.
  *
  * Created by art on 4/7/15.
  */
-public class SamplesByLabelStatusReport implements FeedableReport {
+public class SamplesByLabelStatusReport implements FeedableReport, SampleFieldConsumer, CheckpointableReport {
 
     private String outputFile = "samplesByLabelStatusReport.txt";
     private Map<String, SampleStats> sampleStatsByLabel;
 
+    private ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
+
+    private SampleScale sampleScale;
+
     private PrintStream detailFileWriter;
 
     private String feedUri;
@@ -73,16 +83,52 @@ public class SamplesByLabelStatusReport implements FeedableReport {
         this.generateReport();
     }
 
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.LABEL, SampleField.RESULT_CODE, SampleField.ASSERTION_RESULTS);
+    }
+
     @Override
     public void onSample(Sample topLevelSample) throws Exception {
         this.addSample(topLevelSample);
     }
 
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeInt(this.sampleStatsByLabel.size());
+        for (Map.Entry<String, SampleStats> statEntry : this.sampleStatsByLabel.entrySet()) {
+            SampleStats stats = statEntry.getValue();
+
+            out.writeUTF(statEntry.getKey());
+            out.writeLong(stats.numSample);
+            out.writeLong(stats.numErrorOrFailure);
+            out.writeLong(stats.numError);
+            out.writeLong(stats.numFailure);
+        }
+    }
+
+    @Override
+    public void readCheckpoint(DataInput in) throws IOException {
+        int labelCount = in.readInt();
+        while (labelCount > 0) {
+            SampleStats stats = new SampleStats();
+            this.sampleStatsByLabel.put(in.readUTF(), stats);
+
+            stats.numSample = in.readLong();
+            stats.numErrorOrFailure = in.readLong();
+            stats.numError = in.readLong();
+            stats.numFailure = in.readLong();
+            labelCount--;
+        }
+    }
+
     protected void extractReportProperties (Properties prop) {
         String out = prop.getProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME);
         if ( out != null ) {
             this.outputFile = out;
         }
+
+        this.sampleScale = SampleScale.fromProperties(prop);
     }
 
     protected void generateReport () throws Exception {
@@ -102,6 +148,12 @@ public class SamplesByLabelStatusReport implements FeedableReport {
             }
 
             out.println(formatStats("TOTALS", totals));
+
+            if ( this.sampleScale.isSampled() ) {
+                out.println();
+                out.println(String.format("%s; counts are scaled by %.1f to estimate those of all samples",
+                        this.sampleScale.describe(), 1.0 / this.sampleScale.getSampleRate()));
+            }
         }
     }
 
@@ -121,12 +173,17 @@ public class SamplesByLabelStatusReport implements FeedableReport {
         }
 
         String result;
-        result = String.format("%-40s %10d %10d %10d %10d %10d %1.2f%%", label, stats.numSample, successCount,
-                stats.numErrorOrFailure, stats.numError, stats.numFailure, failPercentage);
+        result = String.format("%-40s %10d %10d %10d %10d %10d %1.2f%%", label, this.scale(stats.numSample),
+                this.scale(successCount), this.scale(stats.numErrorOrFailure), this.scale(stats.numError),
+                this.scale(stats.numFailure), failPercentage);
 
         return  result;
     }
 
+    protected long scale (long count) {
+        return Math.round(this.sampleScale.scale(count));
+    }
+
     protected void addSample(Sample oneSample) {
         boolean hasFailure = this.hasFailureSample(oneSample);
 
@@ -152,23 +209,8 @@ public class SamplesByLabelStatusReport implements FeedableReport {
     }
 
     protected boolean hasFailureSample (Sample topLevelSample) {
-        int result = 0;
-
-        int rc = topLevelSample.getResultCode();
-        if ( ( ( rc / 100 ) != 2 ) && ( ( rc / 100 ) != 3 ) ) {
-            return  true;
-        }
-
-        List<Sample> subSamples = topLevelSample.getSubSamples();
-        if ((subSamples != null) && (!subSamples.isEmpty())) {
-            for (Sample oneSub : subSamples) {
-                if ( hasFailureSample(oneSub) ) {
-                    return  true;
-                }
-            }
-        }
-
-        return false;
+        // Rolled up by the sample as its sub-samples are added
+        return topLevelSample.hasFailureResultCode();
     }
 
     protected class SampleStats {
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base for SlotCountStore implementations which keep the series names in memory, assigning keys in order of first
+ * use.
+ *
+ * Created by art on 10/19/26.
+ */
+public abstract class AbstractSlotCountStore implements SlotCountStore {
+    private final Map<String, Integer> keysByName = new HashMap<>();
+    private final List<String> seriesNames = new ArrayList<>();
+
+    @Override
+    public int resolveKey(String seriesName) throws IOException {
+        Integer key = this.keysByName.get(seriesName);
+
+        if (key == null) {
+            key = this.seriesNames.size();
+            this.keysByName.put(seriesName, key);
+            this.seriesNames.add(seriesName);
+
+            this.onNewSeries(key, seriesName);
+        }
+
+        return key;
+    }
+
+    @Override
+    public String getSeriesName(int key) {
+        if ((key < 0) || (key >= this.seriesNames.size())) {
+            return null;
+        }
+
+        return this.seriesNames.get(key);
+    }
+
+    public int getSeriesCount() {
+        return this.seriesNames.size();
+    }
+
+    @Override
+    public void clear() throws IOException {
+        this.keysByName.clear();
+        this.seriesNames.clear();
+
+        this.clearCounts();
+    }
+
+    /**
+     * Remove the counts of all series; the series themselves are already removed.
+     */
+    protected abstract void clearCounts() throws IOException;
+
+    /**
+     * Hook for stores that need to act on new series.
+     *
+     * @param key key assigned to the series.
+     * @param seriesName name of the series.
+     */
+    protected void onNewSeries(int key, String seriesName) throws IOException {
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * One aggregation registered with the AggregationEngine: the store of its counts, by series and time slot, along with
+ * the mapping from the group ids of the engine to the series keys of the store.
+ *
+ * Samples usually arrive in runs with the same series and slot, so the engine adds each run to the store at once.
+ *
+ * Created by art on 10/19/26.
+ */
+public class Aggregation {
+    private final MetricDefinition definition;
+    private final SlotCountStore store;
+
+    private int[] storeKeysByGroupId = new int[0];
+
+    private int runKey = -1;
+    private long runSlot = -1;
+    private long runValue;
+
+    public Aggregation(MetricDefinition definition, SlotCountStore store) {
+        this.definition = definition;
+        this.store = store;
+    }
+
+    public MetricDefinition getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return the store of the counts; complete once the engine has been fed all the samples.
+     */
+    public SlotCountStore getStore() {
+        return store;
+    }
+
+    /**
+     * @param groupId id of a group.
+     * @return key of the series of the group in the store, or -1 if it is not yet known.
+     */
+    protected int lookupStoreKey(int groupId) {
+        if (groupId >= this.storeKeysByGroupId.length) {
+            return -1;
+        }
+
+        return this.storeKeysByGroupId[groupId];
+    }
+
+    protected void cacheStoreKey(int groupId, int storeKey) {
+        if (groupId >= this.storeKeysByGroupId.length) {
+            int oldLength = this.storeKeysByGroupId.length;
+
+            this.storeKeysByGroupId = Arrays.copyOf(this.storeKeysByGroupId, Math.max(groupId + 1, oldLength * 2));
+            Arrays.fill(this.storeKeysByGroupId, oldLength, this.storeKeysByGroupId.length, -1);
+        }
+
+        this.storeKeysByGroupId[groupId] = storeKey;
+    }
+
+    /**
+     * Add to the count of the given series and slot, extending the current run when it is the same series and slot.
+     */
+    protected void add(int storeKey, long slot, long value) throws IOException {
+        if ((storeKey == this.runKey) && (slot == this.runSlot)) {
+            this.runValue += value;
+            return;
+        }
+
+        this.flush();
+
+        this.runKey = storeKey;
+        this.runSlot = slot;
+        this.runValue = value;
+    }
+
+    /**
+     * Add the current run, if any, to the store.
+     */
+    protected void flush() throws IOException {
+        if (this.runKey != -1) {
+            this.store.add(this.runKey, this.runSlot, this.runValue);
+            this.runKey = -1;
+        }
+    }
+}
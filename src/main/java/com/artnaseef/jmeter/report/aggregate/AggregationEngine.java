@@ -0,0 +1,358 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import com.artnaseef.jmeter.report.SampleBatch;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Compute the time-series aggregations declared by reports (see MetricDefinition) in a single pass over the samples.
+ *
+ * Each group-by key of a sample is resolved to a group id once, however many aggregations use it, and each
+ * aggregation maps the group id to its series with an array lookup.  Aggregations declared more than once, such as by
+ * two reports generated together, are computed once and shared.
+ *
+ * Reports generated together share one engine, which the MultipleReportGenerator passes to them in the report
+ * properties and feeds itself; a report alone creates its own engine and feeds it.
+ *
+ * Created by art on 10/19/26.
+ */
+public class AggregationEngine implements Closeable {
+    public static final String PROPERTY_SHARED_ENGINE = "aggregationEngine";
+
+    private final Properties reportProperties;
+    private final Map<MetricDefinition, Aggregation> aggregationsByDefinition = new LinkedHashMap<>();
+    private Aggregation[] aggregations = new Aggregation[0];
+
+    private boolean shared;
+    private boolean batchColumnar = true;
+
+    private final ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
+
+    private final Map<String, Integer> labelIds = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+
+    /**
+     * @param reportProperties report properties, which select the store of each aggregation.
+     */
+    public AggregationEngine(Properties reportProperties) {
+        this.reportProperties = reportProperties;
+    }
+
+    /**
+     * Get the engine shared through the given report properties, or a new engine if there is none.
+     *
+     * @param reportProperties report properties.
+     * @return the engine.
+     */
+    public static AggregationEngine fromProperties(Properties reportProperties) {
+        Object shared = reportProperties.get(PROPERTY_SHARED_ENGINE);
+        if (shared instanceof AggregationEngine) {
+            return (AggregationEngine) shared;
+        }
+
+        return new AggregationEngine(reportProperties);
+    }
+
+    /**
+     * Share the engine with the reports given the returned properties; those reports leave feeding and closing the
+     * engine to its owner.
+     *
+     * @param reportProperties report properties.
+     * @return a copy of the report properties which carries the engine.
+     */
+    public Properties share(Properties reportProperties) {
+        Properties result = new Properties();
+        result.putAll(reportProperties);
+        result.put(PROPERTY_SHARED_ENGINE, this);
+
+        this.shared = true;
+
+        return result;
+    }
+
+    /**
+     * @return true => the engine is fed and closed by its owner; false => by the report which created it.
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Register an aggregation to compute.  Registrations must happen before the first sample.
+     *
+     * @param definition definition of the aggregation.
+     * @return the aggregation, which may be shared with other registrations of the same data.
+     */
+    public Aggregation register(MetricDefinition definition) throws IOException {
+        Aggregation result = this.aggregationsByDefinition.get(definition);
+        if (result != null) {
+            return result;
+        }
+
+        SlotCountStore store = SlotCountStoreFactory.createStore(this.reportProperties, definition.getName(),
+                definition.getSlotSize());
+
+        result = new Aggregation(definition, store);
+        this.aggregationsByDefinition.put(definition, result);
+        this.aggregations = this.aggregationsByDefinition.values().toArray(new Aggregation[0]);
+
+        if (!definition.isBatchColumnar()) {
+            this.batchColumnar = false;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return fields of the samples needed to compute the registered aggregations, beyond the timestamp.
+     */
+    public Set<SampleField> getRequiredFields() {
+        Set<SampleField> result = EnumSet.noneOf(SampleField.class);
+        for (Aggregation oneAggregation : this.aggregations) {
+            result.addAll(oneAggregation.getDefinition().getRequiredFields());
+        }
+
+        return result;
+    }
+
+    public void onSample(Sample topLevelSample) throws IOException {
+        if (this.aggregations.length == 0) {
+            return;
+        }
+
+        for (Sample oneLeaf : topLevelSample.getLeaves()) {
+            this.addLeaf(oneLeaf);
+        }
+
+        this.flush();
+    }
+
+    public void onSamples(SampleBatch batch) throws IOException {
+        if (this.aggregations.length == 0) {
+            return;
+        }
+
+        if (!this.batchColumnar) {
+            int cur = 0;
+            while (cur < batch.size()) {
+                for (Sample oneLeaf : batch.getSample(cur).getLeaves()) {
+                    this.addLeaf(oneLeaf);
+                }
+                cur++;
+            }
+
+            this.flush();
+            return;
+        }
+
+        long[] timestamps = batch.getLeafTimestamps();
+        long[] elapsed = batch.getLeafElapsed();
+        int[] resultCodeIds = batch.getLeafResultCodeIds();
+        int leafCount = batch.getLeafCount();
+
+        int cur = 0;
+        while (cur < leafCount) {
+            // Skip samples with missing or malformed timestamps; they cannot be placed in a slot.
+            if (timestamps[cur] >= 0) {
+                for (Aggregation oneAggregation : this.aggregations) {
+                    MetricDefinition definition = oneAggregation.getDefinition();
+
+                    long value = 1;
+                    if (definition.getMetric() == MetricDefinition.Metric.ELAPSED) {
+                        value = elapsed[cur];
+                    }
+
+                    int groupId = 0;
+                    if (definition.getGroupBy() == MetricDefinition.GroupBy.RESULT_CODE) {
+                        groupId = resultCodeIds[cur];
+                    }
+
+                    this.add(oneAggregation, groupId, timestamps[cur], value);
+                }
+            }
+
+            cur++;
+        }
+
+        this.flush();
+    }
+
+    /**
+     * Write the counts of all the aggregations to a checkpoint.
+     *
+     * @param out destination of the counts.
+     */
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeInt(this.aggregations.length);
+
+        for (Aggregation oneAggregation : this.aggregations) {
+            out.writeUTF(oneAggregation.getDefinition().getName());
+            SlotCountStoreCheckpoint.writeCounts(oneAggregation.getStore(), out);
+        }
+    }
+
+    /**
+     * Restore the counts written by writeCheckpoint(), once the same aggregations are registered.
+     *
+     * @param in source of the counts.
+     */
+    public void readCheckpoint(DataInput in) throws IOException {
+        if (in.readInt() != this.aggregations.length) {
+            throw new IOException("checkpoint was taken with different aggregations");
+        }
+
+        for (Aggregation oneAggregation : this.aggregations) {
+            if (!oneAggregation.getDefinition().getName().equals(in.readUTF())) {
+                throw new IOException("checkpoint was taken with different aggregations");
+            }
+
+            SlotCountStoreCheckpoint.readCounts(oneAggregation.getStore(), in);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+
+        for (Aggregation oneAggregation : this.aggregations) {
+            try {
+                oneAggregation.getStore().close();
+            } catch (IOException ioExc) {
+                failure = ioExc;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    protected void addLeaf(Sample leaf) throws IOException {
+        // Skip samples with missing or malformed timestamps; they cannot be placed in a slot.
+        if (leaf.getTimestamp() < 0) {
+            return;
+        }
+
+        // Resolve the label at most once for the leaf
+        int labelId = -1;
+
+        for (Aggregation oneAggregation : this.aggregations) {
+            MetricDefinition definition = oneAggregation.getDefinition();
+
+            long value;
+            switch (definition.getMetric()) {
+                case ELAPSED:
+                    value = leaf.getElapsed();
+                    break;
+
+                case RECEIVED_BYTES:
+                    value = leaf.getReceivedBytes();
+                    break;
+
+                case SENT_BYTES:
+                    value = leaf.getSentBytes();
+                    break;
+
+                default:
+                    value = 1;
+                    break;
+            }
+
+            int groupId;
+            switch (definition.getGroupBy()) {
+                case LABEL:
+                    if (labelId == -1) {
+                        labelId = resolveGroupId(this.labelIds, this.labels, String.valueOf(leaf.getLabel()));
+                    }
+                    groupId = labelId;
+                    break;
+
+                case RESULT_CODE:
+                    groupId = leaf.getResultCodeId();
+                    break;
+
+                default:
+                    groupId = 0;
+                    break;
+            }
+
+            this.add(oneAggregation, groupId, leaf.getTimestamp(), value);
+        }
+    }
+
+    protected void add(Aggregation aggregation, int groupId, long timestamp, long value) throws IOException {
+        // Counts are always 1; the other metrics are missing or malformed when negative
+        if (value < 0) {
+            return;
+        }
+
+        int storeKey = aggregation.lookupStoreKey(groupId);
+        if (storeKey == -1) {
+            storeKey = aggregation.getStore().resolveKey(this.getGroupName(aggregation.getDefinition(), groupId));
+            aggregation.cacheStoreKey(groupId, storeKey);
+        }
+
+        aggregation.add(storeKey, timestamp / aggregation.getDefinition().getSlotSize(), value);
+    }
+
+    protected void flush() throws IOException {
+        for (Aggregation oneAggregation : this.aggregations) {
+            oneAggregation.flush();
+        }
+    }
+
+    /**
+     * @return name of the series of the given group in the given aggregation.
+     */
+    protected String getGroupName(MetricDefinition definition, int groupId) {
+        switch (definition.getGroupBy()) {
+            case LABEL:
+                return this.labels.get(groupId);
+
+            case RESULT_CODE:
+                return this.resultCodeDictionary.getCode(groupId);
+
+            default:
+                return definition.getMetric().getSeriesName();
+        }
+    }
+
+    protected static int resolveGroupId(Map<String, Integer> ids, List<String> names, String name) {
+        Integer result = ids.get(name);
+        if (result == null) {
+            result = names.size();
+            ids.put(name, result);
+            names.add(name);
+        }
+
+        return result;
+    }
+}
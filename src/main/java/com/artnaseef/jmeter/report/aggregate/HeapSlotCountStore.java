@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SlotCountStore held entirely on the heap, with one SlotCounter per series.
+ *
+ * Created by art on 10/19/26.
+ */
+public class HeapSlotCountStore extends AbstractSlotCountStore {
+    private final List<SlotCounter> counters = new ArrayList<>();
+
+    @Override
+    public void add(int key, long slot, long delta) {
+        this.counters.get(key).add(slot, delta);
+    }
+
+    @Override
+    public long getMinSlot() {
+        long result = Long.MAX_VALUE;
+        for (SlotCounter counter : this.counters) {
+            result = Math.min(result, counter.getMinSlot());
+        }
+
+        return result;
+    }
+
+    @Override
+    public long getMaxSlot() {
+        long result = Long.MIN_VALUE;
+        for (SlotCounter counter : this.counters) {
+            result = Math.max(result, counter.getMaxSlot());
+        }
+
+        return result;
+    }
+
+    @Override
+    public void visit(SlotCountVisitor visitor) throws IOException {
+        int key = 0;
+        while (key < this.counters.size()) {
+            SlotCounter counter = this.counters.get(key);
+            String seriesName = this.getSeriesName(key);
+
+            long slot = counter.nextSlot(Long.MIN_VALUE);
+            while (slot != Long.MAX_VALUE) {
+                visitor.onCount(key, seriesName, slot, counter.get(slot));
+                slot = counter.nextSlot(slot + 1);
+            }
+
+            key++;
+        }
+    }
+
+    @Override
+    public void close() {
+        this.counters.clear();
+    }
+
+    @Override
+    protected void clearCounts() {
+        this.counters.clear();
+    }
+
+    @Override
+    protected void onNewSeries(int key, String seriesName) {
+        this.counters.add(new SlotCounter());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Fixed-size, log-linear histogram of latencies in milliseconds.  Values below 64 ms are counted exactly; above that,
+ * each power of two is split into 32 linear sub-buckets, for a worst-case relative error of about 3%.  Memory use is
+ * constant regardless of the number or range of values recorded.
+ *
+ * Created by art on 10/19/26.
+ */
+public class LatencyHistogram {
+    private static final int EXACT_LIMIT = 64;
+    private static final int EXACT_BITS = 6;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Largest value tracked precisely; larger values are counted in the last bucket.
+     */
+    public static final long MAX_VALUE = Integer.MAX_VALUE;
+
+    public static final int NUM_BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[NUM_BUCKETS];
+    private long totalCount;
+    private long maxValue = -1;
+
+    public void record(long value) {
+        if (value < 0) {
+            return;
+        }
+
+        this.counts[bucketIndex(value)]++;
+        this.totalCount++;
+
+        if (value > this.maxValue) {
+            this.maxValue = value;
+        }
+    }
+
+    public void add(LatencyHistogram other) {
+        int cur = 0;
+        while (cur < NUM_BUCKETS) {
+            this.counts[cur] += other.counts[cur];
+            cur++;
+        }
+
+        this.totalCount += other.totalCount;
+        this.maxValue = Math.max(this.maxValue, other.maxValue);
+    }
+
+    /**
+     * Write the histogram to a checkpoint.
+     *
+     * @param out destination of the histogram.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(this.totalCount);
+        out.writeLong(this.maxValue);
+
+        int cur = 0;
+        while (cur < NUM_BUCKETS) {
+            if (this.counts[cur] != 0) {
+                out.writeInt(cur);
+                out.writeLong(this.counts[cur]);
+            }
+            cur++;
+        }
+
+        out.writeInt(-1);
+    }
+
+    /**
+     * Restore the histogram written by writeTo(), replacing the contents of this one.
+     *
+     * @param in source of the histogram.
+     */
+    public void readFrom(DataInput in) throws IOException {
+        this.totalCount = in.readLong();
+        this.maxValue = in.readLong();
+
+        Arrays.fill(this.counts, 0);
+
+        int bucket = in.readInt();
+        while (bucket != -1) {
+            this.counts[bucket] = in.readLong();
+            bucket = in.readInt();
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return largest value recorded, or -1 if the histogram is empty.
+     */
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public long getCount(int bucket) {
+        return this.counts[bucket];
+    }
+
+    /**
+     * Estimate the value at the given percentile.  The estimate is the upper bound of the bucket containing the
+     * percentile, so it never understates the latency.
+     *
+     * @param percentile percentile, from 0 to 100.
+     * @return estimated value, or -1 if the histogram is empty.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (this.totalCount == 0) {
+            return -1;
+        }
+
+        long target = (long) Math.ceil((percentile / 100.0) * this.totalCount);
+        if (target < 1) {
+            target = 1;
+        }
+
+        long cumulative = 0;
+        int cur = 0;
+        while (cur < NUM_BUCKETS) {
+            cumulative += this.counts[cur];
+            if (cumulative >= target) {
+                return Math.min(bucketUpperBound(cur), this.maxValue);
+            }
+            cur++;
+        }
+
+        return this.maxValue;
+    }
+
+    /**
+     * Count the values strictly greater than the given threshold.  Exact when the threshold falls on a bucket
+     * boundary, and otherwise counts the whole bucket containing the threshold as above it.
+     *
+     * @param threshold threshold value.
+     * @return number of values above the threshold.
+     */
+    public long getCountAbove(long threshold) {
+        long result = 0;
+
+        int cur = bucketIndex(Math.max(threshold, 0));
+        if (bucketUpperBound(cur) <= threshold) {
+            cur++;
+        }
+
+        while (cur < NUM_BUCKETS) {
+            result += this.counts[cur];
+            cur++;
+        }
+
+        return result;
+    }
+
+    public static int bucketIndex(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+
+        if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);       // floor(log2(value)), at least EXACT_BITS
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >> shift) - SUB_BUCKETS;
+
+        return EXACT_LIMIT + ((exponent - EXACT_BITS) * SUB_BUCKETS) + subBucket;
+    }
+
+    /**
+     * @param bucket bucket index.
+     * @return smallest value counted in the bucket.
+     */
+    public static long bucketLowerBound(int bucket) {
+        if (bucket < EXACT_LIMIT) {
+            return bucket;
+        }
+
+        int exponent = ((bucket - EXACT_LIMIT) / SUB_BUCKETS) + EXACT_BITS;
+        int subBucket = (bucket - EXACT_LIMIT) % SUB_BUCKETS;
+
+        return ((long) (SUB_BUCKETS + subBucket)) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @param bucket bucket index.
+     * @return largest value counted in the bucket.
+     */
+    public static long bucketUpperBound(int bucket) {
+        if (bucket >= NUM_BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        return bucketLowerBound(bucket + 1) - 1;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Declaration of one aggregation computed by the AggregationEngine: a metric, summed by time slot for each value of a
+ * group-by key.  Definitions with the same key, metric and slot size describe the same data, and share one store.
+ *
+ * Created by art on 10/19/26.
+ */
+public class MetricDefinition {
+    /**
+     * Key by which the samples are grouped into series.
+     */
+    public enum GroupBy {
+        NONE,
+        LABEL,
+        RESULT_CODE
+    }
+
+    /**
+     * Value summed for each sample.  Samples without the value, such as those with a malformed elapsed time, are not
+     * counted.
+     */
+    public enum Metric {
+        COUNT("Hits"),
+        ELAPSED("Elapsed"),
+        RECEIVED_BYTES("Received"),
+        SENT_BYTES("Sent");
+
+        private final String seriesName;
+
+        Metric(String seriesName) {
+            this.seriesName = seriesName;
+        }
+
+        /**
+         * @return name of the single series of the metric when the samples are not grouped.
+         */
+        public String getSeriesName() {
+            return seriesName;
+        }
+    }
+
+    private final String name;
+    private final GroupBy groupBy;
+    private final Metric metric;
+    private final long slotSize;
+
+    /**
+     * @param name name of the aggregation; also names the file of a mapped store.
+     * @param groupBy key by which to group the samples.
+     * @param metric value to sum.
+     * @param slotSize size of the time slots, in milliseconds.
+     */
+    public MetricDefinition(String name, GroupBy groupBy, Metric metric, long slotSize) {
+        this.name = name;
+        this.groupBy = groupBy;
+        this.metric = metric;
+        this.slotSize = slotSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public GroupBy getGroupBy() {
+        return groupBy;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public long getSlotSize() {
+        return slotSize;
+    }
+
+    /**
+     * @return fields of the samples needed to compute the aggregation, beyond the timestamp.
+     */
+    public Set<SampleField> getRequiredFields() {
+        Set<SampleField> result = EnumSet.noneOf(SampleField.class);
+
+        switch (this.groupBy) {
+            case LABEL:
+                result.add(SampleField.LABEL);
+                break;
+
+            case RESULT_CODE:
+                result.add(SampleField.RESULT_CODE);
+                break;
+
+            default:
+                break;
+        }
+
+        switch (this.metric) {
+            case ELAPSED:
+                result.add(SampleField.ELAPSED);
+                break;
+
+            case RECEIVED_BYTES:
+                result.add(SampleField.RECEIVED_BYTES);
+                break;
+
+            case SENT_BYTES:
+                result.add(SampleField.SENT_BYTES);
+                break;
+
+            default:
+                break;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return true => the aggregation can be computed from the leaf columns of a SampleBatch alone; false => it needs
+     * the samples.
+     */
+    public boolean isBatchColumnar() {
+        return ((this.groupBy == GroupBy.NONE) || (this.groupBy == GroupBy.RESULT_CODE)) &&
+                ((this.metric == Metric.COUNT) || (this.metric == Metric.ELAPSED));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof MetricDefinition)) {
+            return false;
+        }
+
+        MetricDefinition otherDefinition = (MetricDefinition) other;
+
+        // The name does not matter; definitions of the same data are shared
+        return (this.groupBy == otherDefinition.groupBy) && (this.metric == otherDefinition.metric) &&
+                (this.slotSize == otherDefinition.slotSize);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = this.groupBy.hashCode();
+        result = (result * 31) + this.metric.hashCode();
+        result = (result * 31) + Long.valueOf(this.slotSize).hashCode();
+
+        return result;
+    }
+}
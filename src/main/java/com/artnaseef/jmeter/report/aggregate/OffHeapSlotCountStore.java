@@ -0,0 +1,447 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SlotCountStore which keeps its counters outside of the Java heap, so full collections do not need to trace them.
+ * Counters are held in fixed-size chunks of consecutive slots for one series; chunks are allocated from segments which
+ * are either direct buffers or regions of a memory-mapped file.  Only the small chunk directory lives on the heap.
+ *
+ * When backed by a file, the store survives a restart: reopening the file restores the counts, and new counts are
+ * added to them.  Series names are kept in a sidecar file next to the store file.  A store opened fresh discards the
+ * previous contents instead, and so does a store restored from a checkpoint, which holds all the counts up to the
+ * position the source resumes from; counts left in the file past that point would otherwise be counted twice.  The
+ * file is locked while the store is open, so two reports cannot share it.  Note the JVM only releases the mappings
+ * when the buffers are collected, so closing the store flushes it but does not immediately unmap it.
+ *
+ * Created by art on 10/19/26.
+ */
+public class OffHeapSlotCountStore extends AbstractSlotCountStore {
+    public static final String SERIES_FILE_SUFFIX = ".series";
+
+    private static final int MAGIC = 0x4A52534C;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_SLOTS_PER_CHUNK = 8;
+    private static final int HEADER_SLOT_SIZE = 16;
+    private static final int HEADER_CHUNK_COUNT = 24;
+    private static final int HEADER_MIN_SLOT = 32;
+    private static final int HEADER_MAX_SLOT = 40;
+
+    private static final int CHUNK_SLOT_BITS = 10;
+    private static final int SLOTS_PER_CHUNK = 1 << CHUNK_SLOT_BITS;
+    private static final int CHUNK_HEADER_SIZE = 16;
+    private static final int CHUNK_SIZE = CHUNK_HEADER_SIZE + (SLOTS_PER_CHUNK * 8);
+    private static final int CHUNKS_PER_SEGMENT = 1024;
+    private static final long SEGMENT_SIZE = (long) CHUNK_SIZE * CHUNKS_PER_SEGMENT;
+
+    private static final int KEY_SHIFT = 41;
+
+    private final File file;
+    private final long slotSize;
+
+    private RandomAccessFile randomAccessFile;
+    private FileChannel channel;
+    private DataOutputStream seriesOutput;
+
+    private ByteBuffer header;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final Map<Long, Integer> chunkIndexes = new HashMap<>();
+    private int chunkCount;
+
+    private long minSlot = Long.MAX_VALUE;
+    private long maxSlot = Long.MIN_VALUE;
+
+    // Last chunk used by each series; most samples land in the same chunk as the previous one for their series.
+    private long[] cachedChunkNumbers = new long[0];
+    private int[] cachedChunkIndexes = new int[0];
+
+    private boolean loading;
+
+    /**
+     * Create a store backed by direct buffers; its contents are lost when the process exits.
+     *
+     * @param slotSize size of the slots, recorded with the store.
+     */
+    public OffHeapSlotCountStore(long slotSize) {
+        this.file = null;
+        this.slotSize = slotSize;
+
+        this.header = ByteBuffer.allocateDirect(HEADER_SIZE);
+        this.initHeader();
+    }
+
+    /**
+     * Create a store backed by a memory-mapped file, reopening the existing contents of the file if present.
+     *
+     * @param file file holding the store.
+     * @param slotSize size of the slots; must match the slot size of an existing store.
+     * @throws StoreInUseException if another store, in this process or another, has the file open.
+     */
+    public OffHeapSlotCountStore(File file, long slotSize) throws IOException {
+        this(file, slotSize, false);
+    }
+
+    /**
+     * Create a store backed by a memory-mapped file.
+     *
+     * @param file file holding the store.
+     * @param slotSize size of the slots; must match the slot size of an existing store which is reopened.
+     * @param fresh true => discard any existing contents of the file; false => reopen them.
+     * @throws StoreInUseException if another store, in this process or another, has the file open.
+     */
+    public OffHeapSlotCountStore(File file, long slotSize, boolean fresh) throws IOException {
+        this.file = file;
+        this.slotSize = slotSize;
+
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = this.randomAccessFile.getChannel();
+
+        try {
+            FileLock lock;
+            try {
+                lock = this.channel.tryLock();
+            } catch (OverlappingFileLockException olExc) {
+                lock = null;
+            }
+
+            if (lock == null) {
+                throw new StoreInUseException(file);
+            }
+
+            // Only checked and truncated once locked, so the file of a store in use is never disturbed
+            boolean existing = (!fresh) && (this.channel.size() >= HEADER_SIZE);
+            if (!existing) {
+                this.channel.truncate(0);
+            }
+
+            this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+            if (existing) {
+                this.reopen();
+            } else {
+                this.initHeader();
+            }
+
+            this.seriesOutput = new DataOutputStream(new FileOutputStream(this.getSeriesFile(), existing));
+        } catch (IOException ioExc) {
+            this.channel.close();
+            this.randomAccessFile.close();
+            throw ioExc;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public long getMinSlot() {
+        return minSlot;
+    }
+
+    @Override
+    public long getMaxSlot() {
+        return maxSlot;
+    }
+
+    @Override
+    public void add(int key, long slot, long delta) throws IOException {
+        if (slot < 0) {
+            throw new IllegalArgumentException("slot out of range: " + slot);
+        }
+
+        long chunkNumber = slot >>> CHUNK_SLOT_BITS;
+
+        int chunkIndex;
+        if (this.cachedChunkNumbers[key] == chunkNumber) {
+            chunkIndex = this.cachedChunkIndexes[key];
+        } else {
+            chunkIndex = this.lookupChunk(key, chunkNumber);
+            this.cachedChunkNumbers[key] = chunkNumber;
+            this.cachedChunkIndexes[key] = chunkIndex;
+        }
+
+        ByteBuffer segment = this.segments.get(chunkIndex / CHUNKS_PER_SEGMENT);
+        int pos = this.chunkOffset(chunkIndex) + CHUNK_HEADER_SIZE + ((int) (slot & (SLOTS_PER_CHUNK - 1)) * 8);
+        segment.putLong(pos, segment.getLong(pos) + delta);
+
+        if (slot < this.minSlot) {
+            this.minSlot = slot;
+            this.header.putLong(HEADER_MIN_SLOT, slot);
+        }
+
+        if (slot > this.maxSlot) {
+            this.maxSlot = slot;
+            this.header.putLong(HEADER_MAX_SLOT, slot);
+        }
+    }
+
+    @Override
+    public void visit(SlotCountVisitor visitor) throws IOException {
+        // Directory entries sort by series key, then by chunk number, which gives the required visit order.
+        long[] sorted = new long[this.chunkIndexes.size()];
+        int pos = 0;
+        for (Long composite : this.chunkIndexes.keySet()) {
+            sorted[pos] = composite;
+            pos++;
+        }
+        Arrays.sort(sorted);
+
+        for (long composite : sorted) {
+            int key = (int) (composite >>> KEY_SHIFT);
+            long firstSlot = (composite & ((1L << KEY_SHIFT) - 1)) << CHUNK_SLOT_BITS;
+            String seriesName = this.getSeriesName(key);
+
+            int chunkIndex = this.chunkIndexes.get(composite);
+            ByteBuffer segment = this.segments.get(chunkIndex / CHUNKS_PER_SEGMENT);
+            int base = this.chunkOffset(chunkIndex) + CHUNK_HEADER_SIZE;
+
+            int cur = 0;
+            while (cur < SLOTS_PER_CHUNK) {
+                long count = segment.getLong(base + (cur * 8));
+                if (count != 0) {
+                    visitor.onCount(key, seriesName, firstSlot + cur, count);
+                }
+                cur++;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.channel == null) {
+            return;
+        }
+
+        try {
+            for (ByteBuffer segment : this.segments) {
+                ((MappedByteBuffer) segment).force();
+            }
+            ((MappedByteBuffer) this.header).force();
+
+            this.seriesOutput.close();
+        } finally {
+            this.channel.close();
+            this.randomAccessFile.close();
+            this.channel = null;
+        }
+    }
+
+    @Override
+    protected void onNewSeries(int key, String seriesName) throws IOException {
+        if (key >= (1 << (63 - KEY_SHIFT))) {
+            throw new IllegalStateException("too many series: " + (key + 1));
+        }
+
+        this.cachedChunkNumbers = Arrays.copyOf(this.cachedChunkNumbers, key + 1);
+        this.cachedChunkIndexes = Arrays.copyOf(this.cachedChunkIndexes, key + 1);
+        this.cachedChunkNumbers[key] = -1;
+
+        if ((this.seriesOutput != null) && (!this.loading)) {
+            this.seriesOutput.writeUTF(seriesName);
+            this.seriesOutput.flush();
+        }
+    }
+
+    /**
+     * Discard the counts.  The segments already allocated are zeroed and reused rather than truncated, as a mapping
+     * past the end of its file must not be touched again.
+     */
+    @Override
+    protected void clearCounts() throws IOException {
+        byte[] zeros = new byte[CHUNK_SIZE];
+        for (ByteBuffer segment : this.segments) {
+            int pos = 0;
+            while (pos < SEGMENT_SIZE) {
+                segment.position(pos);
+                segment.put(zeros);
+                pos += CHUNK_SIZE;
+            }
+            segment.position(0);
+        }
+
+        this.chunkIndexes.clear();
+        this.chunkCount = 0;
+        this.minSlot = Long.MAX_VALUE;
+        this.maxSlot = Long.MIN_VALUE;
+        this.cachedChunkNumbers = new long[0];
+        this.cachedChunkIndexes = new int[0];
+        this.initHeader();
+
+        if (this.seriesOutput != null) {
+            this.seriesOutput.close();
+            this.seriesOutput = new DataOutputStream(new FileOutputStream(this.getSeriesFile(), false));
+        }
+    }
+
+    protected int lookupChunk(int key, long chunkNumber) throws IOException {
+        long composite = ((long) key << KEY_SHIFT) | chunkNumber;
+
+        Integer chunkIndex = this.chunkIndexes.get(composite);
+        if (chunkIndex == null) {
+            chunkIndex = this.allocateChunk(key, chunkNumber);
+            this.chunkIndexes.put(composite, chunkIndex);
+        }
+
+        return chunkIndex;
+    }
+
+    protected int allocateChunk(int key, long chunkNumber) throws IOException {
+        int chunkIndex = this.chunkCount;
+
+        int segmentNumber = chunkIndex / CHUNKS_PER_SEGMENT;
+        while (this.segments.size() <= segmentNumber) {
+            this.segments.add(this.createSegment(this.segments.size()));
+        }
+
+        ByteBuffer segment = this.segments.get(segmentNumber);
+        int offset = this.chunkOffset(chunkIndex);
+        segment.putLong(offset, key);
+        segment.putLong(offset + 8, chunkNumber);
+
+        // Only count the chunk once its header is written, so a reopened store never sees a partial chunk.
+        this.chunkCount++;
+        this.header.putLong(HEADER_CHUNK_COUNT, this.chunkCount);
+
+        return chunkIndex;
+    }
+
+    protected ByteBuffer createSegment(int segmentNumber) throws IOException {
+        if (this.channel == null) {
+            return ByteBuffer.allocateDirect((int) SEGMENT_SIZE);
+        }
+
+        return this.channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (segmentNumber * SEGMENT_SIZE),
+                SEGMENT_SIZE);
+    }
+
+    protected int chunkOffset(int chunkIndex) {
+        return (chunkIndex % CHUNKS_PER_SEGMENT) * CHUNK_SIZE;
+    }
+
+    protected void initHeader() {
+        this.header.putInt(HEADER_MAGIC, MAGIC);
+        this.header.putInt(HEADER_VERSION, VERSION);
+        this.header.putInt(HEADER_SLOTS_PER_CHUNK, SLOTS_PER_CHUNK);
+        this.header.putLong(HEADER_SLOT_SIZE, this.slotSize);
+        this.header.putLong(HEADER_CHUNK_COUNT, 0);
+        this.header.putLong(HEADER_MIN_SLOT, Long.MAX_VALUE);
+        this.header.putLong(HEADER_MAX_SLOT, Long.MIN_VALUE);
+    }
+
+    /**
+     * Restore the series names and chunk directory of an existing store file.
+     */
+    protected void reopen() throws IOException {
+        if ((this.header.getInt(HEADER_MAGIC) != MAGIC) || (this.header.getInt(HEADER_VERSION) != VERSION) ||
+                (this.header.getInt(HEADER_SLOTS_PER_CHUNK) != SLOTS_PER_CHUNK)) {
+            throw new IOException("not a slot count store: " + this.file);
+        }
+
+        long existingSlotSize = this.header.getLong(HEADER_SLOT_SIZE);
+        if (existingSlotSize != this.slotSize) {
+            throw new IOException("slot count store " + this.file + " uses slot size " + existingSlotSize +
+                    "; cannot reopen with slot size " + this.slotSize);
+        }
+
+        this.loadSeriesNames();
+
+        this.minSlot = this.header.getLong(HEADER_MIN_SLOT);
+        this.maxSlot = this.header.getLong(HEADER_MAX_SLOT);
+
+        long storedChunkCount = this.header.getLong(HEADER_CHUNK_COUNT);
+        while (this.chunkCount < storedChunkCount) {
+            int segmentNumber = this.chunkCount / CHUNKS_PER_SEGMENT;
+            while (this.segments.size() <= segmentNumber) {
+                this.segments.add(this.createSegment(this.segments.size()));
+            }
+
+            ByteBuffer segment = this.segments.get(segmentNumber);
+            int offset = this.chunkOffset(this.chunkCount);
+            long key = segment.getLong(offset);
+            long chunkNumber = segment.getLong(offset + 8);
+
+            if ((key < 0) || (key >= this.getSeriesCount())) {
+                throw new IOException("corrupt slot count store " + this.file + ": chunk " + this.chunkCount +
+                        " has unknown series " + key);
+            }
+
+            this.chunkIndexes.put((key << KEY_SHIFT) | chunkNumber, this.chunkCount);
+            this.chunkCount++;
+        }
+    }
+
+    protected void loadSeriesNames() throws IOException {
+        File seriesFile = this.getSeriesFile();
+        if (!seriesFile.exists()) {
+            return;
+        }
+
+        this.loading = true;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(seriesFile)))) {
+            while (true) {
+                String seriesName;
+                try {
+                    seriesName = in.readUTF();
+                } catch (EOFException eofExc) {
+                    break;
+                }
+
+                this.resolveKey(seriesName);
+            }
+        } finally {
+            this.loading = false;
+        }
+    }
+
+    protected File getSeriesFile() {
+        return new File(this.file.getPath() + SERIES_FILE_SUFFIX);
+    }
+
+    /**
+     * Thrown when the file of a store is already open by another store.
+     */
+    public static class StoreInUseException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public StoreInUseException(File file) {
+            super("slot count store " + file + " is in use");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Store of counts by series key and time slot, such as hits by result code and second.  Series keys are assigned by
+ * the store from the series names, so stores which outlive the process can map them back.
+ *
+ * Created by art on 10/19/26.
+ */
+public interface SlotCountStore extends Closeable {
+    /**
+     * Resolve the key of the series with the given name, adding the series if it is new.
+     *
+     * @param seriesName name of the series.
+     * @return key of the series.
+     */
+    int resolveKey(String seriesName) throws IOException;
+
+    String getSeriesName(int key);
+
+    /**
+     * Add to the count of the given series and slot.
+     *
+     * @param key key of the series, as returned by resolveKey().
+     * @param slot time slot; must not be negative.
+     * @param delta amount to add.
+     */
+    void add(int key, long slot, long delta) throws IOException;
+
+    /**
+     * @return smallest slot added to the store, or Long.MAX_VALUE if the store is empty.
+     */
+    long getMinSlot();
+
+    /**
+     * @return largest slot added to the store, or Long.MIN_VALUE if the store is empty.
+     */
+    long getMaxSlot();
+
+    /**
+     * Visit all of the non-zero counts, ordered by series key and then by slot.
+     *
+     * @param visitor visitor to receive the counts.
+     */
+    void visit(SlotCountVisitor visitor) throws IOException;
+
+    /**
+     * Remove all the series and their counts, such as before restoring the store from a checkpoint.
+     */
+    void clear() throws IOException;
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Write the counts of a SlotCountStore to a checkpoint, and restore them.  Series are restored in the order of their
+ * keys, so the restored store assigns them keys in the same order.
+ *
+ * Created by art on 10/19/26.
+ */
+public class SlotCountStoreCheckpoint {
+    private static final int RECORD_END = 0;
+    private static final int RECORD_SERIES = 1;
+    private static final int RECORD_COUNT = 2;
+
+    public static void writeCounts(SlotCountStore store, final DataOutput out) throws IOException {
+        store.visit(new SlotCountVisitor() {
+            private int currentKey = -1;
+
+            @Override
+            public void onCount(int key, String seriesName, long slot, long count) throws IOException {
+                if (key != this.currentKey) {
+                    out.writeByte(RECORD_SERIES);
+                    out.writeUTF(seriesName);
+                    this.currentKey = key;
+                }
+
+                out.writeByte(RECORD_COUNT);
+                out.writeLong(slot);
+                out.writeLong(count);
+            }
+        });
+
+        out.writeByte(RECORD_END);
+    }
+
+    /**
+     * Restore counts into the given store, replacing any it holds, such as those of a reopened mapped store: the
+     * checkpoint holds every count up to the position the source resumes from.
+     */
+    public static void readCounts(SlotCountStore store, DataInput in) throws IOException {
+        store.clear();
+
+        int key = -1;
+
+        int recordType = in.readByte();
+        while (recordType != RECORD_END) {
+            if (recordType == RECORD_SERIES) {
+                key = store.resolveKey(in.readUTF());
+            } else if (recordType == RECORD_COUNT) {
+                store.add(key, in.readLong(), in.readLong());
+            } else {
+                throw new IOException("invalid slot count checkpoint");
+            }
+
+            recordType = in.readByte();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Create the SlotCountStore for a report from the report properties.  The aggregationStore property selects the store
+ * explicitly:
+ *
+ *   heap - counts are kept on the heap (the default);
+ *   spill - counts beyond the aggregation memory budget spill to temporary files;
+ *   offheap - counts are kept in direct buffers;
+ *   mapped - counts are kept in a memory-mapped file in the aggregation store directory, one per report; a report
+ *            running at the same time as another with the same store name gets a file with a numbered name.  An
+ *            existing file is reopened and its counts added to, unless aggregationStoreFresh is true.
+ *
+ * Without aggregationStore, an aggregation store directory selects mapped and an aggregation memory budget selects
+ * spill.
+ *
+ * Created by art on 10/19/26.
+ */
+public class SlotCountStoreFactory {
+
+    public static final String STORE_HEAP = "heap";
+    public static final String STORE_SPILL = "spill";
+    public static final String STORE_OFF_HEAP = "offheap";
+    public static final String STORE_MAPPED = "mapped";
+
+    public static final String MAPPED_FILE_SUFFIX = ".slots";
+
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024L * 1024L;
+
+    private static final int MAX_MAPPED_FILE_ATTEMPTS = 1000;
+
+    /**
+     * @param prop report properties.
+     * @param storeName name of the store, unique to the report; used to name the file of a mapped store.
+     * @param slotSize size of the slots counted in the store, in milliseconds.
+     * @return the new store.
+     */
+    public static SlotCountStore createStore(Properties prop, String storeName, long slotSize) throws IOException {
+        String storeDir = prop.getProperty(ReportLauncher.PROPERTY_AGGREGATION_STORE_DIR);
+        String budgetValue = prop.getProperty(ReportLauncher.PROPERTY_AGGREGATION_MEMORY_BUDGET);
+
+        String storeType = prop.getProperty(ReportLauncher.PROPERTY_AGGREGATION_STORE);
+        if (storeType == null) {
+            if (storeDir != null) {
+                storeType = STORE_MAPPED;
+            } else if (budgetValue != null) {
+                storeType = STORE_SPILL;
+            } else {
+                storeType = STORE_HEAP;
+            }
+        }
+
+        switch (storeType) {
+            case STORE_HEAP:
+                return new HeapSlotCountStore();
+
+            case STORE_SPILL:
+                return createSpillingStore(prop, budgetValue);
+
+            case STORE_OFF_HEAP:
+                return new OffHeapSlotCountStore(slotSize);
+
+            case STORE_MAPPED:
+                File dir = new File(".");
+                if (storeDir != null) {
+                    dir = new File(storeDir);
+                }
+
+                boolean fresh = Boolean.parseBoolean(prop.getProperty(ReportLauncher.PROPERTY_AGGREGATION_STORE_FRESH));
+
+                return createMappedStore(dir, storeName, slotSize, fresh);
+
+            default:
+                System.err.println("warning: ignoring unknown aggregation store " + storeType);
+                return new HeapSlotCountStore();
+        }
+    }
+
+    /**
+     * Create a mapped store in the given directory, named after the store unless a store of another report has that
+     * file open, in which case the first numbered name not in use is taken.
+     */
+    protected static SlotCountStore createMappedStore(File dir, String storeName, long slotSize, boolean fresh)
+            throws IOException {
+        int attempt = 1;
+        while (true) {
+            String fileName = storeName;
+            if (attempt > 1) {
+                fileName = storeName + "-" + attempt;
+            }
+
+            try {
+                return new OffHeapSlotCountStore(new File(dir, fileName + MAPPED_FILE_SUFFIX), slotSize, fresh);
+            } catch (OffHeapSlotCountStore.StoreInUseException siuExc) {
+                if (attempt >= MAX_MAPPED_FILE_ATTEMPTS) {
+                    throw siuExc;
+                }
+            }
+
+            attempt++;
+        }
+    }
+
+    protected static SlotCountStore createSpillingStore(Properties prop, String budgetValue) {
+        long budget = DEFAULT_MEMORY_BUDGET;
+        if (budgetValue != null) {
+            budget = parseMemorySize(budgetValue);
+        }
+
+        if (budget <= 0) {
+            System.err.println("warning: ignoring invalid aggregation memory budget " + budgetValue);
+            return new HeapSlotCountStore();
+        }
+
+        File tempDir = null;
+        String tempDirValue = prop.getProperty(ReportLauncher.PROPERTY_AGGREGATION_TEMP_DIR);
+        if (tempDirValue != null) {
+            tempDir = new File(tempDirValue);
+        }
+
+        return new SpillingSlotCountStore(budget, tempDir);
+    }
+
+    /**
+     * Parse a memory size with an optional k, m, or g suffix (powers of 1024).
+     *
+     * @param value size to parse.
+     * @return size in bytes, or -1 if the value is not valid.
+     */
+    public static long parseMemorySize(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.isEmpty()) {
+            return -1;
+        }
+
+        long multiplier = 1;
+        switch (trimmed.charAt(trimmed.length() - 1)) {
+            case 'k':
+                multiplier = 1024L;
+                break;
+
+            case 'm':
+                multiplier = 1024L * 1024L;
+                break;
+
+            case 'g':
+                multiplier = 1024L * 1024L * 1024L;
+                break;
+
+            default:
+                break;
+        }
+
+        if (multiplier != 1) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+
+        try {
+            return Long.parseLong(trimmed) * multiplier;
+        } catch (NumberFormatException nfExc) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counters indexed by time slot, backed by primitive arrays of a fixed number of slots each ("pages").  Avoids the
+ * boxing and per-entry overhead of a Map&lt;Long, Long&gt; for the dense slot ranges typical of a run, while pages are
+ * only allocated where slots are used: a run of any length costs memory in proportion to the slots it touches, and a
+ * stray timestamp far from the rest, such as a ts of 0, costs one page rather than the whole gap.
+ *
+ * Slots without a count are skipped by nextSlot(), so callers walk the used slots rather than the span between the
+ * lowest and highest.
+ *
+ * Created by art on 10/19/26.
+ */
+public class SlotCounter {
+    public static final int PAGE_SIZE = 4096;
+
+    private static final int PAGE_SHIFT = 12;
+    private static final long PAGE_MASK = PAGE_SIZE - 1;
+
+    private final TreeMap<Long, long[]> pages = new TreeMap<>();
+
+    // Samples mostly arrive in time order, so most lookups hit the page of the one before
+    private long cachedPageNumber;
+    private long[] cachedPage;
+
+    private long minSlot = Long.MAX_VALUE;
+    private long maxSlot = Long.MIN_VALUE;
+
+    public void add(long slot, long delta) {
+        this.page(slot)[(int) (slot & PAGE_MASK)] += delta;
+    }
+
+    public void increment(long slot) {
+        this.add(slot, 1);
+    }
+
+    /**
+     * Raise the value of the given slot to the given value, if it is lower; used to track per-slot maximums.
+     *
+     * @param slot slot to update.
+     * @param value candidate maximum.
+     */
+    public void max(long slot, long value) {
+        long[] page = this.page(slot);
+        int index = (int) (slot & PAGE_MASK);
+
+        if (value > page[index]) {
+            page[index] = value;
+        }
+    }
+
+    public long get(long slot) {
+        long[] page = this.findPage(slot >> PAGE_SHIFT);
+        if (page == null) {
+            return 0;
+        }
+
+        return page[(int) (slot & PAGE_MASK)];
+    }
+
+    public boolean isEmpty() {
+        return this.pages.isEmpty();
+    }
+
+    /**
+     * @return lowest slot added, or Long.MAX_VALUE if the counter is empty.
+     */
+    public long getMinSlot() {
+        return minSlot;
+    }
+
+    /**
+     * @return highest slot added, or Long.MIN_VALUE if the counter is empty.
+     */
+    public long getMaxSlot() {
+        return maxSlot;
+    }
+
+    /**
+     * Find the next slot with a non-zero value, so the used slots can be walked without visiting the gaps between
+     * them:
+     *
+     * <pre>
+     *     long slot = counter.nextSlot(Long.MIN_VALUE);
+     *     while (slot != Long.MAX_VALUE) {
+     *         ...
+     *         slot = counter.nextSlot(slot + 1);
+     *     }
+     * </pre>
+     *
+     * @param slot first slot to consider.
+     * @return lowest slot, at or after the given one, with a non-zero value, or Long.MAX_VALUE if there is none.
+     */
+    public long nextSlot(long slot) {
+        if (slot > this.maxSlot) {
+            return Long.MAX_VALUE;
+        }
+
+        long startPage = slot >> PAGE_SHIFT;
+        for (Map.Entry<Long, long[]> entry : this.pages.tailMap(startPage, true).entrySet()) {
+            long[] page = entry.getValue();
+
+            int index = 0;
+            if (entry.getKey() == startPage) {
+                index = (int) (slot & PAGE_MASK);
+            }
+
+            while (index < PAGE_SIZE) {
+                if (page[index] != 0) {
+                    return (entry.getKey() << PAGE_SHIFT) + index;
+                }
+
+                index++;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    public long getTotal() {
+        long result = 0;
+
+        for (long[] page : this.pages.values()) {
+            for (long oneCount : page) {
+                result += oneCount;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Write the counts to a checkpoint.
+     *
+     * @param out destination of the counts.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(!this.pages.isEmpty());
+        if (this.pages.isEmpty()) {
+            return;
+        }
+
+        out.writeLong(this.minSlot);
+        out.writeLong(this.maxSlot);
+        out.writeInt(this.pages.size());
+
+        for (Map.Entry<Long, long[]> entry : this.pages.entrySet()) {
+            out.writeLong(entry.getKey());
+            for (long oneCount : entry.getValue()) {
+                out.writeLong(oneCount);
+            }
+        }
+    }
+
+    /**
+     * Restore the counts written by writeTo() into this counter, which must be empty.
+     *
+     * @param in source of the counts.
+     */
+    public void readFrom(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return;
+        }
+
+        long min = in.readLong();
+        long max = in.readLong();
+
+        int pageCount = in.readInt();
+        int cur = 0;
+        while (cur < pageCount) {
+            long[] page = new long[PAGE_SIZE];
+            long pageNumber = in.readLong();
+
+            int index = 0;
+            while (index < PAGE_SIZE) {
+                page[index] = in.readLong();
+                index++;
+            }
+
+            this.pages.put(pageNumber, page);
+            cur++;
+        }
+
+        this.minSlot = min;
+        this.maxSlot = max;
+    }
+
+    /**
+     * @return page holding the given slot, allocated if need be.
+     */
+    protected long[] page(long slot) {
+        if (slot < this.minSlot) {
+            this.minSlot = slot;
+        }
+        if (slot > this.maxSlot) {
+            this.maxSlot = slot;
+        }
+
+        long pageNumber = slot >> PAGE_SHIFT;
+        long[] result = this.findPage(pageNumber);
+        if (result == null) {
+            result = new long[PAGE_SIZE];
+            this.pages.put(pageNumber, result);
+
+            this.cachedPageNumber = pageNumber;
+            this.cachedPage = result;
+        }
+
+        return result;
+    }
+
+    protected long[] findPage(long pageNumber) {
+        if ((this.cachedPage != null) && (this.cachedPageNumber == pageNumber)) {
+            return this.cachedPage;
+        }
+
+        long[] result = this.pages.get(pageNumber);
+        if (result != null) {
+            this.cachedPageNumber = pageNumber;
+            this.cachedPage = result;
+        }
+
+        return result;
+    }
+}
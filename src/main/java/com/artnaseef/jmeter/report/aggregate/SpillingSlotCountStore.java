@@ -0,0 +1,414 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * SlotCountStore which holds its counts within a fixed memory budget.  Counts accumulate in a primitive hash table;
+ * when the table reaches the budget, its contents are written to a temporary file as a sorted, compressed run of
+ * (series key, slot, count) entries, and the table is cleared.  Visiting the store performs a k-way merge of the runs
+ * and the table, summing the counts of entries that appear in more than one, so the size of the aggregation is
+ * limited by disk space rather than heap.
+ *
+ * The series key and slot are packed into a single long, limiting keys to 19 bits and slots to 44 bits.  With slots
+ * of one millisecond, the smallest slot size, 44 bits cover epoch timestamps up to the year 2527; 41 bits would run
+ * out in 2039.  Series are bounded well below 2^19 by the result code dictionary and the labels of a test.
+ *
+ * Created by art on 10/19/26.
+ */
+public class SpillingSlotCountStore extends AbstractSlotCountStore {
+    private static final int SLOT_BITS = 44;
+    private static final long MAX_SLOT = (1L << SLOT_BITS) - 1;
+    private static final int MAX_KEY = (1 << (63 - SLOT_BITS)) - 1;
+
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final int MIN_CAPACITY = 1024;
+    private static final long EMPTY = -1L;
+
+    private static final int RUN_BUFFER_SIZE = 64 * 1024;
+
+    private final File tempDirectory;
+    private final int maxCapacity;
+
+    private long[] composites;
+    private long[] counts;
+    private int size;
+
+    private long minSlot = Long.MAX_VALUE;
+    private long maxSlot = Long.MIN_VALUE;
+
+    private final List<File> runFiles = new ArrayList<>();
+
+    /**
+     * @param memoryBudget maximum number of bytes to use for the in-memory table.
+     * @param tempDirectory directory for the run files; null for the system default.
+     */
+    public SpillingSlotCountStore(long memoryBudget, File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+
+        long budgetEntries = Math.max(memoryBudget / BYTES_PER_ENTRY, MIN_CAPACITY);
+        this.maxCapacity = (int) Long.highestOneBit(Math.min(budgetEntries, 1L << 30));
+
+        this.allocate(Math.min(MIN_CAPACITY, this.maxCapacity));
+    }
+
+    public int getRunCount() {
+        return this.runFiles.size();
+    }
+
+    @Override
+    public long getMinSlot() {
+        return minSlot;
+    }
+
+    @Override
+    public long getMaxSlot() {
+        return maxSlot;
+    }
+
+    @Override
+    public void add(int key, long slot, long delta) throws IOException {
+        if ((slot < 0) || (slot > MAX_SLOT)) {
+            throw new IllegalArgumentException("slot out of range: " + slot);
+        }
+
+        this.minSlot = Math.min(this.minSlot, slot);
+        this.maxSlot = Math.max(this.maxSlot, slot);
+
+        long composite = ((long) key << SLOT_BITS) | slot;
+        int mask = this.composites.length - 1;
+        int index = mix(composite) & mask;
+
+        while (true) {
+            long existing = this.composites[index];
+
+            if (existing == composite) {
+                this.counts[index] += delta;
+                return;
+            }
+
+            if (existing == EMPTY) {
+                this.composites[index] = composite;
+                this.counts[index] = delta;
+                this.size++;
+
+                // Keep the load factor at or below one half
+                if (this.size * 2 >= this.composites.length) {
+                    if (this.composites.length < this.maxCapacity) {
+                        this.rehash(this.composites.length * 2);
+                    } else {
+                        this.spill();
+                    }
+                }
+
+                return;
+            }
+
+            index = (index + 1) & mask;
+        }
+    }
+
+    @Override
+    public void visit(SlotCountVisitor visitor) throws IOException {
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>(this.runFiles.size() + 1, new Comparator<RunCursor>() {
+            @Override
+            public int compare(RunCursor cursor1, RunCursor cursor2) {
+                return Long.compare(cursor1.composite, cursor2.composite);
+            }
+        });
+
+        List<RunCursor> cursors = new ArrayList<>();
+        try {
+            cursors.add(new TableCursor());
+            for (File runFile : this.runFiles) {
+                cursors.add(new FileCursor(runFile));
+            }
+
+            for (RunCursor cursor : cursors) {
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+
+            //
+            // Merge, summing the counts for the same series and slot across runs.
+            //
+            while (!queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                long composite = cursor.composite;
+                long count = cursor.count;
+
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+
+                while ((!queue.isEmpty()) && (queue.peek().composite == composite)) {
+                    RunCursor same = queue.poll();
+                    count += same.count;
+
+                    if (same.advance()) {
+                        queue.add(same);
+                    }
+                }
+
+                if (count != 0) {
+                    int key = (int) (composite >>> SLOT_BITS);
+                    visitor.onCount(key, this.getSeriesName(key), composite & MAX_SLOT, count);
+                }
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        this.clearCounts();
+    }
+
+    @Override
+    protected void clearCounts() {
+        for (File runFile : this.runFiles) {
+            if (!runFile.delete()) {
+                runFile.deleteOnExit();
+            }
+        }
+
+        this.runFiles.clear();
+        this.allocate(MIN_CAPACITY);
+
+        this.minSlot = Long.MAX_VALUE;
+        this.maxSlot = Long.MIN_VALUE;
+    }
+
+    @Override
+    protected void onNewSeries(int key, String seriesName) {
+        if (key > MAX_KEY) {
+            throw new IllegalStateException("too many series: " + (key + 1));
+        }
+    }
+
+    /**
+     * Write the table contents to a new run file, sorted, and clear the table.
+     */
+    protected void spill() throws IOException {
+        long[] sorted = this.sortedComposites();
+
+        File runFile = File.createTempFile("jmeter-report-agg", ".run", this.tempDirectory);
+        runFile.deleteOnExit();
+        this.runFiles.add(runFile);
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(new FileOutputStream(runFile), deflater, RUN_BUFFER_SIZE), RUN_BUFFER_SIZE)) ) {
+
+            // Entries are delta-encoded against the previous composite, which keeps most of them to a byte or two
+            long previous = 0;
+            for (long composite : sorted) {
+                writeVarLong(out, composite - previous);
+                writeVarLong(out, this.counts[this.find(composite)]);
+                previous = composite;
+            }
+        } finally {
+            deflater.end();
+        }
+
+        Arrays.fill(this.composites, EMPTY);
+        Arrays.fill(this.counts, 0);
+        this.size = 0;
+    }
+
+    protected long[] sortedComposites() {
+        long[] result = new long[this.size];
+
+        int pos = 0;
+        for (long composite : this.composites) {
+            if (composite != EMPTY) {
+                result[pos] = composite;
+                pos++;
+            }
+        }
+
+        Arrays.sort(result);
+        return result;
+    }
+
+    protected int find(long composite) {
+        int mask = this.composites.length - 1;
+        int index = mix(composite) & mask;
+
+        while ((this.composites[index] != composite) && (this.composites[index] != EMPTY)) {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    protected void rehash(int newCapacity) {
+        long[] oldComposites = this.composites;
+        long[] oldCounts = this.counts;
+
+        this.allocate(newCapacity);
+
+        int mask = newCapacity - 1;
+        int cur = 0;
+        while (cur < oldComposites.length) {
+            long composite = oldComposites[cur];
+
+            if (composite != EMPTY) {
+                int index = mix(composite) & mask;
+                while (this.composites[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+
+                this.composites[index] = composite;
+                this.counts[index] = oldCounts[cur];
+                this.size++;
+            }
+
+            cur++;
+        }
+    }
+
+    protected void allocate(int capacity) {
+        this.composites = new long[capacity];
+        this.counts = new long[capacity];
+        this.size = 0;
+
+        Arrays.fill(this.composites, EMPTY);
+    }
+
+    protected static int mix(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    protected static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    protected static long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        int shift = 0;
+
+        while (true) {
+            int oneByte = in.read();
+            if (oneByte == -1) {
+                throw new EOFException();
+            }
+
+            result |= (long) (oneByte & 0x7F) << shift;
+            if ((oneByte & 0x80) == 0) {
+                return result;
+            }
+
+            shift += 7;
+        }
+    }
+
+    /**
+     * Cursor over one sorted source of entries during the merge.
+     */
+    protected abstract static class RunCursor {
+        public long composite;
+        public long count;
+
+        public abstract boolean advance() throws IOException;
+
+        public void close() {
+        }
+    }
+
+    protected class TableCursor extends RunCursor {
+        private final long[] sorted = sortedComposites();
+        private int pos;
+
+        @Override
+        public boolean advance() {
+            if (this.pos >= this.sorted.length) {
+                return false;
+            }
+
+            this.composite = this.sorted[this.pos];
+            this.count = counts[find(this.composite)];
+            this.pos++;
+
+            return true;
+        }
+    }
+
+    protected static class FileCursor extends RunCursor {
+        private final DataInputStream in;
+        private boolean first = true;
+
+        public FileCursor(File runFile) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(
+                    new InflaterInputStream(new FileInputStream(runFile)), RUN_BUFFER_SIZE));
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            long delta;
+            try {
+                delta = readVarLong(this.in);
+            } catch (EOFException eofExc) {
+                return false;
+            }
+
+            if (this.first) {
+                this.composite = delta;
+                this.first = false;
+            } else {
+                this.composite += delta;
+            }
+
+            this.count = readVarLong(this.in);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.in.close();
+            } catch (IOException ioExc) {
+                // Nothing more to do with the run; ignore
+            }
+        }
+    }
+}
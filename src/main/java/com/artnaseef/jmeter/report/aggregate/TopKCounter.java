@@ -0,0 +1,264 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded counter of the most frequent keys, using the Space-Saving algorithm.  At most a fixed number of keys are
+ * tracked.  Once full, a new key replaces the tracked key with the lowest count and inherits that count, which is
+ * recorded as the most by which the new key's count may be over-estimated.  Any key occurring more often than the
+ * total count divided by the capacity is guaranteed to be tracked.
+ *
+ * The entries are kept in a binary min-heap by count, so each key costs one map lookup and a few swaps.  A value may
+ * be attached to each entry; it is cleared when the entry is given to a new key.
+ *
+ * Created by art on 10/19/26.
+ */
+public class TopKCounter<K, V> {
+    private final int capacity;
+    private final Map<K, Entry<K, V>> entries;
+    private final List<Entry<K, V>> heap;
+
+    private long totalCount;
+    private long replacedCount;
+
+    public TopKCounter(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+        this.heap = new ArrayList<>(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of keys counted, including those no longer tracked.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return number of times a tracked key was replaced by a new one; 0 means every count is exact.
+     */
+    public long getReplacedCount() {
+        return replacedCount;
+    }
+
+    public int size() {
+        return this.heap.size();
+    }
+
+    /**
+     * Count one occurrence of the given key.
+     *
+     * @param key key to count.
+     * @return entry tracking the key; its value is null if the key was not tracked before.
+     */
+    public Entry<K, V> add(K key) {
+        this.totalCount++;
+
+        boolean appended = false;
+
+        Entry<K, V> entry = this.entries.get(key);
+        if (entry == null) {
+            if (this.heap.size() < this.capacity) {
+                entry = new Entry<>(key, this.heap.size());
+                this.heap.add(entry);
+                appended = true;
+            } else {
+                // Replace the key with the lowest count, which is at the top of the heap
+                entry = this.heap.get(0);
+                this.entries.remove(entry.key);
+
+                entry.key = key;
+                entry.error = entry.count;
+                entry.value = null;
+
+                this.replacedCount++;
+            }
+
+            this.entries.put(key, entry);
+        }
+
+        entry.count++;
+
+        // A new entry starts at the bottom of the heap with the lowest count, and rises; a count which grew sinks
+        if (appended) {
+            this.siftUp(entry.heapIndex);
+        } else {
+            this.siftDown(entry.heapIndex);
+        }
+
+        return entry;
+    }
+
+    /**
+     * @return the tracked entries, from the highest count to the lowest.
+     */
+    public List<Entry<K, V>> getEntriesByCount() {
+        List<Entry<K, V>> result = new ArrayList<>(this.heap);
+        Collections.sort(result, new Comparator<Entry<K, V>>() {
+            @Override
+            public int compare(Entry<K, V> entry1, Entry<K, V> entry2) {
+                return Long.compare(entry2.count, entry1.count);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * @return the tracked entries, in heap order; restoring them in this order rebuilds the same heap.
+     */
+    public List<Entry<K, V>> getEntries() {
+        return new ArrayList<>(this.heap);
+    }
+
+    /**
+     * Restore an entry saved from getEntries(), for a checkpoint, into a counter of the same capacity.  Restoring the
+     * entries in the order saved rebuilds the same heap; any other order still yields a valid heap.
+     *
+     * @return the restored entry, to which the caller may attach its value.
+     */
+    public Entry<K, V> restoreEntry(K key, long count, long error) {
+        if (this.heap.size() >= this.capacity) {
+            throw new IllegalStateException("counter is full");
+        }
+
+        Entry<K, V> entry = new Entry<>(key, this.heap.size());
+        entry.count = count;
+        entry.error = error;
+
+        this.heap.add(entry);
+        this.entries.put(key, entry);
+        this.siftUp(entry.heapIndex);
+
+        return entry;
+    }
+
+    /**
+     * Restore the totals saved from getTotalCount() and getReplacedCount(), for a checkpoint.
+     */
+    public void restoreTotals(long totalCount, long replacedCount) {
+        this.totalCount = totalCount;
+        this.replacedCount = replacedCount;
+    }
+
+    /**
+     * Move the entry at the given position up the heap, above any entry with a higher count.
+     */
+    protected void siftUp(int position) {
+        Entry<K, V> entry = this.heap.get(position);
+
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+
+            Entry<K, V> parentEntry = this.heap.get(parent);
+            if (parentEntry.count <= entry.count) {
+                break;
+            }
+
+            this.heap.set(position, parentEntry);
+            parentEntry.heapIndex = position;
+            position = parent;
+        }
+
+        this.heap.set(position, entry);
+        entry.heapIndex = position;
+    }
+
+    /**
+     * Move the entry at the given position down the heap after its count increased.
+     */
+    protected void siftDown(int position) {
+        int size = this.heap.size();
+        Entry<K, V> entry = this.heap.get(position);
+
+        while (true) {
+            int child = (position * 2) + 1;
+            if (child >= size) {
+                break;
+            }
+
+            if ((child + 1 < size) && (this.heap.get(child + 1).count < this.heap.get(child).count)) {
+                child++;
+            }
+
+            Entry<K, V> childEntry = this.heap.get(child);
+            if (childEntry.count >= entry.count) {
+                break;
+            }
+
+            this.heap.set(position, childEntry);
+            childEntry.heapIndex = position;
+            position = child;
+        }
+
+        this.heap.set(position, entry);
+        entry.heapIndex = position;
+    }
+
+    public static class Entry<K, V> {
+        private K key;
+        private long count;
+        private long error;
+        private V value;
+        private int heapIndex;
+
+        protected Entry(K key, int heapIndex) {
+            this.key = key;
+            this.heapIndex = heapIndex;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * @return count of the key, which may be over-estimated by up to the error.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return most by which the count may be over-estimated.
+         */
+        public long getError() {
+            return error;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public void setValue(V value) {
+            this.value = value;
+        }
+    }
+}
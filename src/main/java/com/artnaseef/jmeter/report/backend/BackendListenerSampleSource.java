@@ -0,0 +1,575 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.backend;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.SampleSource;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Source of samples streamed live by the JMeter Backend Listener, so that reports of a running test need no JTL
+ * file.  The source listens on a socket, the loopback interface by default, for either protocol of the Backend
+ * Listener:
+ *
+ * <ul>
+ *     <li>Graphite: the plaintext protocol over TCP; point the Graphite client at the port.</li>
+ *     <li>InfluxDB: the line protocol in HTTP POST requests to /write; point the InfluxDB client's URL at
+ *         http://host:port/write?db=jmeter.</li>
+ * </ul>
+ *
+ * All the connections are served by one selector on the calling thread, which parses what each read brings in place
+ * in the connection's direct buffer, and feeds the target as each interval completes.  Nothing is queued between the
+ * socket and the reports: while the target is busy no more is read, so the socket buffers fill and TCP flow control
+ * holds the senders back, and InfluxDB senders are not answered until their request has been parsed.  A sender which
+ * stops reading its answers is not read from either until it takes the answer it has been sent, so it holds back only
+ * itself.
+ *
+ * The source runs until stopped, until the tests sending to it end (known from the events of the InfluxDB client
+ * only), or until no metric has arrived for the idle timeout, if one is set.
+ *
+ * Created by art on 10/19/26.
+ */
+public class BackendListenerSampleSource implements SampleSource {
+    public enum Protocol {
+        GRAPHITE,
+        INFLUXDB
+    }
+
+    public static final int DEFAULT_GRAPHITE_PORT = 2003;
+    public static final int DEFAULT_INFLUXDB_PORT = 8086;
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int MAX_BUFFER_SIZE = 1024 * 1024;
+
+    private static final long SELECT_TIMEOUT = 250L;
+    private static final byte[] HEADER_END = "\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] RESPONSE_NO_CONTENT =
+            "HTTP/1.1 204 No Content\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] RESPONSE_LENGTH_REQUIRED =
+            "HTTP/1.1 411 Length Required\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.ISO_8859_1);
+
+    private final Protocol protocol;
+    private final int port;
+
+    private String bindAddress;
+    private long idleTimeout;
+    private long gracePeriod = BackendMetricAggregator.DEFAULT_GRACE_PERIOD;
+    private boolean stopOnTestEnd = true;
+    private String graphitePrefix = GraphiteMetricParser.DEFAULT_PREFIX;
+    private String influxMeasurement = InfluxMetricParser.DEFAULT_MEASUREMENT;
+    private String summaryLabel = BackendMetricAggregator.DEFAULT_SUMMARY_LABEL;
+
+    private final CountDownLatch listening = new CountDownLatch(1);
+    private volatile InetSocketAddress localAddress;
+    private volatile Selector selector;
+    private volatile boolean stopped;
+
+    /**
+     * @param protocol protocol the senders speak.
+     * @param port port on which to listen; 0 for any free port.
+     */
+    public BackendListenerSampleSource(Protocol protocol, int port) {
+        this.protocol = protocol;
+        this.port = port;
+    }
+
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    public String getBindAddress() {
+        return bindAddress;
+    }
+
+    /**
+     * @param bindAddress address on which to listen, such as 0.0.0.0 for remote injectors; null for loopback.
+     */
+    public void setBindAddress(String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @param idleTimeout time, in milliseconds, after which to stop when no metric arrives; 0 to wait indefinitely.
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getGracePeriod() {
+        return gracePeriod;
+    }
+
+    /**
+     * @param gracePeriod time, in milliseconds, to wait for late metrics of an interval; see BackendMetricAggregator.
+     */
+    public void setGracePeriod(long gracePeriod) {
+        this.gracePeriod = gracePeriod;
+    }
+
+    public boolean isStopOnTestEnd() {
+        return stopOnTestEnd;
+    }
+
+    public void setStopOnTestEnd(boolean stopOnTestEnd) {
+        this.stopOnTestEnd = stopOnTestEnd;
+    }
+
+    public String getGraphitePrefix() {
+        return graphitePrefix;
+    }
+
+    public void setGraphitePrefix(String graphitePrefix) {
+        this.graphitePrefix = graphitePrefix;
+    }
+
+    public String getInfluxMeasurement() {
+        return influxMeasurement;
+    }
+
+    public void setInfluxMeasurement(String influxMeasurement) {
+        this.influxMeasurement = influxMeasurement;
+    }
+
+    public String getSummaryLabel() {
+        return summaryLabel;
+    }
+
+    public void setSummaryLabel(String summaryLabel) {
+        this.summaryLabel = summaryLabel;
+    }
+
+    /**
+     * Wait for the source to start listening.
+     *
+     * @param timeout maximum time to wait, in milliseconds.
+     * @return address on which the source listens, or null if it is not listening yet.
+     */
+    public InetSocketAddress awaitListening(long timeout) throws InterruptedException {
+        this.listening.await(timeout, TimeUnit.MILLISECONDS);
+
+        return this.localAddress;
+    }
+
+    /**
+     * Stop listening; the metrics received so far are fed before execute() returns.  May be called from any thread.
+     */
+    public void stop() {
+        this.stopped = true;
+
+        Selector activeSelector = this.selector;
+        if (activeSelector != null) {
+            activeSelector.wakeup();
+        }
+    }
+
+    @Override
+    public void execute(Feedable feedable) throws Exception {
+        BackendMetricAggregator aggregator = new BackendMetricAggregator(this.summaryLabel, this.gracePeriod);
+        BackendMetricParser parser = this.createParser(aggregator);
+
+        InetAddress address = InetAddress.getLoopbackAddress();
+        if (this.bindAddress != null) {
+            address = InetAddress.getByName(this.bindAddress);
+        }
+
+        try (Selector selector = Selector.open(); ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(address, this.port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+            this.selector = selector;
+            this.localAddress = (InetSocketAddress) serverChannel.getLocalAddress();
+            this.listening.countDown();
+
+            System.err.println("listening for " + this.protocol.name().toLowerCase(Locale.ROOT) + " metrics on " +
+                    this.localAddress.getHostString() + ":" + this.localAddress.getPort());
+
+            try {
+                this.serve(feedable, selector, parser, aggregator);
+            } finally {
+                this.selector = null;
+
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+            }
+        } finally {
+            this.listening.countDown();
+        }
+
+        aggregator.emit(feedable, true);
+
+        if (parser.getMalformedLineCount() > 0) {
+            System.err.println("warning: ignored " + parser.getMalformedLineCount() + " malformed metric lines");
+        }
+    }
+
+    protected BackendMetricParser createParser(BackendMetricAggregator aggregator) {
+        if (this.protocol == Protocol.INFLUXDB) {
+            return new InfluxMetricParser(aggregator, this.influxMeasurement);
+        }
+
+        return new GraphiteMetricParser(aggregator, this.graphitePrefix);
+    }
+
+    protected void serve(Feedable feedable, Selector selector, BackendMetricParser parser,
+                         BackendMetricAggregator aggregator) throws Exception {
+        long lastActivity = System.currentTimeMillis();
+
+        while (!this.stopped) {
+            selector.select(SELECT_TIMEOUT);
+
+            // One read per ready connection per round, so that no sender starves the others
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+
+                if (!key.isValid()) {
+                    continue;
+                }
+
+                if (key.isAcceptable()) {
+                    this.accept(selector, (ServerSocketChannel) key.channel());
+                    continue;
+                }
+
+                // Each connection is taken as a sender of its own, for the send interval of its metrics
+                aggregator.setSender(key.attachment());
+
+                if (key.isReadable()) {
+                    if (this.read(key, parser)) {
+                        lastActivity = System.currentTimeMillis();
+                    }
+                } else if (key.isWritable()) {
+                    this.write(key, parser);
+                }
+            }
+
+            aggregator.emit(feedable, false);
+
+            if ((this.stopOnTestEnd) && (aggregator.isTestEnded())) {
+                return;
+            }
+
+            if ((this.idleTimeout > 0) && (System.currentTimeMillis() - lastActivity >= this.idleTimeout)) {
+                System.err.println("no metrics received for " + this.idleTimeout + " ms; stopping");
+                return;
+            }
+        }
+    }
+
+    protected void accept(Selector selector, ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Read what is available on the key's connection and parse all the complete lines, or requests, it holds.
+     *
+     * @return true => data arrived; false => the connection closed.
+     */
+    protected boolean read(SelectionKey key, BackendMetricParser parser) throws IOException {
+        Connection connection = (Connection) key.attachment();
+
+        int count;
+        try {
+            count = connection.channel.read(connection.buffer);
+        } catch (IOException ioExc) {
+            System.err.println("warning: closing metrics connection after read failure: " + ioExc.getMessage());
+            this.close(key);
+            return false;
+        }
+
+        ByteBuffer buffer = connection.buffer;
+        buffer.flip();
+
+        if (count < 0) {
+            // A Graphite sender may leave the final line unterminated
+            if ((this.protocol == Protocol.GRAPHITE) && (buffer.hasRemaining())) {
+                parser.parseLine(buffer, buffer.position(), buffer.limit());
+            }
+
+            this.close(key);
+            return false;
+        }
+
+        boolean open;
+        if (this.protocol == Protocol.INFLUXDB) {
+            open = this.consumeRequests(connection, parser);
+        } else {
+            buffer.position(consumeLines(buffer, buffer.position(), buffer.limit(), false, parser));
+            open = true;
+        }
+
+        if (!open) {
+            this.close(key);
+            return true;
+        }
+
+        buffer.compact();
+
+        // A full buffer holds part of a single line or request head; make room for the rest of it
+        if (!buffer.hasRemaining()) {
+            if (buffer.capacity() >= MAX_BUFFER_SIZE) {
+                System.err.println("warning: closing metrics connection sending lines over " + MAX_BUFFER_SIZE +
+                        " bytes");
+                this.close(key);
+                return true;
+            }
+
+            ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            connection.buffer = larger;
+        }
+
+        return true;
+    }
+
+    /**
+     * Write more of the answer the key's connection is waiting to take, and once it is all written, go back to reading
+     * the connection, starting with the requests already read.
+     */
+    protected void write(SelectionKey key, BackendMetricParser parser) throws IOException {
+        Connection connection = (Connection) key.attachment();
+
+        try {
+            connection.channel.write(connection.pendingResponse);
+        } catch (IOException ioExc) {
+            System.err.println("warning: closing metrics connection after write failure: " + ioExc.getMessage());
+            this.close(key);
+            return;
+        }
+
+        if (connection.pendingResponse.hasRemaining()) {
+            return;
+        }
+
+        connection.pendingResponse = null;
+        if (connection.closeAfterResponse) {
+            this.close(key);
+            return;
+        }
+
+        key.interestOps(SelectionKey.OP_READ);
+
+        ByteBuffer buffer = connection.buffer;
+        buffer.flip();
+        boolean open = this.consumeRequests(connection, parser);
+        buffer.compact();
+
+        if (!open) {
+            this.close(key);
+        }
+    }
+
+    /**
+     * Parse the complete lines between the offsets.
+     *
+     * @param finalLine true => the bytes after the last line terminator are a line too.
+     * @return offset just past the last line parsed.
+     */
+    protected static int consumeLines(ByteBuffer buffer, int start, int end, boolean finalLine,
+                                      BackendMetricParser parser) {
+        int lineStart = start;
+        int cur = start;
+        while (cur < end) {
+            if (buffer.get(cur) == '\n') {
+                parser.parseLine(buffer, lineStart, cur);
+                lineStart = cur + 1;
+            }
+
+            cur++;
+        }
+
+        if ((finalLine) && (lineStart < end)) {
+            parser.parseLine(buffer, lineStart, end);
+            lineStart = end;
+        }
+
+        return lineStart;
+    }
+
+    /**
+     * Parse the HTTP requests in the connection's buffer, answering each once its body is parsed.  Every request is
+     * answered with 204; only the bodies of writes are parsed.  Parsing stops at an answer the connection cannot take
+     * yet, until write() has written it.
+     *
+     * @return true => the connection remains open; false => it is to be closed.
+     */
+    protected boolean consumeRequests(Connection connection, BackendMetricParser parser) throws IOException {
+        ByteBuffer buffer = connection.buffer;
+
+        while (connection.pendingResponse == null) {
+            if (connection.bodyRemaining < 0) {
+                int headerEnd = indexOf(buffer, buffer.position(), buffer.limit(), HEADER_END);
+                if (headerEnd < 0) {
+                    return true;
+                }
+
+                String head = decodeHead(buffer, buffer.position(), headerEnd);
+                buffer.position(headerEnd + HEADER_END.length);
+
+                long contentLength = findContentLength(head);
+                if (contentLength < 0) {
+                    if ((head.startsWith("POST")) || (head.startsWith("PUT"))) {
+                        connection.closeAfterResponse = true;
+                        return this.send(connection, RESPONSE_LENGTH_REQUIRED);
+                    }
+
+                    contentLength = 0;
+                }
+
+                connection.bodyRemaining = contentLength;
+                connection.parseBody = head.startsWith("POST /write") || head.startsWith("POST /api/v2/write");
+                connection.closeAfterResponse = head.toLowerCase(Locale.ROOT).contains("\nconnection: close");
+            }
+
+            if (connection.bodyRemaining > 0) {
+                int start = buffer.position();
+                boolean complete = buffer.remaining() >= connection.bodyRemaining;
+                int end = complete ? (int) (start + connection.bodyRemaining) : buffer.limit();
+
+                int consumed = end;
+                if (connection.parseBody) {
+                    consumed = consumeLines(buffer, start, end, complete, parser);
+                }
+
+                buffer.position(consumed);
+                connection.bodyRemaining -= consumed - start;
+                if (connection.bodyRemaining > 0) {
+                    return true;
+                }
+            }
+
+            connection.bodyRemaining = -1;
+            if (!this.send(connection, RESPONSE_NO_CONTENT)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Send an answer, or as much of it as the connection takes; the rest is left for write(), and the connection is
+     * not read until it is written, so a sender which does not read its answers holds back no one but itself.
+     *
+     * @return true => the connection remains open; false => it is to be closed, as the answer was its last.
+     */
+    protected boolean send(Connection connection, byte[] response) throws IOException {
+        ByteBuffer responseBuffer = ByteBuffer.wrap(response);
+        connection.channel.write(responseBuffer);
+
+        if (responseBuffer.hasRemaining()) {
+            connection.pendingResponse = responseBuffer;
+            connection.key.interestOps(SelectionKey.OP_WRITE);
+            return true;
+        }
+
+        return !connection.closeAfterResponse;
+    }
+
+    protected void close(SelectionKey key) {
+        key.cancel();
+
+        try {
+            key.channel().close();
+        } catch (IOException ioExc) {
+            System.err.println("warning: failed to close metrics connection: " + ioExc.getMessage());
+        }
+    }
+
+    /**
+     * @return value of the Content-Length header of the request head, or -1 if there is none.
+     */
+    protected static long findContentLength(String head) {
+        for (String line : head.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if ((colon > 0) && (line.substring(0, colon).trim().equalsIgnoreCase("Content-Length"))) {
+                try {
+                    return Long.parseLong(line.substring(colon + 1).trim());
+                } catch (NumberFormatException nfExc) {
+                    return -1;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    protected static int indexOf(ByteBuffer buffer, int start, int end, byte[] value) {
+        int cur = start;
+        while (cur + value.length <= end) {
+            if (BackendMetricParser.matches(buffer, cur, cur + value.length, value)) {
+                return cur;
+            }
+
+            cur++;
+        }
+
+        return -1;
+    }
+
+    protected static String decodeHead(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        BackendMetricParser.copy(buffer, start, bytes);
+
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    protected static class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+
+        // Answer, or the rest of one, waiting for the sender to take it
+        private ByteBuffer pendingResponse;
+
+        // HTTP state: bytes of the current request body left to read, or -1 while reading a request head
+        private long bodyRemaining = -1;
+        private boolean parseBody;
+        private boolean closeAfterResponse;
+
+        public Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
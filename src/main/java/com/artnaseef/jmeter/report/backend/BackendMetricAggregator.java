@@ -0,0 +1,348 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.backend;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.SampleBatch;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the metrics of the Backend Listener by interval and label, and turns each interval, once complete, into
+ * samples the reports can take: the Backend Listener only sends counts and averages, so an interval with n ok
+ * results for a label, averaging t ms, becomes n successful samples of t ms, and likewise for the ko results, which
+ * are marked as failures.  No result codes are sent, so the successful samples carry 200, as reports count samples
+ * without a success code as failures, and the failed samples carry "KO".
+ *
+ * Each interval covers the time since the sender's previous one: one second for the Graphite client, but five by
+ * default for the InfluxDB client.  The samples of an interval are therefore spread evenly over the time since the
+ * previous interval of the same sender, or, for a sender's first interval, over the last send interval seen.  Counts
+ * per slot come out as measured when the slots are as long as the send interval; shorter slots get the average rate
+ * of the interval, as the senders give no finer detail.  Error rates and averages are as measured; distributions
+ * within an interval, such as percentiles, are not.
+ *
+ * The Backend Listener sends a summary of all the labels alongside the labels themselves, unless it is set to send
+ * the summary alone.  An interval with any other label therefore drops the summary, so that no result is counted
+ * twice, and an interval with the summary alone keeps it.
+ *
+ * Several senders, such as the injectors of a distributed test, may send the same intervals; their metrics add up.
+ * An interval is complete once a metric at least the grace period newer has arrived, giving late senders time to
+ * catch up.
+ *
+ * Created by art on 10/19/26.
+ */
+public class BackendMetricAggregator {
+    public static final String DEFAULT_SUMMARY_LABEL = "all";
+    public static final long DEFAULT_GRACE_PERIOD = 5000L;
+    public static final String RESULT_CODE_OK = "200";
+    public static final String RESULT_CODE_KO = "KO";
+
+    // Guards against a corrupt count turning into billions of samples
+    private static final long MAX_COUNT = 10000000L;
+
+    // A longer gap between the intervals of a sender is a pause in sending, rather than its send interval
+    private static final long MAX_SEND_INTERVAL = 60000L;
+    private static final int MAX_SENDERS = 1024;
+
+    private final String summaryLabel;
+    private final long gracePeriod;
+
+    private final TreeMap<Long, Interval> intervals = new TreeMap<>();
+    private long latestTimestamp = Long.MIN_VALUE;
+
+    private Object sender;
+    private final Map<Object, Long> latestTimestampBySender = new LinkedHashMap<Object, Long>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Long> eldest) {
+            return this.size() > MAX_SENDERS;
+        }
+    };
+    private long lastSendInterval = -1;
+
+    private final SampleBatch batch = new SampleBatch();
+    private final int okCodeId;
+    private final int koCodeId;
+
+    private int startedTests;
+    private int endedTests;
+    private long sampleCount;
+    private long ignoredCount;
+
+    public BackendMetricAggregator() {
+        this(DEFAULT_SUMMARY_LABEL, DEFAULT_GRACE_PERIOD);
+    }
+
+    /**
+     * @param summaryLabel label of the summary of all labels.
+     * @param gracePeriod time, in milliseconds, to wait for more metrics of an interval after newer ones arrive.
+     */
+    public BackendMetricAggregator(String summaryLabel, long gracePeriod) {
+        this.summaryLabel = summaryLabel;
+        this.gracePeriod = gracePeriod;
+
+        this.okCodeId = ResultCodeDictionary.get().intern(RESULT_CODE_OK);
+        this.koCodeId = ResultCodeDictionary.get().intern(RESULT_CODE_KO);
+    }
+
+    public String getSummaryLabel() {
+        return summaryLabel;
+    }
+
+    /**
+     * Set the sender of the metrics added from now on, so the samples of its intervals are spread over its own send
+     * interval.
+     *
+     * @param sender identity of the sender, such as its connection; null for an unknown sender.
+     */
+    public void setSender(Object sender) {
+        this.sender = sender;
+    }
+
+    public void addCount(long timestamp, String label, boolean failure, long count) {
+        if ((count < 0) || (count > MAX_COUNT)) {
+            if (this.ignoredCount == 0) {
+                System.err.println("warning: ignoring count " + count + " of \"" + label + "\"");
+            }
+
+            this.ignoredCount++;
+            return;
+        }
+
+        LabelMetrics metrics = this.getMetrics(timestamp, label);
+        if (failure) {
+            metrics.koCount += count;
+        } else {
+            metrics.okCount += count;
+        }
+    }
+
+    /**
+     * Add the average elapsed time of the results of a label.  Averages from several senders are weighed by the
+     * counts that arrived with them, so a count should arrive before its average; JMeter sends them in that order.
+     */
+    public void addAverage(long timestamp, String label, boolean failure, double average) {
+        LabelMetrics metrics = this.getMetrics(timestamp, label);
+        if (failure) {
+            metrics.koElapsedTotal += average * (metrics.koCount - metrics.koAveragedCount);
+            metrics.koAveragedCount = metrics.koCount;
+            metrics.koLastAverage = average;
+        } else {
+            metrics.okElapsedTotal += average * (metrics.okCount - metrics.okAveragedCount);
+            metrics.okAveragedCount = metrics.okCount;
+            metrics.okLastAverage = average;
+        }
+    }
+
+    public void addActiveThreads(long timestamp, int activeThreads) {
+        Interval interval = this.getInterval(timestamp);
+        interval.activeThreads = Math.max(0, interval.activeThreads) + activeThreads;
+    }
+
+    public void onTestStarted() {
+        this.startedTests++;
+    }
+
+    public void onTestEnded() {
+        this.endedTests++;
+    }
+
+    /**
+     * @return true => every test that was seen to start, or at least one if none was, has ended.
+     */
+    public boolean isTestEnded() {
+        return (this.endedTests > 0) && (this.endedTests >= this.startedTests);
+    }
+
+    /**
+     * @return number of samples fed so far.
+     */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Feed the samples of the complete intervals.
+     *
+     * @param feedable destination of the samples.
+     * @param all true => feed every interval, complete or not, as no more metrics will arrive.
+     */
+    public void emit(Feedable feedable, boolean all) throws Exception {
+        Iterator<Map.Entry<Long, Interval>> iterator = this.intervals.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Interval> entry = iterator.next();
+            if ((!all) && (entry.getKey() > this.latestTimestamp - this.gracePeriod)) {
+                break;
+            }
+
+            this.emitInterval(feedable, entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+
+        if (!this.batch.isEmpty()) {
+            SampleBatch.feed(feedable, this.batch);
+            this.batch.clear();
+        }
+    }
+
+    protected void emitInterval(Feedable feedable, long timestamp, Interval interval) throws Exception {
+        long sendInterval = interval.sendInterval;
+        if (sendInterval < 0) {
+            sendInterval = Math.max(0, this.lastSendInterval);
+        }
+
+        // Never spread samples to before the start of the epoch
+        sendInterval = Math.min(sendInterval, timestamp);
+
+        boolean skipSummary = (interval.labels.size() > 1) && (interval.labels.containsKey(this.summaryLabel));
+
+        for (Map.Entry<String, LabelMetrics> entry : interval.labels.entrySet()) {
+            if ((skipSummary) && (entry.getKey().equals(this.summaryLabel))) {
+                continue;
+            }
+
+            LabelMetrics metrics = entry.getValue();
+            long okElapsed = Math.round(
+                    average(metrics.okElapsedTotal, metrics.okAveragedCount, metrics.okLastAverage));
+            long koElapsed = Math.round(
+                    average(metrics.koElapsedTotal, metrics.koAveragedCount, metrics.koLastAverage));
+
+            this.emitSamples(feedable, timestamp, sendInterval, entry.getKey(), interval.activeThreads, false,
+                    metrics.okCount, okElapsed);
+            this.emitSamples(feedable, timestamp, sendInterval, entry.getKey(), interval.activeThreads, true,
+                    metrics.koCount, koElapsed);
+        }
+    }
+
+    /**
+     * Feed the given number of samples, spread evenly over the send interval ending at the timestamp.
+     */
+    protected void emitSamples(Feedable feedable, long timestamp, long sendInterval, String label, int activeThreads,
+                               boolean failure, long count, long elapsed) throws Exception {
+        int resultCodeId = failure ? this.koCodeId : this.okCodeId;
+        int resultCode = ResultCodeDictionary.get().getNumericCode(resultCodeId);
+
+        long cur = 0;
+        while (cur < count) {
+            Sample sample = new Sample();
+            sample.setTimestamp(timestamp - sendInterval + ((cur * sendInterval) / count));
+            sample.setLabel(label);
+            sample.setElapsed(elapsed);
+            sample.setReceivedBytes(-1);
+            sample.setSentBytes(-1);
+            sample.setGroupThreads(-1);
+            sample.setAllThreads(activeThreads);
+            sample.setFailure(failure);
+            sample.setResultCodeId(resultCodeId);
+            sample.setResultCode(resultCode);
+
+            this.batch.add(sample);
+            if (this.batch.isFull()) {
+                SampleBatch.feed(feedable, this.batch);
+                this.batch.clear();
+            }
+
+            cur++;
+        }
+
+        this.sampleCount += count;
+    }
+
+    protected LabelMetrics getMetrics(long timestamp, String label) {
+        Interval interval = this.getInterval(timestamp);
+
+        LabelMetrics result = interval.labels.get(label);
+        if (result == null) {
+            result = new LabelMetrics();
+            interval.labels.put(label, result);
+        }
+
+        return result;
+    }
+
+    protected Interval getInterval(long timestamp) {
+        if (timestamp > this.latestTimestamp) {
+            this.latestTimestamp = timestamp;
+        }
+
+        Interval result = this.intervals.get(timestamp);
+        if (result == null) {
+            result = new Interval();
+            this.intervals.put(timestamp, result);
+        }
+
+        if (this.sender != null) {
+            this.trackSender(timestamp, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Take the gap between the current sender's previous interval and the given one as the send interval of the
+     * given one.
+     */
+    protected void trackSender(long timestamp, Interval interval) {
+        Long previous = this.latestTimestampBySender.get(this.sender);
+        if ((previous != null) && (previous >= timestamp)) {
+            return;
+        }
+
+        this.latestTimestampBySender.put(this.sender, timestamp);
+
+        if ((previous != null) && (timestamp - previous <= MAX_SEND_INTERVAL)) {
+            long gap = timestamp - previous;
+
+            interval.sendInterval = Math.max(interval.sendInterval, gap);
+            this.lastSendInterval = gap;
+        }
+    }
+
+    /**
+     * @return the weighted average, or the last average given if no counts arrived before the averages.
+     */
+    protected static double average(double total, long count, double lastAverage) {
+        if (count == 0) {
+            return Double.isNaN(lastAverage) ? -1 : lastAverage;
+        }
+
+        return total / count;
+    }
+
+    protected static class Interval {
+        // Sorted so the samples of an interval are fed in the same order each run
+        private final Map<String, LabelMetrics> labels = new TreeMap<>();
+        private int activeThreads = -1;
+
+        // Time since the previous interval of the sender, or -1 if not known
+        private long sendInterval = -1;
+    }
+
+    protected static class LabelMetrics {
+        private long okCount;
+        private long okAveragedCount;
+        private double okElapsedTotal;
+        private double okLastAverage = Double.NaN;
+
+        private long koCount;
+        private long koAveragedCount;
+        private double koElapsedTotal;
+        private double koLastAverage = Double.NaN;
+    }
+}
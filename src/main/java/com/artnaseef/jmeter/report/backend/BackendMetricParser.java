@@ -0,0 +1,333 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.backend;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser of the metric lines sent by the JMeter Backend Listener.  Lines are parsed where they lie in the receive
+ * buffer, by absolute offsets, without copying them out first: numbers are decoded straight from the bytes, and
+ * labels, which repeat every interval, are looked up by their bytes in a table of those already decoded, so a line
+ * usually creates no objects at all.
+ *
+ * Created by art on 10/19/26.
+ */
+public abstract class BackendMetricParser {
+    private static final int MAX_LABELS = 65536;
+    private static final int MAX_FAST_DIGITS = 17;
+
+    private static final double[] POWERS_OF_TEN = new double[MAX_FAST_DIGITS + 1];
+
+    static {
+        double power = 1;
+        int cur = 0;
+        while (cur < POWERS_OF_TEN.length) {
+            POWERS_OF_TEN[cur] = power;
+            power *= 10;
+            cur++;
+        }
+    }
+
+    protected final BackendMetricAggregator aggregator;
+
+    // Open-addressed table of decoded labels, keyed by their bytes as received
+    private int[] labelHashes = new int[256];
+    private byte[][] labelBytes = new byte[256][];
+    private String[] labelValues = new String[256];
+    private int labelCount;
+
+    private long malformedLineCount;
+
+    public BackendMetricParser(BackendMetricAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    /**
+     * Parse one line, excluding its line terminator.
+     *
+     * @param buffer buffer holding the line; its position and limit are not changed.
+     * @param start offset of the first byte of the line.
+     * @param end offset just past the last byte of the line.
+     */
+    public abstract void parseLine(ByteBuffer buffer, int start, int end);
+
+    public long getMalformedLineCount() {
+        return malformedLineCount;
+    }
+
+    protected void onMalformedLine(ByteBuffer buffer, int start, int end) {
+        // Only the first is shown; a sender that gets one line wrong usually gets them all wrong
+        if (this.malformedLineCount == 0) {
+            System.err.println("warning: ignoring malformed metric line \"" + decode(buffer, start, end, false) + "\"");
+        }
+
+        this.malformedLineCount++;
+    }
+
+    /**
+     * Decode a label, reusing the string decoded the last time the same bytes were seen.
+     *
+     * @param escaped true => a backslash escapes the byte following it.
+     */
+    protected String decodeLabel(ByteBuffer buffer, int start, int end, boolean escaped) {
+        int hash = 1;
+        int cur = start;
+        while (cur < end) {
+            hash = (31 * hash) + buffer.get(cur);
+            cur++;
+        }
+
+        int mask = this.labelHashes.length - 1;
+        int slot = hash & mask;
+        while (this.labelBytes[slot] != null) {
+            if ((this.labelHashes[slot] == hash) && (matches(buffer, start, end, this.labelBytes[slot]))) {
+                return this.labelValues[slot];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        String result = decode(buffer, start, end, escaped);
+
+        // Past the limit, labels are most likely unique ids, which would never be looked up again
+        if (this.labelCount < MAX_LABELS) {
+            byte[] bytes = new byte[end - start];
+            copy(buffer, start, bytes);
+
+            this.labelHashes[slot] = hash;
+            this.labelBytes[slot] = bytes;
+            this.labelValues[slot] = result;
+            this.labelCount++;
+
+            if (this.labelCount * 2 > this.labelHashes.length) {
+                this.growLabelTable();
+            }
+        }
+
+        return result;
+    }
+
+    protected void growLabelTable() {
+        int[] oldHashes = this.labelHashes;
+        byte[][] oldBytes = this.labelBytes;
+        String[] oldValues = this.labelValues;
+
+        int capacity = oldHashes.length * 2;
+        this.labelHashes = new int[capacity];
+        this.labelBytes = new byte[capacity][];
+        this.labelValues = new String[capacity];
+
+        int cur = 0;
+        while (cur < oldHashes.length) {
+            if (oldBytes[cur] != null) {
+                int slot = oldHashes[cur] & (capacity - 1);
+                while (this.labelBytes[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+
+                this.labelHashes[slot] = oldHashes[cur];
+                this.labelBytes[slot] = oldBytes[cur];
+                this.labelValues[slot] = oldValues[cur];
+            }
+
+            cur++;
+        }
+    }
+
+    /**
+     * @return true => the bytes between the offsets are exactly the given bytes.
+     */
+    protected static boolean matches(ByteBuffer buffer, int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+
+        int cur = 0;
+        while (cur < expected.length) {
+            if (buffer.get(start + cur) != expected[cur]) {
+                return false;
+            }
+
+            cur++;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true => the bytes between the offsets start with the given bytes.
+     */
+    protected static boolean startsWith(ByteBuffer buffer, int start, int end, byte[] prefix) {
+        return (end - start >= prefix.length) && (matches(buffer, start, start + prefix.length, prefix));
+    }
+
+    /**
+     * @return true => the bytes between the offsets end with the given bytes.
+     */
+    protected static boolean endsWith(ByteBuffer buffer, int start, int end, byte[] suffix) {
+        return (end - start >= suffix.length) && (matches(buffer, end - suffix.length, end, suffix));
+    }
+
+    /**
+     * @return offset of the last occurrence of the given byte between the offsets, or -1 if there is none.
+     */
+    protected static int lastIndexOf(ByteBuffer buffer, int start, int end, byte value) {
+        int cur = end - 1;
+        while (cur >= start) {
+            if (buffer.get(cur) == value) {
+                return cur;
+            }
+
+            cur--;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Decode a decimal number, such as 12, -0.5, or 1.5e3; a trailing "i", which marks integers in the InfluxDB line
+     * protocol, is ignored.
+     *
+     * @return the number, or NaN if the bytes are not a number.
+     */
+    protected static double parseDouble(ByteBuffer buffer, int start, int end) {
+        if ((end > start) && (buffer.get(end - 1) == 'i')) {
+            end--;
+        }
+
+        int cur = start;
+        boolean negative = false;
+        if ((cur < end) && ((buffer.get(cur) == '-') || (buffer.get(cur) == '+'))) {
+            negative = (buffer.get(cur) == '-');
+            cur++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        while (cur < end) {
+            byte oneByte = buffer.get(cur);
+            if ((oneByte >= '0') && (oneByte <= '9')) {
+                if (digits >= MAX_FAST_DIGITS) {
+                    return parseDoubleSlowly(buffer, start, end);
+                }
+
+                mantissa = (mantissa * 10) + (oneByte - '0');
+                digits++;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if ((oneByte == '.') && (!seenPoint)) {
+                seenPoint = true;
+            } else {
+                // Exponents, NaN, and the like are rare enough to leave to the JDK
+                return parseDoubleSlowly(buffer, start, end);
+            }
+
+            cur++;
+        }
+
+        if (digits == 0) {
+            return Double.NaN;
+        }
+
+        double result = mantissa / POWERS_OF_TEN[fractionDigits];
+        if (negative) {
+            result = -result;
+        }
+
+        return result;
+    }
+
+    protected static double parseDoubleSlowly(ByteBuffer buffer, int start, int end) {
+        try {
+            return Double.parseDouble(decode(buffer, start, end, false));
+        } catch (NumberFormatException nfExc) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Decode a whole number of seconds, milliseconds, microseconds, or nanoseconds since the epoch, telling them
+     * apart by magnitude, as a timestamp in milliseconds.  Fractions of a second are dropped.
+     *
+     * @return the timestamp, or -1 if the bytes are not a number.
+     */
+    protected static long parseTimestamp(ByteBuffer buffer, int start, int end) {
+        long value = 0;
+        int cur = start;
+        while ((cur < end) && (buffer.get(cur) != '.')) {
+            byte oneByte = buffer.get(cur);
+            if ((oneByte < '0') || (oneByte > '9') || (cur - start >= 19)) {
+                return -1;
+            }
+
+            value = (value * 10) + (oneByte - '0');
+            cur++;
+        }
+
+        if (cur == start) {
+            return -1;
+        }
+
+        if (value >= 100000000000000000L) {
+            return value / 1000000L;
+        } else if (value >= 100000000000000L) {
+            return value / 1000L;
+        } else if (value >= 100000000000L) {
+            return value;
+        }
+
+        return value * 1000L;
+    }
+
+    protected static boolean isSpace(byte value) {
+        return (value == ' ') || (value == '\t') || (value == '\r') || (value == '\n');
+    }
+
+    protected static String decode(ByteBuffer buffer, int start, int end, boolean escaped) {
+        byte[] bytes = new byte[end - start];
+        int length = 0;
+
+        int cur = start;
+        while (cur < end) {
+            byte oneByte = buffer.get(cur);
+            if ((escaped) && (oneByte == '\\') && (cur + 1 < end)) {
+                cur++;
+                oneByte = buffer.get(cur);
+            }
+
+            bytes[length] = oneByte;
+            length++;
+            cur++;
+        }
+
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    protected static void copy(ByteBuffer buffer, int start, byte[] target) {
+        int cur = 0;
+        while (cur < target.length) {
+            target[cur] = buffer.get(start + cur);
+            cur++;
+        }
+    }
+
+    protected static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.backend;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parser of the Graphite plaintext protocol, as sent by the Graphite client of the JMeter Backend Listener:
+ *
+ * <pre>
+ *     &lt;prefix&gt;&lt;label&gt;.ok.count 42 1445250000
+ *     &lt;prefix&gt;&lt;label&gt;.ko.avg 512.5 1445250000
+ *     &lt;prefix&gt;test.meanAT 25 1445250000
+ * </pre>
+ *
+ * The count and average of the ok and ko metrics of each label are used, along with the mean number of active
+ * threads; the other metrics, such as the percentiles, are ignored.
+ *
+ * Created by art on 10/19/26.
+ */
+public class GraphiteMetricParser extends BackendMetricParser {
+    public static final String DEFAULT_PREFIX = "jmeter.";
+
+    private static final byte[] STATUS_OK = bytes("ok");
+    private static final byte[] STATUS_KO = bytes("ko");
+    private static final byte[] METRIC_COUNT = bytes("count");
+    private static final byte[] METRIC_AVERAGE = bytes("avg");
+    private static final byte[] METRIC_ACTIVE_THREADS = bytes("test.meanAT");
+
+    private final byte[] prefix;
+
+    public GraphiteMetricParser(BackendMetricAggregator aggregator) {
+        this(aggregator, DEFAULT_PREFIX);
+    }
+
+    /**
+     * @param prefix root prefix of the metric paths, as configured in the Backend Listener; lines without it are
+     *               ignored.
+     */
+    public GraphiteMetricParser(BackendMetricAggregator aggregator, String prefix) {
+        super(aggregator);
+
+        this.prefix = bytes(prefix);
+    }
+
+    @Override
+    public void parseLine(ByteBuffer buffer, int start, int end) {
+        // Trim the line, including the carriage return of senders which end lines with CRLF
+        while ((start < end) && (isSpace(buffer.get(start)))) {
+            start++;
+        }
+
+        while ((end > start) && (isSpace(buffer.get(end - 1)))) {
+            end--;
+        }
+
+        if (start == end) {
+            return;
+        }
+
+        int pathEnd = this.skipToSpace(buffer, start, end);
+        int valueStart = this.skipSpaces(buffer, pathEnd, end);
+        int valueEnd = this.skipToSpace(buffer, valueStart, end);
+        int timestampStart = this.skipSpaces(buffer, valueEnd, end);
+
+        if ((valueStart == valueEnd) || (timestampStart == end)) {
+            this.onMalformedLine(buffer, start, end);
+            return;
+        }
+
+        if (!startsWith(buffer, start, pathEnd, this.prefix)) {
+            return;
+        }
+
+        int nameStart = start + this.prefix.length;
+
+        // <label>.<status>.<metric>; labels are sanitized by JMeter, so they hold no dots
+        int metricDot = lastIndexOf(buffer, nameStart, pathEnd, (byte) '.');
+        if (metricDot < 0) {
+            return;
+        }
+
+        if (matches(buffer, nameStart, pathEnd, METRIC_ACTIVE_THREADS)) {
+            double activeThreads = parseDouble(buffer, valueStart, valueEnd);
+            long timestamp = parseTimestamp(buffer, timestampStart, end);
+            if ((Double.isNaN(activeThreads)) || (timestamp < 0)) {
+                this.onMalformedLine(buffer, start, end);
+            } else {
+                this.aggregator.addActiveThreads(timestamp, (int) Math.round(activeThreads));
+            }
+
+            return;
+        }
+
+        int statusDot = lastIndexOf(buffer, nameStart, metricDot, (byte) '.');
+        if (statusDot <= nameStart) {
+            return;
+        }
+
+        boolean failure;
+        if (matches(buffer, statusDot + 1, metricDot, STATUS_OK)) {
+            failure = false;
+        } else if (matches(buffer, statusDot + 1, metricDot, STATUS_KO)) {
+            failure = true;
+        } else {
+            return;
+        }
+
+        boolean count = matches(buffer, metricDot + 1, pathEnd, METRIC_COUNT);
+        if ((!count) && (!matches(buffer, metricDot + 1, pathEnd, METRIC_AVERAGE))) {
+            return;
+        }
+
+        double value = parseDouble(buffer, valueStart, valueEnd);
+        long timestamp = parseTimestamp(buffer, timestampStart, end);
+        if ((Double.isNaN(value)) || (timestamp < 0)) {
+            this.onMalformedLine(buffer, start, end);
+            return;
+        }
+
+        String label = this.decodeLabel(buffer, nameStart, statusDot, false);
+        if (count) {
+            this.aggregator.addCount(timestamp, label, failure, (long) value);
+        } else {
+            this.aggregator.addAverage(timestamp, label, failure, value);
+        }
+    }
+
+    protected int skipToSpace(ByteBuffer buffer, int cur, int end) {
+        while ((cur < end) && (!isSpace(buffer.get(cur)))) {
+            cur++;
+        }
+
+        return cur;
+    }
+
+    protected int skipSpaces(ByteBuffer buffer, int cur, int end) {
+        while ((cur < end) && (isSpace(buffer.get(cur)))) {
+            cur++;
+        }
+
+        return cur;
+    }
+}
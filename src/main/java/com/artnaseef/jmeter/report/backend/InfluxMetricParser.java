@@ -0,0 +1,253 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.backend;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parser of the InfluxDB line protocol, as sent by the InfluxDB client of the JMeter Backend Listener:
+ *
+ * <pre>
+ *     jmeter,application=app,transaction=login,statut=ok count=42,avg=120.5,... 1445250000000000000
+ *     jmeter,application=app,transaction=all count=50,countError=8,hit=50,avg=130.2,... 1445250000000000000
+ *     jmeter,application=app,transaction=internal minAT=20,maxAT=30,meanAT=25,... 1445250000000000000
+ *     events,application=app,title=ApacheJMeter text="Test Plan ended" 1445250000000000000
+ * </pre>
+ *
+ * The ok and ko lines of each transaction give its counts and averages, and the line of the summary transaction
+ * gives those of the summary; the "all" status lines of the other transactions repeat what their ok and ko lines
+ * say, so they are ignored.  The events measurement marks the start and end of each test.
+ *
+ * Created by art on 10/19/26.
+ */
+public class InfluxMetricParser extends BackendMetricParser {
+    public static final String DEFAULT_MEASUREMENT = "jmeter";
+
+    private static final byte[] MEASUREMENT_EVENTS = bytes("events");
+    private static final byte[] TAG_TRANSACTION = bytes("transaction");
+    private static final byte[] TAG_STATUS = bytes("statut");
+    private static final byte[] STATUS_OK = bytes("ok");
+    private static final byte[] STATUS_KO = bytes("ko");
+    private static final byte[] STATUS_ALL = bytes("all");
+    private static final byte[] TRANSACTION_INTERNAL = bytes("internal");
+    private static final byte[] FIELD_COUNT = bytes("count");
+    private static final byte[] FIELD_COUNT_ERROR = bytes("countError");
+    private static final byte[] FIELD_AVERAGE = bytes("avg");
+    private static final byte[] FIELD_MEAN_ACTIVE_THREADS = bytes("meanAT");
+    private static final byte[] FIELD_TEXT = bytes("text");
+    private static final byte[] TEXT_STARTED = bytes("started\"");
+    private static final byte[] TEXT_ENDED = bytes("ended\"");
+
+    private final byte[] measurement;
+
+    public InfluxMetricParser(BackendMetricAggregator aggregator) {
+        this(aggregator, DEFAULT_MEASUREMENT);
+    }
+
+    /**
+     * @param measurement measurement holding the metrics, as configured in the Backend Listener; lines of other
+     *                    measurements, except for events, are ignored.
+     */
+    public InfluxMetricParser(BackendMetricAggregator aggregator, String measurement) {
+        super(aggregator);
+
+        this.measurement = bytes(measurement);
+    }
+
+    @Override
+    public void parseLine(ByteBuffer buffer, int start, int end) {
+        while ((start < end) && (isSpace(buffer.get(start)))) {
+            start++;
+        }
+
+        while ((end > start) && (isSpace(buffer.get(end - 1)))) {
+            end--;
+        }
+
+        if ((start == end) || (buffer.get(start) == '#')) {
+            return;
+        }
+
+        int cur = scanTo(buffer, start, end, (byte) ',', (byte) ' ');
+        boolean events = matches(buffer, start, cur, MEASUREMENT_EVENTS);
+        if ((!events) && (!matches(buffer, start, cur, this.measurement))) {
+            return;
+        }
+
+        // Tags
+        int transactionStart = -1;
+        int transactionEnd = -1;
+        int statusStart = -1;
+        int statusEnd = -1;
+        while ((cur < end) && (buffer.get(cur) == ',')) {
+            int keyStart = cur + 1;
+            int keyEnd = scanTo(buffer, keyStart, end, (byte) '=', (byte) ' ');
+            if ((keyEnd >= end) || (buffer.get(keyEnd) != '=')) {
+                this.onMalformedLine(buffer, start, end);
+                return;
+            }
+
+            int valueEnd = scanTo(buffer, keyEnd + 1, end, (byte) ',', (byte) ' ');
+            if (matches(buffer, keyStart, keyEnd, TAG_TRANSACTION)) {
+                transactionStart = keyEnd + 1;
+                transactionEnd = valueEnd;
+            } else if (matches(buffer, keyStart, keyEnd, TAG_STATUS)) {
+                statusStart = keyEnd + 1;
+                statusEnd = valueEnd;
+            }
+
+            cur = valueEnd;
+        }
+
+        if (cur >= end) {
+            this.onMalformedLine(buffer, start, end);
+            return;
+        }
+
+        // Fields
+        double count = Double.NaN;
+        double countError = Double.NaN;
+        double average = Double.NaN;
+        double meanActiveThreads = Double.NaN;
+        int textStart = -1;
+        int textEnd = -1;
+
+        cur++;
+        boolean more = true;
+        while (more) {
+            int keyStart = cur;
+            int keyEnd = scanTo(buffer, keyStart, end, (byte) '=', (byte) ' ');
+            if ((keyEnd >= end) || (buffer.get(keyEnd) != '=')) {
+                this.onMalformedLine(buffer, start, end);
+                return;
+            }
+
+            int valueStart = keyEnd + 1;
+            int valueEnd;
+            if ((valueStart < end) && (buffer.get(valueStart) == '"')) {
+                valueEnd = scanTo(buffer, valueStart + 1, end, (byte) '"', (byte) '"') + 1;
+            } else {
+                valueEnd = scanTo(buffer, valueStart, end, (byte) ',', (byte) ' ');
+            }
+
+            if (valueEnd > end) {
+                this.onMalformedLine(buffer, start, end);
+                return;
+            }
+
+            if (matches(buffer, keyStart, keyEnd, FIELD_COUNT)) {
+                count = parseDouble(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyEnd, FIELD_COUNT_ERROR)) {
+                countError = parseDouble(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyEnd, FIELD_AVERAGE)) {
+                average = parseDouble(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyEnd, FIELD_MEAN_ACTIVE_THREADS)) {
+                meanActiveThreads = parseDouble(buffer, valueStart, valueEnd);
+            } else if (matches(buffer, keyStart, keyEnd, FIELD_TEXT)) {
+                textStart = valueStart;
+                textEnd = valueEnd;
+            }
+
+            cur = valueEnd;
+            more = (cur < end) && (buffer.get(cur) == ',');
+            if (more) {
+                cur++;
+            }
+        }
+
+        if (events) {
+            if (textStart >= 0) {
+                if (endsWith(buffer, textStart, textEnd, TEXT_STARTED)) {
+                    this.aggregator.onTestStarted();
+                } else if (endsWith(buffer, textStart, textEnd, TEXT_ENDED)) {
+                    this.aggregator.onTestEnded();
+                }
+            }
+
+            return;
+        }
+
+        // Timestamp; a line without one was taken now
+        while ((cur < end) && (isSpace(buffer.get(cur)))) {
+            cur++;
+        }
+
+        long timestamp;
+        if (cur < end) {
+            timestamp = parseTimestamp(buffer, cur, end);
+            if (timestamp < 0) {
+                this.onMalformedLine(buffer, start, end);
+                return;
+            }
+        } else {
+            timestamp = System.currentTimeMillis();
+        }
+
+        if (transactionStart < 0) {
+            return;
+        }
+
+        if (matches(buffer, transactionStart, transactionEnd, TRANSACTION_INTERNAL)) {
+            if (!Double.isNaN(meanActiveThreads)) {
+                this.aggregator.addActiveThreads(timestamp, (int) Math.round(meanActiveThreads));
+            }
+
+            return;
+        }
+
+        if (Double.isNaN(count)) {
+            return;
+        }
+
+        String label = this.decodeLabel(buffer, transactionStart, transactionEnd, true);
+
+        if ((statusStart >= 0) && (matches(buffer, statusStart, statusEnd, STATUS_OK))) {
+            this.addMetrics(timestamp, label, false, count, average);
+        } else if ((statusStart >= 0) && (matches(buffer, statusStart, statusEnd, STATUS_KO))) {
+            this.addMetrics(timestamp, label, true, count, average);
+        } else if (((statusStart < 0) || (matches(buffer, statusStart, statusEnd, STATUS_ALL))) &&
+                (label.equals(this.aggregator.getSummaryLabel()))) {
+            // The summary only has a total and an error count, and one average for both
+            double failures = Double.isNaN(countError) ? 0 : countError;
+            this.addMetrics(timestamp, label, false, count - failures, average);
+            this.addMetrics(timestamp, label, true, failures, average);
+        }
+    }
+
+    protected void addMetrics(long timestamp, String label, boolean failure, double count, double average) {
+        this.aggregator.addCount(timestamp, label, failure, (long) count);
+        if (!Double.isNaN(average)) {
+            this.aggregator.addAverage(timestamp, label, failure, average);
+        }
+    }
+
+    /**
+     * @return offset of the first of the given bytes, not escaped by a backslash, or the end if there is none.
+     */
+    protected static int scanTo(ByteBuffer buffer, int cur, int end, byte stop1, byte stop2) {
+        while (cur < end) {
+            byte oneByte = buffer.get(cur);
+            if (oneByte == '\\') {
+                cur += 2;
+            } else if ((oneByte == stop1) || (oneByte == stop2)) {
+                return cur;
+            } else {
+                cur++;
+            }
+        }
+
+        return end;
+    }
+}
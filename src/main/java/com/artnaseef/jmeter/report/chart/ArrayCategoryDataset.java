@@ -0,0 +1,199 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.chart;
+
+import org.jfree.data.UnknownKeyException;
+import org.jfree.data.category.CategoryDataset;
+import org.jfree.data.general.AbstractDataset;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Category dataset of time slots, backed by one primitive array of values per row.  The columns are the slot offsets
+ * 0 through n-1, in order, so no column keys are stored and the chart order needs no setup.  Rows wrap the arrays
+ * given to them without copying and without firing change events; a NaN value marks a slot with no data, which the
+ * chart skips as it would a missing value.
+ *
+ * Created by art on 10/19/26.
+ */
+public class ArrayCategoryDataset extends AbstractDataset implements CategoryDataset {
+    private static final long serialVersionUID = 1L;
+
+    private final int columnCount;
+
+    private final List<Comparable> rowKeys = new ArrayList<>();
+    private final Map<Comparable, Integer> rowIndexes = new HashMap<>();
+    private final List<double[]> rows = new ArrayList<>();
+
+    private final List<Long> columnKeys;
+
+    public ArrayCategoryDataset(int columnCount) {
+        this.columnCount = columnCount;
+        this.columnKeys = new ColumnKeys(columnCount);
+    }
+
+    /**
+     * Create an array for the values of one row, with every slot marked as having no data.
+     *
+     * @return the array.
+     */
+    public double[] createRowValues() {
+        double[] result = new double[this.columnCount];
+        Arrays.fill(result, Double.NaN);
+
+        return result;
+    }
+
+    /**
+     * Add a row, using the given array as its values.
+     *
+     * @param rowKey key of the row, shown in the legend.
+     * @param values value of each column; NaN for none.  Must have one entry per column.
+     */
+    public void addRow(Comparable rowKey, double[] values) {
+        if (values.length != this.columnCount) {
+            throw new IllegalArgumentException("row has " + values.length + " values; expected " + this.columnCount);
+        }
+
+        if (this.rowIndexes.containsKey(rowKey)) {
+            throw new IllegalArgumentException("duplicate row key \"" + rowKey + "\"");
+        }
+
+        this.rowIndexes.put(rowKey, this.rows.size());
+        this.rowKeys.add(rowKey);
+        this.rows.add(values);
+    }
+
+    /**
+     * @param row index of a row.
+     * @return the array holding the values of the row; changes to it are seen by the dataset.
+     */
+    public double[] getRowValues(int row) {
+        return this.rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columnCount;
+    }
+
+    @Override
+    public Number getValue(int row, int column) {
+        double value = this.rows.get(row)[column];
+        if (Double.isNaN(value)) {
+            return null;
+        }
+
+        return value;
+    }
+
+    @Override
+    public Comparable getRowKey(int row) {
+        return this.rowKeys.get(row);
+    }
+
+    @Override
+    public int getRowIndex(Comparable key) {
+        Integer result = this.rowIndexes.get(key);
+        if (result == null) {
+            return -1;
+        }
+
+        return result;
+    }
+
+    @Override
+    public List getRowKeys() {
+        return Collections.unmodifiableList(this.rowKeys);
+    }
+
+    @Override
+    public Comparable getColumnKey(int column) {
+        return this.columnKeys.get(column);
+    }
+
+    @Override
+    public int getColumnIndex(Comparable key) {
+        if (!(key instanceof Long)) {
+            return -1;
+        }
+
+        long column = (Long) key;
+        if ((column < 0) || (column >= this.columnCount)) {
+            return -1;
+        }
+
+        return (int) column;
+    }
+
+    @Override
+    public List getColumnKeys() {
+        return this.columnKeys;
+    }
+
+    @Override
+    public Number getValue(Comparable rowKey, Comparable columnKey) {
+        int row = this.getRowIndex(rowKey);
+        if (row < 0) {
+            throw new UnknownKeyException("unrecognised row key: " + rowKey);
+        }
+
+        int column = this.getColumnIndex(columnKey);
+        if (column < 0) {
+            throw new UnknownKeyException("unrecognised column key: " + columnKey);
+        }
+
+        return this.getValue(row, column);
+    }
+
+    /**
+     * Column keys, created as they are asked for.
+     */
+    private static class ColumnKeys extends AbstractList<Long> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int columnCount;
+
+        public ColumnKeys(int columnCount) {
+            this.columnCount = columnCount;
+        }
+
+        @Override
+        public Long get(int index) {
+            if ((index < 0) || (index >= this.columnCount)) {
+                throw new IndexOutOfBoundsException("column " + index);
+            }
+
+            return Long.valueOf(index);
+        }
+
+        @Override
+        public int size() {
+            return this.columnCount;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.chart;
+
+import org.jfree.data.DomainInfo;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYDataset;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * XY dataset backed by primitive arrays.  Unlike XYSeries, adding a point neither creates objects nor fires a change
+ * event, and points are appended rather than inserted in sorted order, so building a series of n points is O(n).
+ * Series are expected to be complete before the dataset is given to a chart; changes after that are not seen by the
+ * chart until it is redrawn for some other reason.
+ *
+ * Created by art on 10/19/26.
+ */
+public class ArrayXYDataset extends AbstractXYDataset implements DomainInfo, RangeInfo {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Series> series = new ArrayList<>();
+
+    public void addSeries(Series oneSeries) {
+        this.series.add(oneSeries);
+    }
+
+    public Series getSeries(int seriesIndex) {
+        return this.series.get(seriesIndex);
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return this.series.size();
+    }
+
+    @Override
+    public Comparable getSeriesKey(int seriesIndex) {
+        return this.series.get(seriesIndex).getKey();
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        for (Series oneSeries : this.series) {
+            if (!oneSeries.isAscending()) {
+                return DomainOrder.NONE;
+            }
+        }
+
+        return DomainOrder.ASCENDING;
+    }
+
+    @Override
+    public int getItemCount(int seriesIndex) {
+        return this.series.get(seriesIndex).getItemCount();
+    }
+
+    @Override
+    public Number getX(int seriesIndex, int item) {
+        return this.getXValue(seriesIndex, item);
+    }
+
+    @Override
+    public double getXValue(int seriesIndex, int item) {
+        return this.series.get(seriesIndex).getXValue(item);
+    }
+
+    @Override
+    public Number getY(int seriesIndex, int item) {
+        return this.getYValue(seriesIndex, item);
+    }
+
+    @Override
+    public double getYValue(int seriesIndex, int item) {
+        return this.series.get(seriesIndex).getYValue(item);
+    }
+
+    @Override
+    public double getDomainLowerBound(boolean includeInterval) {
+        double result = Double.NaN;
+        for (Series oneSeries : this.series) {
+            if (oneSeries.getItemCount() > 0) {
+                result = Double.isNaN(result) ? oneSeries.minX : Math.min(result, oneSeries.minX);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public double getDomainUpperBound(boolean includeInterval) {
+        double result = Double.NaN;
+        for (Series oneSeries : this.series) {
+            if (oneSeries.getItemCount() > 0) {
+                result = Double.isNaN(result) ? oneSeries.maxX : Math.max(result, oneSeries.maxX);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Range getDomainBounds(boolean includeInterval) {
+        return this.toRange(this.getDomainLowerBound(includeInterval), this.getDomainUpperBound(includeInterval));
+    }
+
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        double result = Double.NaN;
+        for (Series oneSeries : this.series) {
+            if (oneSeries.getItemCount() > 0) {
+                result = Double.isNaN(result) ? oneSeries.minY : Math.min(result, oneSeries.minY);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        double result = Double.NaN;
+        for (Series oneSeries : this.series) {
+            if (oneSeries.getItemCount() > 0) {
+                result = Double.isNaN(result) ? oneSeries.maxY : Math.max(result, oneSeries.maxY);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        return this.toRange(this.getRangeLowerBound(includeInterval), this.getRangeUpperBound(includeInterval));
+    }
+
+    protected Range toRange(double lower, double upper) {
+        if (Double.isNaN(lower)) {
+            return null;
+        }
+
+        return new Range(lower, upper);
+    }
+
+    /**
+     * One series of the dataset, stored as parallel arrays of x and y values which grow as points are appended.
+     */
+    public static class Series implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final int INITIAL_CAPACITY = 256;
+
+        private final Comparable key;
+
+        private double[] xValues;
+        private double[] yValues;
+        private int itemCount;
+
+        private boolean ascending = true;
+        private double minX = Double.MAX_VALUE;
+        private double maxX = -Double.MAX_VALUE;
+        private double minY = Double.MAX_VALUE;
+        private double maxY = -Double.MAX_VALUE;
+
+        public Series(Comparable key) {
+            this(key, INITIAL_CAPACITY);
+        }
+
+        /**
+         * @param key key of the series, shown in the legend.
+         * @param capacity expected number of points; used to size the arrays.
+         */
+        public Series(Comparable key, int capacity) {
+            this.key = key;
+            this.xValues = new double[Math.max(capacity, 1)];
+            this.yValues = new double[Math.max(capacity, 1)];
+        }
+
+        public void add(double x, double y) {
+            if (this.itemCount == this.xValues.length) {
+                int newCapacity = this.itemCount * 2;
+
+                double[] newXValues = new double[newCapacity];
+                double[] newYValues = new double[newCapacity];
+                System.arraycopy(this.xValues, 0, newXValues, 0, this.itemCount);
+                System.arraycopy(this.yValues, 0, newYValues, 0, this.itemCount);
+
+                this.xValues = newXValues;
+                this.yValues = newYValues;
+            }
+
+            if ((this.itemCount > 0) && (x < this.xValues[this.itemCount - 1])) {
+                this.ascending = false;
+            }
+
+            this.xValues[this.itemCount] = x;
+            this.yValues[this.itemCount] = y;
+            this.itemCount++;
+
+            this.minX = Math.min(this.minX, x);
+            this.maxX = Math.max(this.maxX, x);
+            this.minY = Math.min(this.minY, y);
+            this.maxY = Math.max(this.maxY, y);
+        }
+
+        public Comparable getKey() {
+            return key;
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+
+        public boolean isAscending() {
+            return ascending;
+        }
+
+        public double getXValue(int item) {
+            return this.xValues[item];
+        }
+
+        public double getYValue(int item) {
+            return this.yValues[item];
+        }
+    }
+}
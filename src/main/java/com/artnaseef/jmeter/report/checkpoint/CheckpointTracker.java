@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.checkpoint;
+
+import com.artnaseef.jmeter.report.jtl.TopLevelSampleListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Track the position of the parse in the raw stream of a source, and decide when to take checkpoints.  The raw
+ * stream scanner reports the offset of each top-level sample as it reads ahead of the parser, and the parser then
+ * delivers the samples in the same order, so a checkpoint taken after a sample is delivered resumes at the offset of
+ * the next one; until the scanner has reached the next sample, the checkpoint waits.
+ *
+ * Created by art on 10/19/26.
+ */
+public class CheckpointTracker implements TopLevelSampleListener {
+    private final TopLevelSampleListener delegate;
+    private final long offsetBase;
+    private final long intervalMillis;
+
+    private final Deque<Long> pendingOffsets = new ArrayDeque<>();
+    private long sampleCount;
+    private long nextCheckpointTime;
+
+    /**
+     * @param delegate listener to receive the offsets as well, or null.
+     * @param offsetBase offset in the source of offset 0 of the scanned stream.
+     * @param sampleCount number of top-level samples in the source before the scanned stream.
+     * @param intervalMillis time between checkpoints, in milliseconds.
+     */
+    public CheckpointTracker(TopLevelSampleListener delegate, long offsetBase, long sampleCount, long intervalMillis) {
+        this.delegate = delegate;
+        this.offsetBase = offsetBase;
+        this.sampleCount = sampleCount;
+        this.intervalMillis = intervalMillis;
+
+        this.nextCheckpointTime = System.currentTimeMillis() + intervalMillis;
+    }
+
+    @Override
+    public void onTopLevelSampleStart(long sampleNumber, long offset, boolean kept) {
+        if (this.delegate != null) {
+            this.delegate.onTopLevelSampleStart(sampleNumber, offset, kept);
+        }
+
+        this.pendingOffsets.add(this.offsetBase + offset);
+    }
+
+    /**
+     * Account for the next top-level sample delivered by the parser.
+     *
+     * @return true => a checkpoint is due, and may be taken once the sample has been fed; false => otherwise.
+     */
+    public boolean onSample() {
+        this.pendingOffsets.poll();
+        this.sampleCount++;
+
+        return (!this.pendingOffsets.isEmpty()) && (System.currentTimeMillis() >= this.nextCheckpointTime);
+    }
+
+    public void onCheckpointTaken() {
+        this.nextCheckpointTime = System.currentTimeMillis() + this.intervalMillis;
+    }
+
+    /**
+     * @return number of top-level samples delivered, including those before the scanned stream.
+     */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return offset in the source of the next top-level sample; only valid when a checkpoint is due.
+     */
+    public long getNextOffset() {
+        return this.pendingOffsets.peek();
+    }
+}
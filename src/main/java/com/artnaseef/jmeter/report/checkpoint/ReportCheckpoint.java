@@ -0,0 +1,252 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.checkpoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Checkpoint of a report run over one source: how far into the source the run had read, and the state the report
+ * had aggregated from the samples read up to there.
+ *
+ * The position is the number of top-level samples read and the offset of the next one in the uncompressed content of
+ * the source.  As with JTLIndex, the JDK inflater cannot restart in the middle of a deflate stream, so resuming a
+ * compressed source decompresses and discards the content before the offset, which still avoids parsing it.
+ *
+ * Checkpoints are replaced atomically, so a run which dies while writing one leaves the previous one intact.
+ *
+ * Created by art on 10/19/26.
+ */
+public class ReportCheckpoint {
+    private static final int MAGIC = 0x4A434B50;
+    private static final int VERSION = 3;
+
+    private String uri;
+    private long sourceLength = -1;
+    private long sourceLastModified = -1;
+    private String reportType;
+
+    private long sampleCount;
+    private long offset;
+
+    private boolean timeWindowResolved;
+    private long timeWindowFrom;
+    private long timeWindowTo;
+
+    private long malformedValueCount;
+
+    private byte[] reportState;
+
+    /**
+     * Load the checkpoint in the given file.
+     *
+     * @param file checkpoint file.
+     * @return the checkpoint, or null if the file does not exist.
+     */
+    public static ReportCheckpoint load(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                throw new IOException("not a report checkpoint: " + file);
+            }
+
+            ReportCheckpoint result = new ReportCheckpoint();
+            result.uri = in.readUTF();
+            result.sourceLength = in.readLong();
+            result.sourceLastModified = in.readLong();
+            result.reportType = in.readUTF();
+            result.sampleCount = in.readLong();
+            result.offset = in.readLong();
+            result.timeWindowResolved = in.readBoolean();
+            result.timeWindowFrom = in.readLong();
+            result.timeWindowTo = in.readLong();
+            result.malformedValueCount = in.readLong();
+
+            result.reportState = new byte[in.readInt()];
+            in.readFully(result.reportState);
+
+            return result;
+        }
+    }
+
+    /**
+     * Save the checkpoint to the given file, replacing any checkpoint already there only once this one is complete.
+     *
+     * @param file checkpoint file.
+     */
+    public void save(File file) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(this.uri);
+            out.writeLong(this.sourceLength);
+            out.writeLong(this.sourceLastModified);
+            out.writeUTF(this.reportType);
+            out.writeLong(this.sampleCount);
+            out.writeLong(this.offset);
+            out.writeBoolean(this.timeWindowResolved);
+            out.writeLong(this.timeWindowFrom);
+            out.writeLong(this.timeWindowTo);
+            out.writeLong(this.malformedValueCount);
+            out.writeInt(this.reportState.length);
+            out.write(this.reportState);
+            out.flush();
+
+            // Make sure the checkpoint is on disk before it replaces the last one
+            fileOutputStream.getFD().sync();
+        }
+
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException amnsExc) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Check whether the checkpoint was taken of the given source, as it is now, by the given type of report.
+     *
+     * @param sourceUri URI of the source.
+     * @param sourceFile local file of the source, or null if it is not local.
+     * @param reportType type of the report.
+     * @return null if the checkpoint applies; otherwise, the reason it does not.
+     */
+    public String checkApplies(String sourceUri, File sourceFile, String reportType) {
+        if (!this.uri.equals(sourceUri)) {
+            return "checkpoint is of " + this.uri;
+        }
+
+        if (!this.reportType.equals(reportType)) {
+            return "checkpoint is of a " + this.reportType + " report";
+        }
+
+        if ((sourceFile != null) &&
+                ((sourceFile.length() != this.sourceLength) || (sourceFile.lastModified() != this.sourceLastModified))) {
+            return "source has changed since the checkpoint";
+        }
+
+        return null;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public long getSourceLength() {
+        return sourceLength;
+    }
+
+    public void setSourceLength(long sourceLength) {
+        this.sourceLength = sourceLength;
+    }
+
+    public long getSourceLastModified() {
+        return sourceLastModified;
+    }
+
+    public void setSourceLastModified(long sourceLastModified) {
+        this.sourceLastModified = sourceLastModified;
+    }
+
+    public String getReportType() {
+        return reportType;
+    }
+
+    public void setReportType(String reportType) {
+        this.reportType = reportType;
+    }
+
+    /**
+     * @return number of top-level samples read before the checkpoint.
+     */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    /**
+     * @return offset, in the uncompressed content of the source, of the first top-level sample after the checkpoint.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public boolean isTimeWindowResolved() {
+        return timeWindowResolved;
+    }
+
+    public long getTimeWindowFrom() {
+        return timeWindowFrom;
+    }
+
+    public long getTimeWindowTo() {
+        return timeWindowTo;
+    }
+
+    /**
+     * Record the bounds of the time window, once resolved, since a resumed run no longer sees the timestamp they were
+     * resolved against.
+     */
+    public void setTimeWindow(boolean resolved, long from, long to) {
+        this.timeWindowResolved = resolved;
+        this.timeWindowFrom = from;
+        this.timeWindowTo = to;
+    }
+
+    public long getMalformedValueCount() {
+        return malformedValueCount;
+    }
+
+    public void setMalformedValueCount(long malformedValueCount) {
+        this.malformedValueCount = malformedValueCount;
+    }
+
+    public byte[] getReportState() {
+        return reportState;
+    }
+
+    public void setReportState(byte[] reportState) {
+        this.reportState = reportState;
+    }
+}
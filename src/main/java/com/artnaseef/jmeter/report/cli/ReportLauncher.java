@@ -15,20 +15,36 @@ package com.artnaseef.jmeter.report.cli;
 
 import com.artnaseef.jmeter.report.FeedableReport;
 import com.artnaseef.jmeter.report.LaunchableReport;
+import com.artnaseef.jmeter.report.SampleFieldConsumer;
 import com.artnaseef.jmeter.report.SampleSource;
+import com.artnaseef.jmeter.report.backend.BackendListenerSampleSource;
+import com.artnaseef.jmeter.report.jtl.TimeWindow;
 import com.artnaseef.jmeter.report.jtl.impl.JTLFileSampleSource;
+import com.artnaseef.jmeter.report.jtl.impl.MergingSampleSource;
+import com.artnaseef.jmeter.report.jtl.impl.MultiSourceSampleSource;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
 import com.artnaseef.jmeter.report.registry.GlobalReportTypeRegistry;
 import com.artnaseef.jmeter.report.registry.ReportTypeRegistry;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
 import org.xml.sax.SAXParseException;
 
+import javax.imageio.ImageIO;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.Locale;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by art on 4/7/15.
@@ -42,6 +58,32 @@ public class ReportLauncher {
     public static final String PROPERTY_TIME_SLOT_SIZE = "timeSlotSize";
     public static final String PROPERTY_OUTPUT_FILENAME = "outputFilename";
     public static final String PROPERTY_MAX_SLOTS = "maxSlots";
+    public static final String PROPERTY_AGGREGATION_MEMORY_BUDGET = "aggregationMemoryBudget";
+    public static final String PROPERTY_AGGREGATION_TEMP_DIR = "aggregationTempDir";
+    public static final String PROPERTY_AGGREGATION_STORE = "aggregationStore";
+    public static final String PROPERTY_AGGREGATION_STORE_DIR = "aggregationStoreDir";
+    public static final String PROPERTY_AGGREGATION_STORE_FRESH = "aggregationStoreFresh";
+    public static final String PROPERTY_SAMPLE_EVERY = "sampleEvery";
+    public static final String PROPERTY_SAMPLE_RATE = "sampleRate";
+    public static final String PROPERTY_WINDOW_FROM = "windowFrom";
+    public static final String PROPERTY_WINDOW_TO = "windowTo";
+    public static final String PROPERTY_PARSE_THREADS = "parseThreads";
+    public static final String PROPERTY_JTL_INDEX = "jtlIndex";
+    public static final String PROPERTY_JTL_INDEX_BLOCK_SIZE = "jtlIndexBlockSize";
+    public static final String PROPERTY_SKIP_PAYLOADS = "skipPayloads";
+    public static final String PROPERTY_STATS = "stats";
+    public static final String PROPERTY_MERGE_SOURCES = "mergeSources";
+    public static final String PROPERTY_SOURCE_THREADS = "sourceThreads";
+    public static final String PROPERTY_MERGE_ORDERED = "mergeOrdered";
+    public static final String PROPERTY_MERGE_REORDER_WINDOW = "mergeReorderWindow";
+    public static final String PROPERTY_CHECKPOINT_FILE = "checkpointFile";
+    public static final String PROPERTY_CHECKPOINT_INTERVAL = "checkpointInterval";
+    public static final String PROPERTY_RESUME = "resume";
+    public static final String PROPERTY_LISTEN = "listen";
+    public static final String PROPERTY_LISTEN_ADDRESS = "listenAddress";
+    public static final String PROPERTY_IDLE_TIMEOUT = "idleTimeout";
+    public static final String PROPERTY_GRAPHITE_PREFIX = "graphitePrefix";
+    public static final String PROPERTY_INFLUX_MEASUREMENT = "influxMeasurement";
 
     private OptionParser optionParser;
 
@@ -51,22 +93,39 @@ public class ReportLauncher {
     private SampleSource sampleSource;
 
     private boolean generateReportAfterParseException = false;
+    private boolean exitOnUsageError = true;
 
     public static void main(String[] args) {
         ReportLauncher mainObj = new ReportLauncher();
 
-        mainObj.instanceMain(args);
+        int status = mainObj.instanceMain(args);
+        if (status != 0) {
+            System.exit(status);
+        }
     }
 
-    public void instanceMain(String[] args) {
+    /**
+     * Run the command line, reporting errors rather than throwing them.
+     *
+     * @return exit status for the process; 0 for success.
+     */
+    public int instanceMain(String[] args) {
         try {
+            // Reports which handle their own command line, given as the first argument
+            if (args.length > 0) {
+                LaunchableReport launchable = this.registry.getLaunchableType(args[0]);
+                if (launchable != null) {
+                    return launch(launchable, Arrays.copyOfRange(args, 1, args.length));
+                }
+            }
+
             this.reportProperties = new Properties();
 
             List<?> nonOptionArgs = this.parseCommandLine(args);
 
             if (nonOptionArgs.size() < 1) {
                 this.printUsage(System.err);
-                System.exit(1);
+                return UsageException.STATUS_USAGE_ERROR;
             }
 
             this.reportType = nonOptionArgs.get(0).toString();
@@ -75,27 +134,86 @@ public class ReportLauncher {
 
             if (report == null) {
                 this.printUsage(System.err);
-                System.exit(1);
+                return UsageException.STATUS_USAGE_ERROR;
             }
 
-            int cur = 1;
-            while (cur < nonOptionArgs.size()) {
-                String uri = nonOptionArgs.get(cur).toString();
-                this.launchConfiguredReport(reportType, uri);
-
-                cur++;
+            if (this.reportProperties.getProperty(PROPERTY_LISTEN) != null) {
+                this.launchListeningReport(reportType, this.expandSourceArgs(nonOptionArgs));
+            } else {
+                this.launchConfiguredReports(reportType, this.expandSourceArgs(nonOptionArgs));
             }
+
+            return 0;
         } catch (Exception exc) {
-            exc.printStackTrace();
+            return reportFailure(exc);
+        }
+    }
+
+    /**
+     * Run a report which handles its own command line, reporting errors rather than throwing them.
+     *
+     * @return exit status for the process; 0 for success.
+     */
+    public static int launch(LaunchableReport launchable, String[] args) {
+        try {
+            return launchable.launchReport(args);
+        } catch (Exception exc) {
+            return reportFailure(exc);
+        }
+    }
+
+    /**
+     * @return exit status for the given failure.
+     */
+    protected static int reportFailure(Exception exc) {
+        if (exc instanceof UsageException) {
+            if (exc.getMessage() != null) {
+                System.err.println("error: " + exc.getMessage());
+            }
+
+            return ((UsageException) exc).getStatus();
         }
+
+        exc.printStackTrace();
+
+        return 1;
+    }
+
+    /**
+     * Run one report job, given as the arguments of a command line, without exiting the process: errors in the job,
+     * including unknown report types and bad options, are thrown instead.  Each job needs a launcher of its own.
+     * Jobs cannot listen for metrics, as a listening report may never finish, and its job would hold up the
+     * shutdown of the report server.
+     *
+     * @param args report type, options, and sources, as on the command line.
+     * @throws IllegalArgumentException if the arguments are not a valid report job.
+     */
+    public void runJob(String[] args) throws Exception {
+        this.exitOnUsageError = false;
+        this.reportProperties = new Properties();
+
+        List<?> nonOptionArgs = this.parseCommandLine(args);
+        if (this.reportProperties.getProperty(PROPERTY_LISTEN) != null) {
+            throw new IllegalArgumentException("--listen is not available in report jobs");
+        }
+
+        if (nonOptionArgs.size() < 2) {
+            throw new IllegalArgumentException("a report type and at least one source are required");
+        }
+
+        this.reportType = nonOptionArgs.get(0).toString();
+        if (this.registry.getReportType(this.reportType) == null) {
+            throw new IllegalArgumentException("unknown report type \"" + this.reportType + "\"");
+        }
+
+        this.launchConfiguredReports(this.reportType, this.expandSourceArgs(nonOptionArgs));
     }
 
     public void launchReport (String reportType, String[] args) throws Exception {
         FeedableReport report = this.registry.getReportType(reportType);
 
         if (report == null) {
-            this.printUsage(System.err);
-            System.exit(1);
+            throw new IllegalArgumentException("unknown report type \"" + reportType + "\"");
         }
 
         this.launchReport(report, args);
@@ -104,24 +222,269 @@ public class ReportLauncher {
     public void launchReport (FeedableReport report, String[] args) throws Exception {
         List<?> nonOptionArgs = this.parseCommandLine(args);
 
+        this.launchConfiguredReports(reportType, this.expandSourceArgs(nonOptionArgs));
+    }
+
+    /**
+     * Generate the report for each of the given sources, or a single report of all of them when the sources are
+     * merged.
+     */
+    protected void launchConfiguredReports(String reportType, List<String> uris) throws Exception {
+        boolean merge = (Boolean.parseBoolean(this.reportProperties.getProperty(PROPERTY_MERGE_SOURCES))) ||
+                (Boolean.parseBoolean(this.reportProperties.getProperty(PROPERTY_MERGE_ORDERED)));
+
+        if ((merge) && (uris.size() > 1)) {
+            this.launchMergedReport(reportType, uris);
+            return;
+        }
+
+        int cur = 0;
+        while (cur < uris.size()) {
+            this.launchConfiguredReport(reportType, uris.get(cur), this.resolveCheckpointFile(cur, uris.size()));
+            cur++;
+        }
+    }
+
+    /**
+     * @return checkpoint file for the given source of those reported one at a time, or null for no checkpoints.  Each
+     * source has a checkpoint file of its own, so a resumed run picks up each where it left off.
+     */
+    protected File resolveCheckpointFile(int sourceNumber, int sourceCount) {
+        String checkpointFile = this.reportProperties.getProperty(PROPERTY_CHECKPOINT_FILE);
+        if (checkpointFile == null) {
+            return null;
+        }
+
+        if (sourceCount > 1) {
+            return new File(checkpointFile + "." + (sourceNumber + 1));
+        }
+
+        return new File(checkpointFile);
+    }
+
+    /**
+     * Generate a single report of all the given sources, reading them concurrently.  Samples are fed in timestamp
+     * order across the sources when an ordered merge is requested, and in whatever order they are read otherwise.
+     */
+    protected void launchMergedReport(String reportType, List<String> uris) throws Exception {
+        boolean ordered = Boolean.parseBoolean(this.reportProperties.getProperty(PROPERTY_MERGE_ORDERED));
+        if ((ordered) && (uris.size() > MergingSampleSource.MAX_SOURCES)) {
+            throw new UsageException(UsageException.STATUS_USAGE_ERROR, "at most " + MergingSampleSource.MAX_SOURCES +
+                    " sources can be merged in timestamp order; use --merge to merge " + uris.size());
+        }
+
+        FeedableReport report = this.registry.createReport(reportType);
+
+        if (report == null) {
+            throw new IllegalArgumentException("unknown report type \"" + reportType + "\"");
+        }
+
+        if (this.reportProperties.getProperty(PROPERTY_CHECKPOINT_FILE) != null) {
+            System.err.println("warning: checkpoints are not saved when merging sources");
+        }
+
+        report.onFeedStart(uris.size() + " sources", reportProperties);
+
+        // The sources feed the merge rather than the report, so they are told which fields the report uses
+        Set<SampleField> requiredFields = SampleField.all();
+        if (report instanceof SampleFieldConsumer) {
+            requiredFields = ((SampleFieldConsumer) report).getRequiredFields();
+        }
+
+        List<SampleSource> sources = new ArrayList<>();
+        for (String oneUri : uris) {
+            JTLFileSampleSource jtlFileSampleSource = new JTLFileSampleSource(oneUri);
+            this.configureSampleSource(jtlFileSampleSource);
+            jtlFileSampleSource.setRequiredFields(requiredFields);
+            sources.add(jtlFileSampleSource);
+        }
+
+        if (ordered) {
+            MergingSampleSource mergingSampleSource = new MergingSampleSource(uris, sources);
+
+            String reorderWindow = this.reportProperties.getProperty(PROPERTY_MERGE_REORDER_WINDOW);
+            if (reorderWindow != null) {
+                mergingSampleSource.setReorderWindow(Integer.parseInt(reorderWindow));
+            }
+
+            this.sampleSource = mergingSampleSource;
+        } else {
+            MultiSourceSampleSource multiSourceSampleSource = new MultiSourceSampleSource(uris, sources);
+
+            Object sourceThreads = this.reportProperties.get(PROPERTY_SOURCE_THREADS);
+            if (sourceThreads != null) {
+                multiSourceSampleSource.setConcurrency(Integer.parseInt(sourceThreads.toString()));
+            }
+
+            this.sampleSource = multiSourceSampleSource;
+        }
+
+        try {
+            this.sampleSource.execute(report);
+        } catch ( SAXParseException spExc ) {
+            if ( ! this.generateReportAfterParseException ) {
+                throw spExc;
+            }
+
+            System.err.println("warning: ignoring parse exceptions");
+        }
+
+        report.onFeedComplete();
+    }
+
+    /**
+     * Generate the report from the metrics the JMeter Backend Listener streams to a socket, rather than from files.
+     * The report is written once the source stops: when the test ends, when the idle timeout passes, or when the
+     * process is interrupted.
+     */
+    protected void launchListeningReport(String reportType, List<String> uris) throws Exception {
+        FeedableReport report = this.registry.createReport(reportType);
+
+        if (report == null) {
+            throw new IllegalArgumentException("unknown report type \"" + reportType + "\"");
+        }
+
+        if (!uris.isEmpty()) {
+            System.err.println("warning: ignoring " + uris.size() + " sources while listening for metrics");
+        }
+
+        final BackendListenerSampleSource backendSource = this.createBackendSource(
+                this.reportProperties.getProperty(PROPERTY_LISTEN));
+
+        String listenAddress = this.reportProperties.getProperty(PROPERTY_LISTEN_ADDRESS);
+        if (listenAddress != null) {
+            backendSource.setBindAddress(listenAddress);
+        }
+
+        Object idleTimeout = this.reportProperties.get(PROPERTY_IDLE_TIMEOUT);
+        if (idleTimeout != null) {
+            backendSource.setIdleTimeout(Long.parseLong(idleTimeout.toString()));
+        }
+
+        String graphitePrefix = this.reportProperties.getProperty(PROPERTY_GRAPHITE_PREFIX);
+        if (graphitePrefix != null) {
+            backendSource.setGraphitePrefix(graphitePrefix);
+        }
+
+        String influxMeasurement = this.reportProperties.getProperty(PROPERTY_INFLUX_MEASUREMENT);
+        if (influxMeasurement != null) {
+            backendSource.setInfluxMeasurement(influxMeasurement);
+        }
+
+        this.sampleSource = backendSource;
+
+        // On interrupt, stop listening and give the report the chance to be written before the JVM exits
+        final CountDownLatch reportComplete = new CountDownLatch(1);
+        Thread stopHook = new Thread() {
+            @Override
+            public void run() {
+                backendSource.stop();
+
+                try {
+                    reportComplete.await(1, TimeUnit.MINUTES);
+                } catch (InterruptedException intExc) {
+                    // Exiting anyway
+                }
+            }
+        };
+
+        Runtime.getRuntime().addShutdownHook(stopHook);
+
+        // The ImageIO file cache cannot register its own hook once shutdown starts, so charts are buffered in memory
+        ImageIO.setUseCache(false);
+
+        try {
+            report.onFeedStart(backendSource.getProtocol().name().toLowerCase(Locale.ROOT) + " listener",
+                    reportProperties);
+
+            this.sampleSource.execute(report);
+
+            report.onFeedComplete();
+        } finally {
+            reportComplete.countDown();
+
+            try {
+                Runtime.getRuntime().removeShutdownHook(stopHook);
+            } catch (IllegalStateException isExc) {
+                // Already shutting down, in which case the hook is running
+            }
+        }
+    }
+
+    /**
+     * @param listen protocol and optional port, as in "graphite" or "influxdb:8086".
+     */
+    protected BackendListenerSampleSource createBackendSource(String listen) {
+        String[] split = listen.split(":", 2);
+
+        BackendListenerSampleSource.Protocol protocol;
+        try {
+            protocol = BackendListenerSampleSource.Protocol.valueOf(split[0].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException iaExc) {
+            throw new IllegalArgumentException("unknown metrics protocol \"" + split[0] + "\"; expected graphite or " +
+                    "influxdb");
+        }
+
+        int port = BackendListenerSampleSource.DEFAULT_GRAPHITE_PORT;
+        if (protocol == BackendListenerSampleSource.Protocol.INFLUXDB) {
+            port = BackendListenerSampleSource.DEFAULT_INFLUXDB_PORT;
+        }
+
+        if (split.length > 1) {
+            port = Integer.parseInt(split[1].trim());
+        }
+
+        return new BackendListenerSampleSource(protocol, port);
+    }
+
+    /**
+     * Collect the source URIs following the report type.  An argument of the form @file names a file listing more
+     * URIs, one per line; blank lines and lines starting with # are ignored.
+     */
+    protected List<String> expandSourceArgs(List<?> nonOptionArgs) throws IOException {
+        List<String> result = new ArrayList<>();
+
         int cur = 1;
         while (cur < nonOptionArgs.size()) {
-            String uri = nonOptionArgs.get(cur).toString();
-            this.launchConfiguredReport(reportType, uri);
+            String arg = nonOptionArgs.get(cur).toString();
+
+            if ((arg.startsWith("@")) && (arg.length() > 1)) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(arg.substring(1)))) {
+                    String line = reader.readLine();
+                    while (line != null) {
+                        line = line.trim();
+                        if ((!line.isEmpty()) && (!line.startsWith("#"))) {
+                            result.add(line);
+                        }
+
+                        line = reader.readLine();
+                    }
+                }
+            } else {
+                result.add(arg);
+            }
 
             cur++;
         }
+
+        return result;
     }
 
     protected void launchConfiguredReport (String reportType, String uri) throws Exception {
-        FeedableReport report = this.registry.getReportType(reportType);
+        this.launchConfiguredReport(reportType, uri, this.resolveCheckpointFile(0, 1));
+    }
+
+    protected void launchConfiguredReport (String reportType, String uri, File checkpointFile) throws Exception {
+        FeedableReport report = this.registry.createReport(reportType);
 
         if (report == null) {
-            this.printUsage(System.err);
-            System.exit(1);
+            throw new IllegalArgumentException("unknown report type \"" + reportType + "\"");
         }
 
-        this.sampleSource = new JTLFileSampleSource(uri);
+        JTLFileSampleSource jtlFileSampleSource = new JTLFileSampleSource(uri);
+        this.configureSampleSource(jtlFileSampleSource);
+        this.configureCheckpoints(jtlFileSampleSource, checkpointFile);
+        this.sampleSource = jtlFileSampleSource;
 
         report.onFeedStart(uri, reportProperties);
 
@@ -136,99 +499,315 @@ public class ReportLauncher {
         }
 
         report.onFeedComplete();
+
+        // The report is complete, so there is nothing left to resume
+        if ((checkpointFile != null) && (checkpointFile.exists()) && (!checkpointFile.delete())) {
+            System.err.println("warning: failed to remove checkpoint file " + checkpointFile);
+        }
     }
 
-    protected List<?> parseCommandLine(String[] args) throws Exception {
-        this.optionParser = new OptionParser("hcD:d:H:o:s:W:");
+    /**
+     * Apply the sampling, time window, and indexing options, if any, to the sample source.  Reports read the same
+     * sampling properties to scale their counts back up.
+     *
+     * @param jtlFileSampleSource source to configure.
+     */
+    protected void configureSampleSource(JTLFileSampleSource jtlFileSampleSource) {
+        Object sampleEvery = this.reportProperties.get(PROPERTY_SAMPLE_EVERY);
+        Object sampleRate = this.reportProperties.get(PROPERTY_SAMPLE_RATE);
+        if (sampleEvery != null) {
+            jtlFileSampleSource.setSampleEvery(Integer.parseInt(sampleEvery.toString()));
+        } else if (sampleRate != null) {
+            jtlFileSampleSource.setSampleRate(Double.parseDouble(sampleRate.toString()));
+        }
 
-        this.optionParser.accepts("h", "display this usage");
+        String windowFrom = this.reportProperties.getProperty(PROPERTY_WINDOW_FROM);
+        String windowTo = this.reportProperties.getProperty(PROPERTY_WINDOW_TO);
+        if ((windowFrom != null) || (windowTo != null)) {
+            jtlFileSampleSource.setTimeWindow(new TimeWindow(windowFrom, windowTo));
+        }
 
-        this.optionParser.accepts("c", "continue generating report after parse exception");
+        Object parseThreads = this.reportProperties.get(PROPERTY_PARSE_THREADS);
+        if (parseThreads != null) {
+            jtlFileSampleSource.setParseThreads(Integer.parseInt(parseThreads.toString()));
+        }
+
+        String jtlIndex = this.reportProperties.getProperty(PROPERTY_JTL_INDEX);
+        if (jtlIndex != null) {
+            jtlFileSampleSource.setIndexEnabled(Boolean.parseBoolean(jtlIndex));
+        }
+
+        String jtlIndexBlockSize = this.reportProperties.getProperty(PROPERTY_JTL_INDEX_BLOCK_SIZE);
+        if (jtlIndexBlockSize != null) {
+            jtlFileSampleSource.setIndexBlockSize(Integer.parseInt(jtlIndexBlockSize));
+        }
+
+        String skipPayloads = this.reportProperties.getProperty(PROPERTY_SKIP_PAYLOADS);
+        if (skipPayloads != null) {
+            jtlFileSampleSource.setSkipPayloads(Boolean.parseBoolean(skipPayloads));
+        }
+
+        String stats = this.reportProperties.getProperty(PROPERTY_STATS);
+        if (stats != null) {
+            jtlFileSampleSource.setPrintStats(Boolean.parseBoolean(stats));
+        }
+    }
+
+    /**
+     * Apply the checkpoint options, if any, to the sample source.
+     *
+     * @param jtlFileSampleSource source to configure.
+     * @param checkpointFile checkpoint file of the source, or null for no checkpoints.
+     */
+    protected void configureCheckpoints(JTLFileSampleSource jtlFileSampleSource, File checkpointFile) {
+        if (checkpointFile == null) {
+            return;
+        }
+
+        jtlFileSampleSource.setCheckpointFile(checkpointFile);
+
+        Object checkpointInterval = this.reportProperties.get(PROPERTY_CHECKPOINT_INTERVAL);
+        if (checkpointInterval != null) {
+            jtlFileSampleSource.setCheckpointInterval(Long.parseLong(checkpointInterval.toString()));
+        }
 
-        this.optionParser.accepts("D", "report property")
+        jtlFileSampleSource.setResume(Boolean.parseBoolean(this.reportProperties.getProperty(PROPERTY_RESUME)));
+    }
+
+    /**
+     * Declare the options common to the reports: -h, -D, -d, -H, -o, -s, and -W.
+     *
+     * @param optionParser parser to which to add the options.
+     */
+    public static void acceptCommonOptions(OptionParser optionParser) {
+        optionParser.accepts("h", "display this usage");
+
+        optionParser.accepts("D", "report property")
                 .withRequiredArg().ofType(String.class)
                 .describedAs("property=value");
 
-        this.optionParser.accepts("d", "generate detailed sample output")
+        optionParser.accepts("d", "generate detailed sample output")
                 .withRequiredArg().ofType(String.class)
                 .describedAs("filename");
 
-        this.optionParser.accepts("H", "height of the generated report")
+        optionParser.accepts("H", "height of the generated report")
                 .withRequiredArg().ofType(Integer.class);
 
+        optionParser.accepts("o", "output report filename")
+                .withRequiredArg().ofType(String.class)
+                .describedAs("filename");
+
+        optionParser.accepts("s", "slot size, in milliseconds")
+                .withRequiredArg().ofType(Long.class);
+
+        optionParser.accepts("W", "width of the generated report")
+                .withRequiredArg().ofType(Integer.class);
+    }
+
+    /**
+     * Copy the common options declared by acceptCommonOptions(), other than -h, into the report properties.
+     *
+     * @param options parsed command line.
+     * @param reportProperties destination of the settings.
+     */
+    public static void extractCommonOptions(OptionSet options, Properties reportProperties) {
+        if (options.has("D")) {
+            for ( Object oneValue : options.valuesOf("D") ) {
+                String valueString = oneValue.toString();
+                String[] split = valueString.split("=", 2);
+
+                if ( split.length == 2 ) {
+                    reportProperties.put(split[0], split[1]);
+                } else {
+                    reportProperties.put(valueString, "");
+                }
+            }
+        }
+
+        if (options.has("d")) {
+            reportProperties.put(PROPERTY_DETAIL_FILE_NAME, (String) options.valueOf("d"));
+        }
+
+        if (options.has("H")) {
+            reportProperties.put(PROPERTY_CHART_HEIGHT, (Integer) options.valueOf("H"));
+        }
+
+        if (options.has("o")) {
+            reportProperties.put(PROPERTY_OUTPUT_FILENAME, (String) options.valueOf("o"));
+        }
+
+        if (options.has("s")) {
+            reportProperties.put(PROPERTY_TIME_SLOT_SIZE, (Long) options.valueOf("s"));
+        }
+
+        if (options.has("W")) {
+            reportProperties.put(PROPERTY_CHART_WIDTH, (Integer) options.valueOf("W"));
+        }
+    }
+
+    protected List<?> parseCommandLine(String[] args) throws Exception {
+        this.optionParser = new OptionParser("hcD:d:H:o:s:W:");
+
+        acceptCommonOptions(this.optionParser);
+
+        this.optionParser.accepts("c", "continue generating report after parse exception");
+
         this.optionParser.accepts("M", "maximum slots")
                 .withRequiredArg().ofType(Integer.class);
 
-        this.optionParser.accepts("o", "output report filename")
+        this.optionParser.accepts("from", "only report samples starting at this time (epoch ms, " +
+                "yyyy-MM-dd'T'HH:mm[:ss], or HH:mm[:ss] on the day of the run)")
+                .withRequiredArg().ofType(String.class)
+                .describedAs("time");
+
+        this.optionParser.accepts("to", "only report samples starting before this time")
+                .withRequiredArg().ofType(String.class)
+                .describedAs("time");
+
+        this.optionParser.accepts("parse-threads",
+                "number of threads with which to parse indexed or block-compressed files")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("merge", "generate one report of all the sources, reading them concurrently");
+
+        this.optionParser.accepts("merge-ordered", "generate one report of all the sources, merging their samples " +
+                "in timestamp order");
+
+        this.optionParser.accepts("source-threads", "maximum number of sources to read at once when merging")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("sample-every", "only read every Nth top-level sample and scale counts to match")
+                .withRequiredArg().ofType(Integer.class)
+                .describedAs("N");
+
+        this.optionParser.accepts("sample-rate", "only read this fraction of top-level samples, chosen at random, " +
+                "and scale counts to match")
+                .withRequiredArg().ofType(Double.class)
+                .describedAs("fraction");
+
+        this.optionParser.accepts("stats", "print statistics of each source once read, such as the payload bytes " +
+                "skipped");
+
+        this.optionParser.accepts("checkpoint", "periodically save the progress of the report to this file, so that " +
+                "the run may be resumed if it dies")
                 .withRequiredArg().ofType(String.class)
                 .describedAs("filename");
 
-        this.optionParser.accepts("s", "slot size, in milliseconds")
+        this.optionParser.accepts("checkpoint-interval", "time between checkpoints, in seconds (default 60)")
                 .withRequiredArg().ofType(Long.class);
 
-        this.optionParser.accepts("W", "width of the generated report")
-                .withRequiredArg().ofType(Integer.class);
+        this.optionParser.accepts("resume", "resume from the checkpoint file, if it holds a checkpoint of the same " +
+                "source and report");
+
+        this.optionParser.accepts("listen", "instead of reading sources, listen for the metrics of the JMeter " +
+                "Backend Listener, on the loopback interface unless -D " + PROPERTY_LISTEN_ADDRESS + "=... is given")
+                .withRequiredArg().ofType(String.class)
+                .describedAs("graphite|influxdb[:port]");
+
+        this.optionParser.accepts("idle-timeout", "when listening, stop once no metrics arrive for this many seconds")
+                .withRequiredArg().ofType(Long.class);
 
         try {
             OptionSet options = optionParser.parse(args);
 
             if (options.has("h")) {
+                if (!this.exitOnUsageError) {
+                    throw new IllegalArgumentException("-h is not available in report jobs");
+                }
+
                 this.printUsage(System.out);
-                System.exit(0);
+                throw new UsageException(0, null);
             }
 
-            if (options.has("D")) {
-                for ( Object oneValue : options.valuesOf("D") ) {
-                    String valueString = oneValue.toString();
-                    String[] split = valueString.split("=", 2);
-
-                    if ( split.length == 2 ) {
-                        this.reportProperties.put(split[0], split[1]);
-                    } else {
-                        this.reportProperties.put(valueString, "");
-                    }
-                }
-            }
+            extractCommonOptions(options, this.reportProperties);
 
             if ( options.has("c") ) {
                 this.generateReportAfterParseException = true;
             }
 
-            if (options.has("d")) {
-                this.reportProperties.put(PROPERTY_DETAIL_FILE_NAME, (String) options.valueOf("d"));
+            if ( options.has("M") ) {
+                this.reportProperties.put(PROPERTY_MAX_SLOTS, (Integer) options.valueOf("M"));
+            }
+
+            if (options.has("from")) {
+                this.reportProperties.put(PROPERTY_WINDOW_FROM, (String) options.valueOf("from"));
             }
 
-            if (options.has("H")) {
-                this.reportProperties.put(PROPERTY_CHART_HEIGHT, (Integer) options.valueOf("H"));
+            if (options.has("to")) {
+                this.reportProperties.put(PROPERTY_WINDOW_TO, (String) options.valueOf("to"));
             }
 
-            if ( options.has("M") ) {
-                this.reportProperties.put(PROPERTY_MAX_SLOTS, (Integer) options.valueOf("M"));
+            if (options.has("parse-threads")) {
+                this.reportProperties.put(PROPERTY_PARSE_THREADS, (Integer) options.valueOf("parse-threads"));
+            }
+
+            if (options.has("merge")) {
+                this.reportProperties.put(PROPERTY_MERGE_SOURCES, "true");
+            }
+
+            if (options.has("merge-ordered")) {
+                this.reportProperties.put(PROPERTY_MERGE_ORDERED, "true");
             }
 
-            if (options.has("o")) {
-                this.reportProperties.put(PROPERTY_OUTPUT_FILENAME, (String) options.valueOf("o"));
+            if (options.has("source-threads")) {
+                this.reportProperties.put(PROPERTY_SOURCE_THREADS, (Integer) options.valueOf("source-threads"));
             }
 
-            if (options.has("s")) {
-                this.reportProperties.put(PROPERTY_TIME_SLOT_SIZE, (Long) options.valueOf("s"));
+            if (options.has("sample-every")) {
+                this.reportProperties.put(PROPERTY_SAMPLE_EVERY, (Integer) options.valueOf("sample-every"));
             }
 
-            if (options.has("W")) {
-                this.reportProperties.put(PROPERTY_CHART_WIDTH, (Integer) options.valueOf("W"));
+            if (options.has("sample-rate")) {
+                this.reportProperties.put(PROPERTY_SAMPLE_RATE, (Double) options.valueOf("sample-rate"));
+            }
+
+            if (options.has("stats")) {
+                this.reportProperties.put(PROPERTY_STATS, "true");
+            }
+
+            if (options.has("checkpoint")) {
+                this.reportProperties.put(PROPERTY_CHECKPOINT_FILE, (String) options.valueOf("checkpoint"));
+            }
+
+            if (options.has("checkpoint-interval")) {
+                this.reportProperties.put(PROPERTY_CHECKPOINT_INTERVAL,
+                        ((Long) options.valueOf("checkpoint-interval")) * 1000L);
+            }
+
+            if (options.has("resume")) {
+                if (!options.has("checkpoint")) {
+                    throw new IllegalArgumentException("--resume requires --checkpoint");
+                }
+
+                this.reportProperties.put(PROPERTY_RESUME, "true");
+            }
+
+            if (options.has("listen")) {
+                this.reportProperties.put(PROPERTY_LISTEN, (String) options.valueOf("listen"));
+            }
+
+            if (options.has("idle-timeout")) {
+                this.reportProperties.put(PROPERTY_IDLE_TIMEOUT, ((Long) options.valueOf("idle-timeout")) * 1000L);
             }
 
             return options.nonOptionArguments();
+        } catch (UsageException usageExc) {
+            throw usageExc;
         } catch (Exception exc) {
-            this.printUsage(System.err);
-            System.err.println();
+            if (this.exitOnUsageError) {
+                this.printUsage(System.err);
+                System.err.println();
+
+                throw new UsageException(UsageException.STATUS_USAGE_ERROR, exc.getMessage());
+            }
 
             throw exc;
         }
     }
 
     protected void printUsage(PrintStream out) {
-        out.println("Usage: HitsPerSecond [options] <source-url>");
+        out.println("Usage: HitsPerSecond [options] <source-url>|@<url-list-file> ...");
+        out.println("       HitsPerSecond [options] --listen graphite|influxdb[:port]");
 
         try {
             optionParser.printHelpOn(out);
@@ -247,6 +826,12 @@ public class ReportLauncher {
             out.println("  " + reportType);
         }
 
+        out.println();
+        out.println("Available Comparison Report Types (given as the first argument):");
+        for (String reportType : new TreeSet<>(this.registry.getLaunchableTypes())) {
+            out.println("  " + reportType);
+        }
+
         // Print the aliases in sorted order (hence the TreeSet)
         out.println();
         out.println("Available Report Aliases:");
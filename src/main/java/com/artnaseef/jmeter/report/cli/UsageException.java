@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.cli;
+
+/**
+ * Thrown when a command line asks for the usage, or is not valid, once the usage has been printed; main() exits
+ * with the status given rather than a stack trace.
+ *
+ * Created by art on 10/19/26.
+ */
+public class UsageException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public static final int STATUS_USAGE_ERROR = 1;
+
+    private final int status;
+
+    /**
+     * @param status exit status: 0 when the usage was asked for, STATUS_USAGE_ERROR when the command line is not
+     *               valid.
+     * @param message problem with the command line, or null if there is none to report.
+     */
+    public UsageException(int status, String message) {
+        super(message);
+
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -16,8 +16,11 @@ package com.artnaseef.jmeter.report.jtl;
 
 import com.artnaseef.jmeter.report.jtl.model.Assertion;
 import com.artnaseef.jmeter.report.jtl.model.HttpSample;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
 import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
 import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -29,8 +32,11 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipInputStream;
 
@@ -39,6 +45,9 @@ import java.util.zip.ZipInputStream;
  */
 public class JTLFileParser {
     private JTLFileParseListener listener;
+    private NumericAttributeDecoder numericDecoder = new NumericAttributeDecoder();
+    private ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
+    private Set<SampleField> requiredFields = SampleField.all();
 
     public JTLFileParseListener getListener() {
         return listener;
@@ -48,25 +57,75 @@ public class JTLFileParser {
         this.listener = listener;
     }
 
+    public Set<SampleField> getRequiredFields() {
+        return requiredFields;
+    }
+
+    /**
+     * Only decode the given fields of the samples; the others keep their defaults, which saves the decoding, the
+     * strings, and the capture of assertion text for fields no report uses.
+     *
+     * @param requiredFields fields to decode.
+     */
+    public void setRequiredFields(Set<SampleField> requiredFields) {
+        this.requiredFields = EnumSet.noneOf(SampleField.class);
+        this.requiredFields.addAll(requiredFields);
+    }
+
+    /**
+     * Number of numeric attribute values, across all files parsed so far, which were present but could not be
+     * decoded.  Such values are replaced with defaults (e.g. -1).
+     *
+     * @return count of malformed values.
+     */
+    public long getMalformedValueCount() {
+        return this.numericDecoder.getMalformedCount();
+    }
+
     public void parse(String uri) throws ParserConfigurationException, SAXException, IOException, URISyntaxException {
+        this.parse(this.openSourceStream(uri), uri);
+    }
+
+    /**
+     * Parse the JTL content of the given stream, which is closed on completion.
+     *
+     * @param inputStream stream of uncompressed JTL content.
+     * @param uri URI of the source, used as the system id of the document.
+     */
+    public void parse(InputStream inputStream, String uri)
+            throws ParserConfigurationException, SAXException, IOException {
+
         SAXParserFactory factory = SAXParserFactory.newInstance();
         SAXParser parser;
         SAXParseHandler handler = new SAXParseHandler();
 
         parser = factory.newSAXParser();
 
-        // TODO: refactor so the input filestream is not created in the parser
-        // Support GZIP and ZIP files
+        try (InputStream in = inputStream) {
+            InputSource inputSource = new InputSource(in);
+            inputSource.setSystemId(uri);
+
+            parser.parse(inputSource, handler);
+        }
+    }
+
+    /**
+     * Open the raw JTL content of the given URI, decompressing GZIP and ZIP files.
+     *
+     * @param uri URI of the source.
+     * @return stream of the uncompressed content.
+     */
+    public InputStream openSourceStream(String uri) throws URISyntaxException, IOException {
         String lowerCaseUri = uri.toLowerCase();
         if ( lowerCaseUri.endsWith(".gz") ) {
-            parser.parse(new GZIPInputStream(openUriStream(uri)), handler);
+            return new GZIPInputStream(openUriStream(uri));
         } else if ( lowerCaseUri.endsWith(".zip") ) {
             ZipInputStream zis = new ZipInputStream(openUriStream(uri));
             zis.getNextEntry();
-            parser.parse(zis, handler);
-        } else {
-            parser.parse(uri, handler);
+            return zis;
         }
+
+        return openUriStream(uri);
     }
 
     protected InputStream openUriStream (String uriString) throws URISyntaxException, IOException {
@@ -91,17 +150,29 @@ public class JTLFileParser {
         private int level = 0;
         private List<Sample> samples = new LinkedList<>();
         private LinkedList<Sample> currentSampleStack = new LinkedList<>();
+        private List<Sample> leafBuffer = new ArrayList<>();
         private Assertion assertion;
         private int assertionLevel = Integer.MIN_VALUE;
 
         private boolean needCharacters;
-        private StringBuilder characterBuffer = new StringBuilder();
+        private final StringBuilder characterBuffer = new StringBuilder();
+
+        // Fields to decode, looked up once per parse instead of once per sample
+        private final boolean decodeLabel = requiredFields.contains(SampleField.LABEL);
+        private final boolean decodeElapsed = requiredFields.contains(SampleField.ELAPSED);
+        private final boolean decodeReceivedBytes = requiredFields.contains(SampleField.RECEIVED_BYTES);
+        private final boolean decodeSentBytes = requiredFields.contains(SampleField.SENT_BYTES);
+        private final boolean decodeThreadCounts = requiredFields.contains(SampleField.THREAD_COUNTS);
+        private final boolean decodeThreadName = requiredFields.contains(SampleField.THREAD_NAME);
+        private final boolean decodeResultCode = requiredFields.contains(SampleField.RESULT_CODE);
+        private final boolean decodeAssertionResults = requiredFields.contains(SampleField.ASSERTION_RESULTS);
+        private final boolean decodeAssertionDetails = requiredFields.contains(SampleField.ASSERTION_DETAILS);
 
         @Override
         public void startElement(String uri, String localName, String qName, Attributes attributes)
                 throws SAXException {
 
-            this.characterBuffer = new StringBuilder();
+            this.characterBuffer.setLength(0);
 
             this.needCharacters = false;
 
@@ -109,13 +180,15 @@ public class JTLFileParser {
                 Sample sample = this.decodeSample(uri, localName, qName, attributes);
                 this.currentSampleStack.push(sample);
             } else if (qName.equals("assertionResult")) {
-                this.assertion = new Assertion();
-                this.assertionLevel = level;
-            } else if (qName.equals("name") || qName.equals("failure") || qName.equals("error") ||
-                    qName.equals("failureMessage")) {
-
-                if (this.level == this.assertionLevel + 1) {
-                    this.needCharacters = true;
+                if ((this.decodeAssertionResults) || (this.decodeAssertionDetails)) {
+                    this.assertion = new Assertion();
+                    this.assertionLevel = level;
+                }
+            } else if (this.level == this.assertionLevel + 1) {
+                if (qName.equals("failure") || qName.equals("error")) {
+                    this.needCharacters = this.decodeAssertionResults;
+                } else if (qName.equals("name") || qName.equals("failureMessage")) {
+                    this.needCharacters = this.decodeAssertionDetails;
                 }
             }
 
@@ -134,20 +207,31 @@ public class JTLFileParser {
             if (qName.equals("sample") || qName.equals("httpSample")) {
                 Sample finishedSample = this.currentSampleStack.pop();
 
+                // Sub-samples end before their parent, so a sample without any once it ends is a leaf
+                if (finishedSample.getSubSamples().isEmpty()) {
+                    this.leafBuffer.add(finishedSample);
+                }
+
                 if (this.currentSampleStack.isEmpty()) {
                     // Finished a top-level sample
+                    finishedSample.setLeaves(this.leafBuffer.toArray(new Sample[this.leafBuffer.size()]));
+                    this.leafBuffer.clear();
+
                     notifyListenerOfSample(finishedSample);
                 } else {
-                    this.currentSampleStack.peekLast().addSubSample(finishedSample);
+                    this.currentSampleStack.peek().addSubSample(finishedSample);
                 }
             } else if (qName.equals("assertionResult")) {
-                if (this.currentSampleStack.size() > 0) {
-                    currentSampleStack.getLast().addAssertion(this.assertion);
+                if ((this.assertion != null) && (this.currentSampleStack.size() > 0)) {
+                    currentSampleStack.peek().addAssertion(this.assertion);
                 }
 
                 this.assertion = null;
+                this.assertionLevel = Integer.MIN_VALUE;
+            } else if (!this.needCharacters) {
+                // Not a captured assertion field
             } else if (qName.equals("name")) {
-                if (this.level == this.assertionLevel + 1) {
+                if (this.level == this.assertionLevel + 2) {
                     this.assertion.setName(this.characterBuffer.toString());
                 }
             } else if (qName.equals("failure")) {
@@ -165,12 +249,13 @@ public class JTLFileParser {
                     this.assertion.setAssertionError(failureInd);
                 }
             } else if (qName.equals("failureMessage")) {
-                if (this.level == this.assertionLevel + 1) {
+                if (this.level == this.assertionLevel + 2) {
                     this.assertion.setFailureMessage(this.characterBuffer.toString());
                 }
             }
 
-            this.characterBuffer = new StringBuilder();
+            this.characterBuffer.setLength(0);
+            this.needCharacters = false;
             this.level--;
         }
 
@@ -183,33 +268,52 @@ public class JTLFileParser {
                 result = new Sample();
             }
 
-            result.setLabel(attributes.getValue("lb"));
             result.setTimestamp(decodeLong(attributes.getValue("ts"), -1));
-            result.setResultCode(decodeResultCodeString(attributes.getValue("rc")));
 
-            return result;
-        }
+            if (this.decodeLabel) {
+                result.setLabel(attributes.getValue("lb"));
+            }
 
-        protected int decodeResultCodeString(String rcString) {
-            int result = -1;
-            try {
-                result = Integer.valueOf(rcString);
-            } catch (NumberFormatException nfExc) {
-                // Return the default
+            if (this.decodeElapsed) {
+                result.setElapsed(decodeLong(attributes.getValue("t"), -1));
+            }
+
+            if (this.decodeReceivedBytes) {
+                result.setReceivedBytes(decodeLong(attributes.getValue("by"), -1));
+            }
+
+            if (this.decodeSentBytes) {
+                result.setSentBytes(decodeLong(attributes.getValue("sby"), -1));
+            }
+
+            if (this.decodeThreadCounts) {
+                result.setGroupThreads(decodeInt(attributes.getValue("ng"), -1));
+                result.setAllThreads(decodeInt(attributes.getValue("na"), -1));
+            }
+
+            if (this.decodeThreadName) {
+                result.setThreadName(attributes.getValue("tn"));
+            }
+
+            if (this.decodeResultCode) {
+                int resultCodeId = decodeResultCodeId(attributes.getValue("rc"));
+                result.setResultCodeId(resultCodeId);
+                result.setResultCode(resultCodeDictionary.getNumericCode(resultCodeId));
             }
 
             return result;
         }
 
+        protected int decodeResultCodeId(String rcString) {
+            return resultCodeDictionary.intern(rcString);
+        }
+
         protected long decodeLong(String value, long defaultValue) {
-            long result;
-            try {
-                result = Long.valueOf(value);
-            } catch (Exception exc) {
-                result = defaultValue;
-            }
+            return numericDecoder.decodeLong(value, defaultValue);
+        }
 
-            return result;
+        protected int decodeInt(String value, int defaultValue) {
+            return numericDecoder.decodeInt(value, defaultValue);
         }
 
         protected boolean decodeBoolean(String value, boolean defaultValue) {
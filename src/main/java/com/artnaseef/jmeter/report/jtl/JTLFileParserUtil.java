@@ -39,6 +39,8 @@ public class JTLFileParserUtil {
         for (String oneArg : args) {
             this.parser.parse(oneArg);
         }
+
+        System.out.println("MALFORMED-VALUES " + this.parser.getMalformedValueCount());
     }
 
     protected class MyJtlParseListener implements JTLFileParseListener {
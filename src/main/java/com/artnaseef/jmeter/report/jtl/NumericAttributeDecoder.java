@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl;
+
+/**
+ * Decoder for the numeric attributes of JTL samples.  Digits are parsed directly from the characters of the value,
+ * without boxing and without using exceptions for control flow; values that cannot be decoded are counted and
+ * replaced with the caller's default.
+ *
+ * Created by art on 10/19/26.
+ */
+public class NumericAttributeDecoder {
+    private static final int EPOCH_MILLIS_LENGTH = 13;
+
+    // Maximum number of digits that cannot overflow a long, regardless of the digits
+    private static final int SAFE_LONG_DIGITS = 18;
+
+    private long malformedCount;
+
+    /**
+     * Decode the given value as a long.
+     *
+     * @param value attribute value; null indicates the attribute is missing, which is not counted as malformed.
+     * @param defaultValue value to return when the value is missing or malformed.
+     * @return the decoded value, or the default.
+     */
+    public long decodeLong(CharSequence value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+
+        int length = value.length();
+
+        // Fast path for epoch-millis timestamps, which make up the bulk of the numeric attributes.
+        if (length == EPOCH_MILLIS_LENGTH) {
+            int d0 = value.charAt(0) - '0';
+            int d1 = value.charAt(1) - '0';
+            int d2 = value.charAt(2) - '0';
+            int d3 = value.charAt(3) - '0';
+            int d4 = value.charAt(4) - '0';
+            int d5 = value.charAt(5) - '0';
+            int d6 = value.charAt(6) - '0';
+            int d7 = value.charAt(7) - '0';
+            int d8 = value.charAt(8) - '0';
+            int d9 = value.charAt(9) - '0';
+            int d10 = value.charAt(10) - '0';
+            int d11 = value.charAt(11) - '0';
+            int d12 = value.charAt(12) - '0';
+
+            // A digit stays within 0-9 both as-is and when offset by 6; anything else sets a bit above the low
+            //  nibble in one of the two, so a single check covers all thirteen characters without a branch each.
+            int check = d0 | d1 | d2 | d3 | d4 | d5 | d6 | d7 | d8 | d9 | d10 | d11 | d12 |
+                    (d0 + 6) | (d1 + 6) | (d2 + 6) | (d3 + 6) | (d4 + 6) | (d5 + 6) | (d6 + 6) |
+                    (d7 + 6) | (d8 + 6) | (d9 + 6) | (d10 + 6) | (d11 + 6) | (d12 + 6);
+
+            if ((check & ~0xF) == 0) {
+                long high = d0 * 1000000L + d1 * 100000L + d2 * 10000L + d3 * 1000L + d4 * 100L + d5 * 10L + d6;
+                long low = d7 * 100000L + d8 * 10000L + d9 * 1000L + d10 * 100L + d11 * 10L + d12;
+
+                return high * 1000000L + low;
+            }
+        }
+
+        return this.decodeLongSlow(value, length, defaultValue);
+    }
+
+    /**
+     * Decode the given value as an int.
+     *
+     * @param value attribute value; null indicates the attribute is missing, which is not counted as malformed.
+     * @param defaultValue value to return when the value is missing or malformed.
+     * @return the decoded value, or the default.
+     */
+    public int decodeInt(CharSequence value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+
+        // Tell a malformed value from a decoded one by the count, as every long, Long.MIN_VALUE included, is a
+        //  value that may be decoded.
+        long malformedBefore = this.malformedCount;
+        long result = this.decodeLong(value, 0);
+        if (this.malformedCount != malformedBefore) {
+            return defaultValue;
+        }
+
+        if ((result < Integer.MIN_VALUE) || (result > Integer.MAX_VALUE)) {
+            this.malformedCount++;
+            return defaultValue;
+        }
+
+        return (int) result;
+    }
+
+    /**
+     * Determine whether the given value consists solely of an optional sign followed by ASCII digits.  Does not
+     * update the malformed count.
+     *
+     * @param value value to check.
+     * @return true => the value is numeric; false => otherwise.
+     */
+    public static boolean isNumeric(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+
+        int length = value.length();
+        int cur = 0;
+        if ((length > 0) && (value.charAt(0) == '-')) {
+            cur = 1;
+        }
+
+        if (cur >= length) {
+            return false;
+        }
+
+        while (cur < length) {
+            char ch = value.charAt(cur);
+            if ((ch < '0') || (ch > '9')) {
+                return false;
+            }
+            cur++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Number of values seen that were present but could not be decoded.
+     *
+     * @return count of malformed values.
+     */
+    public long getMalformedCount() {
+        return malformedCount;
+    }
+
+    public void resetMalformedCount() {
+        this.malformedCount = 0;
+    }
+
+    protected long decodeLongSlow(CharSequence value, int length, long defaultValue) {
+        int cur = 0;
+        boolean negative = false;
+
+        if ((length > 0) && (value.charAt(0) == '-')) {
+            negative = true;
+            cur = 1;
+        }
+
+        int numDigits = length - cur;
+        if (numDigits <= 0) {
+            this.malformedCount++;
+            return defaultValue;
+        }
+
+        long result = 0;
+        while (cur < length) {
+            int digit = value.charAt(cur) - '0';
+            if ((digit < 0) || (digit > 9)) {
+                this.malformedCount++;
+                return defaultValue;
+            }
+
+            // Accumulate as a negative number so Long.MIN_VALUE can be represented; only check for overflow when
+            //  the number of digits makes it possible.
+            if (numDigits > SAFE_LONG_DIGITS) {
+                if (result < (Long.MIN_VALUE + digit) / 10) {
+                    this.malformedCount++;
+                    return defaultValue;
+                }
+            }
+
+            result = (result * 10) - digit;
+            cur++;
+        }
+
+        if (negative) {
+            return result;
+        }
+
+        if (result == Long.MIN_VALUE) {
+            this.malformedCount++;
+            return defaultValue;
+        }
+
+        return -result;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Input stream which drops bulky payload elements, such as the response data and headers JMeter saves when asked to,
+ * from the raw bytes of a JTL file before the XML parser sees them.  None of the reports use these elements, and in
+ * files saved with response data they make up most of the bytes; dropping them here means their content is never
+ * decoded into characters, nor are its entities expanded.
+ *
+ * Like SampleSkippingInputStream, the stream only scans for tag boundaries (see TagScanningInputStream), and the
+ * content of a dropped element, which JMeter escapes as text, is passed over in runs up to the next tag.  The number
+ * of bytes dropped for each element name is counted, from the start of the start tag to the end of the end tag.
+ *
+ * Created by art on 10/19/26.
+ */
+public class PayloadSkippingInputStream extends TagScanningInputStream {
+    public static final List<String> DEFAULT_ELEMENT_NAMES = Collections.unmodifiableList(Arrays.asList(
+            "responseData", "requestHeader", "responseHeader", "queryString", "cookies", "samplerData"));
+
+    private final List<String> elementNames;
+    private final byte[][] elementNameBytes;
+    private final long[] skippedBytes;
+    private final long[] skippedCounts;
+
+    // Element being dropped, or -1, and the depth of the elements of the same name within it
+    private int skipElement = -1;
+    private int skipDepth;
+
+    public PayloadSkippingInputStream(InputStream in) {
+        this(in, DEFAULT_ELEMENT_NAMES);
+    }
+
+    /**
+     * @param in raw JTL stream.
+     * @param elementNames names of the elements to drop, wherever they appear.
+     */
+    public PayloadSkippingInputStream(InputStream in, List<String> elementNames) {
+        super(in);
+
+        this.elementNames = Collections.unmodifiableList(elementNames);
+        this.elementNameBytes = new byte[elementNames.size()][];
+        this.skippedBytes = new long[elementNames.size()];
+        this.skippedCounts = new long[elementNames.size()];
+
+        int cur = 0;
+        while (cur < elementNames.size()) {
+            String oneName = elementNames.get(cur);
+
+            // The whole of the end tag, "</" and the name, must fit in what is held back
+            if ((oneName.isEmpty()) || (oneName.length() > MAX_PENDING - 2)) {
+                throw new IllegalArgumentException("invalid element name \"" + oneName + "\"");
+            }
+
+            this.elementNameBytes[cur] = oneName.getBytes();
+            cur++;
+        }
+    }
+
+    public List<String> getElementNames() {
+        return elementNames;
+    }
+
+    /**
+     * @param elementIndex index of an element name.
+     * @return number of bytes dropped for elements with the name.
+     */
+    public long getSkippedBytes(int elementIndex) {
+        return this.skippedBytes[elementIndex];
+    }
+
+    /**
+     * @param elementIndex index of an element name.
+     * @return number of elements with the name dropped.
+     */
+    public long getSkippedCount(int elementIndex) {
+        return this.skippedCounts[elementIndex];
+    }
+
+    public long getTotalSkippedBytes() {
+        long result = 0;
+        for (long oneCount : this.skippedBytes) {
+            result += oneCount;
+        }
+
+        return result;
+    }
+
+    @Override
+    protected boolean onTagName(boolean endTag) {
+        if (this.skipElement != -1) {
+            // Within a dropped element, only its own end tag, or another of the same name, matters
+            return this.isTagName(this.elementNameBytes[this.skipElement]);
+        }
+
+        if (endTag) {
+            return false;
+        }
+
+        this.skipElement = this.findElement();
+        if (this.skipElement == -1) {
+            return false;
+        }
+
+        this.skipDepth = 0;
+        this.startDropping();
+
+        return true;
+    }
+
+    @Override
+    protected void onTagEnd(boolean endTag, boolean selfClosing) {
+        if (endTag) {
+            this.skipDepth--;
+        } else if (!selfClosing) {
+            this.skipDepth++;
+        }
+
+        if (this.skipDepth <= 0) {
+            this.skippedBytes[this.skipElement] += this.stopDropping();
+            this.skippedCounts[this.skipElement]++;
+            this.skipElement = -1;
+        }
+    }
+
+    /**
+     * @return index of the element named by the tag being read, or -1 if it is not an element to drop.
+     */
+    protected int findElement() {
+        int cur = 0;
+        while (cur < this.elementNameBytes.length) {
+            if (this.isTagName(this.elementNameBytes[cur])) {
+                return cur;
+            }
+            cur++;
+        }
+
+        return -1;
+    }
+}
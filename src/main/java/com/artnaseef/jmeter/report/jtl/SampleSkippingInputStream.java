@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl;
+
+import java.io.InputStream;
+import java.util.Random;
+
+/**
+ * Input stream which drops whole top-level samples from the raw bytes of a JTL file, so the XML parser never sees
+ * them.  The stream only scans for tag boundaries (see TagScanningInputStream) to find where each top-level sample or
+ * httpSample element starts and ends; nothing inside a dropped sample is decoded.
+ *
+ * Either every Nth top-level sample is kept, starting with the first, or each is kept independently with a given
+ * probability.  Keeping every Nth sample can alias with test plans that write samples in a fixed repeating pattern;
+ * random sampling avoids that.
+ *
+ * A listener may be given to learn the offset in the raw stream at which each top-level sample starts, kept or not.
+ *
+ * Created by art on 10/19/26.
+ */
+public class SampleSkippingInputStream extends TagScanningInputStream {
+    private static final byte[] SAMPLE_NAME = "sample".getBytes();
+    private static final byte[] HTTP_SAMPLE_NAME = "httpSample".getBytes();
+
+    private final int sampleEvery;
+    private final double sampleRate;
+    private final Random random;
+
+    private int sampleDepth;
+
+    private long topLevelSampleCount;
+    private long skippedSampleCount;
+
+    private TopLevelSampleListener topLevelSampleListener;
+
+    /**
+     * Keep every Nth top-level sample.
+     *
+     * @param in raw JTL stream.
+     * @param sampleEvery interval between the samples kept; 1 keeps all samples.
+     */
+    public SampleSkippingInputStream(InputStream in, int sampleEvery) {
+        super(in);
+
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sample interval must be at least 1: " + sampleEvery);
+        }
+
+        this.sampleEvery = sampleEvery;
+        this.sampleRate = 1.0 / sampleEvery;
+        this.random = null;
+    }
+
+    /**
+     * Keep each top-level sample with the given probability.
+     *
+     * @param in raw JTL stream.
+     * @param sampleRate probability of keeping each sample, greater than 0 and at most 1.
+     * @param random source of randomness.
+     */
+    public SampleSkippingInputStream(InputStream in, double sampleRate, Random random) {
+        super(in);
+
+        if ((sampleRate <= 0) || (sampleRate > 1)) {
+            throw new IllegalArgumentException("sample rate must be greater than 0 and at most 1: " + sampleRate);
+        }
+
+        this.sampleEvery = 0;
+        this.sampleRate = sampleRate;
+        this.random = random;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public long getTopLevelSampleCount() {
+        return topLevelSampleCount;
+    }
+
+    public long getSkippedSampleCount() {
+        return skippedSampleCount;
+    }
+
+    public TopLevelSampleListener getTopLevelSampleListener() {
+        return topLevelSampleListener;
+    }
+
+    public void setTopLevelSampleListener(TopLevelSampleListener topLevelSampleListener) {
+        this.topLevelSampleListener = topLevelSampleListener;
+    }
+
+    @Override
+    protected boolean onTagName(boolean endTag) {
+        boolean sampleTag = (this.isTagName(SAMPLE_NAME)) || (this.isTagName(HTTP_SAMPLE_NAME));
+
+        if ((sampleTag) && (!endTag) && (this.sampleDepth == 0)) {
+            this.onTopLevelSampleStart();
+        }
+
+        return sampleTag;
+    }
+
+    @Override
+    protected void onTagEnd(boolean endTag, boolean selfClosing) {
+        if (endTag) {
+            this.sampleDepth--;
+        } else if (!selfClosing) {
+            this.sampleDepth++;
+        }
+
+        // The closing bracket of the top-level sample has been handled; output resumes after it
+        if ((this.sampleDepth <= 0) && (endTag || selfClosing)) {
+            this.sampleDepth = 0;
+            this.stopDropping();
+        }
+    }
+
+    protected void onTopLevelSampleStart() {
+        boolean keep;
+        if (this.sampleEvery > 0) {
+            keep = ((this.topLevelSampleCount % this.sampleEvery) == 0);
+        } else {
+            keep = (this.random.nextDouble() < this.sampleRate);
+        }
+
+        if (this.topLevelSampleListener != null) {
+            this.topLevelSampleListener.onTopLevelSampleStart(this.topLevelSampleCount, this.getTagStartOffset(),
+                    keep);
+        }
+
+        this.topLevelSampleCount++;
+
+        if (!keep) {
+            this.skippedSampleCount++;
+            this.startDropping();
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream which drops whole elements from the raw bytes of a JTL file before the XML parser sees them.  The
+ * stream only scans for tag boundaries, honoring quoted attribute values, comments and CDATA sections, and copies
+ * or drops the runs of text between the tags without looking at them; nothing is decoded.  Subclasses decide which
+ * elements to drop, as each tag name is read.
+ *
+ * The start of each tag is held back until its name is known, so the whole of a dropped element, from the start of
+ * its start tag to the end of its end tag, is dropped.  Assumes an ASCII-compatible encoding, such as the UTF-8
+ * JMeter writes.
+ *
+ * Created by art on 10/19/26.
+ */
+public abstract class TagScanningInputStream extends FilterInputStream {
+    protected static final int MAX_PENDING = 64;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int STATE_TEXT = 0;
+    private static final int STATE_TAG_NAME = 1;
+    private static final int STATE_TAG = 2;
+    private static final int STATE_MARKUP = 3;
+    private static final int STATE_COMMENT = 4;
+    private static final int STATE_CDATA = 5;
+
+    private final byte[] inputBuffer = new byte[BUFFER_SIZE];
+    private final byte[] outputBuffer = new byte[BUFFER_SIZE + MAX_PENDING];
+    private int outputPos;
+    private int outputLength;
+    private boolean eof;
+
+    // Start of the current tag, "<" or "</" and the name, held back until the name is known
+    private final byte[] pending = new byte[MAX_PENDING];
+    private int pendingLength;
+
+    private int state = STATE_TEXT;
+    private boolean endTag;
+    private boolean notifyTagEnd;
+    private byte quote;
+    private byte lastByte;
+    private byte secondLastByte;
+
+    private boolean dropping;
+    private long droppedLength;
+
+    // Offset in the raw stream of the current input buffer, and of the start of the current tag
+    private long inputOffset;
+    private long tagStartOffset;
+
+    protected TagScanningInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Called once the name of a start or end tag is read, while the start of the tag is still held back; starting to
+     * drop here drops the tag itself.  The name is compared with isTagName().
+     *
+     * @param endTag true => the tag is an end tag.
+     * @return true => call onTagEnd() at the end of the tag.
+     */
+    protected abstract boolean onTagName(boolean endTag);
+
+    /**
+     * Called at the closing bracket of a tag, once the bracket is passed on or dropped; stopping dropping here drops
+     * the whole tag, and nothing after it.
+     *
+     * @param endTag true => the tag is an end tag.
+     * @param selfClosing true => the tag is an empty-element tag, such as "&lt;sample/&gt;".
+     */
+    protected abstract void onTagEnd(boolean endTag, boolean selfClosing);
+
+    /**
+     * @param name tag name, in bytes.
+     * @return true => the name of the tag being read, in onTagName(), is the given name.
+     */
+    protected boolean isTagName(byte[] name) {
+        int nameStart = this.endTag ? 2 : 1;
+        if (this.pendingLength - nameStart != name.length) {
+            return false;
+        }
+
+        int cur = 0;
+        while (cur < name.length) {
+            if (this.pending[nameStart + cur] != name[cur]) {
+                return false;
+            }
+            cur++;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return offset in the raw stream of the start of the current tag.
+     */
+    protected long getTagStartOffset() {
+        return tagStartOffset;
+    }
+
+    /**
+     * Drop the bytes which follow, starting with those of the tag held back, if any.
+     */
+    protected void startDropping() {
+        this.dropping = true;
+        this.droppedLength = 0;
+    }
+
+    /**
+     * Pass on the bytes which follow.
+     *
+     * @return number of bytes dropped since dropping started.
+     */
+    protected long stopDropping() {
+        long result = this.droppedLength;
+
+        this.dropping = false;
+        this.droppedLength = 0;
+
+        return result;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.fill()) {
+            return -1;
+        }
+
+        int result = this.outputBuffer[this.outputPos] & 0xFF;
+        this.outputPos++;
+
+        return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!this.fill()) {
+            return -1;
+        }
+
+        int count = Math.min(len, this.outputLength - this.outputPos);
+        System.arraycopy(this.outputBuffer, this.outputPos, b, off, count);
+        this.outputPos += count;
+
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long remaining = n;
+        while ((remaining > 0) && (this.fill())) {
+            int count = (int) Math.min(remaining, this.outputLength - this.outputPos);
+            this.outputPos += count;
+            remaining -= count;
+        }
+
+        return n - remaining;
+    }
+
+    @Override
+    public int available() {
+        return this.outputLength - this.outputPos;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Make sure there is output available, filtering more input as needed.
+     *
+     * @return true if output is available; false at the end of the stream.
+     */
+    protected boolean fill() throws IOException {
+        while (this.outputPos >= this.outputLength) {
+            if (this.eof) {
+                return false;
+            }
+
+            this.outputPos = 0;
+            this.outputLength = 0;
+
+            int count = this.in.read(this.inputBuffer);
+            if (count == -1) {
+                // Release any incomplete tag; the parser will report it
+                this.flushPending();
+                this.eof = true;
+            } else {
+                this.filter(count);
+                this.inputOffset += count;
+            }
+        }
+
+        return true;
+    }
+
+    protected void filter(int count) {
+        int cur = 0;
+        while (cur < count) {
+            //
+            // Copy, or drop, runs of text up to the next tag without examining each byte in turn; only the bytes of
+            //  tags need the state machine.
+            //
+            if (this.state == STATE_TEXT) {
+                int end = cur;
+                while ((end < count) && (this.inputBuffer[end] != '<')) {
+                    end++;
+                }
+
+                if (this.dropping) {
+                    this.droppedLength += end - cur;
+                } else {
+                    System.arraycopy(this.inputBuffer, cur, this.outputBuffer, this.outputLength, end - cur);
+                    this.outputLength += end - cur;
+                }
+
+                cur = end;
+                if (cur == count) {
+                    break;
+                }
+            }
+
+            byte oneByte = this.inputBuffer[cur];
+
+            switch (this.state) {
+                case STATE_TEXT:
+                    // Always the start of a tag, following the run of text
+                    this.state = STATE_TAG_NAME;
+                    this.tagStartOffset = this.inputOffset + cur;
+                    this.pendingLength = 0;
+                    this.endTag = false;
+                    this.notifyTagEnd = false;
+                    this.quote = 0;
+                    this.hold(oneByte);
+                    break;
+
+                case STATE_TAG_NAME:
+                    this.onTagNameByte(oneByte);
+                    break;
+
+                case STATE_TAG:
+                    this.emit(oneByte);
+                    this.onTagByte(oneByte);
+                    break;
+
+                case STATE_MARKUP:
+                    // "<!" followed by "-" starts a comment and "[" starts a CDATA section; anything else is a
+                    //  declaration, scanned like a tag.
+                    this.emit(oneByte);
+                    if (oneByte == '-') {
+                        this.state = STATE_COMMENT;
+                    } else if (oneByte == '[') {
+                        this.state = STATE_CDATA;
+                    } else {
+                        this.state = STATE_TAG;
+                        this.onTagByte(oneByte);
+                    }
+                    break;
+
+                case STATE_COMMENT:
+                    this.emit(oneByte);
+                    if ((oneByte == '>') && (this.lastByte == '-') && (this.secondLastByte == '-')) {
+                        this.state = STATE_TEXT;
+                    }
+                    break;
+
+                case STATE_CDATA:
+                    this.emit(oneByte);
+                    if ((oneByte == '>') && (this.lastByte == ']') && (this.secondLastByte == ']')) {
+                        this.state = STATE_TEXT;
+                    }
+                    break;
+
+                default:
+                    break;
+            }
+
+            this.secondLastByte = this.lastByte;
+            this.lastByte = oneByte;
+            cur++;
+        }
+    }
+
+    protected void onTagNameByte(byte oneByte) {
+        if (this.pendingLength == 1) {
+            if (oneByte == '/') {
+                this.endTag = true;
+                this.hold(oneByte);
+                return;
+            }
+
+            if (oneByte == '!') {
+                this.hold(oneByte);
+                this.flushPending();
+                this.state = STATE_MARKUP;
+                return;
+            }
+        }
+
+        boolean terminator = (isWhitespace(oneByte)) || (oneByte == '>') || (oneByte == '/');
+
+        if (!terminator) {
+            if (this.pendingLength < MAX_PENDING) {
+                this.hold(oneByte);
+            } else {
+                // Too long to be the name of an element to drop; stop holding it back
+                this.flushPending();
+                this.emit(oneByte);
+                this.state = STATE_TAG;
+            }
+            return;
+        }
+
+        this.notifyTagEnd = this.onTagName(this.endTag);
+
+        this.flushPending();
+        this.state = STATE_TAG;
+
+        this.emit(oneByte);
+        this.onTagByte(oneByte);
+    }
+
+    protected void onTagByte(byte oneByte) {
+        if (this.quote != 0) {
+            if (oneByte == this.quote) {
+                this.quote = 0;
+            }
+            return;
+        }
+
+        if ((oneByte == '"') || (oneByte == '\'')) {
+            this.quote = oneByte;
+        } else if (oneByte == '>') {
+            this.state = STATE_TEXT;
+
+            if (this.notifyTagEnd) {
+                this.notifyTagEnd = false;
+                this.onTagEnd(this.endTag, (this.lastByte == '/'));
+            }
+        }
+    }
+
+    protected static boolean isWhitespace(byte oneByte) {
+        return (oneByte == ' ') || (oneByte == '\t') || (oneByte == '\r') || (oneByte == '\n');
+    }
+
+    protected void hold(byte oneByte) {
+        this.pending[this.pendingLength] = oneByte;
+        this.pendingLength++;
+    }
+
+    protected void flushPending() {
+        if (this.dropping) {
+            this.droppedLength += this.pendingLength;
+        } else {
+            System.arraycopy(this.pending, 0, this.outputBuffer, this.outputLength, this.pendingLength);
+            this.outputLength += this.pendingLength;
+        }
+
+        this.pendingLength = 0;
+    }
+
+    protected void emit(byte oneByte) {
+        if (this.dropping) {
+            this.droppedLength++;
+        } else {
+            this.outputBuffer[this.outputLength] = oneByte;
+            this.outputLength++;
+        }
+    }
+}
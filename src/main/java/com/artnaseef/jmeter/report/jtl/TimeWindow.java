@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Window of time selecting the top-level samples to report, from the start time inclusive to the end time exclusive.
+ * Each bound is given as epoch milliseconds, as a local date and time (yyyy-MM-dd'T'HH:mm[:ss]), or as a local time of
+ * day (HH:mm[:ss]).  Times of day are resolved against the day of a reference timestamp, normally the first in the
+ * file; an end time of day earlier than the start rolls over to the next day.
+ *
+ * Created by art on 10/19/26.
+ */
+public class TimeWindow {
+    private final String fromSpec;
+    private final String toSpec;
+
+    private boolean resolved;
+    private long from = Long.MIN_VALUE;
+    private long to = Long.MAX_VALUE;
+
+    /**
+     * @param fromSpec start of the window, or null for no start.
+     * @param toSpec end of the window, or null for no end.
+     */
+    public TimeWindow(String fromSpec, String toSpec) {
+        this.fromSpec = fromSpec;
+        this.toSpec = toSpec;
+
+        // Validate up front so bad input fails before any parsing starts
+        this.parse(fromSpec, 0);
+        this.parse(toSpec, 0);
+    }
+
+    public boolean isResolved() {
+        return resolved;
+    }
+
+    /**
+     * Resolve the bounds, using the given reference timestamp for any times of day.
+     *
+     * @param referenceTimestamp timestamp on the day of the window.
+     */
+    public void resolve(long referenceTimestamp) {
+        if (this.fromSpec != null) {
+            this.from = this.parse(this.fromSpec, referenceTimestamp);
+        }
+
+        if (this.toSpec != null) {
+            this.to = this.parse(this.toSpec, referenceTimestamp);
+
+            if ((this.to <= this.from) && (isTimeOfDay(this.toSpec))) {
+                this.to += 24L * 60L * 60L * 1000L;
+            }
+        }
+
+        this.resolved = true;
+    }
+
+    /**
+     * Restore bounds resolved earlier, such as by a run which is being resumed.
+     *
+     * @param from start of the window.
+     * @param to end of the window.
+     */
+    public void restore(long from, long to) {
+        this.from = from;
+        this.to = to;
+        this.resolved = true;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public boolean contains(long timestamp) {
+        return (timestamp >= this.from) && (timestamp < this.to);
+    }
+
+    protected long parse(String spec, long referenceTimestamp) {
+        if (spec == null) {
+            return 0;
+        }
+
+        String trimmed = spec.trim();
+
+        try {
+            if (trimmed.matches("[0-9]+")) {
+                return Long.parseLong(trimmed);
+            }
+
+            if (trimmed.contains("T")) {
+                return this.parseFormat(trimmed, "yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd'T'HH:mm").getTime();
+            }
+
+            if (isTimeOfDay(trimmed)) {
+                Calendar timeOfDay = Calendar.getInstance();
+                timeOfDay.setTime(this.parseFormat(trimmed, "HH:mm:ss", "HH:mm"));
+
+                Calendar result = Calendar.getInstance();
+                result.setTimeInMillis(referenceTimestamp);
+                result.set(Calendar.HOUR_OF_DAY, timeOfDay.get(Calendar.HOUR_OF_DAY));
+                result.set(Calendar.MINUTE, timeOfDay.get(Calendar.MINUTE));
+                result.set(Calendar.SECOND, timeOfDay.get(Calendar.SECOND));
+                result.set(Calendar.MILLISECOND, 0);
+
+                return result.getTimeInMillis();
+            }
+        } catch (ParseException parseExc) {
+            throw new IllegalArgumentException("invalid time \"" + spec + "\"", parseExc);
+        }
+
+        throw new IllegalArgumentException("invalid time \"" + spec + "\"");
+    }
+
+    protected Date parseFormat(String value, String longFormat, String shortFormat) throws ParseException {
+        // The long formats add seconds
+        String format = shortFormat;
+        if (value.indexOf(':') != value.lastIndexOf(':')) {
+            format = longFormat;
+        }
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat(format);
+        dateFormat.setLenient(false);
+
+        return dateFormat.parse(value);
+    }
+
+    protected static boolean isTimeOfDay(String spec) {
+        return spec.trim().matches("[0-9]{1,2}:[0-9]{2}(:[0-9]{2})?");
+    }
+}
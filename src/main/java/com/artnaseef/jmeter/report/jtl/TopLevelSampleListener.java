@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl;
+
+/**
+ * Listener for the start of top-level samples found while scanning the raw bytes of a JTL file.
+ *
+ * Created by art on 10/19/26.
+ */
+public interface TopLevelSampleListener {
+    /**
+     * @param sampleNumber number of the top-level sample in the stream, starting at 0.
+     * @param offset offset of the start of the sample's opening tag in the raw stream.
+     * @param kept true if the sample is passed on to the parser; false if it is skipped.
+     */
+    void onTopLevelSampleStart(long sampleNumber, long offset, boolean kept);
+}
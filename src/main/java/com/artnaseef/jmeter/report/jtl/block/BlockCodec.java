@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import java.io.IOException;
+
+/**
+ * Compression codec for the blocks of a block-compressed JTL file.  Each block is compressed independently, so
+ * blocks can be read in any order and by any number of threads.
+ *
+ * Created by art on 10/19/26.
+ */
+public interface BlockCodec {
+    /**
+     * @return identifier of the codec, as stored with each block.
+     */
+    int getId();
+
+    String getName();
+
+    /**
+     * Compress the given data.
+     *
+     * @param data buffer holding the data.
+     * @param length number of bytes of data.
+     * @return the compressed data.
+     */
+    byte[] compress(byte[] data, int length) throws IOException;
+
+    /**
+     * Decompress the given data, which must expand to exactly the given length.
+     *
+     * @param compressed buffer holding the compressed data.
+     * @param compressedLength number of bytes of compressed data.
+     * @param result buffer to receive the decompressed data.
+     * @param resultLength expected length of the decompressed data.
+     */
+    void decompress(byte[] compressed, int compressedLength, byte[] result, int resultLength) throws IOException;
+}
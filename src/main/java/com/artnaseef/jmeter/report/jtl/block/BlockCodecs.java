@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Lookup of the known block codecs by id and by name.
+ *
+ * Created by art on 10/19/26.
+ */
+public class BlockCodecs {
+    private static final Map<Integer, BlockCodec> CODECS_BY_ID = new LinkedHashMap<>();
+    private static final Map<String, BlockCodec> CODECS_BY_NAME = new LinkedHashMap<>();
+
+    static {
+        register(new StoreBlockCodec());
+        register(new DeflateBlockCodec(DeflateBlockCodec.DEFAULT_ID, DeflateBlockCodec.DEFAULT_NAME,
+                Deflater.DEFAULT_COMPRESSION));
+        register(new DeflateBlockCodec(DeflateBlockCodec.FAST_ID, DeflateBlockCodec.FAST_NAME, Deflater.BEST_SPEED));
+        register(new Lz4BlockCodec());
+    }
+
+    public static BlockCodec getCodec(int id) {
+        return CODECS_BY_ID.get(id);
+    }
+
+    public static BlockCodec getCodec(String name) {
+        return CODECS_BY_NAME.get(name);
+    }
+
+    public static Collection<BlockCodec> getCodecs() {
+        return Collections.unmodifiableCollection(CODECS_BY_ID.values());
+    }
+
+    protected static void register(BlockCodec codec) {
+        CODECS_BY_ID.put(codec.getId(), codec);
+        CODECS_BY_NAME.put(codec.getName(), codec);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+/**
+ * Index entry for one block of a block-compressed JTL file.
+ *
+ * Created by art on 10/19/26.
+ */
+public class BlockFileEntry {
+    private final long offset;
+    private final int compressedLength;
+    private final int uncompressedLength;
+    private final int codecId;
+    private final int sampleCount;
+    private final long firstTimestamp;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+
+    public BlockFileEntry(long offset, int compressedLength, int uncompressedLength, int codecId, int sampleCount,
+                          long firstTimestamp, long minTimestamp, long maxTimestamp) {
+
+        this.offset = offset;
+        this.compressedLength = compressedLength;
+        this.uncompressedLength = uncompressedLength;
+        this.codecId = codecId;
+        this.sampleCount = sampleCount;
+        this.firstTimestamp = firstTimestamp;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getCompressedLength() {
+        return compressedLength;
+    }
+
+    public int getUncompressedLength() {
+        return uncompressedLength;
+    }
+
+    public int getCodecId() {
+        return codecId;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public boolean overlaps(long from, long to) {
+        return (this.minTimestamp < to) && (this.maxTimestamp >= from);
+    }
+}
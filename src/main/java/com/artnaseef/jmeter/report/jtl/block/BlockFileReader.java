@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reader of block-compressed JTL files written by BlockFileWriter.  Blocks are read with positional reads, so any
+ * number of threads may read blocks at the same time.
+ *
+ * Created by art on 10/19/26.
+ */
+public class BlockFileReader implements Closeable {
+    private static final int ENTRY_SIZE = 48;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final List<BlockFileEntry> entries;
+
+    public BlockFileReader(File file) throws IOException {
+        this.file = file;
+        this.randomAccessFile = new RandomAccessFile(file, "r");
+        this.channel = this.randomAccessFile.getChannel();
+
+        try {
+            this.entries = Collections.unmodifiableList(this.readIndex());
+        } catch (IOException ioExc) {
+            this.randomAccessFile.close();
+            throw ioExc;
+        }
+    }
+
+    public List<BlockFileEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Read and decompress one block.
+     *
+     * @param entry index entry of the block.
+     * @return the uncompressed samples of the block.
+     */
+    public byte[] readBlock(BlockFileEntry entry) throws IOException {
+        BlockCodec codec = BlockCodecs.getCodec(entry.getCodecId());
+        if (codec == null) {
+            throw new IOException("unknown codec " + entry.getCodecId() + " in " + this.file);
+        }
+
+        byte[] compressed = this.read(entry.getOffset(), entry.getCompressedLength());
+        byte[] result = new byte[entry.getUncompressedLength()];
+        codec.decompress(compressed, compressed.length, result, result.length);
+
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.randomAccessFile.close();
+    }
+
+    protected List<BlockFileEntry> readIndex() throws IOException {
+        long length = this.channel.size();
+        if (length < BlockFileWriter.HEADER_SIZE + BlockFileWriter.TRAILER_SIZE) {
+            throw new IOException("not a block-compressed JTL file: " + this.file);
+        }
+
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(
+                this.read(0, BlockFileWriter.HEADER_SIZE)));
+        if ((header.readInt() != BlockFileWriter.MAGIC) || (header.readInt() != BlockFileWriter.VERSION)) {
+            throw new IOException("not a block-compressed JTL file: " + this.file);
+        }
+
+        DataInputStream trailer = new DataInputStream(new ByteArrayInputStream(
+                this.read(length - BlockFileWriter.TRAILER_SIZE, BlockFileWriter.TRAILER_SIZE)));
+        long indexOffset = trailer.readLong();
+        int blockCount = trailer.readInt();
+        if (trailer.readInt() != BlockFileWriter.MAGIC) {
+            throw new IOException("incomplete block-compressed JTL file: " + this.file);
+        }
+
+        if ((blockCount < 0) ||
+                (indexOffset + ((long) blockCount * ENTRY_SIZE) != length - BlockFileWriter.TRAILER_SIZE)) {
+            throw new IOException("corrupt block index in " + this.file);
+        }
+
+        DataInputStream index = new DataInputStream(new ByteArrayInputStream(
+                this.read(indexOffset, blockCount * ENTRY_SIZE)));
+
+        List<BlockFileEntry> result = new ArrayList<>(blockCount);
+        int cur = 0;
+        while (cur < blockCount) {
+            result.add(new BlockFileEntry(index.readLong(), index.readInt(), index.readInt(), index.readInt(),
+                    index.readInt(), index.readLong(), index.readLong(), index.readLong()));
+            cur++;
+        }
+
+        return result;
+    }
+
+    protected byte[] read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            int count = this.channel.read(buffer, position + buffer.position());
+            if (count == -1) {
+                throw new EOFException("unexpected end of " + this.file);
+            }
+        }
+
+        return buffer.array();
+    }
+}
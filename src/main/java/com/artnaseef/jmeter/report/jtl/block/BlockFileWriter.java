@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer of block-compressed JTL files.  The file holds:
+ *
+ *   header  - magic and version;
+ *   blocks  - each a run of whole top-level samples, compressed independently;
+ *   index   - one entry per block with its location, lengths, codec, sample count and timestamp range;
+ *   trailer - offset of the index, number of blocks, and the magic again.
+ *
+ * The index is written last, so a file is only usable once the writer is closed.
+ *
+ * Created by art on 10/19/26.
+ */
+public class BlockFileWriter implements Closeable {
+    public static final int MAGIC = 0x4A544C42;
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 8;
+    public static final int TRAILER_SIZE = 16;
+
+    private final DataOutputStream out;
+    private long position;
+
+    private final List<BlockFileEntry> entries = new ArrayList<>();
+
+    public BlockFileWriter(File file) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        this.position = HEADER_SIZE;
+    }
+
+    public List<BlockFileEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Compress and write one block.
+     *
+     * @param codec codec with which to compress the block.
+     * @param data buffer holding the uncompressed samples.
+     * @param length number of bytes of samples.
+     * @param sampleCount number of top-level samples in the block.
+     * @param firstTimestamp timestamp of the first sample.
+     * @param minTimestamp lowest timestamp in the block.
+     * @param maxTimestamp highest timestamp in the block.
+     */
+    public void writeBlock(BlockCodec codec, byte[] data, int length, int sampleCount, long firstTimestamp,
+                           long minTimestamp, long maxTimestamp) throws IOException {
+
+        byte[] compressed = codec.compress(data, length);
+
+        this.entries.add(new BlockFileEntry(this.position, compressed.length, length, codec.getId(), sampleCount,
+                firstTimestamp, minTimestamp, maxTimestamp));
+
+        this.out.write(compressed);
+        this.position += compressed.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = this.position;
+
+            for (BlockFileEntry oneEntry : this.entries) {
+                this.out.writeLong(oneEntry.getOffset());
+                this.out.writeInt(oneEntry.getCompressedLength());
+                this.out.writeInt(oneEntry.getUncompressedLength());
+                this.out.writeInt(oneEntry.getCodecId());
+                this.out.writeInt(oneEntry.getSampleCount());
+                this.out.writeLong(oneEntry.getFirstTimestamp());
+                this.out.writeLong(oneEntry.getMinTimestamp());
+                this.out.writeLong(oneEntry.getMaxTimestamp());
+            }
+
+            this.out.writeLong(indexOffset);
+            this.out.writeInt(this.entries.size());
+            this.out.writeInt(MAGIC);
+        } finally {
+            this.out.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec which compresses blocks with raw deflate at a given compression level.
+ *
+ * Created by art on 10/19/26.
+ */
+public class DeflateBlockCodec implements BlockCodec {
+    public static final int DEFAULT_ID = 1;
+    public static final String DEFAULT_NAME = "deflate";
+
+    public static final int FAST_ID = 2;
+    public static final String FAST_NAME = "deflate-fast";
+
+    private final int id;
+    private final String name;
+    private final int level;
+
+    public DeflateBlockCodec(int id, String name, int level) {
+        this.id = id;
+        this.name = name;
+        this.level = level;
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int length) {
+        Deflater deflater = new Deflater(this.level, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(length / 4, 64));
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                result.write(buffer, 0, count);
+            }
+
+            return result.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public void decompress(byte[] compressed, int compressedLength, byte[] result, int resultLength)
+            throws IOException {
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed, 0, compressedLength);
+
+            int total = 0;
+            boolean paddingGiven = false;
+            while ((total < resultLength) && (!inflater.finished())) {
+                int count = inflater.inflate(result, total, resultLength - total);
+                total += count;
+
+                if (count == 0) {
+                    if ((inflater.needsInput()) && (!paddingGiven)) {
+                        // Raw deflate may need one extra dummy byte to finish
+                        inflater.setInput(new byte[1]);
+                        paddingGiven = true;
+                    } else {
+                        break;
+                    }
+                }
+            }
+
+            if (total != resultLength) {
+                throw new IOException("deflated block expanded to " + total + " bytes; expected " + resultLength);
+            }
+        } catch (DataFormatException dfExc) {
+            throw new IOException("corrupt deflated block", dfExc);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.LaunchableReport;
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.cli.UsageException;
+import com.artnaseef.jmeter.report.jtl.JTLFileParser;
+import com.artnaseef.jmeter.report.jtl.impl.JTLFileSampleSource;
+import com.artnaseef.jmeter.report.jtl.index.BoundedInputStream;
+import com.artnaseef.jmeter.report.jtl.index.JTLIndex;
+import com.artnaseef.jmeter.report.jtl.index.StreamUtil;
+import com.artnaseef.jmeter.report.jtl.index.JTLIndexBuilder;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Transcode a JTL file, plain or compressed, into a block-compressed JTL file (see BlockFileWriter).  The blocks
+ * follow the blocks of the JTL index of the source file, which is built first when the source has none.  Each block
+ * holds the raw bytes of its samples, so the samples parse exactly as they do from the source.
+ *
+ * Created by art on 10/19/26.
+ */
+public class JTLBlockTranscoder implements LaunchableReport {
+    public static final String BLOCK_FILE_SUFFIX = ".jtlb";
+
+    private static final byte[] DOCUMENT_END = "</testResults>".getBytes();
+
+    private OptionParser optionParser;
+
+    private BlockCodec codec = BlockCodecs.getCodec(Lz4BlockCodec.NAME);
+    private int blockSize = JTLIndexBuilder.DEFAULT_BLOCK_SIZE;
+
+    public static void main(String[] args) {
+        int status = ReportLauncher.launch(new JTLBlockTranscoder(), args);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    @Override
+    public int launchReport(String[] args) throws Exception {
+        List<?> nonOptionArgs = this.parseCommandLine(args);
+
+        if ((nonOptionArgs.size() < 1) || (nonOptionArgs.size() > 2)) {
+            this.printUsage(System.err);
+            throw new UsageException(UsageException.STATUS_USAGE_ERROR, null);
+        }
+
+        String source = nonOptionArgs.get(0).toString();
+
+        String target;
+        if (nonOptionArgs.size() == 2) {
+            target = nonOptionArgs.get(1).toString();
+        } else {
+            target = source.replaceFirst("(?i)\\.(gz|zip)$", "").replaceFirst("(?i)\\.jtl$", "") + BLOCK_FILE_SUFFIX;
+        }
+
+        this.transcode(new File(source), new File(target));
+
+        return 0;
+    }
+
+    public BlockCodec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(BlockCodec codec) {
+        this.codec = codec;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @param blockSize number of top-level samples per block.
+     */
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Transcode the given JTL file.
+     *
+     * @param sourceFile JTL file, which may be compressed.
+     * @param targetFile block-compressed file to write.
+     */
+    public void transcode(File sourceFile, File targetFile) throws Exception {
+        if (!sourceFile.isFile()) {
+            throw new IOException("not a file: " + sourceFile);
+        }
+
+        JTLIndex index = this.prepareIndex(sourceFile);
+        List<JTLIndex.Block> blocks = index.getBlocks();
+
+        JTLFileParser parser = new JTLFileParser();
+        boolean complete = false;
+
+        BlockFileWriter writer = new BlockFileWriter(targetFile);
+        try (InputStream inputStream = parser.openSourceStream(sourceFile.getPath())) {
+            long position = 0;
+
+            int cur = 0;
+            while (cur < blocks.size()) {
+                JTLIndex.Block oneBlock = blocks.get(cur);
+
+                StreamUtil.skipFully(inputStream, oneBlock.getOffset() - position);
+
+                long endOffset = index.getEndOffset(cur);
+                byte[] data;
+                int length;
+                if (endOffset >= 0) {
+                    data = StreamUtil.readFully(new BoundedInputStream(inputStream, endOffset - oneBlock.getOffset()));
+                    length = data.length;
+                    position = endOffset;
+                } else {
+                    // The last block runs to the end of the file; leave out the document end
+                    data = StreamUtil.readFully(inputStream);
+                    length = trimDocumentEnd(data);
+                }
+
+                writer.writeBlock(this.codec, data, length, oneBlock.getSampleCount(), oneBlock.getFirstTimestamp(),
+                        oneBlock.getMinTimestamp(), oneBlock.getMaxTimestamp());
+
+                cur++;
+            }
+
+            complete = true;
+        } finally {
+            writer.close();
+
+            if (!complete) {
+                targetFile.delete();
+            }
+        }
+
+        System.err.println("wrote " + blocks.size() + " " + this.codec.getName() + " blocks from " + sourceFile +
+                " (" + sourceFile.length() + " bytes) to " + targetFile + " (" + targetFile.length() + " bytes)");
+    }
+
+    /**
+     * Load the index of the source file, building it first if needed.  The index built is used even if it cannot be
+     * saved alongside the source, such as in a read-only directory.
+     */
+    protected JTLIndex prepareIndex(File sourceFile) throws Exception {
+        JTLIndex index = null;
+        try {
+            index = JTLIndex.load(sourceFile);
+        } catch (IOException ioExc) {
+            System.err.println("warning: ignoring unreadable index for " + sourceFile + ": " + ioExc.getMessage());
+        }
+
+        if (index == null) {
+            JTLFileSampleSource sampleSource = new JTLFileSampleSource(sourceFile.getPath());
+            sampleSource.setIndexBlockSize(this.blockSize);
+            sampleSource.setRequiredFields(EnumSet.noneOf(SampleField.class));
+            sampleSource.execute(new Feedable() {
+                @Override
+                public void onSample(Sample topLevelSample) {
+                }
+            });
+
+            index = sampleSource.getBuiltIndex();
+            if (index == null) {
+                throw new IOException("failed to index " + sourceFile);
+            }
+        } else if (index.getBlockSize() != this.blockSize) {
+            System.err.println("warning: using the existing index of " + sourceFile + ", with blocks of " +
+                    index.getBlockSize() + " samples");
+        }
+
+        return index;
+    }
+
+    protected List<?> parseCommandLine(String[] args) throws Exception {
+        this.optionParser = new OptionParser("b:c:h");
+
+        this.optionParser.accepts("b", "number of samples per block")
+                .withRequiredArg().ofType(Integer.class);
+
+        StringBuilder codecNames = new StringBuilder();
+        for (BlockCodec oneCodec : BlockCodecs.getCodecs()) {
+            if (codecNames.length() > 0) {
+                codecNames.append(", ");
+            }
+            codecNames.append(oneCodec.getName());
+        }
+
+        this.optionParser.accepts("c", "block codec: " + codecNames + "; default " + this.codec.getName())
+                .withRequiredArg().ofType(String.class)
+                .describedAs("codec");
+
+        this.optionParser.accepts("h", "display this usage");
+
+        try {
+            OptionSet options = optionParser.parse(args);
+
+            if (options.has("h")) {
+                this.printUsage(System.out);
+                throw new UsageException(0, null);
+            }
+
+            if (options.has("b")) {
+                this.blockSize = (Integer) options.valueOf("b");
+                if (this.blockSize < 1) {
+                    throw new IllegalArgumentException("block size must be at least 1");
+                }
+            }
+
+            if (options.has("c")) {
+                String codecName = (String) options.valueOf("c");
+                this.codec = BlockCodecs.getCodec(codecName);
+                if (this.codec == null) {
+                    throw new IllegalArgumentException("unknown codec \"" + codecName + "\"");
+                }
+            }
+
+            return options.nonOptionArguments();
+        } catch (UsageException usageExc) {
+            throw usageExc;
+        } catch (Exception exc) {
+            this.printUsage(System.err);
+            System.err.println();
+
+            throw new UsageException(UsageException.STATUS_USAGE_ERROR, exc.getMessage());
+        }
+    }
+
+    protected void printUsage(PrintStream out) {
+        out.println("Usage: Transcode [options] <jtl-file> [<block-file>]");
+
+        try {
+            optionParser.printHelpOn(out);
+        } catch (IOException e) {
+            // Ignore this one - if help can't be printed, what's left to do?
+        }
+    }
+
+    protected static int trimDocumentEnd(byte[] data) {
+        int end = data.length;
+        while ((end > 0) && (Character.isWhitespace(data[end - 1]))) {
+            end--;
+        }
+
+        int start = end - DOCUMENT_END.length;
+        if (start < 0) {
+            return end;
+        }
+
+        int cur = 0;
+        while (cur < DOCUMENT_END.length) {
+            if (data[start + cur] != DOCUMENT_END[cur]) {
+                return end;
+            }
+            cur++;
+        }
+
+        return start;
+    }
+}
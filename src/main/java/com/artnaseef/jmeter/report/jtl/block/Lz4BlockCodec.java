@@ -0,0 +1,229 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Fast codec producing the LZ4 block format, implemented here in plain Java.  The compressor is the simple greedy
+ * single-probe variant: it trades some compression ratio for speed, which suits JTL content where the repeated
+ * attribute names and values give long matches anyway.
+ *
+ * Created by art on 10/19/26.
+ */
+public class Lz4BlockCodec implements BlockCodec {
+    public static final int ID = 3;
+    public static final String NAME = "lz4";
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_OFFSET = 65535;
+
+    private static final int HASH_LOG = 16;
+    private static final int ML_BITS = 4;
+    private static final int ML_MASK = (1 << ML_BITS) - 1;
+    private static final int RUN_MASK = (1 << (8 - ML_BITS)) - 1;
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int length) {
+        byte[] result = new byte[length + (length / 255) + 16];
+        int[] hashTable = new int[1 << HASH_LOG];
+        Arrays.fill(hashTable, -1);
+
+        int anchor = 0;
+        int pos = 0;
+        int out = 0;
+
+        int matchLimit = length - LAST_LITERALS;
+        int findLimit = length - MATCH_FIND_LIMIT;
+
+        while (pos < findLimit) {
+            int sequence = readInt(data, pos);
+            int hash = hash(sequence);
+            int ref = hashTable[hash];
+            hashTable[hash] = pos;
+
+            if ((ref < 0) || (pos - ref > MAX_OFFSET) || (readInt(data, ref) != sequence)) {
+                pos++;
+                continue;
+            }
+
+            int matchLength = MIN_MATCH;
+            while ((pos + matchLength < matchLimit) && (data[ref + matchLength] == data[pos + matchLength])) {
+                matchLength++;
+            }
+
+            out = writeSequence(data, anchor, pos - anchor, pos - ref, matchLength, result, out);
+
+            pos += matchLength;
+            anchor = pos;
+        }
+
+        out = writeLastLiterals(data, anchor, length - anchor, result, out);
+
+        return Arrays.copyOf(result, out);
+    }
+
+    @Override
+    public void decompress(byte[] compressed, int compressedLength, byte[] result, int resultLength)
+            throws IOException {
+
+        int pos = 0;
+        int out = 0;
+
+        try {
+            while (pos < compressedLength) {
+                int token = compressed[pos] & 0xFF;
+                pos++;
+
+                int literalLength = token >>> ML_BITS;
+                if (literalLength == RUN_MASK) {
+                    int oneByte;
+                    do {
+                        oneByte = compressed[pos] & 0xFF;
+                        pos++;
+                        literalLength += oneByte;
+                    } while (oneByte == 255);
+                }
+
+                if ((pos + literalLength > compressedLength) || (out + literalLength > resultLength)) {
+                    throw new IOException("corrupt lz4 block: literals overrun");
+                }
+
+                System.arraycopy(compressed, pos, result, out, literalLength);
+                pos += literalLength;
+                out += literalLength;
+
+                // The last sequence has only literals
+                if (pos >= compressedLength) {
+                    break;
+                }
+
+                int offset = (compressed[pos] & 0xFF) | ((compressed[pos + 1] & 0xFF) << 8);
+                pos += 2;
+
+                int matchLength = token & ML_MASK;
+                if (matchLength == ML_MASK) {
+                    int oneByte;
+                    do {
+                        oneByte = compressed[pos] & 0xFF;
+                        pos++;
+                        matchLength += oneByte;
+                    } while (oneByte == 255);
+                }
+                matchLength += MIN_MATCH;
+
+                if ((offset == 0) || (offset > out) || (out + matchLength > resultLength)) {
+                    throw new IOException("corrupt lz4 block: bad match");
+                }
+
+                // Matches may overlap their own output, so copy forward one byte at a time
+                int from = out - offset;
+                int end = out + matchLength;
+                while (out < end) {
+                    result[out] = result[from];
+                    out++;
+                    from++;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException aioobExc) {
+            throw new IOException("corrupt lz4 block: truncated", aioobExc);
+        }
+
+        if (out != resultLength) {
+            throw new IOException("lz4 block expanded to " + out + " bytes; expected " + resultLength);
+        }
+    }
+
+    protected static int writeSequence(byte[] data, int literalStart, int literalLength, int offset, int matchLength,
+                                       byte[] result, int out) {
+
+        int tokenPos = out;
+        out++;
+
+        int token;
+        if (literalLength >= RUN_MASK) {
+            token = RUN_MASK << ML_BITS;
+            out = writeLength(literalLength - RUN_MASK, result, out);
+        } else {
+            token = literalLength << ML_BITS;
+        }
+
+        System.arraycopy(data, literalStart, result, out, literalLength);
+        out += literalLength;
+
+        result[out] = (byte) offset;
+        result[out + 1] = (byte) (offset >>> 8);
+        out += 2;
+
+        int encodedMatchLength = matchLength - MIN_MATCH;
+        if (encodedMatchLength >= ML_MASK) {
+            token |= ML_MASK;
+            out = writeLength(encodedMatchLength - ML_MASK, result, out);
+        } else {
+            token |= encodedMatchLength;
+        }
+
+        result[tokenPos] = (byte) token;
+
+        return out;
+    }
+
+    protected static int writeLastLiterals(byte[] data, int literalStart, int literalLength, byte[] result, int out) {
+        if (literalLength >= RUN_MASK) {
+            result[out] = (byte) (RUN_MASK << ML_BITS);
+            out = writeLength(literalLength - RUN_MASK, result, out + 1);
+        } else {
+            result[out] = (byte) (literalLength << ML_BITS);
+            out++;
+        }
+
+        System.arraycopy(data, literalStart, result, out, literalLength);
+
+        return out + literalLength;
+    }
+
+    protected static int writeLength(int length, byte[] result, int out) {
+        while (length >= 255) {
+            result[out] = (byte) 255;
+            out++;
+            length -= 255;
+        }
+
+        result[out] = (byte) length;
+        return out + 1;
+    }
+
+    protected static int readInt(byte[] data, int pos) {
+        return (data[pos] & 0xFF) | ((data[pos + 1] & 0xFF) << 8) | ((data[pos + 2] & 0xFF) << 16) |
+                ((data[pos + 3] & 0xFF) << 24);
+    }
+
+    protected static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
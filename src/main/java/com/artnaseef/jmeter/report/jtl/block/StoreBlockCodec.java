@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Codec which stores blocks uncompressed.
+ *
+ * Created by art on 10/19/26.
+ */
+public class StoreBlockCodec implements BlockCodec {
+    public static final int ID = 0;
+    public static final String NAME = "store";
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int length) {
+        return Arrays.copyOf(data, length);
+    }
+
+    @Override
+    public void decompress(byte[] compressed, int compressedLength, byte[] result, int resultLength)
+            throws IOException {
+
+        if (compressedLength != resultLength) {
+            throw new IOException("stored block length " + compressedLength + " does not match " + resultLength);
+        }
+
+        System.arraycopy(compressed, 0, result, 0, resultLength);
+    }
+}
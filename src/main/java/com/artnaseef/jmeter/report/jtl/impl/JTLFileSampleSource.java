@@ -14,48 +14,999 @@
 
 package com.artnaseef.jmeter.report.jtl.impl;
 
+import com.artnaseef.jmeter.report.BatchFeedable;
+import com.artnaseef.jmeter.report.CheckpointableReport;
 import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.SampleBatch;
+import com.artnaseef.jmeter.report.SampleFieldConsumer;
 import com.artnaseef.jmeter.report.SampleSource;
+import com.artnaseef.jmeter.report.checkpoint.CheckpointTracker;
+import com.artnaseef.jmeter.report.checkpoint.ReportCheckpoint;
 import com.artnaseef.jmeter.report.jtl.JTLFileParseListener;
 import com.artnaseef.jmeter.report.jtl.JTLFileParser;
+import com.artnaseef.jmeter.report.jtl.PayloadSkippingInputStream;
+import com.artnaseef.jmeter.report.jtl.SampleSkippingInputStream;
+import com.artnaseef.jmeter.report.jtl.TimeWindow;
+import com.artnaseef.jmeter.report.jtl.block.BlockFileEntry;
+import com.artnaseef.jmeter.report.jtl.block.BlockFileReader;
+import com.artnaseef.jmeter.report.jtl.block.JTLBlockTranscoder;
+import com.artnaseef.jmeter.report.jtl.index.BoundedInputStream;
+import com.artnaseef.jmeter.report.jtl.index.JTLIndex;
+import com.artnaseef.jmeter.report.jtl.index.JTLIndexBuilder;
+import com.artnaseef.jmeter.report.jtl.index.StreamUtil;
 import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Source of samples extracted from a JTL file.
  *
+ * Local files are indexed on their first parse (see JTLIndex).  Once indexed, a time window only parses the blocks
+ * of the file which may hold samples in the window, and the blocks may be split across several parse threads.
+ *
+ * Block-compressed files (see JTLBlockTranscoder) are read natively: blocks outside the time window are never read,
+ * and the rest are decompressed and parsed by the parse threads independently of each other.
+ *
+ * Payload elements, such as saved response data and headers, are dropped before parsing; their sizes are reported
+ * when statistics are requested.
+ *
+ * Long runs over a single file may save checkpoints as they go (see ReportCheckpoint), and a run which dies may then
+ * be resumed from its last checkpoint.  Checkpointed runs parse sequentially, on one thread.
+ *
  * Created by art on 4/10/15.
  */
 public class JTLFileSampleSource implements SampleSource {
+    private static final byte[] DOCUMENT_START = "<testResults>".getBytes();
+    private static final byte[] DOCUMENT_END = "</testResults>".getBytes();
+
     private final String uri;
 
+    private int sampleEvery;
+    private double sampleRate = 1.0;
+
+    private TimeWindow timeWindow;
+    private int parseThreads = 1;
+    private boolean indexEnabled = true;
+    private int indexBlockSize = JTLIndexBuilder.DEFAULT_BLOCK_SIZE;
+    private JTLIndex builtIndex;
+    private boolean skipPayloads = true;
+    private boolean printStats;
+
+    private File checkpointFile;
+    private long checkpointInterval = 60000; // In milliseconds
+    private boolean resume;
+
+    private Set<SampleField> requiredFields;
+    private Set<SampleField> parsedFields = SampleField.all();
+
+    private final AtomicLong malformedValueCount = new AtomicLong();
+    private final AtomicLong topLevelSampleCount = new AtomicLong();
+    private final AtomicLong skippedSampleCount = new AtomicLong();
+    private final long[] skippedPayloadBytes = new long[PayloadSkippingInputStream.DEFAULT_ELEMENT_NAMES.size()];
+    private final long[] skippedPayloadCounts = new long[PayloadSkippingInputStream.DEFAULT_ELEMENT_NAMES.size()];
+
     public JTLFileSampleSource(String uri) {
         this.uri = uri;
     }
 
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    /**
+     * Only feed every Nth top-level sample; the others are skipped without being parsed.
+     *
+     * @param sampleEvery interval between the samples fed; 0 or 1 to feed all samples.
+     */
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Feed each top-level sample with the given probability; the others are skipped without being parsed.
+     *
+     * @param sampleRate fraction of samples to feed; 1 to feed all samples.
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public TimeWindow getTimeWindow() {
+        return timeWindow;
+    }
+
+    /**
+     * Only feed the top-level samples with timestamps in the given window.
+     *
+     * @param timeWindow window of samples to feed, or null for all samples.
+     */
+    public void setTimeWindow(TimeWindow timeWindow) {
+        this.timeWindow = timeWindow;
+    }
+
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
+    /**
+     * Number of threads with which to parse an indexed, uncompressed file or a block-compressed file.  Samples are fed
+     * one at a time, but not in file order.
+     *
+     * @param parseThreads number of threads.
+     */
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public boolean isIndexEnabled() {
+        return indexEnabled;
+    }
+
+    public void setIndexEnabled(boolean indexEnabled) {
+        this.indexEnabled = indexEnabled;
+    }
+
+    public int getIndexBlockSize() {
+        return indexBlockSize;
+    }
+
+    public void setIndexBlockSize(int indexBlockSize) {
+        this.indexBlockSize = indexBlockSize;
+    }
+
+    /**
+     * @return the index built while parsing the file, whether or not it could be saved; null if none was built.
+     */
+    public JTLIndex getBuiltIndex() {
+        return builtIndex;
+    }
+
+    public boolean isSkipPayloads() {
+        return skipPayloads;
+    }
+
+    /**
+     * Drop the bulky payload elements, such as response data and headers, before they reach the parser (see
+     * PayloadSkippingInputStream).  On by default.
+     *
+     * @param skipPayloads true to drop the payload elements; false to parse them.
+     */
+    public void setSkipPayloads(boolean skipPayloads) {
+        this.skipPayloads = skipPayloads;
+    }
+
+    public boolean isPrintStats() {
+        return printStats;
+    }
+
+    /**
+     * Print statistics of the source to stderr once it is read, such as the payload elements dropped.  Off by
+     * default.
+     *
+     * @param printStats true to print the statistics; false otherwise.
+     */
+    public void setPrintStats(boolean printStats) {
+        this.printStats = printStats;
+    }
+
+    /**
+     * @return number of bytes of payload elements dropped so far.
+     */
+    public synchronized long getSkippedPayloadBytes() {
+        long result = 0;
+        for (long oneCount : this.skippedPayloadBytes) {
+            result += oneCount;
+        }
+
+        return result;
+    }
+
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Periodically save a checkpoint of the run to the given file.  Only sequential runs of a CheckpointableReport
+     * over a file which is neither sampled nor block-compressed are checkpointed.
+     *
+     * @param checkpointFile checkpoint file, or null for no checkpoints.
+     */
+    public void setCheckpointFile(File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * @param checkpointInterval time between checkpoints, in milliseconds.
+     */
+    public void setCheckpointInterval(long checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * Resume from the checkpoint file, if it holds a checkpoint of this source and report; otherwise, start from the
+     * beginning.
+     *
+     * @param resume true to resume from the checkpoint file.
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public Set<SampleField> getRequiredFields() {
+        return requiredFields;
+    }
+
+    /**
+     * Only parse the given fields of the samples.  By default, the fields are those declared by the target of the
+     * samples when it is a SampleFieldConsumer, and all fields otherwise.
+     *
+     * @param requiredFields fields to parse, or null to ask the target.
+     */
+    public void setRequiredFields(Set<SampleField> requiredFields) {
+        this.requiredFields = requiredFields;
+    }
+
     @Override
     public void execute(Feedable feedable) throws Exception {
+        File localFile = this.resolveLocalFile();
+
+        if (this.requiredFields != null) {
+            this.parsedFields = this.requiredFields;
+        } else if (feedable instanceof SampleFieldConsumer) {
+            this.parsedFields = ((SampleFieldConsumer) feedable).getRequiredFields();
+        } else {
+            this.parsedFields = SampleField.all();
+        }
+
+        JTLIndex index = null;
+        if ((localFile != null) && (this.indexEnabled) && (!this.isBlockFile())) {
+            index = this.loadIndex(localFile);
+        }
+
+        boolean checkpointed = false;
+        if (this.checkpointFile != null) {
+            String reason = this.checkCheckpointable(feedable);
+            if (reason == null) {
+                checkpointed = true;
+            } else {
+                System.err.println("warning: not saving checkpoints of " + this.uri + ": " + reason);
+            }
+        }
+
+        if (checkpointed) {
+            this.executeCheckpointed((CheckpointableReport) feedable, localFile, index);
+        } else if (this.isBlockFile()) {
+            if (localFile == null) {
+                throw new IOException("block-compressed files must be local: " + this.uri);
+            }
+
+            this.executeBlockFile(feedable, localFile);
+        } else if ((index != null) && ((this.timeWindow != null) || (this.parseThreads > 1))) {
+            this.executeIndexed(feedable, index);
+        } else {
+            boolean buildIndex = (localFile != null) && (this.indexEnabled) && (index == null) && (!this.isSampling());
+            this.executeSequential(feedable, localFile, buildIndex);
+        }
+
+        if (this.isSampling()) {
+            long total = this.topLevelSampleCount.get();
+            System.err.println("sampled " + (total - this.skippedSampleCount.get()) + " of " + total +
+                    " top-level samples in " + this.uri);
+        }
+
+        if (this.malformedValueCount.get() > 0) {
+            System.err.println("warning: " + this.malformedValueCount.get() + " malformed numeric values in " + uri);
+        }
+
+        if (this.printStats) {
+            this.reportSkippedPayloads();
+        }
+    }
+
+    /**
+     * @return null if the run can be checkpointed; otherwise, the reason it cannot.
+     */
+    protected String checkCheckpointable(Feedable feedable) {
+        if (!(feedable instanceof CheckpointableReport)) {
+            return "the report does not support checkpoints";
+        }
+
+        if (this.isBlockFile()) {
+            return "block-compressed files are not checkpointed";
+        }
+
+        if (this.isSampling()) {
+            return "sampled runs are not checkpointed";
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse the file sequentially, saving checkpoints as the interval passes, starting from the last checkpoint when
+     * resuming.
+     */
+    protected void executeCheckpointed(CheckpointableReport report, File localFile, JTLIndex index) throws Exception {
+        if (this.parseThreads > 1) {
+            System.err.println("warning: parsing " + this.uri + " with one thread to save checkpoints");
+        }
+
+        ReportCheckpoint checkpoint = null;
+        if (this.resume) {
+            checkpoint = ReportCheckpoint.load(this.checkpointFile);
+
+            String reason = null;
+            if (checkpoint == null) {
+                reason = "no checkpoint in " + this.checkpointFile;
+            } else {
+                reason = checkpoint.checkApplies(this.uri, localFile, report.getClass().getName());
+            }
+
+            if (reason != null) {
+                System.err.println("warning: starting " + this.uri + " from the beginning: " + reason);
+                checkpoint = null;
+            }
+        }
+
+        JTLFileParser parser = new JTLFileParser();
+        parser.setRequiredFields(this.parsedFields);
+
+        InputStream inputStream;
+        CheckpointTracker tracker;
+        JTLIndexBuilder indexBuilder = null;
+
+        if (checkpoint != null) {
+            report.readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint.getReportState())));
+
+            if ((this.timeWindow != null) && (checkpoint.isTimeWindowResolved())) {
+                this.timeWindow.restore(checkpoint.getTimeWindowFrom(), checkpoint.getTimeWindowTo());
+            }
+
+            this.malformedValueCount.set(checkpoint.getMalformedValueCount());
+
+            System.err.println("resuming " + this.uri + " after " + checkpoint.getSampleCount() +
+                    " top-level samples, at offset " + checkpoint.getOffset());
+
+            // The range starts with the document start, which is not part of the file
+            inputStream = this.openRange(parser, checkpoint.getOffset(), -1);
+            tracker = new CheckpointTracker(null, checkpoint.getOffset() - DOCUMENT_START.length,
+                    checkpoint.getSampleCount(), this.checkpointInterval);
+        } else {
+            inputStream = parser.openSourceStream(this.uri);
+
+            // Index the file on the way, as a sequential run would
+            if ((localFile != null) && (this.indexEnabled) && (index == null)) {
+                indexBuilder = new JTLIndexBuilder(this.indexBlockSize);
+            }
+
+            tracker = new CheckpointTracker(indexBuilder, 0, 0, this.checkpointInterval);
+        }
+
+        MyJTLParseListener listener = new MyJTLParseListener(report, indexBuilder);
+        listener.setCheckpointing(tracker, parser);
+        parser.setListener(listener);
+
+        SampleSkippingInputStream scanningStream = new SampleSkippingInputStream(inputStream, 1);
+        scanningStream.setTopLevelSampleListener(tracker);
+        inputStream = scanningStream;
+
+        PayloadSkippingInputStream payloadStream = this.createPayloadSkippingStream(inputStream);
+        if (payloadStream != null) {
+            inputStream = payloadStream;
+        }
+
+        this.parse(parser, listener, inputStream);
+
+        this.recordSkippedPayloads(payloadStream);
+
+        if (indexBuilder != null) {
+            this.builtIndex = indexBuilder.build(localFile);
+            try {
+                this.builtIndex.save(localFile);
+            } catch (IOException ioExc) {
+                System.err.println("warning: failed to write index for " + this.uri + ": " + ioExc.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Save a checkpoint of the report, which has been fed every sample before the next offset of the tracker.
+     */
+    protected void saveCheckpoint(CheckpointableReport report, CheckpointTracker tracker, JTLFileParser parser)
+            throws IOException {
+
+        ByteArrayOutputStream reportState = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(reportState);
+        report.writeCheckpoint(out);
+        out.flush();
+
+        ReportCheckpoint checkpoint = new ReportCheckpoint();
+        checkpoint.setUri(this.uri);
+        checkpoint.setReportType(report.getClass().getName());
+        checkpoint.setSampleCount(tracker.getSampleCount());
+        checkpoint.setOffset(tracker.getNextOffset());
+        checkpoint.setMalformedValueCount(this.malformedValueCount.get() + parser.getMalformedValueCount());
+        checkpoint.setReportState(reportState.toByteArray());
+
+        File localFile = this.resolveLocalFile();
+        if (localFile != null) {
+            checkpoint.setSourceLength(localFile.length());
+            checkpoint.setSourceLastModified(localFile.lastModified());
+        }
+
+        if (this.timeWindow != null) {
+            checkpoint.setTimeWindow(this.timeWindow.isResolved(), this.timeWindow.getFrom(), this.timeWindow.getTo());
+        }
+
+        checkpoint.save(this.checkpointFile);
+    }
+
+    protected void executeSequential(Feedable feedable, File localFile, boolean buildIndex) throws Exception {
+        JTLFileParser parser = new JTLFileParser();
+        parser.setRequiredFields(this.parsedFields);
+
+        JTLIndexBuilder indexBuilder = null;
+        if (buildIndex) {
+            indexBuilder = new JTLIndexBuilder(this.indexBlockSize);
+        }
+
+        MyJTLParseListener listener = new MyJTLParseListener(feedable, indexBuilder);
+        parser.setListener(listener);
+
+        InputStream inputStream = parser.openSourceStream(this.uri);
+
+        SampleSkippingInputStream scanningStream;
+        if (indexBuilder != null) {
+            // Never sampling while indexing, so the scanner only reports where the samples start
+            scanningStream = new SampleSkippingInputStream(inputStream, 1);
+            scanningStream.setTopLevelSampleListener(indexBuilder);
+        } else {
+            scanningStream = this.createSamplingStream(inputStream);
+        }
+
+        if (scanningStream != null) {
+            inputStream = scanningStream;
+        }
+
+        PayloadSkippingInputStream payloadStream = this.createPayloadSkippingStream(inputStream);
+        if (payloadStream != null) {
+            inputStream = payloadStream;
+        }
+
+        this.parse(parser, listener, inputStream);
+
+        this.recordSampling(scanningStream);
+        this.recordSkippedPayloads(payloadStream);
+
+        if (indexBuilder != null) {
+            this.builtIndex = indexBuilder.build(localFile);
+            try {
+                this.builtIndex.save(localFile);
+            } catch (IOException ioExc) {
+                System.err.println("warning: failed to write index for " + this.uri + ": " + ioExc.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Parse the blocks of the indexed file which may hold samples in the time window, splitting them across the
+     * parse threads.
+     */
+    protected void executeIndexed(final Feedable feedable, JTLIndex index) throws Exception {
+        List<JTLIndex.Block> blocks = index.getBlocks();
+        if (blocks.isEmpty()) {
+            return;
+        }
+
+        int firstBlock = 0;
+        int lastBlock = blocks.size() - 1;
+
+        if (this.timeWindow != null) {
+            if (!this.timeWindow.isResolved()) {
+                this.timeWindow.resolve(index.getMinTimestamp());
+            }
+
+            firstBlock = index.findFirstBlock(this.timeWindow.getFrom(), this.timeWindow.getTo());
+            lastBlock = index.findLastBlock(this.timeWindow.getFrom(), this.timeWindow.getTo());
+
+            if (firstBlock == -1) {
+                return;
+            }
+        }
+
+        int threadCount = Math.max(1, Math.min(this.parseThreads, (lastBlock - firstBlock) + 1));
+        if ((threadCount > 1) && (this.isCompressed())) {
+            // Every thread would have to decompress everything before its blocks
+            System.err.println("warning: parsing compressed file " + this.uri + " with one thread");
+            threadCount = 1;
+        }
+
+        if (threadCount == 1) {
+            this.parseRange(feedable, blocks.get(firstBlock).getOffset(), index.getEndOffset(lastBlock));
+            return;
+        }
+
+        //
+        // Split the blocks evenly across the threads.
+        //
+        final Feedable synchronizedFeedable = synchronizedFeedable(feedable);
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        int blockCount = (lastBlock - firstBlock) + 1;
+        int cur = 0;
+        while (cur < threadCount) {
+            int startBlock = firstBlock + ((blockCount * cur) / threadCount);
+            int endBlock = (firstBlock + ((blockCount * (cur + 1)) / threadCount)) - 1;
+
+            final long startOffset = blocks.get(startBlock).getOffset();
+            final long endOffset = index.getEndOffset(endBlock);
+
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    parseRange(synchronizedFeedable, startOffset, endOffset);
+                    return null;
+                }
+            });
+
+            cur++;
+        }
+
+        runTasks(tasks);
+    }
+
+    /**
+     * Parse the blocks of a block-compressed file which may hold samples in the time window.  The parse threads each
+     * take the next unparsed block until none remain, which keeps them busy even when blocks differ in cost.
+     */
+    protected void executeBlockFile(Feedable feedable, File localFile) throws Exception {
+        try (final BlockFileReader reader = new BlockFileReader(localFile)) {
+            final List<BlockFileEntry> selected = new ArrayList<>();
+
+            if (this.timeWindow != null) {
+                if (!this.timeWindow.isResolved()) {
+                    long minTimestamp = Long.MAX_VALUE;
+                    for (BlockFileEntry oneEntry : reader.getEntries()) {
+                        minTimestamp = Math.min(minTimestamp, oneEntry.getMinTimestamp());
+                    }
+
+                    this.timeWindow.resolve(minTimestamp);
+                }
+
+                for (BlockFileEntry oneEntry : reader.getEntries()) {
+                    if (oneEntry.overlaps(this.timeWindow.getFrom(), this.timeWindow.getTo())) {
+                        selected.add(oneEntry);
+                    }
+                }
+            } else {
+                selected.addAll(reader.getEntries());
+            }
+
+            int threadCount = Math.max(1, Math.min(this.parseThreads, selected.size()));
+            if (threadCount == 1) {
+                for (BlockFileEntry oneEntry : selected) {
+                    this.parseBlock(feedable, reader, oneEntry);
+                }
+
+                return;
+            }
+
+            final Feedable synchronizedFeedable = synchronizedFeedable(feedable);
+            final AtomicInteger nextBlock = new AtomicInteger();
+            List<Callable<Void>> tasks = new ArrayList<>();
+
+            int cur = 0;
+            while (cur < threadCount) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        int blockNumber = nextBlock.getAndIncrement();
+                        while (blockNumber < selected.size()) {
+                            parseBlock(synchronizedFeedable, reader, selected.get(blockNumber));
+                            blockNumber = nextBlock.getAndIncrement();
+                        }
+
+                        return null;
+                    }
+                });
+
+                cur++;
+            }
+
+            runTasks(tasks);
+        }
+    }
+
+    /**
+     * Parse one block of a block-compressed file.  Blocks hold whole samples only, so each is given the document
+     * start and end.
+     */
+    protected void parseBlock(Feedable feedable, BlockFileReader reader, BlockFileEntry entry) throws Exception {
         JTLFileParser parser = new JTLFileParser();
+        parser.setRequiredFields(this.parsedFields);
+        MyJTLParseListener listener = new MyJTLParseListener(feedable, null);
+        parser.setListener(listener);
+
+        List<InputStream> parts = new ArrayList<>();
+        parts.add(new ByteArrayInputStream(DOCUMENT_START));
+        parts.add(new ByteArrayInputStream(reader.readBlock(entry)));
+        parts.add(new ByteArrayInputStream(DOCUMENT_END));
+
+        InputStream inputStream = new SequenceInputStream(Collections.enumeration(parts));
+        SampleSkippingInputStream samplingStream = this.createSamplingStream(inputStream);
+        if (samplingStream != null) {
+            inputStream = samplingStream;
+        }
+
+        PayloadSkippingInputStream payloadStream = this.createPayloadSkippingStream(inputStream);
+        if (payloadStream != null) {
+            inputStream = payloadStream;
+        }
+
+        this.parse(parser, listener, inputStream);
+
+        this.recordSampling(samplingStream);
+        this.recordSkippedPayloads(payloadStream);
+    }
+
+    /**
+     * Parse the given stream, feeding any samples still batched by the listener once parsing ends, even when it ends
+     * with an error.
+     */
+    protected void parse(JTLFileParser parser, MyJTLParseListener listener, InputStream inputStream)
+            throws Exception {
+
+        try {
+            parser.parse(inputStream, this.uri);
+        } finally {
+            this.malformedValueCount.addAndGet(parser.getMalformedValueCount());
+            listener.flush();
+        }
+    }
+
+    /**
+     * Run the given tasks, each on a thread of its own, and wait for all of them to complete.
+     */
+    protected void runTasks(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> oneTask : tasks) {
+                futures.add(executorService.submit(oneTask));
+            }
+
+            for (Future<Void> oneFuture : futures) {
+                try {
+                    oneFuture.get();
+                } catch (ExecutionException execExc) {
+                    if (execExc.getCause() instanceof Exception) {
+                        throw (Exception) execExc.getCause();
+                    }
 
-        MyJTLParseListener listener = new MyJTLParseListener(feedable);
+                    throw execExc;
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * The reports are not thread-safe, so samples parsed on several threads are fed to them one at a time, or one
+     * batch at a time.
+     */
+    protected static Feedable synchronizedFeedable(final Feedable feedable) {
+        final Object feedLock = new Object();
+
+        return new BatchFeedable() {
+            @Override
+            public void onSample(Sample topLevelSample) throws Exception {
+                synchronized (feedLock) {
+                    feedable.onSample(topLevelSample);
+                }
+            }
+
+            @Override
+            public void onSamples(SampleBatch batch) throws Exception {
+                synchronized (feedLock) {
+                    SampleBatch.feed(feedable, batch);
+                }
+            }
+        };
+    }
+
+    /**
+     * Parse the samples between the given offsets of the uncompressed file.
+     *
+     * @param feedable target for the samples.
+     * @param startOffset offset of the first sample to parse.
+     * @param endOffset offset just past the last sample to parse, or -1 to parse to the end of the file.
+     */
+    protected void parseRange(Feedable feedable, long startOffset, long endOffset) throws Exception {
+        JTLFileParser parser = new JTLFileParser();
+        parser.setRequiredFields(this.parsedFields);
+        MyJTLParseListener listener = new MyJTLParseListener(feedable, null);
         parser.setListener(listener);
 
-        parser.parse(uri);
+        InputStream inputStream = this.openRange(parser, startOffset, endOffset);
+        SampleSkippingInputStream samplingStream = this.createSamplingStream(inputStream);
+        if (samplingStream != null) {
+            inputStream = samplingStream;
+        }
+
+        PayloadSkippingInputStream payloadStream = this.createPayloadSkippingStream(inputStream);
+        if (payloadStream != null) {
+            inputStream = payloadStream;
+        }
+
+        this.parse(parser, listener, inputStream);
+
+        this.recordSampling(samplingStream);
+        this.recordSkippedPayloads(payloadStream);
+    }
+
+    /**
+     * Open the samples between the given offsets as a document of their own.  The range starts with a sample, so the
+     * document start is supplied; a range which ends before the end of the file also needs the document end.
+     */
+    protected InputStream openRange(JTLFileParser parser, long startOffset, long endOffset) throws Exception {
+        InputStream rangeStream;
+
+        File localFile = this.resolveLocalFile();
+        if ((this.isCompressed()) || (localFile == null)) {
+            rangeStream = parser.openSourceStream(this.uri);
+            StreamUtil.skipFully(rangeStream, startOffset);
+        } else {
+            FileInputStream fileInputStream = new FileInputStream(localFile);
+            fileInputStream.getChannel().position(startOffset);
+            rangeStream = new BufferedInputStream(fileInputStream);
+        }
+
+        List<InputStream> parts = new ArrayList<>();
+        parts.add(new ByteArrayInputStream(DOCUMENT_START));
+
+        if (endOffset >= 0) {
+            parts.add(new BoundedInputStream(rangeStream, endOffset - startOffset));
+            parts.add(new ByteArrayInputStream(DOCUMENT_END));
+        } else {
+            parts.add(rangeStream);
+        }
+
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    protected SampleSkippingInputStream createSamplingStream(InputStream inputStream) {
+        if (this.sampleEvery > 1) {
+            return new SampleSkippingInputStream(inputStream, this.sampleEvery);
+        } else if (this.sampleRate < 1.0) {
+            return new SampleSkippingInputStream(inputStream, this.sampleRate, new Random());
+        }
+
+        return null;
+    }
+
+    protected void recordSampling(SampleSkippingInputStream scanningStream) {
+        if (scanningStream != null) {
+            this.topLevelSampleCount.addAndGet(scanningStream.getTopLevelSampleCount());
+            this.skippedSampleCount.addAndGet(scanningStream.getSkippedSampleCount());
+        }
+    }
+
+    protected PayloadSkippingInputStream createPayloadSkippingStream(InputStream inputStream) {
+        if (this.skipPayloads) {
+            return new PayloadSkippingInputStream(inputStream);
+        }
+
+        return null;
+    }
+
+    protected synchronized void recordSkippedPayloads(PayloadSkippingInputStream payloadStream) {
+        if (payloadStream != null) {
+            int cur = 0;
+            while (cur < this.skippedPayloadBytes.length) {
+                this.skippedPayloadBytes[cur] += payloadStream.getSkippedBytes(cur);
+                this.skippedPayloadCounts[cur] += payloadStream.getSkippedCount(cur);
+                cur++;
+            }
+        }
+    }
+
+    protected synchronized void reportSkippedPayloads() {
+        if (this.getSkippedPayloadBytes() == 0) {
+            return;
+        }
+
+        StringBuilder summary = new StringBuilder();
+        List<String> elementNames = PayloadSkippingInputStream.DEFAULT_ELEMENT_NAMES;
+
+        int cur = 0;
+        while (cur < elementNames.size()) {
+            if (this.skippedPayloadCounts[cur] > 0) {
+                if (summary.length() > 0) {
+                    summary.append(", ");
+                }
+
+                summary.append(elementNames.get(cur)).append(" ").append(this.skippedPayloadCounts[cur])
+                        .append(" (").append(this.skippedPayloadBytes[cur]).append(" bytes)");
+            }
+            cur++;
+        }
+
+        System.err.println("skipped " + this.getSkippedPayloadBytes() + " bytes of payload elements in " + this.uri +
+                ": " + summary);
+    }
+
+    protected boolean isSampling() {
+        return (this.sampleEvery > 1) || (this.sampleRate < 1.0);
+    }
+
+    protected boolean isBlockFile() {
+        return this.uri.toLowerCase().endsWith(JTLBlockTranscoder.BLOCK_FILE_SUFFIX);
+    }
+
+    protected boolean isCompressed() {
+        String lowerCaseUri = this.uri.toLowerCase();
+
+        return (lowerCaseUri.endsWith(".gz")) || (lowerCaseUri.endsWith(".zip"));
+    }
+
+    protected JTLIndex loadIndex(File localFile) {
+        try {
+            return JTLIndex.load(localFile);
+        } catch (IOException ioExc) {
+            System.err.println("warning: ignoring unreadable index for " + this.uri + ": " + ioExc.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the local file named by the URI, or null if the URI does not name a local file.
+     */
+    protected File resolveLocalFile() {
+        File result = null;
+
+        if (this.uri.startsWith("file:")) {
+            try {
+                result = new File(new URI(this.uri));
+            } catch (Exception exc) {
+                return null;
+            }
+        } else if (!this.uri.matches("^[a-zA-Z][a-zA-Z0-9+.-]+:.*")) {
+            result = new File(this.uri);
+        }
+
+        if ((result != null) && (result.isFile())) {
+            return result;
+        }
+
+        return null;
     }
 
     protected class MyJTLParseListener implements JTLFileParseListener {
         private Feedable target;
+        private JTLIndexBuilder indexBuilder;
+        private SampleBatch batch;
+
+        private CheckpointTracker checkpointTracker;
+        private JTLFileParser checkpointParser;
 
-        public MyJTLParseListener(Feedable target) {
+        public MyJTLParseListener(Feedable target, JTLIndexBuilder indexBuilder) {
             this.target = target;
+            this.indexBuilder = indexBuilder;
+
+            // Targets which take batches are fed a batch at a time
+            if (target instanceof BatchFeedable) {
+                this.batch = new SampleBatch();
+            }
+        }
+
+        /**
+         * Save checkpoints of the target, which must be a CheckpointableReport, as the tracker calls for them.
+         */
+        public void setCheckpointing(CheckpointTracker checkpointTracker, JTLFileParser checkpointParser) {
+            this.checkpointTracker = checkpointTracker;
+            this.checkpointParser = checkpointParser;
         }
 
         @Override
         public void onSample(Sample fullSample) {
+            this.feedSample(fullSample);
+
+            if ((this.checkpointTracker != null) && (this.checkpointTracker.onSample())) {
+                // Every sample before the checkpoint must reach the report first
+                this.flush();
+
+                try {
+                    saveCheckpoint((CheckpointableReport) this.target, this.checkpointTracker, this.checkpointParser);
+                    this.checkpointTracker.onCheckpointTaken();
+                } catch (IOException ioExc) {
+                    System.err.println("warning: no longer saving checkpoints of " + uri + ": " + ioExc.getMessage());
+                    this.checkpointTracker = null;
+                }
+            }
+        }
+
+        protected void feedSample(Sample fullSample) {
+            if (this.indexBuilder != null) {
+                this.indexBuilder.onSample(fullSample);
+            }
+
+            if (timeWindow != null) {
+                if (!timeWindow.isResolved()) {
+                    timeWindow.resolve(fullSample.getTimestamp());
+                }
+
+                if (!timeWindow.contains(fullSample.getTimestamp())) {
+                    return;
+                }
+            }
+
+            if (this.batch != null) {
+                this.batch.add(fullSample);
+                if (this.batch.isFull()) {
+                    this.flush();
+                }
+
+                return;
+            }
+
             try {
                 this.target.onSample(fullSample);
             } catch ( Exception exc ) {
                 throw new RuntimeException("report failure", exc);
             }
         }
+
+        /**
+         * Feed the batched samples, if any.
+         */
+        public void flush() {
+            if ((this.batch == null) || (this.batch.isEmpty())) {
+                return;
+            }
+
+            try {
+                ((BatchFeedable) this.target).onSamples(this.batch);
+            } catch ( Exception exc ) {
+                throw new RuntimeException("report failure", exc);
+            } finally {
+                this.batch.clear();
+            }
+        }
     }
 }
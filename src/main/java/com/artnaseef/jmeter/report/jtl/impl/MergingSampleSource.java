@@ -0,0 +1,320 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.impl;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.SampleSource;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Source of samples merged from several sources in timestamp order, such as the JTL files of the injector nodes of
+ * one distributed test.  Every source is parsed on a thread of its own into a bounded lookahead buffer, and the calling
+ * thread repeatedly feeds the earliest sample at the head of any buffer, so memory use does not grow with the size
+ * of the sources.
+ *
+ * JMeter writes samples as they complete, so the samples of a single file are only roughly in timestamp order.  Each
+ * source therefore passes its samples through a reorder window which holds back the given number of samples and
+ * releases the earliest first; a sample further out of order than the window allows is fed late, and counted.
+ *
+ * The merge cannot take a sample until every source has one ready, so all the sources are read at once, each on a
+ * thread of its own; the number of sources, and with it the threads and lookahead buffers, is capped at MAX_SOURCES.
+ *
+ * Created by art on 10/19/26.
+ */
+public class MergingSampleSource implements SampleSource {
+    public static final int DEFAULT_LOOKAHEAD = 4096;
+    public static final int DEFAULT_REORDER_WINDOW = 1024;
+    public static final int MAX_SOURCES = 256;
+
+    private static final int BATCH_SIZE = 256;
+
+    private static final Comparator<Sample> TIMESTAMP_ORDER = new Comparator<Sample>() {
+        @Override
+        public int compare(Sample sample1, Sample sample2) {
+            return Long.compare(sample1.getTimestamp(), sample2.getTimestamp());
+        }
+    };
+
+    private final List<String> uris;
+    private final List<SampleSource> sources;
+
+    private int lookahead = DEFAULT_LOOKAHEAD;
+    private int reorderWindow = DEFAULT_REORDER_WINDOW;
+
+    private long outOfOrderCount;
+    private long maxOutOfOrderMillis;
+
+    private final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+    /**
+     * @param uris locations of the sources, used in messages.
+     * @param sources sources to merge, in the same order as their URIs.
+     */
+    public MergingSampleSource(List<String> uris, List<SampleSource> sources) {
+        if (uris.size() != sources.size()) {
+            throw new IllegalArgumentException("need one URI per source");
+        }
+
+        if (sources.size() > MAX_SOURCES) {
+            throw new IllegalArgumentException("at most " + MAX_SOURCES + " sources can be merged in timestamp order");
+        }
+
+        this.uris = new ArrayList<>(uris);
+        this.sources = new ArrayList<>(sources);
+    }
+
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * @param lookahead number of parsed samples buffered per source ahead of the merge.
+     */
+    public void setLookahead(int lookahead) {
+        this.lookahead = lookahead;
+    }
+
+    public int getReorderWindow() {
+        return reorderWindow;
+    }
+
+    /**
+     * @param reorderWindow number of samples per source held back to restore timestamp order; 0 to trust the order
+     *                      of the sources.
+     */
+    public void setReorderWindow(int reorderWindow) {
+        this.reorderWindow = reorderWindow;
+    }
+
+    /**
+     * @return number of samples fed after a sample with a later timestamp, in the last execution.
+     */
+    public long getOutOfOrderCount() {
+        return outOfOrderCount;
+    }
+
+    public List<Throwable> getFailures() {
+        synchronized (this.failures) {
+            return new ArrayList<>(this.failures);
+        }
+    }
+
+    /**
+     * Feed the samples of all the sources in timestamp order.  A failing source ends early without stopping the
+     * others; the first failure, errors included, is thrown once the merge completes.
+     *
+     * @param feedable report to which to send the samples.
+     * @throws Exception
+     */
+    @Override
+    public void execute(Feedable feedable) throws Exception {
+        this.failures.clear();
+        this.outOfOrderCount = 0;
+        this.maxOutOfOrderMillis = 0;
+
+        if (this.sources.isEmpty()) {
+            return;
+        }
+
+        int queueCapacity = Math.max(1, this.lookahead / BATCH_SIZE);
+
+        // Every source must be read at once, so each gets a thread of its own; there are at most MAX_SOURCES
+        ExecutorService executorService = Executors.newFixedThreadPool(this.sources.size());
+        try {
+            PriorityQueue<SourceCursor> heads = new PriorityQueue<>();
+
+            int cur = 0;
+            while (cur < this.sources.size()) {
+                BlockingQueue<List<Sample>> queue = new ArrayBlockingQueue<>(queueCapacity);
+                executorService.execute(new SourceReader(this.uris.get(cur), this.sources.get(cur), queue));
+
+                SourceCursor cursor = new SourceCursor(cur, queue);
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+
+                cur++;
+            }
+
+            long lastTimestamp = Long.MIN_VALUE;
+
+            SourceCursor cursor = heads.poll();
+            while (cursor != null) {
+                Sample next = cursor.getCurrent();
+
+                if (next.getTimestamp() < lastTimestamp) {
+                    this.outOfOrderCount++;
+                    this.maxOutOfOrderMillis = Math.max(this.maxOutOfOrderMillis, lastTimestamp - next.getTimestamp());
+                } else {
+                    lastTimestamp = next.getTimestamp();
+                }
+
+                feedable.onSample(next);
+
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+
+                cursor = heads.poll();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        if (this.outOfOrderCount > 0) {
+            System.err.println("warning: " + this.outOfOrderCount + " samples fed out of timestamp order, by up to " +
+                    this.maxOutOfOrderMillis + " ms; a larger reorder window would restore their order");
+        }
+
+        List<Throwable> failed = this.getFailures();
+        if (!failed.isEmpty()) {
+            throw MultiSourceSampleSource.rethrow(failed.get(0));
+        }
+    }
+
+    /**
+     * Position in the samples of one source, ordered by the timestamp of its current sample.
+     */
+    protected static class SourceCursor implements Comparable<SourceCursor> {
+        private final int sourceNumber;
+        private final BlockingQueue<List<Sample>> queue;
+
+        private Iterator<Sample> batch = Collections.<Sample>emptyList().iterator();
+        private Sample current;
+
+        public SourceCursor(int sourceNumber, BlockingQueue<List<Sample>> queue) {
+            this.sourceNumber = sourceNumber;
+            this.queue = queue;
+        }
+
+        public Sample getCurrent() {
+            return current;
+        }
+
+        /**
+         * Move to the next sample of the source, waiting for it to be parsed if needed.
+         *
+         * @return true => there is a next sample; false => the source is exhausted.
+         */
+        public boolean advance() throws InterruptedException {
+            while (!this.batch.hasNext()) {
+                List<Sample> nextBatch = this.queue.take();
+
+                // An empty batch marks the end of the source
+                if (nextBatch.isEmpty()) {
+                    this.current = null;
+                    return false;
+                }
+
+                this.batch = nextBatch.iterator();
+            }
+
+            this.current = this.batch.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(SourceCursor other) {
+            int result = Long.compare(this.current.getTimestamp(), other.current.getTimestamp());
+            if (result == 0) {
+                result = Integer.compare(this.sourceNumber, other.sourceNumber);
+            }
+
+            return result;
+        }
+    }
+
+    protected class SourceReader implements Runnable {
+        private final String uri;
+        private final SampleSource source;
+        private final BlockingQueue<List<Sample>> queue;
+
+        private final PriorityQueue<Sample> reorderBuffer = new PriorityQueue<>(11, TIMESTAMP_ORDER);
+        private List<Sample> batch = new ArrayList<>(BATCH_SIZE);
+
+        public SourceReader(String uri, SampleSource source, BlockingQueue<List<Sample>> queue) {
+            this.uri = uri;
+            this.source = source;
+            this.queue = queue;
+        }
+
+        /**
+         * Read the source, always queueing the empty batch which marks its end, whatever happens; otherwise the merge
+         * would wait for the next sample of the source forever.
+         */
+        @Override
+        public void run() {
+            try {
+                try {
+                    this.source.execute(new Feedable() {
+                        @Override
+                        public void onSample(Sample topLevelSample) throws Exception {
+                            reorderBuffer.add(topLevelSample);
+                            if (reorderBuffer.size() > reorderWindow) {
+                                release(reorderBuffer.poll());
+                            }
+                        }
+                    });
+
+                    while (!this.reorderBuffer.isEmpty()) {
+                        this.release(this.reorderBuffer.poll());
+                    }
+
+                    if (!this.batch.isEmpty()) {
+                        this.queue.put(this.batch);
+                    }
+                } catch (InterruptedException intExc) {
+                    throw intExc;
+                } catch (Throwable thrown) {
+                    System.err.println("warning: failed to read " + this.uri + ": " + thrown);
+                    failures.add(thrown);
+                }
+            } catch (InterruptedException intExc) {
+                // Abandoned by the merge
+                Thread.currentThread().interrupt();
+            } finally {
+                this.finish();
+            }
+        }
+
+        protected void finish() {
+            try {
+                this.queue.put(Collections.<Sample>emptyList());
+            } catch (InterruptedException intExc) {
+                // Abandoned by the merge, which no longer waits for the readers
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        protected void release(Sample sample) throws InterruptedException {
+            this.batch.add(sample);
+            if (this.batch.size() >= BATCH_SIZE) {
+                this.queue.put(this.batch);
+                this.batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+}
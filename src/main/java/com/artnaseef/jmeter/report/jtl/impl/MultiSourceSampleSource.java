@@ -0,0 +1,259 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.impl;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.SampleSource;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Source of samples read from many sources at once.  Each source is opened, read, and parsed on a worker thread of
+ * its own, so the I/O latency of one source overlaps with the reading and parsing of the others.  Workers hand their
+ * samples over in batches through a bounded queue, and the calling thread feeds the batches to the target; reports
+ * therefore see one thread only, and a slow report holds the workers back instead of letting samples pile up.
+ *
+ * Workers run on virtual threads when the JVM has them, and on a fixed pool of platform threads otherwise; either way
+ * no more than the configured number of sources are read at once.  Samples from different sources are interleaved
+ * in no particular order.
+ *
+ * Created by art on 10/19/26.
+ */
+public class MultiSourceSampleSource implements SampleSource {
+    public static final int DEFAULT_CONCURRENCY = 16;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final List<String> uris;
+    private final List<SampleSource> sources;
+
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+
+    /**
+     * @param uris locations of the sources, used in messages.
+     * @param sources sources to read, in the same order as their URIs.
+     */
+    public MultiSourceSampleSource(List<String> uris, List<SampleSource> sources) {
+        if (uris.size() != sources.size()) {
+            throw new IllegalArgumentException("need one URI per source");
+        }
+
+        this.uris = new ArrayList<>(uris);
+        this.sources = new ArrayList<>(sources);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @param concurrency maximum number of sources to read at once.
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize number of samples a worker collects before handing them over.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @param queueCapacity number of batches which may wait to be fed before the workers block.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @return failures of the sources in the last execution, in the order they occurred.
+     */
+    public List<Throwable> getFailures() {
+        synchronized (this.failures) {
+            return new ArrayList<>(this.failures);
+        }
+    }
+
+    /**
+     * Feed the samples of all the sources.  A failing source does not stop the others; each failure is reported as a
+     * warning when it happens, and once all the sources are read the first failure is thrown, errors included.
+     *
+     * @param feedable report to which to send the samples.
+     * @throws Exception
+     */
+    @Override
+    public void execute(Feedable feedable) throws Exception {
+        this.failures.clear();
+
+        if (this.sources.isEmpty()) {
+            return;
+        }
+
+        final BlockingQueue<List<Sample>> queue = new ArrayBlockingQueue<>(Math.max(1, this.queueCapacity));
+        final Semaphore permits = new Semaphore(Math.max(1, this.concurrency));
+
+        ExecutorService executorService = this.createExecutorService();
+        try {
+            int cur = 0;
+            while (cur < this.sources.size()) {
+                executorService.execute(new SourceReader(this.uris.get(cur), this.sources.get(cur), queue, permits));
+                cur++;
+            }
+
+            // Each reader queues an empty batch once it is done
+            int remaining = this.sources.size();
+            while (remaining > 0) {
+                List<Sample> batch = queue.take();
+                if (batch.isEmpty()) {
+                    remaining--;
+                } else {
+                    for (Sample oneSample : batch) {
+                        feedable.onSample(oneSample);
+                    }
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        List<Throwable> failed = this.getFailures();
+        if (!failed.isEmpty()) {
+            throw rethrow(failed.get(0));
+        }
+    }
+
+    /**
+     * Throw the failure of a worker on the calling thread: errors and exceptions as they are, and anything else
+     * wrapped in an exception.
+     *
+     * @param failure failure of the worker.
+     * @return never returns; declared so callers can "throw rethrow(...)".
+     */
+    static Exception rethrow(Throwable failure) throws Exception {
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+
+        if (failure instanceof Exception) {
+            throw (Exception) failure;
+        }
+
+        throw new Exception(failure);
+    }
+
+    /**
+     * Create the executor for the readers: one virtual thread per source when the JVM supports them, or a fixed pool
+     * of platform threads.
+     */
+    protected ExecutorService createExecutorService() {
+        try {
+            Object result = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+
+            return (ExecutorService) result;
+        } catch (Exception exc) {
+            return Executors.newFixedThreadPool(Math.max(1, Math.min(this.concurrency, this.sources.size())));
+        }
+    }
+
+    protected class SourceReader implements Runnable {
+        private final String uri;
+        private final SampleSource source;
+        private final BlockingQueue<List<Sample>> queue;
+        private final Semaphore permits;
+
+        private List<Sample> batch = new ArrayList<>();
+
+        public SourceReader(String uri, SampleSource source, BlockingQueue<List<Sample>> queue, Semaphore permits) {
+            this.uri = uri;
+            this.source = source;
+            this.queue = queue;
+            this.permits = permits;
+        }
+
+        /**
+         * Read the source, always queueing the empty batch which tells the consumer the reader is done, whatever
+         * happens; otherwise the consumer would wait for it forever.
+         */
+        @Override
+        public void run() {
+            try {
+                this.permits.acquire();
+                try {
+                    this.source.execute(new Feedable() {
+                        @Override
+                        public void onSample(Sample topLevelSample) throws Exception {
+                            batch.add(topLevelSample);
+                            if (batch.size() >= batchSize) {
+                                flush();
+                            }
+                        }
+                    });
+
+                    this.flush();
+                } catch (InterruptedException intExc) {
+                    throw intExc;
+                } catch (Throwable thrown) {
+                    System.err.println("warning: failed to read " + this.uri + ": " + thrown);
+                    failures.add(thrown);
+                } finally {
+                    this.permits.release();
+                }
+            } catch (InterruptedException intExc) {
+                // Abandoned by the consumer
+                Thread.currentThread().interrupt();
+            } finally {
+                this.finish();
+            }
+        }
+
+        protected void finish() {
+            try {
+                this.queue.put(Collections.<Sample>emptyList());
+            } catch (InterruptedException intExc) {
+                // Abandoned by the consumer, which no longer waits for the readers
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        protected void flush() throws InterruptedException {
+            if (!this.batch.isEmpty()) {
+                this.queue.put(this.batch);
+                this.batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sparse index of the top-level samples in a JTL file, kept in a sidecar file next to it.  The index divides the
+ * samples into blocks of a fixed number of samples and records, for each block, the offset of its first sample in the
+ * uncompressed content along with the first, lowest, and highest timestamps in the block.  Samples are written as they
+ * complete, so timestamps are not strictly ordered and queries use the lowest and highest timestamps.
+ *
+ * Offsets of compressed files are offsets into the decompressed content; the JDK inflater cannot restart in the middle
+ * of a deflate stream, so reaching a block of a compressed file means decompressing and discarding the content before
+ * it, which still avoids the far more expensive parsing.
+ *
+ * The index records the length and modification time of the source file, and is ignored once either changes.
+ *
+ * Created by art on 10/19/26.
+ */
+public class JTLIndex {
+    public static final String INDEX_FILE_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x4A494458;
+    private static final int VERSION = 1;
+
+    private final long sourceLength;
+    private final long sourceLastModified;
+    private final int blockSize;
+    private final List<Block> blocks;
+
+    public JTLIndex(long sourceLength, long sourceLastModified, int blockSize, List<Block> blocks) {
+        this.sourceLength = sourceLength;
+        this.sourceLastModified = sourceLastModified;
+        this.blockSize = blockSize;
+        this.blocks = Collections.unmodifiableList(new ArrayList<>(blocks));
+    }
+
+    public static File getIndexFile(File sourceFile) {
+        return new File(sourceFile.getPath() + INDEX_FILE_SUFFIX);
+    }
+
+    /**
+     * Load the index of the given source file, if it has one which is up to date.
+     *
+     * @param sourceFile JTL file.
+     * @return the index, or null if there is no index or it is out of date.
+     */
+    public static JTLIndex load(File sourceFile) throws IOException {
+        File indexFile = getIndexFile(sourceFile);
+        if (!indexFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                throw new IOException("not a JTL index: " + indexFile);
+            }
+
+            long sourceLength = in.readLong();
+            long sourceLastModified = in.readLong();
+            if ((sourceLength != sourceFile.length()) || (sourceLastModified != sourceFile.lastModified())) {
+                return null;
+            }
+
+            int blockSize = in.readInt();
+            int blockCount = in.readInt();
+
+            List<Block> blocks = new ArrayList<>(blockCount);
+            int cur = 0;
+            while (cur < blockCount) {
+                blocks.add(new Block(in.readLong(), in.readInt(), in.readLong(), in.readLong(), in.readLong()));
+                cur++;
+            }
+
+            return new JTLIndex(sourceLength, sourceLastModified, blockSize, blocks);
+        }
+    }
+
+    public void save(File sourceFile) throws IOException {
+        File indexFile = getIndexFile(sourceFile);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(this.sourceLength);
+            out.writeLong(this.sourceLastModified);
+            out.writeInt(this.blockSize);
+            out.writeInt(this.blocks.size());
+
+            for (Block oneBlock : this.blocks) {
+                out.writeLong(oneBlock.getOffset());
+                out.writeInt(oneBlock.getSampleCount());
+                out.writeLong(oneBlock.getFirstTimestamp());
+                out.writeLong(oneBlock.getMinTimestamp());
+                out.writeLong(oneBlock.getMaxTimestamp());
+            }
+        }
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return lowest timestamp in the indexed file, or Long.MAX_VALUE if it has no timestamps.
+     */
+    public long getMinTimestamp() {
+        long result = Long.MAX_VALUE;
+        for (Block oneBlock : this.blocks) {
+            result = Math.min(result, oneBlock.getMinTimestamp());
+        }
+
+        return result;
+    }
+
+    /**
+     * Find the first block which may contain samples in the given time range.
+     *
+     * @param from start of the range, inclusive.
+     * @param to end of the range, exclusive.
+     * @return index of the block, or -1 if no block overlaps the range.
+     */
+    public int findFirstBlock(long from, long to) {
+        int cur = 0;
+        while (cur < this.blocks.size()) {
+            if (this.blocks.get(cur).overlaps(from, to)) {
+                return cur;
+            }
+            cur++;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Find the last block which may contain samples in the given time range.
+     *
+     * @param from start of the range, inclusive.
+     * @param to end of the range, exclusive.
+     * @return index of the block, or -1 if no block overlaps the range.
+     */
+    public int findLastBlock(long from, long to) {
+        int cur = this.blocks.size() - 1;
+        while (cur >= 0) {
+            if (this.blocks.get(cur).overlaps(from, to)) {
+                return cur;
+            }
+            cur--;
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param blockIndex index of a block.
+     * @return offset just past the given block, or -1 if it is the last block and extends to the end of the file.
+     */
+    public long getEndOffset(int blockIndex) {
+        if (blockIndex + 1 < this.blocks.size()) {
+            return this.blocks.get(blockIndex + 1).getOffset();
+        }
+
+        return -1;
+    }
+
+    public static class Block {
+        private final long offset;
+        private final int sampleCount;
+        private final long firstTimestamp;
+        private final long minTimestamp;
+        private final long maxTimestamp;
+
+        public Block(long offset, int sampleCount, long firstTimestamp, long minTimestamp, long maxTimestamp) {
+            this.offset = offset;
+            this.sampleCount = sampleCount;
+            this.firstTimestamp = firstTimestamp;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getSampleCount() {
+            return sampleCount;
+        }
+
+        public long getFirstTimestamp() {
+            return firstTimestamp;
+        }
+
+        public long getMinTimestamp() {
+            return minTimestamp;
+        }
+
+        public long getMaxTimestamp() {
+            return maxTimestamp;
+        }
+
+        public boolean overlaps(long from, long to) {
+            return (this.minTimestamp < to) && (this.maxTimestamp >= from);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.index;
+
+import com.artnaseef.jmeter.report.jtl.TopLevelSampleListener;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Build a JTLIndex while a file is parsed.  The raw stream scanner reports the offset of each top-level sample as it
+ * reads ahead of the parser, and the parser then delivers the samples in the same order, so offsets are queued until
+ * the matching sample supplies its timestamp.
+ *
+ * Created by art on 10/19/26.
+ */
+public class JTLIndexBuilder implements TopLevelSampleListener {
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    private final int blockSize;
+
+    private final Deque<Long> pendingOffsets = new ArrayDeque<>();
+    private final List<JTLIndex.Block> blocks = new ArrayList<>();
+
+    private long sampleNumber;
+
+    private long blockOffset = -1;
+    private int blockSampleCount;
+    private long blockFirstTimestamp;
+    private long blockMinTimestamp;
+    private long blockMaxTimestamp;
+
+    public JTLIndexBuilder(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public void onTopLevelSampleStart(long sampleNumber, long offset, boolean kept) {
+        if ((sampleNumber % this.blockSize) == 0) {
+            this.pendingOffsets.add(offset);
+        }
+    }
+
+    /**
+     * Account for the next top-level sample delivered by the parser.
+     *
+     * @param topLevelSample the sample.
+     */
+    public void onSample(Sample topLevelSample) {
+        if ((this.sampleNumber % this.blockSize) == 0) {
+            this.finishBlock();
+
+            Long offset = this.pendingOffsets.poll();
+            if (offset == null) {
+                throw new IllegalStateException("no offset recorded for sample " + this.sampleNumber);
+            }
+
+            this.blockOffset = offset;
+            this.blockFirstTimestamp = topLevelSample.getTimestamp();
+            this.blockMinTimestamp = Long.MAX_VALUE;
+            this.blockMaxTimestamp = Long.MIN_VALUE;
+        }
+
+        long timestamp = topLevelSample.getTimestamp();
+        if (timestamp >= 0) {
+            this.blockMinTimestamp = Math.min(this.blockMinTimestamp, timestamp);
+            this.blockMaxTimestamp = Math.max(this.blockMaxTimestamp, timestamp);
+        }
+
+        this.blockSampleCount++;
+        this.sampleNumber++;
+    }
+
+    public JTLIndex build(File sourceFile) {
+        this.finishBlock();
+
+        return new JTLIndex(sourceFile.length(), sourceFile.lastModified(), this.blockSize, this.blocks);
+    }
+
+    protected void finishBlock() {
+        if (this.blockOffset != -1) {
+            this.blocks.add(new JTLIndex.Block(this.blockOffset, this.blockSampleCount, this.blockFirstTimestamp,
+                    this.blockMinTimestamp, this.blockMaxTimestamp));
+        }
+
+        this.blockOffset = -1;
+        this.blockSampleCount = 0;
+    }
+}
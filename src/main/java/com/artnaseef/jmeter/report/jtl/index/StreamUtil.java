@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream helpers for reading the parts of a file located by its index.
+ *
+ * Created by art on 10/19/26.
+ */
+public final class StreamUtil {
+    private StreamUtil() {
+    }
+
+    /**
+     * Read the remainder of the stream.
+     *
+     * @param inputStream stream to read; it is not closed.
+     * @return the bytes read.
+     */
+    public static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        byte[] buffer = new byte[64 * 1024];
+        int count = inputStream.read(buffer);
+        while (count != -1) {
+            result.write(buffer, 0, count);
+            count = inputStream.read(buffer);
+        }
+
+        return result.toByteArray();
+    }
+
+    /**
+     * Skip exactly the given number of bytes.  InputStream.skip() may skip fewer bytes than asked, or none at all,
+     * as decompressing streams do at the end of an internal buffer, so this falls back to reading a byte to tell
+     * the end of the stream apart from a short skip.
+     *
+     * @param inputStream stream to skip.
+     * @param count number of bytes to skip.
+     * @throws EOFException if the stream ends first.
+     */
+    public static void skipFully(InputStream inputStream, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                if (inputStream.read() == -1) {
+                    throw new EOFException("index offset " + count + " is past the end of the file");
+                }
+                skipped = 1;
+            }
+
+            remaining -= skipped;
+        }
+    }
+}
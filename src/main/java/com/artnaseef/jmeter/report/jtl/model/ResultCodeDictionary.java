@@ -0,0 +1,435 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Dictionary of interned result codes.  Each distinct result code string (e.g. "200" or "Non HTTP response code:
+ * java.net.SocketTimeoutException") is assigned a dense integer id along with precomputed category flags, so
+ * classification of samples is a table lookup.
+ *
+ * Ids are assigned in order of first appearance and are only meaningful within the running process.  Lookups are
+ * lock-free; interning a new code is synchronized.  The entries live in a table which readers reach through a single
+ * volatile field, and an entry is written before the table which covers it is published, so a reader on any thread
+ * that has an id also sees its entry.
+ *
+ * The dictionary is shared by every report in the process, including all the jobs of a long-running report server,
+ * so it is bounded: past MAX_CODES distinct codes, a new code is counted under a shared entry for its category
+ * rather than an entry of its own.  The codes mapped to shared entries are looked up lock-free like the others, up
+ * to MAX_MAPPED_CODES codes in all; codes past that take the synchronized path each time.
+ *
+ * Created by art on 10/19/26.
+ */
+public class ResultCodeDictionary {
+    public static final String NON_HTTP_PREFIX = "Non HTTP response code";
+
+    public static final int CATEGORY_SUCCESS = 0x01;        // 2xx
+    public static final int CATEGORY_REDIRECT = 0x02;       // 3xx
+    public static final int CATEGORY_CLIENT_ERROR = 0x04;   // 4xx
+    public static final int CATEGORY_SERVER_ERROR = 0x08;   // 5xx
+    public static final int CATEGORY_NON_HTTP = 0x10;       // "Non HTTP response code: ..."
+    public static final int CATEGORY_OTHER = 0x20;          // Anything else, including missing codes
+
+    public static final int FLAG_FAILURE = 0x100;
+
+    /**
+     * Id of the code used for samples which have no result code.
+     */
+    public static final int MISSING_CODE_ID = 0;
+
+    /**
+     * Number of distinct codes given entries of their own.
+     */
+    public static final int MAX_CODES = 10000;
+
+    /**
+     * Number of distinct codes, including those counted under shared entries, kept for lock-free lookup.
+     */
+    public static final int MAX_MAPPED_CODES = 4 * MAX_CODES;
+
+    private static final int DIRECT_NUMERIC_LIMIT = 1000;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final ResultCodeDictionary globalDictionary = new ResultCodeDictionary();
+
+    private final ConcurrentMap<String, Integer> idsByCode = new ConcurrentHashMap<>();
+
+    // Ids of the shared entries of codes past the limit, by category flags; written under the lock
+    private final Map<Integer, Integer> overflowIds = new HashMap<>();
+
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+
+    public ResultCodeDictionary() {
+        this.intern("");
+    }
+
+    public static ResultCodeDictionary get() {
+        return globalDictionary;
+    }
+
+    /**
+     * Lookup the id for the given result code, assigning a new one if the code has not been seen before.
+     *
+     * @param code result code string as recorded in the JTL; null is treated as a missing code.
+     * @return id of the code.
+     */
+    public int intern(String code) {
+        if (code == null) {
+            return MISSING_CODE_ID;
+        }
+
+        int numeric = decodeSmallNumeric(code);
+        if (numeric >= 0) {
+            Table current = this.table;
+            int id = current.idsByNumericCode[numeric];
+
+            // An id the table does not cover yet was written by an intern still in progress; take the slow path
+            if ((id != 0) && (id < current.size)) {
+                return id;
+            }
+        }
+
+        Integer id = this.idsByCode.get(code);
+        if (id != null) {
+            return id;
+        }
+
+        return this.internNew(code, numeric);
+    }
+
+    public int size() {
+        return this.table.size;
+    }
+
+    public String getCode(int id) {
+        Table current = this.table;
+        if (!current.isValidId(id)) {
+            return null;
+        }
+
+        return current.codes[id];
+    }
+
+    /**
+     * Short name for the code suitable for charts; non-HTTP codes are reduced to their cause.
+     *
+     * @param id id of the code.
+     * @return display name.
+     */
+    public String getDisplayName(int id) {
+        Table current = this.table;
+        if (!current.isValidId(id)) {
+            return Integer.toString(id);
+        }
+
+        return current.displayNames[id];
+    }
+
+    /**
+     * Numeric value of the code.
+     *
+     * @param id id of the code.
+     * @return numeric value of the code, or -1 if the code is not numeric.
+     */
+    public int getNumericCode(int id) {
+        Table current = this.table;
+        if (!current.isValidId(id)) {
+            return -1;
+        }
+
+        return current.numericCodes[id];
+    }
+
+    /**
+     * Category and failure flags for the code.
+     *
+     * @param id id of the code.
+     * @return one of the CATEGORY_ constants, combined with FLAG_FAILURE when the code indicates a failure.
+     */
+    public int getFlags(int id) {
+        Table current = this.table;
+        if (!current.isValidId(id)) {
+            return CATEGORY_OTHER | FLAG_FAILURE;
+        }
+
+        return current.flags[id];
+    }
+
+    public int getCategory(int id) {
+        return this.getFlags(id) & 0xFF;
+    }
+
+    public boolean isFailure(int id) {
+        return (this.getFlags(id) & FLAG_FAILURE) != 0;
+    }
+
+    /**
+     * Comparator of code ids which orders numeric codes first, in numeric order, followed by the remaining codes in
+     * alphabetical order.
+     *
+     * @return comparator of code ids.
+     */
+    public Comparator<Integer> idComparator() {
+        return new Comparator<Integer>() {
+            @Override
+            public int compare(Integer id1, Integer id2) {
+                return compareIds(id1, id2);
+            }
+        };
+    }
+
+    public int compareIds(int id1, int id2) {
+        int numeric1 = this.getNumericCode(id1);
+        int numeric2 = this.getNumericCode(id2);
+
+        if ((numeric1 >= 0) && (numeric2 >= 0)) {
+            return Integer.compare(numeric1, numeric2);
+        } else if (numeric1 >= 0) {
+            return -1;
+        } else if (numeric2 >= 0) {
+            return 1;
+        }
+
+        String code1 = this.getCode(id1);
+        String code2 = this.getCode(id2);
+        if ((code1 == null) || (code2 == null)) {
+            return Integer.compare(id1, id2);
+        }
+
+        return code1.compareTo(code2);
+    }
+
+    protected synchronized int internNew(String code, int smallNumeric) {
+        // Re-check now that the lock is held
+        Integer existing = this.idsByCode.get(code);
+        if (existing != null) {
+            return existing;
+        }
+
+        int numeric = decodeNumeric(code);
+        int codeFlags = calculateFlags(code, numeric);
+
+        int id;
+        if (this.table.size >= MAX_CODES) {
+            id = this.internOverflow(codeFlags);
+            if (this.idsByCode.size() >= MAX_MAPPED_CODES) {
+                return id;
+            }
+        } else {
+            id = this.addEntry(code, calculateDisplayName(code), numeric, codeFlags);
+        }
+
+        // Lookups by code only find ids whose table is already published
+        this.idsByCode.put(code, id);
+        if (smallNumeric >= 0) {
+            this.table.idsByNumericCode[smallNumeric] = id;
+        }
+
+        return id;
+    }
+
+    /**
+     * @return id of the shared entry for codes with the given flags, once the dictionary is full.
+     */
+    protected int internOverflow(int codeFlags) {
+        Integer existing = this.overflowIds.get(codeFlags);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (this.overflowIds.isEmpty()) {
+            System.err.println("warning: more than " + MAX_CODES + " distinct result codes; counting further codes " +
+                    "by category");
+        }
+
+        String name = "(other " + describeCategory(codeFlags & 0xFF) + " codes)";
+        int id = this.addEntry(name, name, -1, codeFlags);
+        this.overflowIds.put(codeFlags, id);
+
+        return id;
+    }
+
+    /**
+     * Write a new entry, then publish a table covering it.  Must be called with the lock held.
+     */
+    protected int addEntry(String code, String displayName, int numeric, int codeFlags) {
+        Table current = this.table;
+        int id = current.size;
+
+        Table next = current;
+        if (id >= current.codes.length) {
+            next = current.copy(current.codes.length * 2);
+        }
+
+        next.codes[id] = code;
+        next.displayNames[id] = displayName;
+        next.numericCodes[id] = numeric;
+        next.flags[id] = codeFlags;
+
+        this.table = next.withSize(id + 1);
+
+        return id;
+    }
+
+    protected static String describeCategory(int category) {
+        switch (category) {
+            case CATEGORY_SUCCESS:
+                return "2xx";
+
+            case CATEGORY_REDIRECT:
+                return "3xx";
+
+            case CATEGORY_CLIENT_ERROR:
+                return "4xx";
+
+            case CATEGORY_SERVER_ERROR:
+                return "5xx";
+
+            case CATEGORY_NON_HTTP:
+                return "non-HTTP";
+
+            default:
+                return "other";
+        }
+    }
+
+    protected static int calculateFlags(String code, int numeric) {
+        if (numeric >= 0) {
+            switch (numeric / 100) {
+                case 2:
+                    return CATEGORY_SUCCESS;
+
+                case 3:
+                    return CATEGORY_REDIRECT;
+
+                case 4:
+                    return CATEGORY_CLIENT_ERROR | FLAG_FAILURE;
+
+                case 5:
+                    return CATEGORY_SERVER_ERROR | FLAG_FAILURE;
+
+                default:
+                    return CATEGORY_OTHER | FLAG_FAILURE;
+            }
+        }
+
+        if (code.startsWith(NON_HTTP_PREFIX)) {
+            return CATEGORY_NON_HTTP | FLAG_FAILURE;
+        }
+
+        return CATEGORY_OTHER | FLAG_FAILURE;
+    }
+
+    protected static String calculateDisplayName(String code) {
+        if (code.isEmpty()) {
+            return "(none)";
+        }
+
+        if (code.startsWith(NON_HTTP_PREFIX)) {
+            int colon = code.indexOf(':', NON_HTTP_PREFIX.length());
+            if (colon != -1) {
+                String cause = code.substring(colon + 1).trim();
+                if (!cause.isEmpty()) {
+                    return cause;
+                }
+            }
+        }
+
+        return code;
+    }
+
+    protected static int decodeNumeric(String code) {
+        int length = code.length();
+        if ((length == 0) || (length > 9)) {
+            return -1;
+        }
+
+        int result = 0;
+        int cur = 0;
+        while (cur < length) {
+            int digit = code.charAt(cur) - '0';
+            if ((digit < 0) || (digit > 9)) {
+                return -1;
+            }
+
+            result = (result * 10) + digit;
+            cur++;
+        }
+
+        return result;
+    }
+
+    protected static int decodeSmallNumeric(String code) {
+        int length = code.length();
+        if ((length == 0) || (length > 3)) {
+            return -1;
+        }
+
+        return decodeNumeric(code);
+    }
+
+    /**
+     * Entries of the dictionary.  The arrays are shared by successive tables until they need to grow; a table only
+     * covers the entries below its size, all of which were written before it was published.
+     */
+    protected static class Table {
+        private final String[] codes;
+        private final String[] displayNames;
+        private final int[] numericCodes;
+        private final int[] flags;
+
+        // Numeric codes below the limit skip the hash lookup entirely; 0 indicates not-yet-interned (id 0 is reserved
+        //  for the missing code, which is never numeric).
+        private final int[] idsByNumericCode;
+
+        private final int size;
+
+        public Table(int capacity) {
+            this(new String[capacity], new String[capacity], new int[capacity], new int[capacity],
+                    new int[DIRECT_NUMERIC_LIMIT], 0);
+        }
+
+        private Table(String[] codes, String[] displayNames, int[] numericCodes, int[] flags, int[] idsByNumericCode,
+                      int size) {
+            this.codes = codes;
+            this.displayNames = displayNames;
+            this.numericCodes = numericCodes;
+            this.flags = flags;
+            this.idsByNumericCode = idsByNumericCode;
+            this.size = size;
+        }
+
+        public boolean isValidId(int id) {
+            return (id >= 0) && (id < this.size);
+        }
+
+        public Table withSize(int newSize) {
+            return new Table(this.codes, this.displayNames, this.numericCodes, this.flags, this.idsByNumericCode,
+                    newSize);
+        }
+
+        public Table copy(int capacity) {
+            return new Table(Arrays.copyOf(this.codes, capacity), Arrays.copyOf(this.displayNames, capacity),
+                    Arrays.copyOf(this.numericCodes, capacity), Arrays.copyOf(this.flags, capacity),
+                    this.idsByNumericCode, this.size);
+        }
+    }
+}
@@ -14,6 +14,10 @@
 
 package com.artnaseef.jmeter.report.jtl.model;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -23,7 +27,14 @@ import java.util.List;
 public class Sample {
     private String label;
     private int resultCode;
+    private int resultCodeId;
     private long timestamp;
+    private long elapsed;
+    private long receivedBytes;
+    private long sentBytes;
+    private int groupThreads;
+    private int allThreads;
+    private String threadName;
     private boolean execError;
     private boolean failure;
 
@@ -31,6 +42,10 @@ public class Sample {
     private List<Assertion> assertions;
     private List<Sample> subSamples;
 
+    // Leaves of the sample tree, and whether any sample in the tree has a failure result code; see getLeaves()
+    private Sample[] leaves;
+    private boolean subSampleFailureCode;
+
     public Sample() {
         this.assertions = new LinkedList<>();
         this.subSamples = new LinkedList<>();
@@ -52,6 +67,20 @@ public class Sample {
         this.resultCode = resultCode;
     }
 
+    /**
+     * Id of the result code in the global ResultCodeDictionary; unlike the numeric result code, this distinguishes
+     * between non-numeric result codes, such as the various "Non HTTP response code" causes.
+     *
+     * @return id of the result code.
+     */
+    public int getResultCodeId() {
+        return resultCodeId;
+    }
+
+    public void setResultCodeId(int resultCodeId) {
+        this.resultCodeId = resultCodeId;
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -60,6 +89,84 @@ public class Sample {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Elapsed time of the sample, in milliseconds (the "t" attribute).
+     *
+     * @return elapsed time, or -1 if not recorded.
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public void setElapsed(long elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Number of bytes received for the sample (the "by" attribute).
+     *
+     * @return bytes received, or -1 if not recorded.
+     */
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+
+    /**
+     * Number of bytes sent for the sample (the "sby" attribute).
+     *
+     * @return bytes sent, or -1 if not recorded.
+     */
+    public long getSentBytes() {
+        return sentBytes;
+    }
+
+    public void setSentBytes(long sentBytes) {
+        this.sentBytes = sentBytes;
+    }
+
+    /**
+     * Number of active threads in the thread group of the sample (the "ng" attribute).
+     *
+     * @return active threads in the group, or -1 if not recorded.
+     */
+    public int getGroupThreads() {
+        return groupThreads;
+    }
+
+    public void setGroupThreads(int groupThreads) {
+        this.groupThreads = groupThreads;
+    }
+
+    /**
+     * Number of active threads across all thread groups (the "na" attribute).
+     *
+     * @return active threads in all groups, or -1 if not recorded.
+     */
+    public int getAllThreads() {
+        return allThreads;
+    }
+
+    public void setAllThreads(int allThreads) {
+        this.allThreads = allThreads;
+    }
+
+    /**
+     * Name of the thread which executed the sample (the "tn" attribute); for example, "Thread Group 1-3".
+     *
+     * @return thread name.
+     */
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public void setThreadName(String threadName) {
+        this.threadName = threadName;
+    }
+
     public boolean isExecError() {
         return execError;
     }
@@ -98,6 +205,11 @@ public class Sample {
 
     public void addSubSample(Sample subSample) {
         this.subSamples.add(subSample);
+        this.leaves = null;
+
+        if (subSample.hasFailureResultCode()) {
+            this.subSampleFailureCode = true;
+        }
 
         if (subSample.isExecError()) {
             this.execError = true;
@@ -107,4 +219,63 @@ public class Sample {
             this.failure = true;
         }
     }
+
+    /**
+     * Whether this sample or any of its sub-samples, at any depth, has a result code which the global
+     * ResultCodeDictionary counts as a failure.  Rolled up as sub-samples are added, so no tree walk is needed.
+     *
+     * @return true => a sample in the tree has a failure result code; false => otherwise.
+     */
+    public boolean hasFailureResultCode() {
+        return (this.subSampleFailureCode) || (ResultCodeDictionary.get().isFailure(this.resultCodeId));
+    }
+
+    /**
+     * Leaves of the tree rooted at this sample: the samples without sub-samples, in document order, or this sample
+     * alone when it has no sub-samples.  The parser supplies the leaves of top-level samples as it reads them, and
+     * otherwise they are collected on first use, so the tree is walked at most once however many reports use it.
+     *
+     * @return the leaves; the array must not be modified.
+     */
+    public Sample[] getLeaves() {
+        if (this.leaves == null) {
+            this.leaves = collectLeaves(this);
+        }
+
+        return this.leaves;
+    }
+
+    public void setLeaves(Sample[] leaves) {
+        this.leaves = leaves;
+    }
+
+    /**
+     * Collect the leaves of the given tree without recursion, so deeply nested samples cannot exhaust the stack.
+     */
+    protected static Sample[] collectLeaves(Sample root) {
+        if (root.subSamples.isEmpty()) {
+            return new Sample[] { root };
+        }
+
+        List<Sample> result = new ArrayList<>();
+        Deque<Iterator<Sample>> pending = new ArrayDeque<>();
+        pending.push(root.subSamples.iterator());
+
+        while (!pending.isEmpty()) {
+            Iterator<Sample> siblings = pending.peek();
+            if (!siblings.hasNext()) {
+                pending.pop();
+                continue;
+            }
+
+            Sample next = siblings.next();
+            if (next.subSamples.isEmpty()) {
+                result.add(next);
+            } else {
+                pending.push(next.subSamples.iterator());
+            }
+        }
+
+        return result.toArray(new Sample[result.size()]);
+    }
 }
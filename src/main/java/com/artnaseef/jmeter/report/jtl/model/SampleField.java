@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of a sample which the parser can decode on demand.  The timestamp and the nesting of sub-samples are always
+ * decoded, since the sources themselves rely on them; fields which are not decoded keep their defaults.
+ *
+ * Created by art on 10/19/26.
+ */
+public enum SampleField {
+    LABEL,              // lb
+    ELAPSED,            // t
+    RECEIVED_BYTES,     // by
+    SENT_BYTES,         // sby
+    THREAD_COUNTS,      // ng, na
+    THREAD_NAME,        // tn
+    RESULT_CODE,        // rc
+    ASSERTION_RESULTS,  // failure and error flags of the assertions, which make up isFailure() and isExecError()
+    ASSERTION_DETAILS;  // names and failure messages of the assertions
+
+    private static final Set<SampleField> ALL = Collections.unmodifiableSet(EnumSet.allOf(SampleField.class));
+
+    public static Set<SampleField> all() {
+        return ALL;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.live;
+
+/**
+ * Immutable snapshot of LiveStatistics: the counts of each slot in the window, which ends at the latest slot fed, and
+ * the totals of the run.  The latest slot is usually still filling, so the rates are calculated over the slots before
+ * it.
+ *
+ * Created by art on 10/19/26.
+ */
+public class LiveSnapshot {
+    private final long slotSize;
+    private final long startSlot;
+    private final long firstSlot;
+    private final long lastSlot;
+    private final long[] counts;
+    private final long[] totals;
+
+    public LiveSnapshot(long slotSize, long startSlot, long firstSlot, long lastSlot, long[] counts, long[] totals) {
+        this.slotSize = slotSize;
+        this.startSlot = startSlot;
+        this.firstSlot = firstSlot;
+        this.lastSlot = lastSlot;
+        this.counts = counts;
+        this.totals = totals;
+    }
+
+    public long getSlotSize() {
+        return slotSize;
+    }
+
+    /**
+     * @return earliest slot fed, or Long.MAX_VALUE if no sample with a timestamp has been fed.
+     */
+    public long getStartSlot() {
+        return startSlot;
+    }
+
+    /**
+     * @return first slot of the window; slots before the start of the run have no counts.
+     */
+    public long getFirstSlot() {
+        return firstSlot;
+    }
+
+    /**
+     * @return latest slot fed, or -1 if no sample with a timestamp has been fed.
+     */
+    public long getLastSlot() {
+        return lastSlot;
+    }
+
+    public boolean isEmpty() {
+        return this.totals[LiveStatistics.FIELD_HITS] == 0;
+    }
+
+    public long getHits(long slot) {
+        return this.getCount(slot, LiveStatistics.FIELD_HITS);
+    }
+
+    public long getFailures(long slot) {
+        return this.getCount(slot, LiveStatistics.FIELD_FAILURES);
+    }
+
+    public long getElapsedTotal(long slot) {
+        return this.getCount(slot, LiveStatistics.FIELD_ELAPSED);
+    }
+
+    public long getTotalHits() {
+        return this.totals[LiveStatistics.FIELD_HITS];
+    }
+
+    public long getTotalFailures() {
+        return this.totals[LiveStatistics.FIELD_FAILURES];
+    }
+
+    /**
+     * @return failures as a fraction of the hits of the whole run, or 0 if there are no hits.
+     */
+    public double getTotalErrorRate() {
+        return ratio(this.totals[LiveStatistics.FIELD_FAILURES], this.totals[LiveStatistics.FIELD_HITS]);
+    }
+
+    /**
+     * @return average elapsed time of the whole run, in milliseconds, or 0 if there are no hits.
+     */
+    public double getTotalAverageElapsed() {
+        return ratio(this.totals[LiveStatistics.FIELD_ELAPSED], this.totals[LiveStatistics.FIELD_HITS]);
+    }
+
+    /**
+     * @param slotCount number of complete slots, before the latest slot, over which to average.
+     * @return average hits per second over the slots.
+     */
+    public double getHitsPerSecond(int slotCount) {
+        int slots = this.limitSlotCount(slotCount);
+        if (slots == 0) {
+            return 0;
+        }
+
+        double seconds = (slots * this.slotSize) / 1000.0;
+
+        return this.sumRecent(slots, LiveStatistics.FIELD_HITS) / seconds;
+    }
+
+    /**
+     * @param slotCount number of complete slots, before the latest slot, over which to calculate the rate.
+     * @return failures as a fraction of the hits in the slots, or 0 if there are no hits.
+     */
+    public double getErrorRate(int slotCount) {
+        int slots = this.limitSlotCount(slotCount);
+
+        return ratio(this.sumRecent(slots, LiveStatistics.FIELD_FAILURES),
+                this.sumRecent(slots, LiveStatistics.FIELD_HITS));
+    }
+
+    /**
+     * @param slotCount number of complete slots, before the latest slot, over which to average.
+     * @return average elapsed time of the hits in the slots, in milliseconds, or 0 if there are no hits.
+     */
+    public double getAverageElapsed(int slotCount) {
+        int slots = this.limitSlotCount(slotCount);
+
+        return ratio(this.sumRecent(slots, LiveStatistics.FIELD_ELAPSED),
+                this.sumRecent(slots, LiveStatistics.FIELD_HITS));
+    }
+
+    protected long getCount(long slot, int field) {
+        if ((slot < this.firstSlot) || (slot > this.lastSlot)) {
+            return 0;
+        }
+
+        return this.counts[(int) ((slot - this.firstSlot) * LiveStatistics.FIELD_COUNT) + field];
+    }
+
+    /**
+     * Limit the given number of slots to the complete slots in the window which follow the start of the run.
+     */
+    protected int limitSlotCount(int slotCount) {
+        long available = this.lastSlot - Math.max(this.firstSlot, this.startSlot);
+
+        return (int) Math.max(0, Math.min(slotCount, available));
+    }
+
+    /**
+     * Sum the given field over the given number of slots before the latest slot.
+     */
+    protected long sumRecent(int slots, int field) {
+        long result = 0;
+
+        long slot = this.lastSlot - slots;
+        while (slot < this.lastSlot) {
+            result += this.getCount(slot, field);
+            slot++;
+        }
+
+        return result;
+    }
+
+    protected static double ratio(long numerator, long denominator) {
+        if (denominator == 0) {
+            return 0;
+        }
+
+        return (double) numerator / (double) denominator;
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.live;
+
+import com.artnaseef.jmeter.report.BatchFeedable;
+import com.artnaseef.jmeter.report.FeedableReport;
+import com.artnaseef.jmeter.report.SampleBatch;
+import com.artnaseef.jmeter.report.SampleFieldConsumer;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.artnaseef.jmeter.report.jtl.model.SampleField;
+
+import java.util.EnumSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics of a run which may be read while samples are still being fed, for embedding the reports in another
+ * process such as a load test orchestrator.  Any number of threads may feed samples, and any number of threads may
+ * take snapshots at any time; taking a snapshot never blocks the feeding threads.
+ *
+ * Hits, failures, and total elapsed time are counted by time slot over a sliding window of the most recent slots,
+ * along with totals for the whole run.  The counts are striped: each feeding thread updates one of several stripes,
+ * chosen by thread, so feeding threads rarely contend.  Each stripe holds a ring of slots which are reused as the
+ * window moves, and a version which is odd while the stripe is being updated; readers copy a stripe and retry if the
+ * version changed, so each stripe is copied in a consistent state without locking it.  Samples older than the window
+ * count toward the totals only.
+ *
+ * A sample counts as a failure if it failed, or if its result code is one which ResultCodeDictionary counts as a
+ * failure.
+ *
+ * For example, with a SampleSource executing on another thread as source.execute(statistics):
+ * <pre>
+ *     LiveSnapshot snapshot = statistics.snapshot();
+ *     double hitsPerSecond = snapshot.getHitsPerSecond(10);
+ *     double errorRate = snapshot.getErrorRate(10);
+ * </pre>
+ *
+ * Created by art on 10/19/26.
+ */
+public class LiveStatistics implements FeedableReport, BatchFeedable, SampleFieldConsumer {
+    public static final long DEFAULT_SLOT_SIZE = 1000;
+    public static final int DEFAULT_WINDOW_SLOTS = 300;
+
+    static final int FIELD_HITS = 0;
+    static final int FIELD_FAILURES = 1;
+    static final int FIELD_ELAPSED = 2;
+    static final int FIELD_COUNT = 3;
+
+    private final long slotSize;
+    private final int windowSlots;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    private final AtomicLong earliestSlot = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong latestSlot = new AtomicLong(-1);
+
+    public LiveStatistics() {
+        this(DEFAULT_SLOT_SIZE, DEFAULT_WINDOW_SLOTS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param slotSize size of each time slot, in milliseconds.
+     * @param windowSlots number of the most recent slots kept.
+     * @param concurrency expected number of feeding threads; rounded up to a power of two to give the stripe count.
+     */
+    public LiveStatistics(long slotSize, int windowSlots, int concurrency) {
+        if (slotSize < 1) {
+            throw new IllegalArgumentException("slot size must be at least 1: " + slotSize);
+        }
+        if (windowSlots < 1) {
+            throw new IllegalArgumentException("window must be at least 1 slot: " + windowSlots);
+        }
+
+        this.slotSize = slotSize;
+        this.windowSlots = windowSlots;
+
+        int stripeCount = 1;
+        while (stripeCount < concurrency) {
+            stripeCount *= 2;
+        }
+
+        this.stripes = new Stripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+
+        int cur = 0;
+        while (cur < stripeCount) {
+            this.stripes[cur] = new Stripe(windowSlots);
+            cur++;
+        }
+    }
+
+    public long getSlotSize() {
+        return slotSize;
+    }
+
+    public int getWindowSlots() {
+        return windowSlots;
+    }
+
+    @Override
+    public void onFeedStart(String uri, Properties reportProperties) throws Exception {
+        // Statistics accumulate across feeds, so an orchestrator can feed several sources into one instance
+    }
+
+    @Override
+    public void onFeedComplete() throws Exception {
+    }
+
+    @Override
+    public Set<SampleField> getRequiredFields() {
+        return EnumSet.of(SampleField.ELAPSED, SampleField.RESULT_CODE, SampleField.ASSERTION_RESULTS);
+    }
+
+    @Override
+    public void onSample(Sample topLevelSample) {
+        ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
+        Stripe stripe = this.selectStripe();
+        long minSlot = Long.MAX_VALUE;
+        long maxSlot = -1;
+
+        synchronized (stripe) {
+            stripe.beginUpdate();
+            try {
+                for (Sample oneLeaf : topLevelSample.getLeaves()) {
+                    boolean failure = (oneLeaf.isFailure()) ||
+                            (resultCodeDictionary.isFailure(oneLeaf.getResultCodeId()));
+
+                    long slot = this.add(stripe, oneLeaf.getTimestamp(), oneLeaf.getElapsed(), failure);
+                    if (slot >= 0) {
+                        minSlot = Math.min(minSlot, slot);
+                        maxSlot = Math.max(maxSlot, slot);
+                    }
+                }
+            } finally {
+                stripe.endUpdate();
+            }
+        }
+
+        this.updateSlotRange(minSlot, maxSlot);
+    }
+
+    @Override
+    public void onSamples(SampleBatch batch) {
+        ResultCodeDictionary resultCodeDictionary = ResultCodeDictionary.get();
+        long[] timestamps = batch.getLeafTimestamps();
+        long[] elapsed = batch.getLeafElapsed();
+        int[] resultCodeIds = batch.getLeafResultCodeIds();
+        boolean[] failures = batch.getLeafFailures();
+        int leafCount = batch.getLeafCount();
+
+        Stripe stripe = this.selectStripe();
+        long minSlot = Long.MAX_VALUE;
+        long maxSlot = -1;
+
+        synchronized (stripe) {
+            stripe.beginUpdate();
+            try {
+                int cur = 0;
+                while (cur < leafCount) {
+                    boolean failure = (failures[cur]) || (resultCodeDictionary.isFailure(resultCodeIds[cur]));
+
+                    long slot = this.add(stripe, timestamps[cur], elapsed[cur], failure);
+                    if (slot >= 0) {
+                        minSlot = Math.min(minSlot, slot);
+                        maxSlot = Math.max(maxSlot, slot);
+                    }
+                    cur++;
+                }
+            } finally {
+                stripe.endUpdate();
+            }
+        }
+
+        this.updateSlotRange(minSlot, maxSlot);
+    }
+
+    /**
+     * Take a snapshot of the statistics.  Each stripe is copied in a consistent state; the stripes are copied one
+     * after another, so samples fed while the snapshot is taken may be partly included.
+     *
+     * @return the snapshot.
+     */
+    public LiveSnapshot snapshot() {
+        long lastSlot = this.latestSlot.get();
+        long firstSlot = lastSlot - this.windowSlots + 1;
+
+        long[] counts = new long[this.windowSlots * FIELD_COUNT];
+        long[] totals = new long[FIELD_COUNT];
+        long[] stripeCounts = new long[this.windowSlots * FIELD_COUNT];
+        long[] stripeTotals = new long[FIELD_COUNT];
+
+        for (Stripe oneStripe : this.stripes) {
+            oneStripe.read(firstSlot, lastSlot, stripeCounts, stripeTotals);
+
+            int cur = 0;
+            while (cur < counts.length) {
+                counts[cur] += stripeCounts[cur];
+                cur++;
+            }
+
+            cur = 0;
+            while (cur < FIELD_COUNT) {
+                totals[cur] += stripeTotals[cur];
+                cur++;
+            }
+        }
+
+        return new LiveSnapshot(this.slotSize, this.earliestSlot.get(), firstSlot, lastSlot, counts, totals);
+    }
+
+    /**
+     * Count one sample in the given stripe, which the caller is updating.
+     *
+     * @return slot of the sample, or -1 if it has no valid timestamp.
+     */
+    protected long add(Stripe stripe, long timestamp, long elapsed, boolean failure) {
+        // Samples with missing or malformed timestamps only count toward the totals
+        long slot = -1;
+        if (timestamp >= 0) {
+            slot = timestamp / this.slotSize;
+        }
+
+        // Missing or malformed elapsed times are left out of the total
+        long elapsedValue = Math.max(elapsed, 0);
+        long failureValue = failure ? 1 : 0;
+
+        stripe.addTotal(FIELD_HITS, 1);
+        stripe.addTotal(FIELD_FAILURES, failureValue);
+        stripe.addTotal(FIELD_ELAPSED, elapsedValue);
+
+        if (slot >= 0) {
+            int index = (int) (slot % this.windowSlots);
+            if (stripe.claimSlot(index, slot)) {
+                stripe.addCount(index, FIELD_HITS, 1);
+                stripe.addCount(index, FIELD_FAILURES, failureValue);
+                stripe.addCount(index, FIELD_ELAPSED, elapsedValue);
+            }
+        }
+
+        return slot;
+    }
+
+    protected void updateSlotRange(long minSlot, long maxSlot) {
+        long current = this.earliestSlot.get();
+        while ((minSlot < current) && (!this.earliestSlot.compareAndSet(current, minSlot))) {
+            current = this.earliestSlot.get();
+        }
+
+        current = this.latestSlot.get();
+        while ((maxSlot > current) && (!this.latestSlot.compareAndSet(current, maxSlot))) {
+            current = this.latestSlot.get();
+        }
+    }
+
+    protected Stripe selectStripe() {
+        long threadId = Thread.currentThread().getId();
+
+        return this.stripes[(int) (threadId ^ (threadId >>> 16)) & this.stripeMask];
+    }
+
+    /**
+     * Counts updated by a subset of the feeding threads.  Updates are made while synchronized on the stripe and
+     * between beginUpdate() and endUpdate(); reads are made without locking, by read().
+     */
+    protected static class Stripe {
+        private final int windowSlots;
+
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicLongArray slotNumbers;
+        private final AtomicLongArray counts;
+        private final AtomicLongArray totals = new AtomicLongArray(FIELD_COUNT);
+
+        public Stripe(int windowSlots) {
+            this.windowSlots = windowSlots;
+            this.slotNumbers = new AtomicLongArray(windowSlots);
+            this.counts = new AtomicLongArray(windowSlots * FIELD_COUNT);
+
+            int cur = 0;
+            while (cur < windowSlots) {
+                this.slotNumbers.set(cur, -1);
+                cur++;
+            }
+        }
+
+        public void beginUpdate() {
+            this.version.incrementAndGet();
+        }
+
+        public void endUpdate() {
+            this.version.incrementAndGet();
+        }
+
+        /**
+         * Make the ring entry at the given index hold the given slot, clearing it if it holds an older one.
+         *
+         * @return true => the entry holds the slot; false => it holds a newer slot, so the slot has left the window.
+         */
+        public boolean claimSlot(int index, long slot) {
+            long heldSlot = this.slotNumbers.get(index);
+            if (heldSlot == slot) {
+                return true;
+            }
+
+            if (heldSlot > slot) {
+                return false;
+            }
+
+            int base = index * FIELD_COUNT;
+            int cur = 0;
+            while (cur < FIELD_COUNT) {
+                this.counts.set(base + cur, 0);
+                cur++;
+            }
+
+            this.slotNumbers.set(index, slot);
+
+            return true;
+        }
+
+        public void addCount(int index, int field, long delta) {
+            // Only one thread updates the stripe at a time, so a plain read and write is enough
+            int position = (index * FIELD_COUNT) + field;
+            this.counts.set(position, this.counts.get(position) + delta);
+        }
+
+        public void addTotal(int field, long delta) {
+            this.totals.set(field, this.totals.get(field) + delta);
+        }
+
+        /**
+         * Copy the counts of the given range of slots and the totals, retrying until the stripe is copied without
+         * an update in progress.
+         *
+         * @param firstSlot first slot to copy.
+         * @param lastSlot last slot to copy.
+         * @param resultCounts receives the counts, FIELD_COUNT values per slot from the first slot.
+         * @param resultTotals receives the totals.
+         */
+        public void read(long firstSlot, long lastSlot, long[] resultCounts, long[] resultTotals) {
+            while (true) {
+                long startVersion = this.version.get();
+
+                if ((startVersion & 1) == 0) {
+                    this.copy(firstSlot, lastSlot, resultCounts, resultTotals);
+
+                    if (this.version.get() == startVersion) {
+                        return;
+                    }
+                }
+
+                Thread.yield();
+            }
+        }
+
+        protected void copy(long firstSlot, long lastSlot, long[] resultCounts, long[] resultTotals) {
+            int offset = 0;
+            while (offset < this.windowSlots) {
+                long slot = firstSlot + offset;
+                int resultBase = offset * FIELD_COUNT;
+
+                int index = -1;
+                if ((slot >= 0) && (slot <= lastSlot)) {
+                    index = (int) (slot % this.windowSlots);
+                }
+
+                int field = 0;
+                while (field < FIELD_COUNT) {
+                    long value = 0;
+                    if ((index != -1) && (this.slotNumbers.get(index) == slot)) {
+                        value = this.counts.get((index * FIELD_COUNT) + field);
+                    }
+
+                    resultCounts[resultBase + field] = value;
+                    field++;
+                }
+
+                offset++;
+            }
+
+            int field = 0;
+            while (field < FIELD_COUNT) {
+                resultTotals[field] = this.totals.get(field);
+                field++;
+            }
+        }
+    }
+}
@@ -14,11 +14,19 @@
 
 package com.artnaseef.jmeter.report.registry;
 
+import com.artnaseef.jmeter.report.ActiveThreadsReport;
+import com.artnaseef.jmeter.report.ApdexReport;
+import com.artnaseef.jmeter.report.BytesPerSecondReport;
+import com.artnaseef.jmeter.report.CompareReport;
+import com.artnaseef.jmeter.report.FailureMessagesReport;
 import com.artnaseef.jmeter.report.HitsPerSecondReport;
+import com.artnaseef.jmeter.report.LatencyHeatmapReport;
 import com.artnaseef.jmeter.report.MultipleReportGenerator;
 import com.artnaseef.jmeter.report.ResultCodesPerSecondReport;
 import com.artnaseef.jmeter.report.ResultCodesStackedReport;
 import com.artnaseef.jmeter.report.SamplesByLabelStatusReport;
+import com.artnaseef.jmeter.report.jtl.block.JTLBlockTranscoder;
+import com.artnaseef.jmeter.report.server.ReportServer;
 
 /**
  * Created by art on 4/8/15.
@@ -48,6 +56,37 @@ public abstract class GlobalReportTypeRegistry {
         registry.registerAlias("rcs", "ResultCodesStacked");
         registry.registerAlias("result-codes-stacked", "ResultCodesStacked");
 
+        registry.registerReportType("BytesPerSecond", new BytesPerSecondReport());
+        registry.registerAlias("bps", "BytesPerSecond");
+        registry.registerAlias("bytes-per-second", "BytesPerSecond");
+
+        registry.registerReportType("ActiveThreads", new ActiveThreadsReport());
+        registry.registerAlias("at", "ActiveThreads");
+        registry.registerAlias("active-threads", "ActiveThreads");
+
+        registry.registerReportType("Apdex", new ApdexReport());
+        registry.registerAlias("apdex", "Apdex");
+        registry.registerAlias("sla", "Apdex");
+
+        registry.registerReportType("LatencyHeatmap", new LatencyHeatmapReport());
+        registry.registerAlias("lh", "LatencyHeatmap");
+        registry.registerAlias("latency-heatmap", "LatencyHeatmap");
+
+        registry.registerReportType("FailureMessages", new FailureMessagesReport());
+        registry.registerAlias("fm", "FailureMessages");
+        registry.registerAlias("failure-messages", "FailureMessages");
+
+        // Register reports which handle their own sources
+        registry.registerLaunchableType("Compare", new CompareReport());
+        registry.registerAlias("compare", "Compare");
+        registry.registerAlias("cmp", "Compare");
+
+        registry.registerLaunchableType("Transcode", new JTLBlockTranscoder());
+        registry.registerAlias("transcode", "Transcode");
+
+        registry.registerLaunchableType("Server", new ReportServer());
+        registry.registerAlias("server", "Server");
+
         // Register the multiple-report generator
         registry.registerReportType("MultipleReportGenerator", new MultipleReportGenerator());
         registry.registerAlias("multi", "MultipleReportGenerator");
@@ -27,10 +27,12 @@ import java.util.Set;
  */
 public class ReportTypeRegistry {
     private Map<String, FeedableReport> registeredReportTypes;
+    private Map<String, LaunchableReport> registeredLaunchableTypes;
     private Map<String, String> aliases;
 
     public ReportTypeRegistry() {
         this.registeredReportTypes = new HashMap<>();
+        this.registeredLaunchableTypes = new HashMap<>();
         this.aliases = new HashMap<>();
     }
 
@@ -38,6 +40,17 @@ public class ReportTypeRegistry {
         this.registeredReportTypes.put(typeName, report);
     }
 
+    /**
+     * Register a report which handles its own command line and sources, rather than being fed samples from a single
+     * source by the launcher.
+     *
+     * @param typeName name of the report type.
+     * @param report the report.
+     */
+    public void registerLaunchableType(String typeName, LaunchableReport report) {
+        this.registeredLaunchableTypes.put(typeName, report);
+    }
+
     public void registerAlias(String aliasName, String typeName) {
         this.aliases.put(aliasName, typeName);
     }
@@ -53,6 +66,42 @@ public class ReportTypeRegistry {
         return result;
     }
 
+    /**
+     * Create a new instance of the given report type, so that the run has report state of its own.  Report types are
+     * registered as instances, which hold the state of a run once fed, so each run creates its report here rather
+     * than feeding the registered instance.
+     *
+     * @param typeName name or alias of the report type.
+     * @return the new report, or null if the report type is not known.
+     */
+    public FeedableReport createReport(String typeName) {
+        FeedableReport registered = this.getReportType(typeName);
+        if (registered == null) {
+            return null;
+        }
+
+        try {
+            return registered.getClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException exc) {
+            throw new IllegalStateException("failed to create report of type \"" + typeName + "\"", exc);
+        }
+    }
+
+    public LaunchableReport getLaunchableType(String typeName) {
+        LaunchableReport result = this.registeredLaunchableTypes.get(typeName);
+
+        if (result == null) {
+            String unaliased = this.aliases.get(typeName);
+            result = this.registeredLaunchableTypes.get(unaliased);
+        }
+
+        return result;
+    }
+
+    public Set<String> getLaunchableTypes() {
+        return Collections.unmodifiableSet(this.registeredLaunchableTypes.keySet());
+    }
+
     public Set<String> getReportTypes() {
         return Collections.unmodifiableSet(this.registeredReportTypes.keySet());
     }
@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.server;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One report job of the report server: the arguments of a report command line, run by a launcher and report
+ * instances of its own, and the state and timing of the run.
+ *
+ * Created by art on 10/19/26.
+ */
+public class ReportJob implements Runnable {
+    public enum State {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final long id;
+    private final String[] args;
+    private final long submitTime;
+
+    private final CountDownLatch completion = new CountDownLatch(1);
+
+    private volatile State state = State.QUEUED;
+    private volatile long startTime;
+    private volatile long endTime;
+    private volatile String error;
+
+    public ReportJob(long id, String[] args) {
+        this.id = id;
+        this.args = args;
+        this.submitTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public void run() {
+        this.startTime = System.currentTimeMillis();
+        this.state = State.RUNNING;
+
+        try {
+            new ReportLauncher().runJob(this.args);
+            this.state = State.SUCCEEDED;
+        } catch (Exception exc) {
+            this.error = String.valueOf(exc);
+            this.state = State.FAILED;
+        } finally {
+            if (this.state == State.RUNNING) {
+                this.error = "job ended abnormally";
+                this.state = State.FAILED;
+            }
+
+            this.endTime = System.currentTimeMillis();
+            this.completion.countDown();
+        }
+    }
+
+    /**
+     * Wait for the job to finish.
+     *
+     * @param timeout maximum time to wait, in milliseconds.
+     * @return true => the job finished; false => the time ran out first.
+     */
+    public boolean awaitCompletion(long timeout) throws InterruptedException {
+        return this.completion.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isFinished() {
+        return (this.state == State.SUCCEEDED) || (this.state == State.FAILED);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String[] getArgs() {
+        return args;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    /**
+     * @return time from submission to the start of the run, or to now if the job has not started.
+     */
+    public long getQueueTime() {
+        long start = this.startTime;
+        if (start == 0) {
+            return System.currentTimeMillis() - this.submitTime;
+        }
+
+        return start - this.submitTime;
+    }
+
+    /**
+     * @return time spent running, so far if the job is still running, or 0 if it has not started.
+     */
+    public long getRunTime() {
+        long start = this.startTime;
+        if (start == 0) {
+            return 0;
+        }
+
+        long end = this.endTime;
+        if (end == 0) {
+            return System.currentTimeMillis() - start;
+        }
+
+        return end - start;
+    }
+
+    /**
+     * @return status of the job, as lines of name=value.
+     */
+    public String describe() {
+        StringBuilder result = new StringBuilder();
+        result.append("id=").append(this.id).append('\n');
+        result.append("state=").append(this.state).append('\n');
+        result.append("args=").append(Arrays.toString(this.args)).append('\n');
+        result.append("queueTimeMs=").append(this.getQueueTime()).append('\n');
+        result.append("runTimeMs=").append(this.getRunTime()).append('\n');
+
+        String errorMessage = this.error;
+        if (errorMessage != null) {
+            result.append("error=").append(errorMessage.replace('\n', ' ')).append('\n');
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,568 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.server;
+
+import com.artnaseef.jmeter.report.LaunchableReport;
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.cli.UsageException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-running report server, which keeps a warm JVM and runs report jobs submitted over a local HTTP API, so that a
+ * series of reports pays for JVM startup, class loading, and JIT compilation once rather than once per report.  The
+ * server listens on the loopback interface only.
+ *
+ * The loopback interface alone does not keep out web pages, which the browser lets post to it.  Each start of the
+ * server therefore creates a random token, printed at startup, which every request must carry in the X-Report-Token
+ * header; requests with an Origin header, which come from web pages, are refused outright.
+ *
+ * A job is the arguments of a report command line, one per line, POSTed to /jobs; relative file names are relative
+ * to the working directory of the server.  Jobs run on a fixed pool of workers, each with report instances of its
+ * own, and wait in a bounded queue; once the queue is full, submissions are refused with 503 until it drains.  Jobs
+ * cannot listen for metrics with --listen, since they must finish for the server to stop.
+ *
+ * <pre>
+ *     POST /jobs              submit a job; 202 with its status, or with ?wait=true, 200 or 500 once it finishes
+ *     GET  /jobs              list the recent jobs
+ *     GET  /jobs/&lt;id&gt;         status of a job
+ *     GET  /metrics           queue depth, job counts, and job latency
+ *     POST /shutdown          finish the queued jobs and stop
+ * </pre>
+ *
+ * For example:
+ * <pre>
+ *     printf 'HitsPerSecond\n-o\n/tmp/hits.png\n/tmp/run.jtl\n' |
+ *         curl -H "X-Report-Token: $TOKEN" --data-binary @- localhost:8765/jobs?wait=true
+ * </pre>
+ *
+ * Created by art on 10/19/26.
+ */
+public class ReportServer implements LaunchableReport {
+    public static final int DEFAULT_PORT = 8765;
+    public static final int DEFAULT_QUEUE_CAPACITY = 32;
+    public static final String TOKEN_HEADER = "X-Report-Token";
+
+    private static final int TOKEN_LENGTH = 16;
+
+    private static final int MAX_RETAINED_JOBS = 1000;
+
+    private OptionParser optionParser;
+
+    private int port = DEFAULT_PORT;
+    private int workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private String token;
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private ThreadPoolExecutor workers;
+    private final CountDownLatch shutdownLatch = new CountDownLatch(1);
+
+    private final AtomicLong nextJobId = new AtomicLong(1);
+    private final Map<Long, ReportJob> jobs = new LinkedHashMap<Long, ReportJob>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, ReportJob> eldest) {
+            return this.size() > MAX_RETAINED_JOBS;
+        }
+    };
+
+    private final AtomicLong submittedJobs = new AtomicLong();
+    private final AtomicLong rejectedJobs = new AtomicLong();
+    private final Object latencyLock = new Object();
+    private long succeededJobs;
+    private long failedJobs;
+    private long totalQueueTime;
+    private long totalRunTime;
+    private long lastLatency;
+    private long maxLatency;
+
+    public static void main(String[] args) {
+        int status = ReportLauncher.launch(new ReportServer(), args);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    @Override
+    public int launchReport(String[] args) throws Exception {
+        List<?> nonOptionArgs = this.parseCommandLine(args);
+
+        if (!nonOptionArgs.isEmpty()) {
+            this.printUsage(System.err);
+            throw new UsageException(UsageException.STATUS_USAGE_ERROR, null);
+        }
+
+        this.start();
+
+        System.out.println("report server listening on http://" + this.httpServer.getAddress().getHostString() + ":" +
+                this.httpServer.getAddress().getPort() + "/ with " + this.workerCount + " workers");
+        System.out.println("send this token with each request, as the " + TOKEN_HEADER + " header: " + this.token);
+
+        this.shutdownLatch.await();
+        this.stop();
+
+        return 0;
+    }
+
+    public void start() throws IOException {
+        // Charts are rendered off-screen; never try to reach a display
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        this.token = createToken();
+
+        this.workers = new ThreadPoolExecutor(this.workerCount, this.workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(this.queueCapacity));
+
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port), 0);
+        this.httpServer.createContext("/jobs", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleJobs(exchange);
+            }
+        });
+        this.httpServer.createContext("/metrics", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleMetrics(exchange);
+            }
+        });
+        this.httpServer.createContext("/shutdown", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                handleShutdown(exchange);
+            }
+        });
+
+        // Requests waiting on jobs hold their thread, so the request threads are not pooled with a fixed limit
+        this.httpExecutor = Executors.newCachedThreadPool();
+        this.httpServer.setExecutor(this.httpExecutor);
+        this.httpServer.start();
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * @return port on which the server listens, once started.
+     */
+    public int getPort() {
+        return this.httpServer.getAddress().getPort();
+    }
+
+    /**
+     * @return token which requests must carry, once started.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Stop accepting requests, then wait for the queued and running jobs to finish.
+     */
+    public void stop() throws InterruptedException {
+        this.httpServer.stop(1);
+        this.httpExecutor.shutdown();
+
+        this.workers.shutdown();
+        while (!this.workers.awaitTermination(1, TimeUnit.MINUTES)) {
+            System.err.println("warning: waiting for " + this.workers.getActiveCount() + " report jobs to finish");
+        }
+    }
+
+    /**
+     * Queue a job to run.
+     *
+     * @param args arguments of the report command line.
+     * @return the job.
+     * @throws RejectedExecutionException if the queue is full or the server is stopping.
+     */
+    public ReportJob submit(String[] args) {
+        final ReportJob job = new ReportJob(this.nextJobId.getAndIncrement(), args);
+
+        synchronized (this.jobs) {
+            this.jobs.put(job.getId(), job);
+        }
+
+        try {
+            this.workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        job.run();
+                    } finally {
+                        recordCompletion(job);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException rejectedExc) {
+            synchronized (this.jobs) {
+                this.jobs.remove(job.getId());
+            }
+
+            this.rejectedJobs.incrementAndGet();
+            throw rejectedExc;
+        }
+
+        this.submittedJobs.incrementAndGet();
+
+        return job;
+    }
+
+    public ReportJob getJob(long id) {
+        synchronized (this.jobs) {
+            return this.jobs.get(id);
+        }
+    }
+
+    /**
+     * @return metrics of the server, as lines of name=value.
+     */
+    public String describeMetrics() {
+        StringBuilder result = new StringBuilder();
+        result.append("workers=").append(this.workerCount).append('\n');
+        result.append("activeJobs=").append(this.workers.getActiveCount()).append('\n');
+        result.append("queueDepth=").append(this.workers.getQueue().size()).append('\n');
+        result.append("queueCapacity=").append(this.queueCapacity).append('\n');
+        result.append("submittedJobs=").append(this.submittedJobs.get()).append('\n');
+        result.append("rejectedJobs=").append(this.rejectedJobs.get()).append('\n');
+
+        synchronized (this.latencyLock) {
+            long finishedJobs = this.succeededJobs + this.failedJobs;
+
+            result.append("succeededJobs=").append(this.succeededJobs).append('\n');
+            result.append("failedJobs=").append(this.failedJobs).append('\n');
+            result.append("averageQueueTimeMs=").append(average(this.totalQueueTime, finishedJobs)).append('\n');
+            result.append("averageRunTimeMs=").append(average(this.totalRunTime, finishedJobs)).append('\n');
+            result.append("averageLatencyMs=")
+                    .append(average(this.totalQueueTime + this.totalRunTime, finishedJobs)).append('\n');
+            result.append("lastLatencyMs=").append(this.lastLatency).append('\n');
+            result.append("maxLatencyMs=").append(this.maxLatency).append('\n');
+        }
+
+        return result.toString();
+    }
+
+    protected void recordCompletion(ReportJob job) {
+        long queueTime = job.getQueueTime();
+        long runTime = job.getRunTime();
+
+        synchronized (this.latencyLock) {
+            if (job.getState() == ReportJob.State.SUCCEEDED) {
+                this.succeededJobs++;
+            } else {
+                this.failedJobs++;
+            }
+
+            this.totalQueueTime += queueTime;
+            this.totalRunTime += runTime;
+            this.lastLatency = queueTime + runTime;
+            this.maxLatency = Math.max(this.maxLatency, this.lastLatency);
+        }
+    }
+
+    protected void handleJobs(HttpExchange exchange) throws IOException {
+        try {
+            if (!this.authorize(exchange)) {
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if ((path.equals("/jobs")) || (path.equals("/jobs/"))) {
+                if (method.equals("POST")) {
+                    this.handleSubmit(exchange);
+                } else if (method.equals("GET")) {
+                    this.sendText(exchange, 200, this.describeJobs());
+                } else {
+                    this.sendText(exchange, 405, "method not allowed\n");
+                }
+
+                return;
+            }
+
+            if (!method.equals("GET")) {
+                this.sendText(exchange, 405, "method not allowed\n");
+                return;
+            }
+
+            ReportJob job = null;
+            try {
+                job = this.getJob(Long.parseLong(path.substring("/jobs/".length())));
+            } catch (NumberFormatException nfExc) {
+                // Not a job id; reported as not found below
+            }
+
+            if (job == null) {
+                this.sendText(exchange, 404, "no such job\n");
+            } else {
+                this.sendText(exchange, 200, job.describe());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    protected void handleSubmit(HttpExchange exchange) throws IOException {
+        String[] args = this.readArgs(exchange);
+        if (args.length == 0) {
+            this.sendText(exchange, 400, "no job arguments given; send one argument per line\n");
+            return;
+        }
+
+        ReportJob job;
+        try {
+            job = this.submit(args);
+        } catch (RejectedExecutionException rejectedExc) {
+            this.sendText(exchange, 503, "job queue is full\n");
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+
+        String query = exchange.getRequestURI().getQuery();
+        if ((query == null) || (!query.contains("wait=true"))) {
+            this.sendText(exchange, 202, job.describe());
+            return;
+        }
+
+        try {
+            while (!job.awaitCompletion(TimeUnit.MINUTES.toMillis(1))) {
+                // Keep waiting; the client decides how long it will wait
+            }
+        } catch (InterruptedException intExc) {
+            Thread.currentThread().interrupt();
+        }
+
+        int status = 500;
+        if (job.getState() == ReportJob.State.SUCCEEDED) {
+            status = 200;
+        }
+
+        this.sendText(exchange, status, job.describe());
+    }
+
+    protected void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!this.authorize(exchange)) {
+                return;
+            }
+
+            this.sendText(exchange, 200, this.describeMetrics());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    protected void handleShutdown(HttpExchange exchange) throws IOException {
+        try {
+            if (!this.authorize(exchange)) {
+                return;
+            }
+
+            if (!exchange.getRequestMethod().equals("POST")) {
+                this.sendText(exchange, 405, "method not allowed\n");
+                return;
+            }
+
+            this.sendText(exchange, 200, "shutting down after " +
+                    (this.workers.getActiveCount() + this.workers.getQueue().size()) + " remaining jobs\n");
+        } finally {
+            exchange.close();
+        }
+
+        this.shutdownLatch.countDown();
+    }
+
+    /**
+     * Refuse requests from web pages and requests without the token of the server.
+     *
+     * @return true => the request may proceed; false => it was refused, and the refusal sent.
+     */
+    protected boolean authorize(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestHeaders().containsKey("Origin")) {
+            this.sendText(exchange, 403, "requests from web pages are not accepted\n");
+            return false;
+        }
+
+        String requestToken = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        if ((requestToken == null) || (!MessageDigest.isEqual(requestToken.getBytes(StandardCharsets.UTF_8),
+                this.token.getBytes(StandardCharsets.UTF_8)))) {
+
+            this.sendText(exchange, 401, "missing or wrong " + TOKEN_HEADER + " header\n");
+            return false;
+        }
+
+        return true;
+    }
+
+    protected String describeJobs() {
+        StringBuilder result = new StringBuilder();
+
+        synchronized (this.jobs) {
+            for (ReportJob oneJob : this.jobs.values()) {
+                result.append(oneJob.getId()).append(' ').append(oneJob.getState()).append('\n');
+            }
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Read the arguments of a job from the request body, one per line; blank lines are ignored.
+     */
+    protected String[] readArgs(HttpExchange exchange) throws IOException {
+        List<String> result = new ArrayList<>();
+
+        BufferedReader reader =
+                new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        while (line != null) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                result.add(line);
+            }
+
+            line = reader.readLine();
+        }
+
+        return result.toArray(new String[result.size()]);
+    }
+
+    protected void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    protected List<?> parseCommandLine(String[] args) throws Exception {
+        this.optionParser = new OptionParser();
+
+        this.optionParser.accepts("h", "display this usage");
+
+        this.optionParser.accepts("port", "port on which to listen, on the loopback interface (default " +
+                DEFAULT_PORT + ")")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("workers", "number of report jobs to run at once (default " + this.workerCount + ")")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("queue", "number of report jobs which may wait to run (default " +
+                DEFAULT_QUEUE_CAPACITY + ")")
+                .withRequiredArg().ofType(Integer.class);
+
+        try {
+            OptionSet options = optionParser.parse(args);
+
+            if (options.has("h")) {
+                this.printUsage(System.out);
+                throw new UsageException(0, null);
+            }
+
+            if (options.has("port")) {
+                this.port = (Integer) options.valueOf("port");
+            }
+
+            if (options.has("workers")) {
+                this.workerCount = (Integer) options.valueOf("workers");
+            }
+
+            if (options.has("queue")) {
+                this.queueCapacity = (Integer) options.valueOf("queue");
+            }
+
+            if ((this.workerCount < 1) || (this.queueCapacity < 1)) {
+                throw new IllegalArgumentException("--workers and --queue must be at least 1");
+            }
+
+            return options.nonOptionArguments();
+        } catch (UsageException usageExc) {
+            throw usageExc;
+        } catch (Exception exc) {
+            this.printUsage(System.err);
+            System.err.println();
+
+            throw new UsageException(UsageException.STATUS_USAGE_ERROR, exc.getMessage());
+        }
+    }
+
+    protected void printUsage(PrintStream out) {
+        out.println("Usage: Server [options]");
+
+        try {
+            optionParser.printHelpOn(out);
+        } catch (IOException e) {
+            // Ignore this one - if help can't be printed, what's left to do?
+        }
+    }
+
+    /**
+     * @return a random token, as hexadecimal digits.
+     */
+    protected static String createToken() {
+        byte[] bytes = new byte[TOKEN_LENGTH];
+        new SecureRandom().nextBytes(bytes);
+
+        StringBuilder result = new StringBuilder();
+        for (byte oneByte : bytes) {
+            result.append(String.format("%02x", oneByte & 0xff));
+        }
+
+        return result.toString();
+    }
+
+    protected static long average(long total, long count) {
+        if (count == 0) {
+            return 0;
+        }
+
+        return total / count;
+    }
+}
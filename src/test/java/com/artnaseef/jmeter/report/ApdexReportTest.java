@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class ApdexReportTest {
+    private static final long SLOT_SIZE = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testConsecutiveBreachesMerge() throws Exception {
+        File output = this.folder.newFile("apdex.txt");
+        ApdexReport report = this.startReport(output);
+
+        // Slots 0-4 and 8-9 breach; 5-7 do not
+        long slot = 0;
+        while (slot < 10) {
+            boolean slow = (slot < 5) || (slot >= 8);
+            report.onSample(this.createSample("home", slot * SLOT_SIZE, slow ? 5000 : 10));
+            slot++;
+        }
+
+        report.onFeedComplete();
+
+        List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        List<String> timeline = lines.subList(lines.indexOf("SLA BREACHES (slot size 1000 ms)") + 2, lines.size());
+
+        assertEquals(2, timeline.size());
+        assertTrue(timeline.get(0), timeline.get(0).matches(".* home +5 +5 +5 .*"));
+        assertTrue(timeline.get(1), timeline.get(1).matches(".* home +2 +2 +2 .*"));
+    }
+
+    @Test
+    public void testBreachesCapped() throws Exception {
+        File output = this.folder.newFile("apdex.txt");
+        ApdexReport report = this.startReport(output);
+
+        // Every other slot breaches, so none merge
+        long slot = 0;
+        while (slot < 2L * (ApdexReport.MAX_BREACHES + 5)) {
+            report.onSample(this.createSample("home", slot * SLOT_SIZE, (slot % 2 == 0) ? 5000 : 10));
+            slot++;
+        }
+
+        report.onFeedComplete();
+
+        String content = new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.contains("5 more breaches were left out of the timeline"));
+    }
+
+    @Test
+    public void testSummaryMatchesTimeline() throws Exception {
+        File output = this.folder.newFile("apdex.txt");
+        ApdexReport report = this.startReport(output);
+
+        // Failures are over the SLA however fast they were, which a latency histogram alone cannot tell
+        long cur = 0;
+        while (cur < 100) {
+            Sample sample = this.createSample("home", 0, 10);
+            sample.setFailure(cur < 10);
+            report.onSample(sample);
+            cur++;
+        }
+
+        report.onFeedComplete();
+
+        List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.get(1), lines.get(1).matches("home .* 10\\* +1"));
+    }
+
+    @Test
+    public void testCheckpointKeepsMerging() throws Exception {
+        File output = this.folder.newFile("apdex.txt");
+        ApdexReport report = this.startReport(output);
+
+        long slot = 0;
+        while (slot < 10) {
+            report.onSample(this.createSample("home", slot * SLOT_SIZE, 5000));
+            slot++;
+        }
+
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        report.writeCheckpoint(new DataOutputStream(checkpoint));
+
+        ApdexReport resumed = this.startReport(output);
+        resumed.readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint.toByteArray())));
+
+        while (slot < 20) {
+            resumed.onSample(this.createSample("home", slot * SLOT_SIZE, 5000));
+            slot++;
+        }
+
+        resumed.onFeedComplete();
+
+        List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        List<String> timeline = lines.subList(lines.indexOf("SLA BREACHES (slot size 1000 ms)") + 2, lines.size());
+
+        assertEquals(1, timeline.size());
+        assertTrue(timeline.get(0), timeline.get(0).matches(".* home +20 +20 +20 .*"));
+    }
+
+    protected ApdexReport startReport(File output) throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME, output.getPath());
+        properties.put(ReportLauncher.PROPERTY_TIME_SLOT_SIZE, SLOT_SIZE);
+        properties.setProperty(ApdexReport.PROPERTY_APDEX_THRESHOLD, "100");
+
+        // A short window, so slots finish, and are checked for breaches, during the feed
+        properties.setProperty(ApdexReport.PROPERTY_WINDOW_SLOTS, "4");
+
+        ApdexReport result = new ApdexReport();
+        result.onFeedStart("test", properties);
+
+        return result;
+    }
+
+    protected Sample createSample(String label, long timestamp, long elapsed) {
+        Sample result = new Sample();
+        result.setLabel(label);
+        result.setTimestamp(timestamp);
+        result.setElapsed(elapsed);
+        result.setResultCodeId(ResultCodeDictionary.get().intern("200"));
+
+        return result;
+    }
+}
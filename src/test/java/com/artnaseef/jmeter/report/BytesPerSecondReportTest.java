@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.aggregate.AggregationEngine;
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class BytesPerSecondReportTest {
+    private static final long START = 1444000000000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTotalsAndLabels() throws Exception {
+        File detail = this.folder.newFile("bytes.txt");
+        BytesPerSecondReport report = this.startReport(this.createProperties(detail));
+
+        report.onSample(this.createSample("home", START, 1000, 100));
+        report.onSample(this.createSample("login", START + 500, 3000, -1));
+        report.onSample(this.createSample("home", START + 1000, 2000, 200));
+        report.onFeedComplete();
+
+        List<String> lines = Files.readAllLines(detail.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.contains("test|*|received|1444000000|4000|0|0.004000"));
+        assertTrue(lines.contains("test|*|sent|1444000000|100|0|0.000100"));
+        assertTrue(lines.contains("test|home|received|1444000001|2000|1|0.002000"));
+        assertTrue(lines.contains("test|login|received|1444000000|3000|0|0.003000"));
+        assertEquals(9, lines.size());
+    }
+
+    @Test
+    public void testDetailLinesInLabelOrder() throws Exception {
+        File detail = this.folder.newFile("bytes.txt");
+        BytesPerSecondReport report = this.startReport(this.createProperties(detail));
+
+        // The labels first appear out of order
+        report.onSample(this.createSample("login", START, 3000, 300));
+        report.onSample(this.createSample("home", START + 1000, 1000, 100));
+        report.onFeedComplete();
+
+        List<String> lines = Files.readAllLines(detail.toPath(), StandardCharsets.UTF_8);
+        List<String> blocks = new ArrayList<>();
+        for (String oneLine : lines) {
+            String[] fields = oneLine.split("\\|");
+            String block = fields[1] + " " + fields[2];
+            if ((blocks.isEmpty()) || (!blocks.get(blocks.size() - 1).equals(block))) {
+                blocks.add(block);
+            }
+        }
+
+        assertEquals(Arrays.asList("* received", "* sent", "home received", "home sent", "login received",
+                "login sent"), blocks);
+    }
+
+    @Test
+    public void testCheckpointResumes() throws Exception {
+        File detail = this.folder.newFile("bytes.txt");
+        Properties properties = this.createProperties(detail);
+
+        BytesPerSecondReport report = this.startReport(properties);
+        report.onSample(this.createSample("home", START, 1000, 100));
+
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        report.writeCheckpoint(new DataOutputStream(checkpoint));
+
+        BytesPerSecondReport resumed = this.startReport(properties);
+        resumed.readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint.toByteArray())));
+        resumed.onSample(this.createSample("home", START + 200, 500, 50));
+        resumed.onFeedComplete();
+
+        List<String> lines = Files.readAllLines(detail.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.contains("test|*|received|1444000000|1500|0|0.001500"));
+        assertTrue(lines.contains("test|home|sent|1444000000|150|0|0.000150"));
+    }
+
+    @Test
+    public void testSharedEngine() throws Exception {
+        File detail = this.folder.newFile("bytes.txt");
+
+        AggregationEngine engine = new AggregationEngine(new Properties());
+        Properties shared = engine.share(this.createProperties(detail));
+
+        BytesPerSecondReport report = this.startReport(shared);
+
+        // The owner of a shared engine feeds it; the report must not count the samples again
+        Sample sample = this.createSample("home", START, 1000, 100);
+        engine.onSample(sample);
+        report.onSample(sample);
+
+        report.onFeedComplete();
+        engine.close();
+
+        List<String> lines = Files.readAllLines(detail.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.contains("test|*|received|1444000000|1000|0|0.001000"));
+    }
+
+    protected Properties createProperties(File detail) {
+        Properties result = new Properties();
+        result.setProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME,
+                new File(this.folder.getRoot(), "bytes.png").getPath());
+        result.setProperty(ReportLauncher.PROPERTY_DETAIL_FILE_NAME, detail.getPath());
+
+        return result;
+    }
+
+    protected BytesPerSecondReport startReport(Properties properties) throws Exception {
+        BytesPerSecondReport result = new BytesPerSecondReport();
+        result.onFeedStart("test", properties);
+
+        return result;
+    }
+
+    protected Sample createSample(String label, long timestamp, long receivedBytes, long sentBytes) {
+        Sample result = new Sample();
+        result.setLabel(label);
+        result.setTimestamp(timestamp);
+        result.setReceivedBytes(receivedBytes);
+        result.setSentBytes(sentBytes);
+
+        return result;
+    }
+}
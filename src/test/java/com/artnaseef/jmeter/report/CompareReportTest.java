@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.cli.UsageException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.PrintWriter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class CompareReportTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNoRegression() throws Exception {
+        File baseline = this.writeJtl("baseline.jtl", 100, 10);
+        File candidate = this.writeJtl("candidate.jtl", 100, 10);
+
+        assertEquals(0, this.compare(baseline, candidate));
+    }
+
+    @Test
+    public void testRegression() throws Exception {
+        File baseline = this.writeJtl("baseline.jtl", 100, 10);
+        File candidate = this.writeJtl("candidate.jtl", 100, 1000);
+
+        assertEquals(CompareReport.EXIT_REGRESSION, this.compare(baseline, candidate));
+    }
+
+    @Test(expected = UsageException.class)
+    public void testMissingCandidate() throws Exception {
+        File baseline = this.writeJtl("baseline.jtl", 100, 10);
+
+        new CompareReport().launchReport(new String[] { baseline.getPath() });
+    }
+
+    @Test
+    public void testLauncherReportsFailures() throws Exception {
+        File missing = new File(this.folder.getRoot(), "missing.jtl");
+        File output = new File(this.folder.getRoot(), "hits.png");
+
+        assertEquals(1, new ReportLauncher().instanceMain(
+                new String[] { "HitsPerSecond", "-o", output.getPath(), missing.getPath() }));
+        assertEquals(UsageException.STATUS_USAGE_ERROR, new ReportLauncher().instanceMain(
+                new String[] { "HitsPerSecond", "--no-such-option" }));
+    }
+
+    protected int compare(File baseline, File candidate) throws Exception {
+        File output = new File(this.folder.getRoot(), "compare.txt");
+
+        return new CompareReport().launchReport(
+                new String[] { "-o", output.getPath(), baseline.getPath(), candidate.getPath() });
+    }
+
+    protected File writeJtl(String name, int count, long elapsed) throws Exception {
+        File result = this.folder.newFile(name);
+
+        try (PrintWriter out = new PrintWriter(result, "UTF-8")) {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<testResults version=\"1.2\">");
+
+            int cur = 0;
+            while (cur < count) {
+                out.println("<httpSample t=\"" + elapsed + "\" ts=\"" + (1444000000000L + (cur * 100L)) +
+                        "\" s=\"true\" lb=\"home\" rc=\"200\" by=\"100\" ng=\"1\" na=\"1\"/>");
+                cur++;
+            }
+
+            out.println("</testResults>");
+        }
+
+        return result;
+    }
+}
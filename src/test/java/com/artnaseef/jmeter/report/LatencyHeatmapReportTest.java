@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report;
+
+import org.junit.Test;
+
+import java.text.NumberFormat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class LatencyHeatmapReportTest {
+    @Test
+    public void testBucketCount() {
+        // 8 buckets of 1 ms, then 4 per doubling from 8 ms up to 2^31 ms
+        assertEquals(8 + (28 * 4), LatencyHeatmapReport.NUM_BUCKETS);
+        assertEquals(LatencyHeatmapReport.NUM_BUCKETS - 1, LatencyHeatmapReport.bucketIndex(Long.MAX_VALUE));
+        assertEquals(0, LatencyHeatmapReport.bucketIndex(-1));
+    }
+
+    @Test
+    public void testBucketBounds() {
+        int lastBucket = 0;
+
+        long latency = 0;
+        while (latency < 100000) {
+            int bucket = LatencyHeatmapReport.bucketIndex(latency);
+
+            assertTrue(bucket >= lastBucket);
+            assertTrue(LatencyHeatmapReport.bucketLowerBound(bucket) <= latency);
+            assertTrue(LatencyHeatmapReport.bucketLowerBound(bucket + 1) > latency);
+
+            lastBucket = bucket;
+            latency++;
+        }
+    }
+
+    @Test
+    public void testBucketFormat() {
+        NumberFormat format = new LatencyHeatmapReport.BucketFormat();
+
+        assertEquals("5 ms", format.format(5));
+        assertEquals("896 ms", format.format(LatencyHeatmapReport.bucketIndex(1000)));
+        assertEquals("1.0 s", format.format(LatencyHeatmapReport.bucketIndex(1024)));
+    }
+}
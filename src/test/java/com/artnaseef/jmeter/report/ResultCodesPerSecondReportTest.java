@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class ResultCodesPerSecondReportTest {
+    private static final long START = 1444000000000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDetailLinesInResultCodeOrder() throws Exception {
+        File detail = this.folder.newFile("codes.txt");
+
+        Properties properties = new Properties();
+        properties.setProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME,
+                new File(this.folder.getRoot(), "codes.png").getPath());
+        properties.setProperty(ReportLauncher.PROPERTY_DETAIL_FILE_NAME, detail.getPath());
+
+        ResultCodesPerSecondReport report = new ResultCodesPerSecondReport();
+        report.onFeedStart("test", properties);
+
+        // The codes first appear out of numeric order
+        report.onSample(this.createSample("503", START));
+        report.onSample(this.createSample("200", START + 1000));
+        report.onSample(this.createSample("404", START + 2000));
+        report.onSample(this.createSample("200", START + 2000));
+        report.onFeedComplete();
+
+        List<String> lines = Files.readAllLines(detail.toPath(), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(
+                "test|1444000001|1|1|1.000000",
+                "test|1444000002|1|2|1.000000",
+                "test|1444000002|1|2|1.000000",
+                "test|1444000000|1|0|1.000000"), lines);
+    }
+
+    protected Sample createSample(String resultCode, long timestamp) {
+        Sample result = new Sample();
+        result.setLabel("home");
+        result.setTimestamp(timestamp);
+        result.setResultCodeId(ResultCodeDictionary.get().intern(resultCode));
+
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class SamplesByLabelStatusReportTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUnsampledCounts() throws Exception {
+        List<String> lines = this.runReport(null);
+
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1), lines.get(1).matches("home +100 +90 +10 +0 +10 10.00%"));
+    }
+
+    @Test
+    public void testSampledCountsScaled() throws Exception {
+        List<String> lines = this.runReport(10);
+
+        assertTrue(lines.get(1), lines.get(1).matches("home +1000 +900 +100 +0 +100 10.00%"));
+        assertEquals("Sampled 10.0% of samples; counts are scaled by 10.0 to estimate those of all samples",
+                lines.get(lines.size() - 1));
+    }
+
+    protected List<String> runReport(Integer sampleEvery) throws Exception {
+        File output = this.folder.newFile("status.txt");
+
+        Properties properties = new Properties();
+        properties.setProperty(ReportLauncher.PROPERTY_OUTPUT_FILENAME, output.getPath());
+        if (sampleEvery != null) {
+            properties.put(ReportLauncher.PROPERTY_SAMPLE_EVERY, sampleEvery);
+        }
+
+        SamplesByLabelStatusReport report = new SamplesByLabelStatusReport();
+        report.onFeedStart("test", properties);
+
+        int cur = 0;
+        while (cur < 100) {
+            Sample sample = new Sample();
+            sample.setLabel("home");
+            sample.setTimestamp(1444000000000L + cur);
+            sample.setFailure(cur < 10);
+            sample.setResultCodeId(ResultCodeDictionary.get().intern("200"));
+
+            report.onSample(sample);
+            cur++;
+        }
+
+        report.onFeedComplete();
+
+        return Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+    }
+}
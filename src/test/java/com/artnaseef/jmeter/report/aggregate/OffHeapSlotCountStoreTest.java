@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import com.artnaseef.jmeter.report.cli.ReportLauncher;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class OffHeapSlotCountStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCounts() throws Exception {
+        OffHeapSlotCountStore store = new OffHeapSlotCountStore(1000);
+        int ok = store.resolveKey("200");
+        int error = store.resolveKey("500");
+
+        store.add(ok, 1444000000L, 3);
+        store.add(ok, 1444000000L, 2);
+        store.add(error, 1444000001L, 1);
+        store.add(ok, 1444005000L, 7);
+
+        assertEquals(1444000000L, store.getMinSlot());
+        assertEquals(1444005000L, store.getMaxSlot());
+        assertEquals("200|1444000000|5 200|1444005000|7 500|1444000001|1", this.describe(store));
+    }
+
+    @Test
+    public void testMappedStoreReopens() throws Exception {
+        File file = this.folder.newFile("hits.slots");
+
+        OffHeapSlotCountStore store = new OffHeapSlotCountStore(file, 1000);
+        store.add(store.resolveKey("200"), 1444000000L, 5);
+        store.add(store.resolveKey("500"), 1444003000L, 2);
+        store.close();
+
+        // A restarted process picks up the counts, and adds to them
+        OffHeapSlotCountStore reopened = new OffHeapSlotCountStore(file, 1000);
+        try {
+            assertEquals(1444000000L, reopened.getMinSlot());
+            assertEquals(1444003000L, reopened.getMaxSlot());
+            assertEquals("200|1444000000|5 500|1444003000|2", this.describe(reopened));
+
+            reopened.add(reopened.resolveKey("200"), 1444000000L, 1);
+            reopened.add(reopened.resolveKey("404"), 1444001000L, 4);
+            assertEquals("200|1444000000|6 500|1444003000|2 404|1444001000|4", this.describe(reopened));
+        } finally {
+            reopened.close();
+        }
+
+        OffHeapSlotCountStore again = new OffHeapSlotCountStore(file, 1000);
+        try {
+            assertEquals("200|1444000000|6 500|1444003000|2 404|1444001000|4", this.describe(again));
+        } finally {
+            again.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReopenWithOtherSlotSize() throws Exception {
+        File file = this.folder.newFile("hits.slots");
+
+        OffHeapSlotCountStore store = new OffHeapSlotCountStore(file, 1000);
+        store.add(store.resolveKey("200"), 1444000000L, 5);
+        store.close();
+
+        new OffHeapSlotCountStore(file, 500);
+    }
+
+    @Test
+    public void testFreshStoreStartsEmpty() throws Exception {
+        File file = this.folder.newFile("hits.slots");
+
+        OffHeapSlotCountStore store = new OffHeapSlotCountStore(file, 1000);
+        store.add(store.resolveKey("200"), 1444000000L, 5);
+        store.close();
+
+        OffHeapSlotCountStore rerun = new OffHeapSlotCountStore(file, 1000, true);
+        try {
+            assertEquals(Long.MAX_VALUE, rerun.getMinSlot());
+            assertEquals("", this.describe(rerun));
+
+            rerun.add(rerun.resolveKey("500"), 1444000000L, 1);
+            assertEquals("500|1444000000|1", this.describe(rerun));
+        } finally {
+            rerun.close();
+        }
+    }
+
+    @Test
+    public void testCheckpointReplacesReopenedCounts() throws Exception {
+        File file = this.folder.newFile("hits.slots");
+
+        OffHeapSlotCountStore store = new OffHeapSlotCountStore(file, 1000);
+        int ok = store.resolveKey("200");
+        store.add(ok, 1444000000L, 5);
+
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        SlotCountStoreCheckpoint.writeCounts(store, new DataOutputStream(checkpoint));
+
+        // Counts past the checkpoint, which the resumed source reads again
+        store.add(ok, 1444001000L, 3);
+        store.add(store.resolveKey("500"), 1444001000L, 1);
+        store.close();
+
+        OffHeapSlotCountStore resumed = new OffHeapSlotCountStore(file, 1000);
+        try {
+            SlotCountStoreCheckpoint.readCounts(resumed,
+                    new DataInputStream(new ByteArrayInputStream(checkpoint.toByteArray())));
+
+            assertEquals(1444000000L, resumed.getMaxSlot());
+            assertEquals("200|1444000000|5", this.describe(resumed));
+
+            resumed.add(resumed.resolveKey("500"), 1444001000L, 1);
+        } finally {
+            resumed.close();
+        }
+
+        OffHeapSlotCountStore reopened = new OffHeapSlotCountStore(file, 1000);
+        try {
+            assertEquals("200|1444000000|5 500|1444001000|1", this.describe(reopened));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test(expected = OffHeapSlotCountStore.StoreInUseException.class)
+    public void testMappedStoreLocked() throws Exception {
+        File file = this.folder.newFile("hits.slots");
+
+        OffHeapSlotCountStore store = new OffHeapSlotCountStore(file, 1000);
+        try {
+            new OffHeapSlotCountStore(file, 1000);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void testFactoryAvoidsFileInUse() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(ReportLauncher.PROPERTY_AGGREGATION_STORE, SlotCountStoreFactory.STORE_MAPPED);
+        properties.setProperty(ReportLauncher.PROPERTY_AGGREGATION_STORE_DIR, this.folder.getRoot().getPath());
+
+        OffHeapSlotCountStore first =
+                (OffHeapSlotCountStore) SlotCountStoreFactory.createStore(properties, "hits", 1000);
+        OffHeapSlotCountStore second =
+                (OffHeapSlotCountStore) SlotCountStoreFactory.createStore(properties, "hits", 1000);
+
+        try {
+            assertEquals("hits.slots", first.getFile().getName());
+            assertNotEquals(first.getFile(), second.getFile());
+            assertTrue(second.getFile().getName().startsWith("hits-"));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    protected String describe(SlotCountStore store) throws IOException {
+        final List<String> result = new ArrayList<>();
+
+        store.visit(new SlotCountVisitor() {
+            @Override
+            public void onCount(int key, String seriesName, long slot, long count) {
+                result.add(seriesName + "|" + slot + "|" + count);
+            }
+        });
+
+        StringBuilder joined = new StringBuilder();
+        for (String oneCount : result) {
+            if (joined.length() > 0) {
+                joined.append(' ');
+            }
+            joined.append(oneCount);
+        }
+
+        return joined.toString();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class SlotCounterTest {
+    // Slot of a one-second sample in October 2026
+    private static final long EPOCH_SLOT = 1792368000L;
+
+    @Test
+    public void testEmpty() {
+        SlotCounter counter = new SlotCounter();
+
+        assertTrue(counter.isEmpty());
+        assertEquals(Long.MAX_VALUE, counter.getMinSlot());
+        assertEquals(Long.MIN_VALUE, counter.getMaxSlot());
+        assertEquals(Long.MAX_VALUE, counter.nextSlot(Long.MIN_VALUE));
+        assertEquals(0, counter.get(EPOCH_SLOT));
+        assertEquals(0, counter.getTotal());
+    }
+
+    @Test
+    public void testStrayZeroTimestamp() {
+        SlotCounter counter = new SlotCounter();
+        counter.increment(EPOCH_SLOT);
+        counter.increment(0);
+        counter.add(EPOCH_SLOT + 1, 5);
+
+        assertEquals(0, counter.getMinSlot());
+        assertEquals(EPOCH_SLOT + 1, counter.getMaxSlot());
+        assertEquals(1, counter.get(0));
+        assertEquals(1, counter.get(EPOCH_SLOT));
+        assertEquals(5, counter.get(EPOCH_SLOT + 1));
+        assertEquals(7, counter.getTotal());
+
+        assertEquals(0, counter.nextSlot(Long.MIN_VALUE));
+        assertEquals(EPOCH_SLOT, counter.nextSlot(1));
+        assertEquals(EPOCH_SLOT + 1, counter.nextSlot(EPOCH_SLOT + 1));
+        assertEquals(Long.MAX_VALUE, counter.nextSlot(EPOCH_SLOT + 2));
+    }
+
+    @Test
+    public void testLongRun() {
+        // A run of two years in one-second slots, far more than a dense array could hold
+        long span = 2L * 365 * 24 * 3600;
+
+        SlotCounter counter = new SlotCounter();
+        long slot = EPOCH_SLOT;
+        while (slot <= EPOCH_SLOT + span) {
+            counter.increment(slot);
+            slot += 86400;
+        }
+
+        assertEquals(EPOCH_SLOT, counter.getMinSlot());
+        assertEquals(731, counter.getTotal());
+
+        int visited = 0;
+        slot = counter.nextSlot(Long.MIN_VALUE);
+        while (slot != Long.MAX_VALUE) {
+            assertEquals(0, (slot - EPOCH_SLOT) % 86400);
+            visited++;
+            slot = counter.nextSlot(slot + 1);
+        }
+
+        assertEquals(731, visited);
+    }
+
+    @Test
+    public void testNegativeSlots() {
+        SlotCounter counter = new SlotCounter();
+        counter.increment(-1);
+        counter.increment(-SlotCounter.PAGE_SIZE - 1);
+        counter.increment(1);
+
+        assertEquals(-SlotCounter.PAGE_SIZE - 1, counter.getMinSlot());
+        assertEquals(1, counter.get(-1));
+        assertEquals(0, counter.get(0));
+        assertEquals(-SlotCounter.PAGE_SIZE - 1, counter.nextSlot(Long.MIN_VALUE));
+        assertEquals(-1, counter.nextSlot(-SlotCounter.PAGE_SIZE));
+        assertEquals(1, counter.nextSlot(0));
+    }
+
+    @Test
+    public void testMax() {
+        SlotCounter counter = new SlotCounter();
+        counter.max(EPOCH_SLOT, 3);
+        counter.max(EPOCH_SLOT, 7);
+        counter.max(EPOCH_SLOT, 5);
+
+        assertEquals(7, counter.get(EPOCH_SLOT));
+    }
+
+    @Test
+    public void testCheckpointRoundTrip() throws Exception {
+        SlotCounter counter = new SlotCounter();
+        counter.add(0, 2);
+        counter.add(EPOCH_SLOT, 3);
+        counter.add(EPOCH_SLOT + SlotCounter.PAGE_SIZE, 4);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        counter.writeTo(new DataOutputStream(bytes));
+
+        SlotCounter restored = new SlotCounter();
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(counter.getMinSlot(), restored.getMinSlot());
+        assertEquals(counter.getMaxSlot(), restored.getMaxSlot());
+        assertEquals(2, restored.get(0));
+        assertEquals(3, restored.get(EPOCH_SLOT));
+        assertEquals(4, restored.get(EPOCH_SLOT + SlotCounter.PAGE_SIZE));
+        assertEquals(9, restored.getTotal());
+
+        // More counts after the restore land on the restored pages
+        restored.increment(EPOCH_SLOT);
+        assertEquals(4, restored.get(EPOCH_SLOT));
+    }
+
+    @Test
+    public void testEmptyCheckpointRoundTrip() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new SlotCounter().writeTo(new DataOutputStream(bytes));
+
+        SlotCounter restored = new SlotCounter();
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertTrue(restored.isEmpty());
+        assertEquals(Long.MAX_VALUE, restored.getMinSlot());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class SpillingSlotCountStoreTest {
+    // One-millisecond slot in 2040, past what 41 bits of slot can hold
+    private static final long LATE_SLOT = 2208988800000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSpilledRunsMerge() throws Exception {
+        SpillingSlotCountStore store = new SpillingSlotCountStore(0, this.folder.getRoot());
+        try {
+            int ok = store.resolveKey("200");
+            int error = store.resolveKey("500");
+
+            // Enough distinct slots to fill the smallest table several times over
+            long slot = 0;
+            while (slot < 5000) {
+                store.add(ok, LATE_SLOT + slot, 1);
+                store.add(ok, LATE_SLOT + (slot % 10), 1);
+                slot++;
+            }
+            store.add(error, LATE_SLOT, 3);
+
+            assertTrue(store.getRunCount() > 1);
+            assertEquals(LATE_SLOT, store.getMinSlot());
+            assertEquals(LATE_SLOT + 4999, store.getMaxSlot());
+
+            List<String> counts = this.describe(store);
+            assertEquals(5001, counts.size());
+            assertEquals("200|" + LATE_SLOT + "|501", counts.get(0));
+            assertEquals("200|" + (LATE_SLOT + 10) + "|1", counts.get(10));
+            assertEquals("500|" + LATE_SLOT + "|3", counts.get(5000));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSlot() throws Exception {
+        SpillingSlotCountStore store = new SpillingSlotCountStore(0, this.folder.getRoot());
+        try {
+            store.add(store.resolveKey("200"), -1, 1);
+        } finally {
+            store.close();
+        }
+    }
+
+    protected List<String> describe(SlotCountStore store) throws IOException {
+        final List<String> result = new ArrayList<>();
+
+        store.visit(new SlotCountVisitor() {
+            @Override
+            public void onCount(int key, String seriesName, long slot, long count) {
+                result.add(seriesName + "|" + slot + "|" + count);
+            }
+        });
+
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.aggregate;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class TopKCounterTest {
+    @Test
+    public void testFrequentKeySurvivesNewKeys() {
+        TopKCounter<String, Object> counter = new TopKCounter<>(3);
+
+        int cur = 0;
+        while (cur < 1000) {
+            counter.add("frequent");
+            cur++;
+        }
+
+        counter.add("b");
+        counter.add("c");
+        counter.add("d");
+
+        Map<String, TopKCounter.Entry<String, Object>> byKey = this.byKey(counter);
+        assertNotNull(byKey.get("frequent"));
+        assertEquals(1000, byKey.get("frequent").getCount());
+        assertEquals(0, byKey.get("frequent").getError());
+
+        // "d" took the place of one of the keys seen once, and inherited its count
+        assertNotNull(byKey.get("d"));
+        assertEquals(2, byKey.get("d").getCount());
+        assertEquals(1, byKey.get("d").getError());
+        assertEquals(1, counter.getReplacedCount());
+    }
+
+    @Test
+    public void testRestoreInAnyOrder() {
+        TopKCounter<String, Object> counter = new TopKCounter<>(3);
+        counter.restoreEntry("frequent", 1000, 0);
+        counter.restoreEntry("b", 5, 0);
+        counter.restoreEntry("c", 1, 0);
+        counter.restoreTotals(1006, 0);
+
+        counter.add("d");
+
+        Map<String, TopKCounter.Entry<String, Object>> byKey = this.byKey(counter);
+        assertNotNull(byKey.get("frequent"));
+        assertNotNull(byKey.get("b"));
+        assertEquals(2, byKey.get("d").getCount());
+        assertEquals(1007, counter.getTotalCount());
+    }
+
+    @Test
+    public void testSpaceSavingGuarantees() {
+        TopKCounter<Integer, Object> counter = new TopKCounter<>(20);
+        Map<Integer, Integer> actual = new HashMap<>();
+
+        // A few heavy keys among many rare ones
+        Random random = new Random(5);
+        int cur = 0;
+        while (cur < 100000) {
+            int key = (random.nextInt(4) == 0) ? random.nextInt(5) : 100 + random.nextInt(10000);
+
+            counter.add(key);
+
+            Integer count = actual.get(key);
+            actual.put(key, (count == null) ? 1 : count + 1);
+            cur++;
+        }
+
+        Map<Integer, TopKCounter.Entry<Integer, Object>> byKey = this.byKey(counter);
+        for (Map.Entry<Integer, Integer> oneActual : actual.entrySet()) {
+            TopKCounter.Entry<Integer, Object> entry = byKey.get(oneActual.getKey());
+
+            if (oneActual.getValue() > counter.getTotalCount() / counter.getCapacity()) {
+                assertNotNull("frequent key " + oneActual.getKey() + " not tracked", entry);
+            }
+
+            if (entry != null) {
+                assertTrue(entry.getCount() >= oneActual.getValue());
+                assertTrue(entry.getCount() - entry.getError() <= oneActual.getValue());
+            }
+        }
+
+        List<TopKCounter.Entry<Integer, Object>> sorted = counter.getEntriesByCount();
+        assertTrue(sorted.get(0).getKey() < 5);
+    }
+
+    protected <K> Map<K, TopKCounter.Entry<K, Object>> byKey(TopKCounter<K, Object> counter) {
+        Map<K, TopKCounter.Entry<K, Object>> result = new HashMap<>();
+        for (TopKCounter.Entry<K, Object> entry : counter.getEntries()) {
+            result.put(entry.getKey(), entry);
+        }
+
+        return result;
+    }
+}
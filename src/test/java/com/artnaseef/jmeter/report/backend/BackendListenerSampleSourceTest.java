@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.backend;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class BackendListenerSampleSourceTest {
+    @Test(timeout = 60000)
+    public void testInfluxRoundTrip() throws Exception {
+        BackendListenerSampleSource source =
+                new BackendListenerSampleSource(BackendListenerSampleSource.Protocol.INFLUXDB, 0);
+        SourceRunner runner = new SourceRunner(source);
+        runner.start();
+
+        InetSocketAddress address = source.awaitListening(10000);
+        assertNotNull(address);
+
+        new BackendListenerStubSender().instanceMain(new String[] {
+                "--protocol", "influxdb", "--port", String.valueOf(address.getPort()), "--seconds", "3",
+                "--rate", "100", "--labels", "3" });
+
+        // The end of the test stops the source
+        runner.join();
+
+        assertNull(runner.failure.get());
+        assertEquals(900, runner.sampleCount.get());
+        assertEquals(45, runner.failureCount.get());
+    }
+
+    @Test(timeout = 60000)
+    public void testSenderNotReadingAnswersHoldsBackOnlyItself() throws Exception {
+        BackendListenerSampleSource source =
+                new BackendListenerSampleSource(BackendListenerSampleSource.Protocol.INFLUXDB, 0);
+        SourceRunner runner = new SourceRunner(source);
+        runner.start();
+
+        final InetSocketAddress address = source.awaitListening(10000);
+
+        // Pipelines far more requests than the socket buffers hold answers for, and never reads one
+        final Socket stalled = new Socket(address.getAddress(), address.getPort());
+        Thread pipeliner = new Thread() {
+            @Override
+            public void run() {
+                byte[] request = "POST /ping HTTP/1.1\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.UTF_8);
+                try {
+                    OutputStream out = stalled.getOutputStream();
+                    int cur = 0;
+                    while (cur < 1000000) {
+                        out.write(request);
+                        cur++;
+                    }
+                } catch (Exception exc) {
+                    // The socket is closed at the end of the test
+                }
+            }
+        };
+        pipeliner.setDaemon(true);
+        pipeliner.start();
+
+        // Give the stalled sender time to fill the buffers
+        Thread.sleep(2000);
+
+        try (Socket other = new Socket(address.getAddress(), address.getPort())) {
+            byte[] body = "jmeter,transaction=home,statut=ok count=5,avg=10 1445250000000000000\n"
+                    .getBytes(StandardCharsets.UTF_8);
+            OutputStream out = other.getOutputStream();
+            out.write(("POST /write?db=jmeter HTTP/1.1\r\nContent-Length: " + body.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.write(body);
+            out.flush();
+
+            InputStream in = other.getInputStream();
+            byte[] answer = new byte[12];
+            int length = 0;
+            while (length < answer.length) {
+                int count = in.read(answer, length, answer.length - length);
+                assertTrue(count > 0);
+                length += count;
+            }
+
+            assertEquals("HTTP/1.1 204", new String(answer, StandardCharsets.ISO_8859_1));
+        }
+
+        source.stop();
+        runner.join();
+        stalled.close();
+
+        assertFalse(runner.isAlive());
+        assertNull(runner.failure.get());
+        assertEquals(5, runner.sampleCount.get());
+    }
+
+    /**
+     * Runs the source on a thread of its own, counting the samples it feeds.
+     */
+    protected static class SourceRunner extends Thread implements Feedable {
+        private final BackendListenerSampleSource source;
+        private final AtomicLong sampleCount = new AtomicLong();
+        private final AtomicLong failureCount = new AtomicLong();
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        public SourceRunner(BackendListenerSampleSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.source.execute(this);
+            } catch (Exception exc) {
+                this.failure.set(exc);
+            }
+        }
+
+        @Override
+        public void onSample(Sample topLevelSample) {
+            this.sampleCount.incrementAndGet();
+            if (topLevelSample.isFailure()) {
+                this.failureCount.incrementAndGet();
+            }
+        }
+    }
+}
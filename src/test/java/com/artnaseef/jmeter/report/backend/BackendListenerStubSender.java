@@ -0,0 +1,340 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.backend;
+
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stand-in for the JMeter Backend Listener, for trying out and testing BackendListenerSampleSource without JMeter:
+ * sends made-up metrics, in the same form as the Graphite or InfluxDB client of the Backend Listener, for a number of
+ * one-second intervals.  Each label gets the same number of results per interval, a fixed share of them failures,
+ * so the expected report is easy to check.  It lives with the test classes, which it needs on the classpath:
+ *
+ * <pre>
+ *     java ... ReportLauncher HitsPerSecond --listen graphite:2003 --idle-timeout 5 -o hits.png &amp;
+ *     java -cp target/classes:target/test-classes:... BackendListenerStubSender --protocol graphite --port 2003 \
+ *         --seconds 30 --rate 200
+ * </pre>
+ *
+ * Created by art on 10/19/26.
+ */
+public class BackendListenerStubSender {
+    private OptionParser optionParser;
+
+    private BackendListenerSampleSource.Protocol protocol = BackendListenerSampleSource.Protocol.GRAPHITE;
+    private String host = "127.0.0.1";
+    private int port = -1;
+    private int seconds = 10;
+    private int rate = 100;
+    private int labelCount = 3;
+    private int errorPercent = 5;
+    private boolean realTime;
+
+    private long sentResults;
+    private long sentFailures;
+
+    public static void main(String[] args) {
+        BackendListenerStubSender mainObj = new BackendListenerStubSender();
+
+        try {
+            mainObj.instanceMain(args);
+        } catch (Exception exc) {
+            exc.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    public void instanceMain(String[] args) throws Exception {
+        this.parseCommandLine(args);
+
+        if (this.port < 0) {
+            if (this.protocol == BackendListenerSampleSource.Protocol.INFLUXDB) {
+                this.port = BackendListenerSampleSource.DEFAULT_INFLUXDB_PORT;
+            } else {
+                this.port = BackendListenerSampleSource.DEFAULT_GRAPHITE_PORT;
+            }
+        }
+
+        if (this.protocol == BackendListenerSampleSource.Protocol.INFLUXDB) {
+            this.sendInflux();
+        } else {
+            this.sendGraphite();
+        }
+
+        System.out.println("sent " + this.sentResults + " results (" + this.sentFailures + " failures) in " +
+                this.seconds + " intervals");
+    }
+
+    protected void sendGraphite() throws IOException {
+        try (Socket socket = new Socket(this.host, this.port)) {
+            OutputStream out = socket.getOutputStream();
+
+            long startSecond = this.getStartSecond();
+            int interval = 0;
+            while (interval < this.seconds) {
+                long timestamp = startSecond + interval;
+                StringBuilder lines = new StringBuilder();
+
+                int label = 0;
+                while (label < this.labelCount) {
+                    this.appendGraphiteLabel(lines, "label" + label, timestamp, this.getOkAverage(label));
+                    label++;
+                }
+
+                this.appendGraphiteLabel(lines, BackendMetricAggregator.DEFAULT_SUMMARY_LABEL, timestamp,
+                        this.getOkAverage(0));
+
+                lines.append("jmeter.test.minAT 10 ").append(timestamp).append('\n');
+                lines.append("jmeter.test.maxAT 10 ").append(timestamp).append('\n');
+                lines.append("jmeter.test.meanAT 10 ").append(timestamp).append('\n');
+
+                out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+
+                this.countInterval();
+                this.pause();
+                interval++;
+            }
+        }
+    }
+
+    protected void appendGraphiteLabel(StringBuilder lines, String label, long timestamp, int okAverage) {
+        String prefix = "jmeter." + label + ".";
+        int count = this.getCount(label);
+        int failures = this.getFailures(label);
+
+        lines.append(prefix).append("ok.count ").append(count - failures).append(' ').append(timestamp).append('\n');
+        lines.append(prefix).append("ok.avg ").append(okAverage).append(".0 ").append(timestamp).append('\n');
+        lines.append(prefix).append("ok.pct90 ").append(okAverage * 2).append(' ').append(timestamp).append('\n');
+        lines.append(prefix).append("ko.count ").append(failures).append(' ').append(timestamp).append('\n');
+        lines.append(prefix).append("ko.avg 500.0 ").append(timestamp).append('\n');
+        lines.append(prefix).append("a.count ").append(count).append(' ').append(timestamp).append('\n');
+        lines.append(prefix).append("h.count ").append(count).append(' ').append(timestamp).append('\n');
+    }
+
+    protected void sendInflux() throws IOException {
+        URL url = new URL("http://" + this.host + ":" + this.port + "/write?db=jmeter");
+
+        long startSecond = this.getStartSecond();
+        this.postInflux(url, "events,application=stub,title=ApacheJMeter text=\"Stub Plan started\" " +
+                (startSecond * 1000000000L) + "\n");
+
+        int interval = 0;
+        while (interval < this.seconds) {
+            long timestamp = (startSecond + interval) * 1000000000L;
+            StringBuilder lines = new StringBuilder();
+
+            int total = 0;
+            int totalFailures = 0;
+            int label = 0;
+            while (label < this.labelCount) {
+                String name = "label\\ " + label;
+                int count = this.getCount(name);
+                int failures = this.getFailures(name);
+
+                String tags = "jmeter,application=stub,transaction=" + name;
+                lines.append(tags).append(",statut=ok count=").append(count - failures).append(",avg=")
+                        .append(this.getOkAverage(label)).append(",min=1,max=900 ").append(timestamp).append('\n');
+                lines.append(tags).append(",statut=ko count=").append(failures).append(",avg=500 ")
+                        .append(timestamp).append('\n');
+                lines.append(tags).append(",statut=all count=").append(count).append(",avg=150 ")
+                        .append(timestamp).append('\n');
+
+                total += count;
+                totalFailures += failures;
+                label++;
+            }
+
+            lines.append("jmeter,application=stub,transaction=all count=").append(total).append(",countError=")
+                    .append(totalFailures).append(",hit=").append(total).append(",avg=150 ").append(timestamp)
+                    .append('\n');
+            lines.append("jmeter,application=stub,transaction=internal minAT=10,maxAT=10,meanAT=10 ")
+                    .append(timestamp).append('\n');
+
+            this.postInflux(url, lines.toString());
+
+            this.countInterval();
+            this.pause();
+            interval++;
+        }
+
+        this.postInflux(url, "events,application=stub,title=ApacheJMeter text=\"Stub Plan ended\" " +
+                ((startSecond + this.seconds) * 1000000000L) + "\n");
+    }
+
+    protected void postInflux(URL url, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(bytes.length);
+
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(bytes);
+        }
+
+        int status = connection.getResponseCode();
+        if (status / 100 != 2) {
+            throw new IOException("write failed with status " + status);
+        }
+
+        // Drain the response so the connection is reused
+        try (InputStream in = connection.getInputStream()) {
+            while (in.read() >= 0) {
+                // Nothing to do
+            }
+        }
+    }
+
+    /**
+     * In real time the intervals end now; otherwise they are sent at once, as if the test had just finished.
+     */
+    protected long getStartSecond() {
+        long now = System.currentTimeMillis() / 1000L;
+        if (this.realTime) {
+            return now;
+        }
+
+        return now - this.seconds;
+    }
+
+    protected void pause() {
+        if (!this.realTime) {
+            return;
+        }
+
+        try {
+            Thread.sleep(1000L);
+        } catch (InterruptedException intExc) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected void countInterval() {
+        this.sentResults += (long) this.rate * this.labelCount;
+        this.sentFailures += (long) this.getFailures(null) * this.labelCount;
+    }
+
+    protected int getCount(String label) {
+        if (BackendMetricAggregator.DEFAULT_SUMMARY_LABEL.equals(label)) {
+            return this.rate * this.labelCount;
+        }
+
+        return this.rate;
+    }
+
+    protected int getFailures(String label) {
+        return (this.getCount(label) * this.errorPercent) / 100;
+    }
+
+    protected int getOkAverage(int label) {
+        return 100 + (10 * label);
+    }
+
+    protected void parseCommandLine(String[] args) throws Exception {
+        this.optionParser = new OptionParser();
+
+        this.optionParser.accepts("h", "display this usage");
+
+        this.optionParser.accepts("protocol", "graphite or influxdb (default graphite)")
+                .withRequiredArg().ofType(String.class);
+
+        this.optionParser.accepts("host", "host to which to send (default 127.0.0.1)")
+                .withRequiredArg().ofType(String.class);
+
+        this.optionParser.accepts("port", "port to which to send (default 2003 for graphite, 8086 for influxdb)")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("seconds", "number of one-second intervals to send (default 10)")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("rate", "results per second of each label (default 100)")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("labels", "number of labels (default 3)")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("errors", "percentage of results which fail (default 5)")
+                .withRequiredArg().ofType(Integer.class);
+
+        this.optionParser.accepts("real-time", "send an interval each second rather than all at once");
+
+        try {
+            OptionSet options = this.optionParser.parse(args);
+
+            if (options.has("h")) {
+                this.printUsage(System.out);
+                System.exit(0);
+            }
+
+            if (options.has("protocol")) {
+                this.protocol = BackendListenerSampleSource.Protocol.valueOf(
+                        options.valueOf("protocol").toString().toUpperCase());
+            }
+
+            if (options.has("host")) {
+                this.host = (String) options.valueOf("host");
+            }
+
+            if (options.has("port")) {
+                this.port = (Integer) options.valueOf("port");
+            }
+
+            if (options.has("seconds")) {
+                this.seconds = (Integer) options.valueOf("seconds");
+            }
+
+            if (options.has("rate")) {
+                this.rate = (Integer) options.valueOf("rate");
+            }
+
+            if (options.has("labels")) {
+                this.labelCount = (Integer) options.valueOf("labels");
+            }
+
+            if (options.has("errors")) {
+                this.errorPercent = (Integer) options.valueOf("errors");
+            }
+
+            this.realTime = options.has("real-time");
+        } catch (Exception exc) {
+            this.printUsage(System.err);
+            System.err.println();
+
+            throw exc;
+        }
+    }
+
+    protected void printUsage(PrintStream out) {
+        out.println("Usage: BackendListenerStubSender [options]");
+
+        try {
+            this.optionParser.printHelpOn(out);
+        } catch (IOException e) {
+            // Ignore this one - if help can't be printed, what's left to do?
+        }
+    }
+}
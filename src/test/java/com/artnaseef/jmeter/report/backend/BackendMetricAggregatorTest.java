@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.backend;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class BackendMetricAggregatorTest {
+    private static final long START = 1445250000000L;
+
+    @Test
+    public void testIntervalsSpreadOverSendInterval() throws Exception {
+        BackendMetricAggregator aggregator = new BackendMetricAggregator();
+        aggregator.setSender("injector");
+
+        // The InfluxDB client sends every 5 seconds by default
+        long interval = 0;
+        while (interval < 3) {
+            aggregator.addCount(START + (interval * 5000), "home", false, 50);
+            aggregator.addAverage(START + (interval * 5000), "home", false, 100.0);
+            interval++;
+        }
+
+        List<Sample> samples = this.emitAll(aggregator);
+        Map<Long, Integer> hits = this.countBySecond(samples, "home");
+
+        // The first interval is spread over the send interval seen later
+        assertEquals(150, samples.size());
+        assertEquals(15, hits.size());
+        assertEquals(START / 1000 - 5, (long) ((TreeMap<Long, Integer>) hits).firstKey());
+        for (int oneCount : hits.values()) {
+            assertEquals(10, oneCount);
+        }
+        assertEquals(100, samples.get(0).getElapsed());
+    }
+
+    @Test
+    public void testSendersSpreadSeparately() throws Exception {
+        BackendMetricAggregator aggregator = new BackendMetricAggregator();
+
+        // Two injectors, each sending every 5 seconds, but 2.5 seconds apart
+        long interval = 0;
+        while (interval < 3) {
+            aggregator.setSender("first");
+            aggregator.addCount(START + (interval * 5000), "first", false, 50);
+
+            aggregator.setSender("second");
+            aggregator.addCount(START + 2500 + (interval * 5000), "second", false, 50);
+            interval++;
+        }
+
+        List<Long> timestamps = new ArrayList<>();
+        for (Sample oneSample : this.emitAll(aggregator)) {
+            if (oneSample.getLabel().equals("second")) {
+                timestamps.add(oneSample.getTimestamp());
+            }
+        }
+
+        // Spread over the 5 seconds since the same sender's previous interval, so 100 ms apart throughout
+        assertEquals(150, timestamps.size());
+        assertEquals(START - 2500, (long) timestamps.get(0));
+
+        int cur = 1;
+        while (cur < timestamps.size()) {
+            assertEquals(100, timestamps.get(cur) - timestamps.get(cur - 1));
+            cur++;
+        }
+    }
+
+    @Test
+    public void testUnknownSenderKeepsTimestamp() throws Exception {
+        BackendMetricAggregator aggregator = new BackendMetricAggregator();
+        aggregator.addCount(START, "home", false, 3);
+        aggregator.addCount(START, "home", true, 1);
+
+        List<Sample> samples = this.emitAll(aggregator);
+
+        assertEquals(4, samples.size());
+        for (Sample oneSample : samples) {
+            assertEquals(START, oneSample.getTimestamp());
+        }
+        assertEquals(true, samples.get(3).isFailure());
+    }
+
+    @Test
+    public void testSummaryDroppedWithLabels() throws Exception {
+        BackendMetricAggregator aggregator = new BackendMetricAggregator();
+        aggregator.addCount(START, "home", false, 3);
+        aggregator.addCount(START, BackendMetricAggregator.DEFAULT_SUMMARY_LABEL, false, 3);
+        aggregator.addCount(START + 1000, BackendMetricAggregator.DEFAULT_SUMMARY_LABEL, false, 2);
+
+        List<Sample> samples = this.emitAll(aggregator);
+
+        assertEquals(5, samples.size());
+        assertEquals(3, this.countBySecond(samples, "home").get(START / 1000).intValue());
+        assertEquals(2, this.countBySecond(samples, BackendMetricAggregator.DEFAULT_SUMMARY_LABEL)
+                .get(START / 1000 + 1).intValue());
+    }
+
+    protected List<Sample> emitAll(BackendMetricAggregator aggregator) throws Exception {
+        final List<Sample> result = new ArrayList<>();
+
+        aggregator.emit(new Feedable() {
+            @Override
+            public void onSample(Sample topLevelSample) {
+                result.add(topLevelSample);
+            }
+        }, true);
+
+        return result;
+    }
+
+    protected Map<Long, Integer> countBySecond(List<Sample> samples, String label) {
+        Map<Long, Integer> result = new TreeMap<>();
+        for (Sample oneSample : samples) {
+            if (oneSample.getLabel().equals(label)) {
+                Long second = oneSample.getTimestamp() / 1000;
+                Integer count = result.get(second);
+                result.put(second, (count == null) ? 1 : count + 1);
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.backend;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class GraphiteMetricParserTest {
+    @Test
+    public void testCountsAndAverages() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        GraphiteMetricParser parser = new GraphiteMetricParser(aggregator);
+
+        RecordingMetricAggregator.parse(parser,
+                "jmeter.login.ok.count 42 1445250000\n" +
+                "jmeter.login.ok.avg 120.5 1445250000\r\n" +
+                "jmeter.login.ok.pct90 300 1445250000\n" +
+                "  jmeter.login.ko.count 3 1445250000  \n" +
+                "jmeter.login.ko.avg 500 1445250000\n" +
+                "jmeter.login.a.count 45 1445250000\n" +
+                "jmeter.test.meanAT 25 1445250000\n" +
+                "\n" +
+                "jmeter.home.ok.count 7 1445250001");
+
+        assertEquals(Arrays.asList(
+                "count 1445250000000 login ok 42",
+                "avg 1445250000000 login ok 120.5",
+                "count 1445250000000 login ko 3",
+                "avg 1445250000000 login ko 500.0",
+                "threads 1445250000000 25",
+                "count 1445250001000 home ok 7"), aggregator.getCalls());
+        assertEquals(0, parser.getMalformedLineCount());
+    }
+
+    @Test
+    public void testOtherPrefixesIgnored() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        GraphiteMetricParser parser = new GraphiteMetricParser(aggregator, "perf.");
+
+        RecordingMetricAggregator.parse(parser,
+                "jmeter.login.ok.count 42 1445250000\n" +
+                "perf.login.ok.count 41 1445250000\n" +
+                "perf.login 40 1445250000\n");
+
+        assertEquals(Arrays.asList("count 1445250000000 login ok 41"), aggregator.getCalls());
+    }
+
+    @Test
+    public void testMalformedLines() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        GraphiteMetricParser parser = new GraphiteMetricParser(aggregator);
+
+        RecordingMetricAggregator.parse(parser,
+                "jmeter.login.ok.count 42\n" +
+                "jmeter.login.ok.count x 1445250000\n" +
+                "jmeter.login.ok.count 42 14452x0000\n" +
+                "jmeter.test.meanAT 25 -1\n");
+
+        assertEquals(0, aggregator.getCalls().size());
+        assertEquals(4, parser.getMalformedLineCount());
+    }
+
+    @Test
+    public void testTimestampPrecisions() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        GraphiteMetricParser parser = new GraphiteMetricParser(aggregator);
+
+        RecordingMetricAggregator.parse(parser,
+                "jmeter.a.ok.count 1 1445250000.75\n" +
+                "jmeter.b.ok.count 1 1445250000123\n" +
+                "jmeter.c.ok.count 1 1445250000123456\n" +
+                "jmeter.d.ok.count 1 1445250000123456789\n");
+
+        assertEquals(Arrays.asList(
+                "count 1445250000000 a ok 1",
+                "count 1445250000123 b ok 1",
+                "count 1445250000123 c ok 1",
+                "count 1445250000123 d ok 1"), aggregator.getCalls());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.backend;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class InfluxMetricParserTest {
+    private static final String TIMESTAMP = " 1445250000000000000";
+
+    @Test
+    public void testTransactions() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        InfluxMetricParser parser = new InfluxMetricParser(aggregator);
+
+        RecordingMetricAggregator.parse(parser,
+                "jmeter,application=app,transaction=login,statut=ok count=42,avg=120.5,min=1,max=900" + TIMESTAMP +
+                        "\n" +
+                "jmeter,application=app,transaction=login,statut=ko count=3,avg=500" + TIMESTAMP + "\n" +
+                "jmeter,application=app,transaction=login,statut=all count=45,avg=150" + TIMESTAMP + "\n" +
+                "jmeter,application=app,transaction=internal minAT=20,maxAT=30,meanAT=25" + TIMESTAMP + "\n");
+
+        assertEquals(Arrays.asList(
+                "count 1445250000000 login ok 42",
+                "avg 1445250000000 login ok 120.5",
+                "count 1445250000000 login ko 3",
+                "avg 1445250000000 login ko 500.0",
+                "threads 1445250000000 25"), aggregator.getCalls());
+        assertEquals(0, parser.getMalformedLineCount());
+    }
+
+    @Test
+    public void testSummary() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        InfluxMetricParser parser = new InfluxMetricParser(aggregator);
+
+        RecordingMetricAggregator.parse(parser,
+                "jmeter,application=app,transaction=all count=50,countError=8,hit=50,avg=130.25" + TIMESTAMP);
+
+        assertEquals(Arrays.asList(
+                "count 1445250000000 all ok 42",
+                "avg 1445250000000 all ok 130.25",
+                "count 1445250000000 all ko 8",
+                "avg 1445250000000 all ko 130.25"), aggregator.getCalls());
+    }
+
+    @Test
+    public void testEscapedLabels() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        InfluxMetricParser parser = new InfluxMetricParser(aggregator);
+
+        RecordingMetricAggregator.parse(parser,
+                "jmeter,application=app,transaction=log\\ in\\,now,statut=ok count=1" + TIMESTAMP + "\n" +
+                "jmeter,application=app,transaction=log\\ in\\,now,statut=ok count=2" + TIMESTAMP + "\n");
+
+        assertEquals(Arrays.asList(
+                "count 1445250000000 log in,now ok 1",
+                "count 1445250000000 log in,now ok 2"), aggregator.getCalls());
+    }
+
+    @Test
+    public void testEvents() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        InfluxMetricParser parser = new InfluxMetricParser(aggregator);
+
+        RecordingMetricAggregator.parse(parser,
+                "events,application=app,title=ApacheJMeter text=\"Test Plan started\"" + TIMESTAMP + "\n" +
+                "events,application=app,title=ApacheJMeter text=\"Test Plan ended\"" + TIMESTAMP + "\n");
+
+        assertEquals(Arrays.asList("started", "ended"), aggregator.getCalls());
+    }
+
+    @Test
+    public void testOtherMeasurementsIgnored() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        InfluxMetricParser parser = new InfluxMetricParser(aggregator, "perf");
+
+        RecordingMetricAggregator.parse(parser,
+                "# comment\n" +
+                "jmeter,transaction=login,statut=ok count=42" + TIMESTAMP + "\n" +
+                "cpu,host=a value=1" + TIMESTAMP + "\n" +
+                "perf,transaction=login,statut=ok count=41" + TIMESTAMP + "\n");
+
+        assertEquals(Arrays.asList("count 1445250000000 login ok 41"), aggregator.getCalls());
+    }
+
+    @Test
+    public void testMalformedLines() {
+        RecordingMetricAggregator aggregator = new RecordingMetricAggregator();
+        InfluxMetricParser parser = new InfluxMetricParser(aggregator);
+
+        RecordingMetricAggregator.parse(parser,
+                "jmeter,application\n" +
+                "jmeter,transaction=login,statut=ok\n" +
+                "jmeter,transaction=login,statut=ok count=1 14452x0000\n" +
+                "jmeter,transaction=login,statut=ok count\n");
+
+        assertEquals(0, aggregator.getCalls().size());
+        assertEquals(4, parser.getMalformedLineCount());
+    }
+}
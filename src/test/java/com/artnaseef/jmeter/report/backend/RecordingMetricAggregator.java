@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.backend;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregator which records the metrics the parsers give it, one line of text per call, for the parser tests.
+ *
+ * Created by art on 10/19/26.
+ */
+public class RecordingMetricAggregator extends BackendMetricAggregator {
+    private final List<String> calls = new ArrayList<>();
+
+    /**
+     * Parse the given lines as they would arrive, in a direct buffer; the last line need not be terminated.
+     */
+    public static void parse(BackendMetricParser parser, String lines) {
+        byte[] bytes = lines.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+
+        BackendListenerSampleSource.consumeLines(buffer, 0, buffer.limit(), true, parser);
+    }
+
+    public List<String> getCalls() {
+        return calls;
+    }
+
+    @Override
+    public void addCount(long timestamp, String label, boolean failure, long count) {
+        this.calls.add("count " + timestamp + " " + label + " " + (failure ? "ko" : "ok") + " " + count);
+    }
+
+    @Override
+    public void addAverage(long timestamp, String label, boolean failure, double average) {
+        this.calls.add("avg " + timestamp + " " + label + " " + (failure ? "ko" : "ok") + " " + average);
+    }
+
+    @Override
+    public void addActiveThreads(long timestamp, int activeThreads) {
+        this.calls.add("threads " + timestamp + " " + activeThreads);
+    }
+
+    @Override
+    public void onTestStarted() {
+        this.calls.add("started");
+    }
+
+    @Override
+    public void onTestEnded() {
+        this.calls.add("ended");
+    }
+}
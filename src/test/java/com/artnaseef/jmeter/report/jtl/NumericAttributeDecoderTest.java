@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class NumericAttributeDecoderTest {
+    @Test
+    public void testDecodeLong() {
+        NumericAttributeDecoder decoder = new NumericAttributeDecoder();
+
+        assertEquals(1444000000123L, decoder.decodeLong("1444000000123", -1));
+        assertEquals(-42, decoder.decodeLong("-42", -1));
+        assertEquals(Long.MIN_VALUE, decoder.decodeLong("-9223372036854775808", -1));
+        assertEquals(0, decoder.getMalformedCount());
+
+        assertEquals(-1, decoder.decodeLong("9223372036854775808", -1));
+        assertEquals(-1, decoder.decodeLong("144400000012x", -1));
+        assertEquals(-1, decoder.decodeLong("-", -1));
+        assertEquals(3, decoder.getMalformedCount());
+
+        // A missing attribute is not malformed
+        assertEquals(-1, decoder.decodeLong(null, -1));
+        assertEquals(3, decoder.getMalformedCount());
+    }
+
+    @Test
+    public void testDecodeIntOutOfRange() {
+        NumericAttributeDecoder decoder = new NumericAttributeDecoder();
+
+        assertEquals(Integer.MIN_VALUE, decoder.decodeInt("-2147483648", -1));
+        assertEquals(Integer.MAX_VALUE, decoder.decodeInt("2147483647", -1));
+        assertEquals(0, decoder.getMalformedCount());
+
+        assertEquals(-1, decoder.decodeInt("2147483648", -1));
+        assertEquals(-1, decoder.decodeInt("-9223372036854775808", -1));
+        assertEquals(-1, decoder.decodeInt("-9223372036854775809", -1));
+        assertEquals(-1, decoder.decodeInt("abc", -1));
+        assertEquals(4, decoder.getMalformedCount());
+    }
+}
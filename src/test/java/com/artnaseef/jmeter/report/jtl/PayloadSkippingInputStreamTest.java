@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class PayloadSkippingInputStreamTest {
+    private static final String HEADER = "<?xml version=\"1.0\"?>\n<testResults version=\"1.2\">\n";
+    private static final String TRAILER = "</testResults>\n";
+
+    @Test
+    public void testDropPayloads() throws Exception {
+        String responseData = "<responseData class=\"java.lang.String\">&lt;html&gt;lots of data&lt;/html&gt;" +
+                "</responseData>";
+        String requestHeader = "<requestHeader class=\"java.lang.String\"/>";
+
+        String jtl = HEADER +
+                "<httpSample lb=\"a\">\n  " + responseData + "\n  " + requestHeader + "\n" +
+                "  <java.net.URL>http://host/</java.net.URL>\n</httpSample>\n" +
+                TRAILER;
+
+        String expected = HEADER +
+                "<httpSample lb=\"a\">\n  \n  \n" +
+                "  <java.net.URL>http://host/</java.net.URL>\n</httpSample>\n" +
+                TRAILER;
+
+        PayloadSkippingInputStream stream = this.assertFiltered(expected, jtl);
+
+        int responseDataIndex = PayloadSkippingInputStream.DEFAULT_ELEMENT_NAMES.indexOf("responseData");
+        int requestHeaderIndex = PayloadSkippingInputStream.DEFAULT_ELEMENT_NAMES.indexOf("requestHeader");
+        assertEquals(1, stream.getSkippedCount(responseDataIndex));
+        assertEquals(responseData.length(), stream.getSkippedBytes(responseDataIndex));
+        assertEquals(1, stream.getSkippedCount(requestHeaderIndex));
+        assertEquals(requestHeader.length(), stream.getSkippedBytes(requestHeaderIndex));
+        assertEquals(responseData.length() + requestHeader.length(), stream.getTotalSkippedBytes());
+    }
+
+    @Test
+    public void testKeepOtherElements() throws Exception {
+        // Names which only start like a dropped element, end tags, comments, CDATA and quoted brackets pass through
+        String jtl = HEADER +
+                "<!-- <responseData> -->" +
+                "<responseDataX a=\"<responseData>\">kept</responseDataX>" +
+                "<samplerData2><![CDATA[<responseData>]]></samplerData2>" +
+                TRAILER;
+
+        PayloadSkippingInputStream stream = this.assertFiltered(jtl, jtl);
+        assertEquals(0, stream.getTotalSkippedBytes());
+    }
+
+    @Test
+    public void testEndTagWithWhitespace() throws Exception {
+        String jtl = HEADER + "<cookies>a=1</cookies\n><queryString>q</queryString >" + TRAILER;
+
+        PayloadSkippingInputStream stream = this.assertFiltered(HEADER + TRAILER, jtl);
+        assertEquals(2, stream.getSkippedCount(PayloadSkippingInputStream.DEFAULT_ELEMENT_NAMES.indexOf("cookies")) +
+                stream.getSkippedCount(PayloadSkippingInputStream.DEFAULT_ELEMENT_NAMES.indexOf("queryString")));
+    }
+
+    @Test
+    public void testCustomNames() throws Exception {
+        String jtl = HEADER + "<a><b>1</b><c>2</c></a>" + TRAILER;
+
+        PayloadSkippingInputStream stream = new PayloadSkippingInputStream(
+                new ByteArrayInputStream(jtl.getBytes(StandardCharsets.UTF_8)), Arrays.asList("b"));
+
+        assertEquals(HEADER + "<a><c>2</c></a>" + TRAILER, SampleSkippingInputStreamTest.readAll(stream));
+        assertEquals("<b>1</b>".length(), stream.getSkippedBytes(0));
+    }
+
+    @Test
+    public void testLongestName() throws Exception {
+        StringBuilder name = new StringBuilder();
+        while (name.length() < TagScanningInputStream.MAX_PENDING - 2) {
+            name.append('n');
+        }
+
+        String jtl = HEADER + "<" + name + ">1</" + name + "><a/>" + TRAILER;
+
+        PayloadSkippingInputStream stream = new PayloadSkippingInputStream(
+                new ByteArrayInputStream(jtl.getBytes(StandardCharsets.UTF_8)), Arrays.asList(name.toString()));
+
+        assertEquals(HEADER + "<a/>" + TRAILER, SampleSkippingInputStreamTest.readAll(stream));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNameTooLong() {
+        StringBuilder name = new StringBuilder();
+        while (name.length() < TagScanningInputStream.MAX_PENDING - 1) {
+            name.append('n');
+        }
+
+        new PayloadSkippingInputStream(new ByteArrayInputStream(new byte[0]), Arrays.asList(name.toString()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyName() {
+        new PayloadSkippingInputStream(new ByteArrayInputStream(new byte[0]), Arrays.asList(""));
+    }
+
+    protected PayloadSkippingInputStream assertFiltered(String expected, String jtl) throws IOException {
+        PayloadSkippingInputStream whole = new PayloadSkippingInputStream(
+                new ByteArrayInputStream(jtl.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, SampleSkippingInputStreamTest.readAll(whole));
+
+        // The same, with every tag split across reads
+        PayloadSkippingInputStream trickled = new PayloadSkippingInputStream(
+                new SampleSkippingInputStreamTest.TrickleInputStream(jtl));
+        assertEquals(expected, SampleSkippingInputStreamTest.readAll(trickled));
+
+        assertEquals(whole.getTotalSkippedBytes(), trickled.getTotalSkippedBytes());
+
+        return whole;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class SampleSkippingInputStreamTest {
+    private static final String HEADER = "<?xml version=\"1.0\"?>\n<testResults version=\"1.2\">\n";
+    private static final String TRAILER = "</testResults>\n";
+
+    @Test
+    public void testKeepEveryOther() throws Exception {
+        String jtl = HEADER +
+                "<httpSample lb=\"a\"/>\n" +
+                "<httpSample lb=\"b\"/>\n" +
+                "<sample lb=\"c\"><httpSample lb=\"c1\"/><httpSample lb=\"c2\"></httpSample></sample>\n" +
+                "<sample lb=\"d\"><sample lb=\"d1\"/></sample>\n" +
+                "<httpSample lb=\"e\"><responseData>x</responseData></httpSample>\n" +
+                TRAILER;
+
+        String expected = HEADER +
+                "<httpSample lb=\"a\"/>\n" +
+                "\n" +
+                "<sample lb=\"c\"><httpSample lb=\"c1\"/><httpSample lb=\"c2\"></httpSample></sample>\n" +
+                "\n" +
+                "<httpSample lb=\"e\"><responseData>x</responseData></httpSample>\n" +
+                TRAILER;
+
+        this.assertFiltered(expected, jtl, 2);
+    }
+
+    @Test
+    public void testMarkupIsNotSamples() throws Exception {
+        // Brackets and sample tags inside quotes, comments and CDATA sections are not tags
+        String jtl = HEADER +
+                "<!-- <httpSample lb=\"commented\"/> -->\n" +
+                "<httpSample lb=\"a&gt;\" rm=\"'<sample>'\">" +
+                "<samplerData><![CDATA[<sample/>]]></samplerData></httpSample>\n" +
+                "<httpSample lb=\"b\"/>\n" +
+                "<httpSample lb=\"c\"/>\n" +
+                TRAILER;
+
+        String expected = HEADER +
+                "<!-- <httpSample lb=\"commented\"/> -->\n" +
+                "<httpSample lb=\"a&gt;\" rm=\"'<sample>'\">" +
+                "<samplerData><![CDATA[<sample/>]]></samplerData></httpSample>\n" +
+                "\n" +
+                "<httpSample lb=\"c\"/>\n" +
+                TRAILER;
+
+        this.assertFiltered(expected, jtl, 2);
+    }
+
+    @Test
+    public void testSimilarNames() throws Exception {
+        String jtl = HEADER + "<samples/><httpSampleX/><sample/><sample/>" + TRAILER;
+
+        this.assertFiltered(HEADER + "<samples/><httpSampleX/><sample/>" + TRAILER, jtl, 2);
+    }
+
+    @Test
+    public void testListenerOffsets() throws Exception {
+        String jtl = HEADER + "<httpSample/>\n<sample><httpSample/></sample>\n<httpSample/>" + TRAILER;
+
+        final List<String> starts = new ArrayList<>();
+        SampleSkippingInputStream stream = new SampleSkippingInputStream(new TrickleInputStream(jtl), 2);
+        stream.setTopLevelSampleListener(new TopLevelSampleListener() {
+            @Override
+            public void onTopLevelSampleStart(long sampleNumber, long offset, boolean kept) {
+                starts.add(sampleNumber + "@" + offset + (kept ? "+" : "-"));
+            }
+        });
+
+        readAll(stream);
+
+        int first = HEADER.length();
+        int second = jtl.indexOf("<sample>");
+        int third = jtl.lastIndexOf("<httpSample/>");
+        assertEquals("[0@" + first + "+, 1@" + second + "-, 2@" + third + "+]", starts.toString());
+        assertEquals(3, stream.getTopLevelSampleCount());
+        assertEquals(1, stream.getSkippedSampleCount());
+    }
+
+    @Test
+    public void testRandomSampling() throws Exception {
+        StringBuilder jtl = new StringBuilder(HEADER);
+        int cur = 0;
+        while (cur < 10000) {
+            jtl.append("<httpSample lb=\"").append(cur).append("\"/>\n");
+            cur++;
+        }
+        jtl.append(TRAILER);
+
+        SampleSkippingInputStream stream = new SampleSkippingInputStream(
+                new ByteArrayInputStream(jtl.toString().getBytes(StandardCharsets.UTF_8)), 0.25, new Random(3));
+        String result = readAll(stream);
+
+        long kept = stream.getTopLevelSampleCount() - stream.getSkippedSampleCount();
+        assertEquals(10000, stream.getTopLevelSampleCount());
+        assertEquals(kept, result.split("<httpSample").length - 1);
+        assertEquals(2500, kept, 150);
+    }
+
+    protected void assertFiltered(String expected, String jtl, int sampleEvery) throws IOException {
+        InputStream whole = new ByteArrayInputStream(jtl.getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, readAll(new SampleSkippingInputStream(whole, sampleEvery)));
+
+        // The same, with every tag split across reads
+        assertEquals(expected, readAll(new SampleSkippingInputStream(new TrickleInputStream(jtl), sampleEvery)));
+    }
+
+    protected static String readAll(InputStream inputStream) throws IOException {
+        StringBuilder result = new StringBuilder();
+
+        byte[] buffer = new byte[7];
+        int count = inputStream.read(buffer);
+        while (count != -1) {
+            result.append(new String(buffer, 0, count, StandardCharsets.UTF_8));
+            count = inputStream.read(buffer);
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Returns one byte per read.
+     */
+    protected static class TrickleInputStream extends FilterInputStream {
+        public TrickleInputStream(String content) {
+            super(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 1));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import com.artnaseef.jmeter.report.jtl.index.JTLIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class JTLBlockTranscoderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTranscode() throws Exception {
+        File source = this.writeJtl("run.jtl", 25);
+        File target = new File(this.folder.getRoot(), "run.jtlb");
+
+        this.transcode(source, target);
+
+        assertTrue(JTLIndex.getIndexFile(source).isFile());
+        this.assertBlocks(target);
+    }
+
+    @Test
+    public void testIndexCannotBeSaved() throws Exception {
+        File source = this.writeJtl("run.jtl", 25);
+        File target = new File(this.folder.getRoot(), "run.jtlb");
+
+        // Nothing can be written where the index goes, as in a read-only directory; a directory stands in for the
+        // read-only directory, which root could write to anyway
+        assertTrue(JTLIndex.getIndexFile(source).mkdir());
+
+        this.transcode(source, target);
+
+        this.assertBlocks(target);
+    }
+
+    protected void transcode(File source, File target) throws Exception {
+        JTLBlockTranscoder transcoder = new JTLBlockTranscoder();
+        transcoder.setBlockSize(10);
+        transcoder.setCodec(BlockCodecs.getCodec(Lz4BlockCodec.NAME));
+
+        transcoder.transcode(source, target);
+    }
+
+    protected void assertBlocks(File target) throws Exception {
+        try (BlockFileReader reader = new BlockFileReader(target)) {
+            List<BlockFileEntry> entries = reader.getEntries();
+
+            assertEquals(3, entries.size());
+            assertEquals(10, entries.get(0).getSampleCount());
+            assertEquals(5, entries.get(2).getSampleCount());
+            assertEquals(1444000000020L, entries.get(2).getFirstTimestamp());
+
+            String first = new String(reader.readBlock(entries.get(0)), StandardCharsets.UTF_8);
+            assertTrue(first, first.startsWith("<httpSample t=\"10\" ts=\"1444000000000\""));
+
+            String last = new String(reader.readBlock(entries.get(2)), StandardCharsets.UTF_8);
+            assertTrue(last, last.trim().endsWith("lb=\"home\" rc=\"200\"/>"));
+        }
+    }
+
+    protected File writeJtl(String name, int count) throws Exception {
+        File result = this.folder.newFile(name);
+
+        try (PrintWriter out = new PrintWriter(result, "UTF-8")) {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<testResults version=\"1.2\">");
+
+            int cur = 0;
+            while (cur < count) {
+                out.println("<httpSample t=\"10\" ts=\"" + (1444000000000L + cur) +
+                        "\" s=\"true\" lb=\"home\" rc=\"200\"/>");
+                cur++;
+            }
+
+            out.println("</testResults>");
+        }
+
+        return result;
+    }
+}
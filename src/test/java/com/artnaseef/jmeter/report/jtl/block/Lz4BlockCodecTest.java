@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl.block;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class Lz4BlockCodecTest {
+    private final Lz4BlockCodec codec = new Lz4BlockCodec();
+
+    @Test
+    public void testEmptyAndShort() throws Exception {
+        this.assertRoundTrip(new byte[0]);
+        this.assertRoundTrip("a".getBytes(StandardCharsets.UTF_8));
+        this.assertRoundTrip("<httpSample/>".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSamples() throws Exception {
+        StringBuilder samples = new StringBuilder();
+        int cur = 0;
+        while (cur < 1000) {
+            samples.append("<httpSample t=\"").append(cur % 97).append("\" ts=\"").append(1444000000000L + cur)
+                    .append("\" s=\"true\" lb=\"home\" rc=\"200\"/>\n");
+            cur++;
+        }
+
+        byte[] data = samples.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = this.assertRoundTrip(data);
+
+        assertTrue("compressed to " + compressed.length, compressed.length < data.length / 4);
+    }
+
+    @Test
+    public void testLongRuns() throws Exception {
+        // Literal and match lengths past 15 + 255 need several length bytes
+        byte[] data = new byte[70000];
+        new Random(1).nextBytes(data);
+        Arrays.fill(data, 1000, 2000, (byte) 'x');
+        Arrays.fill(data, 40000, 69000, (byte) 'y');
+
+        this.assertRoundTrip(data);
+    }
+
+    @Test
+    public void testIncompressible() throws Exception {
+        byte[] data = new byte[10000];
+        new Random(2).nextBytes(data);
+
+        this.assertRoundTrip(data);
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptBlock() throws Exception {
+        // One literal, then a match reaching 255 bytes back, before the start of the block
+        byte[] corrupt = new byte[] { 0x10, 'a', (byte) 0xFF, 0x00, 0x00 };
+
+        this.codec.decompress(corrupt, corrupt.length, new byte[100], 100);
+    }
+
+    protected byte[] assertRoundTrip(byte[] data) throws IOException {
+        byte[] compressed = this.codec.compress(data, data.length);
+
+        byte[] result = new byte[data.length];
+        this.codec.decompress(compressed, compressed.length, result, result.length);
+        assertArrayEquals(data, result);
+
+        return compressed;
+    }
+}
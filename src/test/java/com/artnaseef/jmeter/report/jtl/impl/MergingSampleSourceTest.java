@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl.impl;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.SampleSource;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class MergingSampleSourceTest {
+    @Test
+    public void testMergeInTimestampOrder() throws Exception {
+        // The first source is slightly out of order, within the reorder window
+        MergingSampleSource source = this.createSource(
+                new ListSampleSource(1, 5, 3, 7, 9),
+                new ListSampleSource(2, 4, 6, 8));
+        source.setReorderWindow(2);
+
+        TimestampRecorder recorder = new TimestampRecorder();
+        source.execute(recorder);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), recorder.timestamps);
+        assertEquals(0, source.getOutOfOrderCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testErrorDoesNotHangTheMerge() throws Exception {
+        SampleSource failing = new SampleSource() {
+            @Override
+            public void execute(Feedable feedable) throws Exception {
+                feedable.onSample(createSample(2));
+                throw new OutOfMemoryError("parse buffer");
+            }
+        };
+
+        MergingSampleSource source = this.createSource(new ListSampleSource(1, 3, 5), failing);
+
+        TimestampRecorder recorder = new TimestampRecorder();
+        try {
+            source.execute(recorder);
+            fail("error not passed on");
+        } catch (OutOfMemoryError expected) {
+            assertEquals("parse buffer", expected.getMessage());
+        }
+
+        // The sample still held in the reorder window of the failed source is lost with it
+        assertEquals(Arrays.asList(1L, 3L, 5L), recorder.timestamps);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManySources() {
+        List<SampleSource> sources = new ArrayList<>();
+        while (sources.size() <= MergingSampleSource.MAX_SOURCES) {
+            sources.add(new ListSampleSource());
+        }
+
+        this.createSource(sources.toArray(new SampleSource[sources.size()]));
+    }
+
+    protected MergingSampleSource createSource(SampleSource... sources) {
+        List<String> uris = new ArrayList<>();
+        for (SampleSource ignored : sources) {
+            uris.add("source-" + uris.size());
+        }
+
+        return new MergingSampleSource(uris, Arrays.asList(sources));
+    }
+
+    protected static Sample createSample(long timestamp) {
+        Sample result = new Sample();
+        result.setTimestamp(timestamp);
+
+        return result;
+    }
+
+    protected static class ListSampleSource implements SampleSource {
+        private final long[] timestamps;
+
+        public ListSampleSource(long... timestamps) {
+            this.timestamps = timestamps;
+        }
+
+        @Override
+        public void execute(Feedable feedable) throws Exception {
+            for (long oneTimestamp : this.timestamps) {
+                feedable.onSample(createSample(oneTimestamp));
+            }
+        }
+    }
+
+    protected static class TimestampRecorder implements Feedable {
+        private final List<Long> timestamps = new ArrayList<>();
+
+        @Override
+        public void onSample(Sample topLevelSample) {
+            this.timestamps.add(topLevelSample.getTimestamp());
+        }
+    }
+}
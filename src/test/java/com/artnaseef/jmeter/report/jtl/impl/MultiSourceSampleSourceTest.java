@@ -0,0 +1,187 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl.impl;
+
+import com.artnaseef.jmeter.report.Feedable;
+import com.artnaseef.jmeter.report.SampleSource;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class MultiSourceSampleSourceTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer httpServer;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        final byte[] jtl = createJtl("remote", 30).getBytes(StandardCharsets.UTF_8);
+
+        // Serves /run.jtl, and nothing else
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (exchange.getRequestURI().getPath().equals("/run.jtl")) {
+                    exchange.sendResponseHeaders(200, jtl.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(jtl);
+                    }
+                } else {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+                }
+            }
+        });
+        this.httpServer.start();
+
+        this.baseUrl = "http://127.0.0.1:" + this.httpServer.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        this.httpServer.stop(0);
+    }
+
+    @Test
+    public void testFileAndHttpSources() throws Exception {
+        String fileUri = this.writeJtl("local.jtl", 20).toURI().toString();
+        String httpUri = this.baseUrl + "/run.jtl";
+
+        CountingFeedable counter = new CountingFeedable();
+        this.createSource(fileUri, httpUri).execute(counter);
+
+        assertEquals(20, counter.countLabel("local"));
+        assertEquals(30, counter.countLabel("remote"));
+    }
+
+    @Test
+    public void testMissingHttpSource() throws Exception {
+        String fileUri = this.writeJtl("local.jtl", 20).toURI().toString();
+
+        MultiSourceSampleSource source = this.createSource(fileUri, this.baseUrl + "/missing.jtl");
+        CountingFeedable counter = new CountingFeedable();
+        try {
+            source.execute(counter);
+            fail("missing source not reported");
+        } catch (IOException expected) {
+            assertEquals(1, source.getFailures().size());
+        }
+
+        // The other source is read in full regardless
+        assertEquals(20, counter.countLabel("local"));
+    }
+
+    @Test(timeout = 10000)
+    public void testErrorDoesNotHangTheConsumer() throws Exception {
+        String fileUri = this.writeJtl("local.jtl", 20).toURI().toString();
+
+        SampleSource failing = new SampleSource() {
+            @Override
+            public void execute(Feedable feedable) throws Exception {
+                throw new StackOverflowError("deep sample");
+            }
+        };
+
+        MultiSourceSampleSource source = new MultiSourceSampleSource(Arrays.asList(fileUri, "failing"),
+                Arrays.<SampleSource>asList(new JTLFileSampleSource(fileUri), failing));
+
+        CountingFeedable counter = new CountingFeedable();
+        try {
+            source.execute(counter);
+            fail("error not passed on");
+        } catch (StackOverflowError expected) {
+            assertEquals("deep sample", expected.getMessage());
+        }
+
+        assertEquals(20, counter.countLabel("local"));
+    }
+
+    protected MultiSourceSampleSource createSource(String... uris) {
+        List<SampleSource> sources = new ArrayList<>();
+        for (String oneUri : uris) {
+            sources.add(new JTLFileSampleSource(oneUri));
+        }
+
+        return new MultiSourceSampleSource(Arrays.asList(uris), sources);
+    }
+
+    protected File writeJtl(String name, int count) throws IOException {
+        File result = this.folder.newFile(name);
+        Files.write(result.toPath(), createJtl(name.replace(".jtl", ""), count).getBytes(StandardCharsets.UTF_8));
+
+        return result;
+    }
+
+    protected static String createJtl(String label, int count) {
+        StringBuilder result = new StringBuilder();
+        result.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testResults version=\"1.2\">\n");
+
+        int cur = 0;
+        while (cur < count) {
+            result.append("<httpSample t=\"10\" ts=\"").append(1444000000000L + cur)
+                    .append("\" s=\"true\" lb=\"").append(label).append("\" rc=\"200\"/>\n");
+            cur++;
+        }
+
+        return result.append("</testResults>\n").toString();
+    }
+
+    protected static class CountingFeedable implements Feedable {
+        private final List<String> labels = new ArrayList<>();
+
+        @Override
+        public void onSample(Sample topLevelSample) {
+            this.labels.add(topLevelSample.getLabel());
+        }
+
+        public int countLabel(String label) {
+            int result = 0;
+            for (String oneLabel : this.labels) {
+                if (oneLabel.equals(label)) {
+                    result++;
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.jtl.index;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class StreamUtilTest {
+    @Test
+    public void testSkipPastShortSkips() throws Exception {
+        InputStream inputStream = new NoSkipInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 }));
+
+        StreamUtil.skipFully(inputStream, 3);
+
+        assertEquals(4, inputStream.read());
+    }
+
+    @Test(expected = EOFException.class)
+    public void testSkipPastEnd() throws Exception {
+        StreamUtil.skipFully(new NoSkipInputStream(new ByteArrayInputStream(new byte[] { 1, 2 })), 3);
+    }
+
+    @Test
+    public void testReadFully() throws Exception {
+        byte[] data = new byte[200 * 1024];
+        data[data.length - 1] = 7;
+
+        assertArrayEquals(data, StreamUtil.readFully(new ByteArrayInputStream(data)));
+    }
+
+    /**
+     * Never skips, like a decompressing stream at the end of its buffer.
+     */
+    protected static class NoSkipInputStream extends FilterInputStream {
+        public NoSkipInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return 0;
+        }
+    }
+}
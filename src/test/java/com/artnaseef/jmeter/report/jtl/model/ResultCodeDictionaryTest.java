@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.artnaseef.jmeter.report.jtl.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class ResultCodeDictionaryTest {
+    @Test
+    public void testCategories() {
+        ResultCodeDictionary dictionary = new ResultCodeDictionary();
+
+        int ok = dictionary.intern("200");
+        int notFound = dictionary.intern("404");
+        int timeout = dictionary.intern("Non HTTP response code: java.net.SocketTimeoutException");
+
+        assertEquals(ok, dictionary.intern("200"));
+        assertEquals(ResultCodeDictionary.CATEGORY_SUCCESS, dictionary.getFlags(ok));
+        assertTrue(dictionary.isFailure(notFound));
+        assertEquals(ResultCodeDictionary.CATEGORY_NON_HTTP, dictionary.getCategory(timeout));
+        assertEquals("java.net.SocketTimeoutException", dictionary.getDisplayName(timeout));
+        assertEquals(ResultCodeDictionary.MISSING_CODE_ID, dictionary.intern(null));
+    }
+
+    @Test
+    public void testOverflowCodesLookedUpWithoutLock() {
+        CountingDictionary dictionary = new CountingDictionary();
+
+        int cur = 0;
+        while (dictionary.size() < ResultCodeDictionary.MAX_CODES) {
+            dictionary.intern("code " + cur);
+            cur++;
+        }
+
+        dictionary.internNewCount = 0;
+        int overflow = dictionary.intern("Non HTTP response code: one");
+        int other = dictionary.intern("Non HTTP response code: two");
+        assertEquals(2, dictionary.internNewCount);
+
+        assertEquals(overflow, other);
+        assertEquals(ResultCodeDictionary.CATEGORY_NON_HTTP, dictionary.getCategory(overflow));
+        assertNotEquals(overflow, dictionary.intern("999"));
+
+        // Codes counted under a shared entry are found again without taking the lock
+        dictionary.internNewCount = 0;
+        assertEquals(overflow, dictionary.intern("Non HTTP response code: one"));
+        assertEquals(overflow, dictionary.intern("Non HTTP response code: two"));
+        assertEquals(dictionary.intern("999"), dictionary.intern("999"));
+        assertEquals(0, dictionary.internNewCount);
+    }
+
+    private static class CountingDictionary extends ResultCodeDictionary {
+        private int internNewCount;
+
+        @Override
+        protected synchronized int internNew(String code, int smallNumeric) {
+            this.internNewCount++;
+            return super.internNew(code, smallNumeric);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.live;
+
+import com.artnaseef.jmeter.report.jtl.model.ResultCodeDictionary;
+import com.artnaseef.jmeter.report.jtl.model.Sample;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class LiveStatisticsTest {
+    private static final int WRITER_COUNT = 4;
+    private static final int SAMPLES_PER_WRITER = 50000;
+
+    @Test
+    public void testOldSlotsLeaveTheWindow() {
+        LiveStatistics statistics = new LiveStatistics(1000, 16, 1);
+        statistics.onSample(this.createSample(0, 10, false));
+        statistics.onSample(this.createSample(20000, 10, true));
+
+        LiveSnapshot snapshot = statistics.snapshot();
+        assertEquals(20, snapshot.getLastSlot());
+        assertEquals(5, snapshot.getFirstSlot());
+        assertEquals(0, snapshot.getHits(0));
+        assertEquals(1, snapshot.getFailures(20));
+        assertEquals(2, snapshot.getTotalHits());
+        assertEquals(1, snapshot.getTotalFailures());
+    }
+
+    @Test
+    public void testSnapshotsDuringUpdatesAreConsistent() throws Exception {
+        final LiveStatistics statistics = new LiveStatistics(1000, 16, WRITER_COUNT);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<String> inconsistency = new AtomicReference<>();
+        final CountDownLatch started = new CountDownLatch(1);
+
+        // Each sample adds two hits, one failure, and 40 ms in one update, so a snapshot which copied a stripe in the
+        // middle of an update would break the ratios between them
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                started.countDown();
+                while ((writing.get()) && (inconsistency.get() == null)) {
+                    String problem = checkSnapshot(statistics.snapshot());
+                    if (problem != null) {
+                        inconsistency.set(problem);
+                    }
+                }
+            }
+        };
+        reader.start();
+        started.await();
+
+        List<Thread> writers = new ArrayList<>();
+        int cur = 0;
+        while (cur < WRITER_COUNT) {
+            Thread writer = new Thread() {
+                @Override
+                public void run() {
+                    int sampleNumber = 0;
+                    while (sampleNumber < SAMPLES_PER_WRITER) {
+                        // Spread over more slots than the window, so slots are reused during the test
+                        Sample sample = createSample((sampleNumber / 1000) * 1000L, 10, false);
+                        sample.setLeaves(new Sample[] { sample, createSample(sample.getTimestamp(), 30, true) });
+
+                        statistics.onSample(sample);
+                        sampleNumber++;
+                    }
+                }
+            };
+
+            writers.add(writer);
+            writer.start();
+            cur++;
+        }
+
+        for (Thread oneWriter : writers) {
+            oneWriter.join();
+        }
+
+        writing.set(false);
+        reader.join();
+
+        assertNull(inconsistency.get());
+
+        LiveSnapshot snapshot = statistics.snapshot();
+        assertNull(checkSnapshot(snapshot));
+        assertEquals(2L * WRITER_COUNT * SAMPLES_PER_WRITER, snapshot.getTotalHits());
+        assertEquals(2L * WRITER_COUNT * 1000, snapshot.getHits(snapshot.getLastSlot()));
+    }
+
+    /**
+     * @return description of the first count out of step with the others, or null if all are consistent.
+     */
+    protected static String checkSnapshot(LiveSnapshot snapshot) {
+        if (snapshot.getTotalHits() != 2 * snapshot.getTotalFailures()) {
+            return "total hits " + snapshot.getTotalHits() + ", failures " + snapshot.getTotalFailures();
+        }
+
+        long slot = snapshot.getFirstSlot();
+        while (slot <= snapshot.getLastSlot()) {
+            long hits = snapshot.getHits(slot);
+            if ((hits != 2 * snapshot.getFailures(slot)) || (snapshot.getElapsedTotal(slot) != 20 * hits)) {
+                return "slot " + slot + " hits " + hits + ", failures " + snapshot.getFailures(slot) +
+                        ", elapsed " + snapshot.getElapsedTotal(slot);
+            }
+
+            slot++;
+        }
+
+        return null;
+    }
+
+    protected Sample createSample(long timestamp, long elapsed, boolean failure) {
+        Sample result = new Sample();
+        result.setTimestamp(timestamp);
+        result.setElapsed(elapsed);
+        result.setFailure(failure);
+        result.setResultCodeId(ResultCodeDictionary.get().intern("200"));
+
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.artnaseef.jmeter.report.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by art on 10/19/26.
+ */
+public class ReportServerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ReportServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        this.server = new ReportServer();
+        this.server.setPort(0);
+        this.server.start();
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        this.server.stop();
+    }
+
+    @Test
+    public void testRefusesRequestsWithoutToken() throws Exception {
+        assertTrue(this.request("GET", "/metrics", null, null).startsWith("HTTP/1.1 401 "));
+        assertTrue(this.request("GET", "/metrics", "0123", null).startsWith("HTTP/1.1 401 "));
+        assertTrue(this.request("POST", "/shutdown", null, null).startsWith("HTTP/1.1 401 "));
+        assertTrue(this.request("GET", "/metrics", this.server.getToken(), null).startsWith("HTTP/1.1 200 "));
+    }
+
+    @Test
+    public void testRefusesWebPages() throws Exception {
+        String response = this.request("POST", "/jobs", this.server.getToken(), "http://example.com",
+                "HitsPerSecond\n/tmp/run.jtl\n");
+
+        assertTrue(response, response.startsWith("HTTP/1.1 403 "));
+        assertTrue(this.request("GET", "/metrics", this.server.getToken(), null).contains("submittedJobs=0"));
+    }
+
+    @Test
+    public void testRunsJob() throws Exception {
+        File jtl = this.folder.newFile("run.jtl");
+        try (PrintWriter out = new PrintWriter(jtl, "UTF-8")) {
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<testResults version=\"1.2\">");
+            out.println("<httpSample t=\"10\" ts=\"1444000000000\" s=\"true\" lb=\"home\" rc=\"200\"/>");
+            out.println("</testResults>");
+        }
+
+        File output = new File(this.folder.getRoot(), "hits.png");
+        String response = this.request("POST", "/jobs?wait=true", this.server.getToken(), null,
+                "HitsPerSecond\n-o\n" + output.getPath() + "\n" + jtl.getPath() + "\n");
+
+        assertTrue(response, response.startsWith("HTTP/1.1 200 "));
+        assertTrue(output.exists());
+    }
+
+    @Test
+    public void testRefusesListeningJobs() throws Exception {
+        String response = this.request("POST", "/jobs?wait=true", this.server.getToken(), null,
+                "HitsPerSecond\n--listen\ngraphite:0\n");
+
+        assertTrue(response, response.startsWith("HTTP/1.1 500 "));
+        assertTrue(response, response.contains("--listen is not available in report jobs"));
+    }
+
+    protected String request(String method, String path, String token, String origin) throws Exception {
+        return this.request(method, path, token, origin, "");
+    }
+
+    /**
+     * Send a request over a plain socket, as HttpURLConnection does not send the Origin header.
+     *
+     * @return the whole response.
+     */
+    protected String request(String method, String path, String token, String origin, String body)
+            throws Exception {
+
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder head = new StringBuilder();
+        head.append(method).append(' ').append(path).append(" HTTP/1.0\r\n");
+        head.append("Host: localhost\r\n");
+        if (token != null) {
+            head.append(ReportServer.TOKEN_HEADER).append(": ").append(token).append("\r\n");
+        }
+        if (origin != null) {
+            head.append("Origin: ").append(origin).append("\r\n");
+        }
+        head.append("Content-Type: text/plain\r\n");
+        head.append("Content-Length: ").append(bodyBytes.length).append("\r\n\r\n");
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+            out.write(bodyBytes);
+            out.flush();
+
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[4096];
+            int length = in.read(buffer);
+            while (length != -1) {
+                response.write(buffer, 0, length);
+                length = in.read(buffer);
+            }
+
+            return new String(response.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}